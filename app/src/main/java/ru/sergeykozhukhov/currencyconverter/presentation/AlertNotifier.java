@@ -0,0 +1,65 @@
+package ru.sergeykozhukhov.currencyconverter.presentation;
+
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.content.Context;
+import android.os.Build;
+
+import androidx.annotation.NonNull;
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.NotificationManagerCompat;
+
+import java.util.List;
+import java.util.Locale;
+
+import ru.sergeykozhukhov.currencyconverter.R;
+import ru.sergeykozhukhov.currencyconverter.domain.alerts.AlertEngine;
+import ru.sergeykozhukhov.currencyconverter.domain.alerts.AlertEvent;
+import ru.sergeykozhukhov.currencyconverter.domain.alerts.AlertRule;
+
+/**
+ * Показывает уведомление на каждое сработавшее правило оповещения
+ **/
+class AlertNotifier implements AlertEngine.Listener {
+
+    private static final String CHANNEL_ID = "rate_alerts";
+
+    private final Context mContext;
+
+    AlertNotifier(@NonNull Context context) {
+        mContext = context.getApplicationContext();
+    }
+
+    @Override
+    public void onAlerts(@NonNull List<AlertEvent> events) {
+        createChannel();
+        NotificationManagerCompat manager = NotificationManagerCompat.from(mContext);
+        for (AlertEvent event : events) {
+            AlertRule rule = event.getRule();
+            String pair = rule.getBaseCharCode() + '/' + rule.getQuotedCharCode();
+            String text = mContext.getString(
+                    event.isRising() ? R.string.alert_rate_rising : R.string.alert_rate_falling,
+                    pair, format(event.getRate()), format(rule.getThreshold()));
+            manager.notify((int) rule.getId(), new NotificationCompat.Builder(mContext, CHANNEL_ID)
+                    .setSmallIcon(R.mipmap.ic_launcher)
+                    .setContentTitle(pair)
+                    .setContentText(text)
+                    .setAutoCancel(true)
+                    .build());
+        }
+    }
+
+    private void createChannel() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            NotificationManager manager = mContext.getSystemService(NotificationManager.class);
+            // повторное создание канала ничего не меняет
+            manager.createNotificationChannel(new NotificationChannel(CHANNEL_ID,
+                    mContext.getString(R.string.alert_channel_name), NotificationManager.IMPORTANCE_DEFAULT));
+        }
+    }
+
+    @NonNull
+    private static String format(double rate) {
+        return String.format(Locale.getDefault(), "%.4f", rate);
+    }
+}
@@ -9,33 +9,159 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import ru.sergeykozhukhov.currencyconverter.domain.model.CurrenciesDiff;
 import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
+import ru.sergeykozhukhov.currencyconverter.domain.model.CurrencyChange;
+import ru.sergeykozhukhov.currencyconverter.domain.search.CurrencySearchIndex;
+import ru.sergeykozhukhov.currencyconverter.domain.search.RecentCurrencies;
+import ru.sergeykozhukhov.currencyconverter.domain.trace.Tracer;
 
 /**
- * Отображает валюты в спиннере
+ * Отображает валюты в спиннере. При поиске показываются только найденные валюты,
+ * поэтому позиция в спиннере переводится в позицию в списке валют через {@link #getCurrencyIndex(int)}
  **/
 public class CurrencyAdapter extends BaseAdapter {
 
     /**
-     * Список информации о валютах (domain представление)
+     * Наибольшее количество результатов поиска в списке
      */
-    private final List<Currency> mCurrencies;
+    private static final int MAX_RESULTS = 50;
 
+    /**
+     * Индикатор роста курса
+     */
+    private static final String RISE = " \u25B2";
+
+    /**
+     * Индикатор падения курса
+     */
+    private static final String FALL = " \u25BC";
+
+    /**
+     * Список информации о валютах (domain представление, неизменяемый список снимка курсов)
+     */
+    private List<Currency> mCurrencies;
+
+    /**
+     * Направление изменения курса с предыдущей загрузки по id валюты (знак изменения)
+     */
+    private final Map<String, Integer> mChanges = new HashMap<>();
+
+    /**
+     * Поисковый индекс по mCurrencies
+     */
+    @Nullable
+    private CurrencySearchIndex mSearchIndex;
+
+    /**
+     * Позиции показываемых валют в mCurrencies ({@code null} - показываются все)
+     */
+    @Nullable
+    private int[] mVisible;
+
+    /**
+     * @param currencies валюты; список не копируется и не должен меняться
+     */
     public CurrencyAdapter(@NonNull List<Currency> currencies) {
-        mCurrencies = new ArrayList<>(currencies);
+        mCurrencies = currencies;
+    }
+
+    /**
+     * Заменяет курсы валют без пересоздания адаптера
+     * (состав и порядок валют должны остаться прежними, см. {@link #hasSameCurrencies(List)})
+     */
+    public void setCurrencies(@NonNull List<Currency> currencies) {
+        mCurrencies = currencies;
+        notifyDataSetChanged();
+    }
+
+    /**
+     * Те же ли валюты в том же порядке (по id). Только в этом случае позиции в адаптере
+     * и в поисковом индексе указывают на те же валюты, что и в {@code currencies}
+     */
+    public boolean hasSameCurrencies(@NonNull List<Currency> currencies) {
+        if (currencies.size() != mCurrencies.size()) {
+            return false;
+        }
+        for (int i = 0; i < currencies.size(); i++) {
+            if (!currencies.get(i).getId().equals(mCurrencies.get(i).getId())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Задаёт поисковый индекс (индекс другого состава или порядка валют не принимается)
+     */
+    public void setSearchIndex(@NonNull CurrencySearchIndex searchIndex) {
+        if (hasSameCurrencies(searchIndex.getCurrencies())) {
+            mSearchIndex = searchIndex;
+        }
+    }
+
+    /**
+     * Оставляет в списке только найденные валюты в порядке ранжирования
+     *
+     * @param query  введённый текст, пустой - показываются все валюты
+     * @param recent недавно использованные валюты
+     */
+    public void filter(@Nullable String query, @NonNull RecentCurrencies recent) {
+        if (mSearchIndex == null || query == null || query.trim().isEmpty()) {
+            mVisible = null;
+        } else {
+            mVisible = mSearchIndex.search(query, recent, MAX_RESULTS);
+        }
+        notifyDataSetChanged();
+    }
+
+    /**
+     * Позиция валюты в полном списке по позиции в спиннере
+     */
+    public int getCurrencyIndex(int position) {
+        return mVisible == null ? position : mVisible[position];
+    }
+
+    /**
+     * Позиция в спиннере по позиции валюты в полном списке
+     *
+     * @return -1, если валюта не показывается
+     */
+    public int getPosition(int currencyIndex) {
+        if (mVisible == null) {
+            return currencyIndex;
+        }
+        for (int i = 0; i < mVisible.length; i++) {
+            if (mVisible[i] == currencyIndex) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Обновляет индикаторы изменения курса: помечаются только валюты из {@code diff}
+     */
+    public void setChanges(@NonNull CurrenciesDiff diff) {
+        mChanges.clear();
+        for (CurrencyChange change : diff.getChanged()) {
+            mChanges.put(change.getCurrent().getId(), change.getAbsoluteDelta().signum());
+        }
+        notifyDataSetChanged();
     }
 
     @Override
     public int getCount() {
-        return mCurrencies.size();
+        return mVisible == null ? mCurrencies.size() : mVisible.length;
     }
 
     @Override
     public Currency getItem(int position) {
-        return mCurrencies.get(position);
+        return mCurrencies.get(getCurrencyIndex(position));
     }
 
     @Override
@@ -45,6 +171,16 @@ public class CurrencyAdapter extends BaseAdapter {
 
     @Override
     public View getView(int position, @Nullable View convertView, @NonNull ViewGroup parent) {
+        long span = Tracer.begin();
+        try {
+            return bindView(position, convertView, parent);
+        } finally {
+            Tracer.end("CurrencyAdapter.getView", span);
+        }
+    }
+
+    @NonNull
+    private View bindView(int position, @Nullable View convertView, @NonNull ViewGroup parent) {
         if (convertView == null) {
             convertView = LayoutInflater.from(parent.getContext())
                     .inflate(android.R.layout.simple_spinner_dropdown_item, parent, false);
@@ -55,6 +191,12 @@ public class CurrencyAdapter extends BaseAdapter {
         Holder holder = (Holder) convertView.getTag();
         if (currency != null) {
             String text = currency.getName(); // установка наименований валют в spinner
+            Integer change = mChanges.get(currency.getId());
+            if (change != null && change > 0) {
+                text += RISE;
+            } else if (change != null && change < 0) {
+                text += FALL;
+            }
             holder.mText.setText(text);
         }
         return convertView;
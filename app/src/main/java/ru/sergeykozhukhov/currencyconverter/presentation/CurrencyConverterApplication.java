@@ -0,0 +1,247 @@
+package ru.sergeykozhukhov.currencyconverter.presentation;
+
+import android.app.Application;
+import android.content.ComponentCallbacks2;
+import android.content.SharedPreferences;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import okhttp3.OkHttpClient;
+import ru.sergeykozhukhov.currencyconverter.data.CatalogCurrenciesRepository;
+import ru.sergeykozhukhov.currencyconverter.data.CurrenciesRepository;
+import ru.sergeykozhukhov.currencyconverter.data.CurrencyConverter;
+import ru.sergeykozhukhov.currencyconverter.data.HttpClients;
+import ru.sergeykozhukhov.currencyconverter.data.HttpTrafficStats;
+import ru.sergeykozhukhov.currencyconverter.domain.CrossRates;
+import ru.sergeykozhukhov.currencyconverter.domain.ICurrenciesRepository;
+import ru.sergeykozhukhov.currencyconverter.domain.RatesSnapshotHolder;
+import ru.sergeykozhukhov.currencyconverter.domain.alerts.AlertEngine;
+import ru.sergeykozhukhov.currencyconverter.domain.history.RateHistory;
+import ru.sergeykozhukhov.currencyconverter.domain.journal.ConversionJournal;
+import ru.sergeykozhukhov.currencyconverter.domain.publish.RatesPublisher;
+import ru.sergeykozhukhov.currencyconverter.domain.schedule.PriorityTaskScheduler;
+import ru.sergeykozhukhov.currencyconverter.domain.schedule.TaskLane;
+import ru.sergeykozhukhov.currencyconverter.domain.stats.RatesStatisticsEngine;
+import ru.sergeykozhukhov.currencyconverter.domain.trace.Tracer;
+
+/**
+ * Приложение: хранит объекты, общие для всего процесса
+ **/
+public class CurrencyConverterApplication extends Application {
+
+    /**
+     * Настройки трассировки: включённая трассировка начинается с самого старта процесса
+     */
+    private static final String TRACING_PREFERENCES = "tracing";
+
+    private static final String TRACING_ENABLED = "enabled";
+
+    /**
+     * Файл трассы в формате Chrome/Perfetto (в external files, чтобы забрать его без root)
+     */
+    private static final String TRACE_FILE = "trace.json";
+
+    /**
+     * Файл журнала конвертаций пользователя
+     */
+    private static final String CONVERSION_JOURNAL_FILE = "conversions.journal";
+
+    /**
+     * Файл справочника валют (справочник загружается раз в неделю, а не при каждом холодном старте)
+     */
+    private static final String CURRENCY_CATALOG_FILE = "currency_catalog.bin";
+
+    /**
+     * Окно статистики курсов (в днях)
+     */
+    private static final int STATISTICS_WINDOW_DAYS = 30;
+
+    /**
+     * Каталог дискового кэша http ответов
+     */
+    private static final String HTTP_CACHE_DIRECTORY = "http";
+
+    /**
+     * Текущий снимок курсов (общий, чтобы версии снимков не начинались заново при пересоздании ViewModel)
+     */
+    private final RatesSnapshotHolder mRatesSnapshotHolder = new RatesSnapshotHolder();
+
+    /**
+     * Рассылка снимков курсов всем потребителям процесса
+     */
+    private final RatesPublisher mRatesPublisher = new RatesPublisher();
+
+    /**
+     * Общий планировщик фоновой работы с приоритетом задач пользователя
+     */
+    private final PriorityTaskScheduler mTaskScheduler = PriorityTaskScheduler.createDefault("app-scheduler");
+
+    /**
+     * Правила оповещения о курсах, проверяются при каждой публикации курсов
+     */
+    private final AlertEngine mAlertEngine = new AlertEngine();
+
+    /**
+     * Статистика основных пар, обновляется раз в день по опубликованным курсам
+     */
+    private final RatesStatisticsEngine mRatesStatisticsEngine = new RatesStatisticsEngine(STATISTICS_WINDOW_DAYS);
+
+    /**
+     * История курсов процесса: по дню на каждую московскую дату, в которую публиковались курсы
+     */
+    private final RateHistory mRateHistory = new RateHistory();
+
+    /**
+     * Журнал конвертаций (создаётся в onCreate: до него у приложения нет каталога файлов)
+     */
+    private ConversionJournal mConversionJournal;
+
+    /**
+     * Счётчики трафика общего http клиента
+     */
+    private final HttpTrafficStats mHttpTrafficStats = new HttpTrafficStats();
+
+    /**
+     * Общий http клиент всех web-api (создаётся в onCreate: кэшу нужен каталог кэша приложения)
+     */
+    private OkHttpClient mHttpClient;
+
+    /**
+     * Репозиторий курсов с кэшем справочника валют (общий, чтобы кэш не пропадал вместе с ViewModel)
+     */
+    private ICurrenciesRepository mCurrenciesRepository;
+
+    @Override
+    public void onCreate() {
+        if (getTracingPreferences().getBoolean(TRACING_ENABLED, false)) {
+            Tracer.start(Tracer.DEFAULT_CAPACITY);
+        }
+        long span = Tracer.begin();
+        super.onCreate();
+        // файл открывается и восстанавливается в потоке журнала, а не в главном потоке
+        mConversionJournal = new ConversionJournal(new File(getFilesDir(), CONVERSION_JOURNAL_FILE));
+        mHttpClient = HttpClients.create(new File(getCacheDir(), HTTP_CACHE_DIRECTORY), mHttpTrafficStats);
+        // файл справочника читается при первой загрузке курсов, а не в главном потоке
+        mCurrenciesRepository = new CatalogCurrenciesRepository(new CurrencyConverter(), CurrenciesRepository.BASE_URL,
+                mHttpClient, new File(getFilesDir(), CURRENCY_CATALOG_FILE));
+        // правила проверяются в фоновой полосе обновления, а не в потоке загрузки курсов
+        mRatesPublisher.subscribe(mTaskScheduler.newSerialExecutor(TaskLane.REFRESH),
+                mAlertEngine.subscriber(new AlertNotifier(this)));
+        mRatesStatisticsEngine.track("USD", CrossRates.RUB_CHAR_CODE);
+        mRatesStatisticsEngine.track("EUR", CrossRates.RUB_CHAR_CODE);
+        mRatesPublisher.subscribe(mTaskScheduler.newSerialExecutor(TaskLane.REFRESH),
+                mRatesStatisticsEngine.subscriber());
+        mRatesPublisher.subscribe(mTaskScheduler.newSerialExecutor(TaskLane.REFRESH), mRateHistory.subscriber());
+        Tracer.end("Application.onCreate", span);
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        if (level == ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN && Tracer.isEnabled()) {
+            // приложение ушло в фон: холодный старт и загрузка уже в буфере
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    exportTrace();
+                }
+            }, "trace-export").start();
+        }
+    }
+
+    /**
+     * Включает или выключает трассировку (настройка сохраняется для следующих запусков)
+     */
+    public void setTracingEnabled(boolean enabled) {
+        getTracingPreferences().edit().putBoolean(TRACING_ENABLED, enabled).apply();
+        if (enabled && !Tracer.isEnabled()) {
+            Tracer.start(Tracer.DEFAULT_CAPACITY);
+        } else if (!enabled) {
+            Tracer.stop();
+        }
+    }
+
+    public boolean isTracingEnabled() {
+        return Tracer.isEnabled();
+    }
+
+    /**
+     * Выгружает буфер трассировки в файл трассы
+     *
+     * @return файл трассы или {@code null}, если записать не удалось
+     */
+    @Nullable
+    public File exportTrace() {
+        File directory = getExternalFilesDir(null);
+        File file = new File(directory != null ? directory : getFilesDir(), TRACE_FILE);
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            Tracer.writeChromeTrace(writer);
+            return file;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @NonNull
+    private SharedPreferences getTracingPreferences() {
+        return getSharedPreferences(TRACING_PREFERENCES, MODE_PRIVATE);
+    }
+
+    @NonNull
+    public RatesSnapshotHolder getRatesSnapshotHolder() {
+        return mRatesSnapshotHolder;
+    }
+
+    @NonNull
+    public RatesPublisher getRatesPublisher() {
+        return mRatesPublisher;
+    }
+
+    @NonNull
+    public AlertEngine getAlertEngine() {
+        return mAlertEngine;
+    }
+
+    @NonNull
+    public RatesStatisticsEngine getRatesStatisticsEngine() {
+        return mRatesStatisticsEngine;
+    }
+
+    @NonNull
+    public RateHistory getRateHistory() {
+        return mRateHistory;
+    }
+
+    @NonNull
+    public PriorityTaskScheduler getTaskScheduler() {
+        return mTaskScheduler;
+    }
+
+    @NonNull
+    public ConversionJournal getConversionJournal() {
+        return mConversionJournal;
+    }
+
+    @NonNull
+    public OkHttpClient getHttpClient() {
+        return mHttpClient;
+    }
+
+    @NonNull
+    public ICurrenciesRepository getCurrenciesRepository() {
+        return mCurrenciesRepository;
+    }
+
+    @NonNull
+    public HttpTrafficStats getHttpTrafficStats() {
+        return mHttpTrafficStats;
+    }
+}
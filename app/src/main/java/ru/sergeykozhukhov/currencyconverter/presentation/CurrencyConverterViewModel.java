@@ -13,9 +13,20 @@ import java.util.concurrent.Executor;
 import ru.sergeykozhukhov.currencyconverter.R;
 import ru.sergeykozhukhov.currencyconverter.domain.ConversionInteractor;
 import ru.sergeykozhukhov.currencyconverter.domain.CurrenciesInteractor;
+import ru.sergeykozhukhov.currencyconverter.domain.ISeedRatesRepository;
 import ru.sergeykozhukhov.currencyconverter.domain.LoadCurrenciesException;
-import ru.sergeykozhukhov.currencyconverter.domain.SingleLiveEvent;
+import ru.sergeykozhukhov.currencyconverter.domain.RatesSnapshotHolder;
+import ru.sergeykozhukhov.currencyconverter.domain.SnapshotDiffer;
+import ru.sergeykozhukhov.currencyconverter.domain.history.EpochDays;
+import ru.sergeykozhukhov.currencyconverter.domain.model.CurrenciesDiff;
 import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
+import ru.sergeykozhukhov.currencyconverter.domain.model.RatesSnapshot;
+import ru.sergeykozhukhov.currencyconverter.domain.model.RatesTable;
+import ru.sergeykozhukhov.currencyconverter.domain.model.SeedRates;
+import ru.sergeykozhukhov.currencyconverter.domain.publish.RatesPublisher;
+import ru.sergeykozhukhov.currencyconverter.domain.search.CurrencySearchIndex;
+import ru.sergeykozhukhov.currencyconverter.domain.search.RecentCurrencies;
+import ru.sergeykozhukhov.currencyconverter.domain.trace.Tracer;
 import ru.sergeykozhukhov.currencyconverter.presentation.utils.IResourceWrapper;
 
 /**
@@ -48,11 +59,52 @@ class CurrencyConverterViewModel extends ViewModel {
      */
     private final Executor mExecutor;
 
+    /**
+     * Текущий снимок курсов, по которому выполняется конвертация
+     */
+    private final RatesSnapshotHolder mRatesSnapshotHolder;
+
+    /**
+     * Рассылка загруженных снимков остальным потребителям курсов
+     */
+    private final RatesPublisher mRatesPublisher;
+
+    /**
+     * Встроенные курсы для первого запуска без сети
+     */
+    @Nullable
+    private final ISeedRatesRepository mSeedRatesRepository;
+
     /**
      * Список валют (LiveData)
      */
     private final MutableLiveData<List<Currency>> mCurrencies = new MutableLiveData<>();
 
+    /**
+     * Изменения курсов относительно предыдущей загрузки (LiveData)
+     */
+    private final MutableLiveData<CurrenciesDiff> mChanges = new MutableLiveData<>();
+
+    /**
+     * Поисковый индекс по валютам текущего списка (LiveData)
+     */
+    private final MutableLiveData<CurrencySearchIndex> mSearchIndex = new MutableLiveData<>();
+
+    /**
+     * Недавно использованные в конвертации валюты (используется только в главном потоке)
+     */
+    private final RecentCurrencies mRecentCurrencies = new RecentCurrencies();
+
+    /**
+     * Сравнение загрузок списка валют
+     */
+    private final SnapshotDiffer mSnapshotDiffer = new SnapshotDiffer();
+
+    /**
+     * Предыдущая загрузка (используется только в потоке mExecutor)
+     */
+    private List<Currency> mLastLoaded;
+
     /**
      * Строка с информацией о конвертации (когда нажали "конвертировать") (LiveData)
      */
@@ -93,7 +145,33 @@ class CurrencyConverterViewModel extends ViewModel {
             @NonNull Executor executor,
             @NonNull IResourceWrapper resourceWrapper,
             @NonNull ConversionInteractor conversionInteractor) {
+        this(currenciesInteractor, executor, resourceWrapper, conversionInteractor,
+                new RatesSnapshotHolder(), new RatesPublisher());
+    }
+
+    CurrencyConverterViewModel(
+            @NonNull CurrenciesInteractor currenciesInteractor,
+            @NonNull Executor executor,
+            @NonNull IResourceWrapper resourceWrapper,
+            @NonNull ConversionInteractor conversionInteractor,
+            @NonNull RatesSnapshotHolder ratesSnapshotHolder,
+            @NonNull RatesPublisher ratesPublisher) {
+        this(currenciesInteractor, executor, resourceWrapper, conversionInteractor,
+                ratesSnapshotHolder, ratesPublisher, null);
+    }
+
+    CurrencyConverterViewModel(
+            @NonNull CurrenciesInteractor currenciesInteractor,
+            @NonNull Executor executor,
+            @NonNull IResourceWrapper resourceWrapper,
+            @NonNull ConversionInteractor conversionInteractor,
+            @NonNull RatesSnapshotHolder ratesSnapshotHolder,
+            @NonNull RatesPublisher ratesPublisher,
+            @Nullable ISeedRatesRepository seedRatesRepository) {
         mCurrenciesInteractor = currenciesInteractor;
+        mRatesSnapshotHolder = ratesSnapshotHolder;
+        mRatesPublisher = ratesPublisher;
+        mSeedRatesRepository = seedRatesRepository;
         mExecutor = executor;
         mResourceWrapper = resourceWrapper;
         mConversionInteractor = conversionInteractor;
@@ -108,27 +186,86 @@ class CurrencyConverterViewModel extends ViewModel {
     }
 
     /**
-     * Загружает список валют с добавление на начальную позицию валюты Rub
+     * Загружает список валют с добавление на начальную позицию валюты Rub.
+     * Сразу показываются курсы процесса (снимок, загруженный прежней ViewModel), а если их ещё нет -
+     * встроенные; загруженные из сети заменяют их
      */
     void loadCurrencies() {
         mIsLoading.setValue(true);
+        RatesSnapshot current = mRatesSnapshotHolder.getSnapshot();
+        final SeedRates seedRates;
+        if (current != null) {
+            showSnapshot(current);
+            seedRates = null;
+        } else {
+            seedRates = showSeedRates();
+        }
         mExecutor.execute(new Runnable() {
             @Override
             public void run() {
+                long span = Tracer.begin();
                 try {
-                    List<Currency> currencies = mCurrenciesInteractor.loadCurrencies();
-                    if (!currencies.contains(mRub)) {
-                        currencies.add(0, mRub);
-                    }
-                    mCurrencies.postValue(currencies);
+                    List<Currency> loaded = mCurrenciesInteractor.loadCurrencies();
+                    Tracer.end("CurrenciesInteractor.loadCurrencies", span);
+                    span = Tracer.begin();
+                    CurrenciesDiff diff = mSnapshotDiffer.diff(mLastLoaded, loaded);
+                    mLastLoaded = loaded;
+                    mChanges.postValue(diff);
+                    RatesSnapshot snapshot = mRatesSnapshotHolder.publish(withRub(loaded));
+                    mCurrencies.postValue(snapshot.getCurrencies());
+                    // индекс строится один раз на снимок, в фоновом потоке
+                    mSearchIndex.postValue(new CurrencySearchIndex(snapshot.getCurrencies()));
+                    mRatesPublisher.publish(snapshot);
+                    Tracer.end("CurrencyConverterViewModel.postCurrencies", span);
                 } catch (LoadCurrenciesException e) {
-                    mErrors.postValue(mResourceWrapper.getString(R.string.error_loading_currencies));
+                    mErrors.postValue(seedRates == null
+                            ? mResourceWrapper.getString(R.string.error_loading_currencies)
+                            : mResourceWrapper.getString(R.string.seed_rates_shown,
+                                    EpochDays.toIsoDate(seedRates.getEpochDay())));
+                    Tracer.end("CurrenciesInteractor.loadCurrencies", span);
                 }
                 mIsLoading.postValue(false); //
             }
         });
     }
 
+    /**
+     * Показывает встроенные курсы (в главном потоке: снимок читается быстрее первого кадра).
+     * Встроенные курсы не рассылаются через {@link RatesPublisher}: уведомления и статистика
+     * не должны срабатывать на курсы на дату сборки
+     *
+     * @return показанные курсы или {@code null}, если встроенных курсов нет
+     */
+    @Nullable
+    private SeedRates showSeedRates() {
+        if (mSeedRatesRepository == null) {
+            return null;
+        }
+        SeedRates seedRates = mSeedRatesRepository.loadSeedRates();
+        if (seedRates == null) {
+            return null;
+        }
+        showSnapshot(mRatesSnapshotHolder.publish(withRub(seedRates.getCurrencies())));
+        return seedRates;
+    }
+
+    /**
+     * Показывает снимок курсов, уже имеющийся в процессе (в главном потоке, до загрузки из сети)
+     */
+    private void showSnapshot(@NonNull RatesSnapshot snapshot) {
+        mCurrencies.setValue(snapshot.getCurrencies());
+        mSearchIndex.setValue(new CurrencySearchIndex(snapshot.getCurrencies()));
+    }
+
+    /**
+     * Таблица курсов с рублём на первой позиции. Загруженный список - представление {@link RatesTable},
+     * поэтому копируются только столбцы таблицы, объекты валют не создаются
+     */
+    @NonNull
+    private RatesTable withRub(@NonNull List<Currency> loaded) {
+        return RatesTable.fromCurrencies(loaded).withFirst(mRub);
+    }
+
     /**
      * Список валют
      */
@@ -137,6 +274,30 @@ class CurrencyConverterViewModel extends ViewModel {
         return mCurrencies;
     }
 
+    /**
+     * Поисковый индекс по валютам списка {@link #getCurrencies()}
+     */
+    @NonNull
+    LiveData<CurrencySearchIndex> getSearchIndex() {
+        return mSearchIndex;
+    }
+
+    /**
+     * Недавно использованные валюты для ранжирования поиска
+     */
+    @NonNull
+    RecentCurrencies getRecentCurrencies() {
+        return mRecentCurrencies;
+    }
+
+    /**
+     * Изменения курсов относительно предыдущей загрузки
+     */
+    @NonNull
+    LiveData<CurrenciesDiff> getChanges() {
+        return mChanges;
+    }
+
     /**
      * Курс конверсии
      */
@@ -173,12 +334,13 @@ class CurrencyConverterViewModel extends ViewModel {
      * Обновляет информацию о курсе валют
      * Итоговое значение записывается в виде форматированной строки в параметр класса
      *
-     * @param fromCurrencyWithIndex индекс базовой валюты
-     * @param toCurrencyWithIndex   индекс котируемой валюты
+     * @param from базовая валюта, выбранная в спиннере ({@code null}, если не выбрана)
+     * @param to   котируемая валюта, выбранная в спиннере ({@code null}, если не выбрана)
      */
-    void updateConversionRate(int fromCurrencyWithIndex, int toCurrencyWithIndex) {
-        String updatedConversionRate = mConversionInteractor
-                .formatConversionRate(mCurrencies.getValue(), fromCurrencyWithIndex, toCurrencyWithIndex);
+    void updateConversionRate(@Nullable Currency from, @Nullable Currency to) {
+        RatesSnapshot snapshot = mRatesSnapshotHolder.getSnapshot();
+        String updatedConversionRate = mConversionInteractor.formatConversionRate(
+                getCurrencies(snapshot), indexOf(snapshot, from), indexOf(snapshot, to));
         if (updatedConversionRate != null) {
             mConversionRate.setValue(updatedConversionRate);
         }
@@ -188,17 +350,46 @@ class CurrencyConverterViewModel extends ViewModel {
      * Выполняет конвертацию между выбранными валютами и введённой суммой
      * Итоговое значение записывается в виде форматированной строки в параметр класса
      *
-     * @param fromCurrencyWithIndex индекс базовой валюты
-     * @param toCurrencyWithIndex   индекс котируемой валюты
-     * @param amount                сумма, введённая пользователем as is (ввод может быть некорректным)
+     * @param from   базовая валюта, выбранная в спиннере ({@code null}, если не выбрана)
+     * @param to     котируемая валюта, выбранная в спиннере ({@code null}, если не выбрана)
+     * @param amount сумма, введённая пользователем as is (ввод может быть некорректным)
      */
-    void convert(int fromCurrencyWithIndex, int toCurrencyWithIndex, @Nullable String amount) {
-        List<Currency> currencies = mCurrencies.getValue();
-        String converted = mConversionInteractor.convert(currencies, fromCurrencyWithIndex, toCurrencyWithIndex, amount);
+    void convert(@Nullable Currency from, @Nullable Currency to, @Nullable String amount) {
+        RatesSnapshot snapshot = mRatesSnapshotHolder.getSnapshot();
+        List<Currency> currencies = getCurrencies(snapshot);
+        int fromIndex = indexOf(snapshot, from);
+        int toIndex = indexOf(snapshot, to);
+        String converted = mConversionInteractor.convert(currencies, fromIndex, toIndex, amount);
         if (converted == null) {
             mErrors.setValue(mResourceWrapper.getString(R.string.conversion_error));
         } else {
             mConvertedText.setValue(converted);
+            mRecentCurrencies.markUsed(currencies.get(fromIndex).getCharCode());
+            mRecentCurrencies.markUsed(currencies.get(toIndex).getCharCode());
+        }
+    }
+
+    /**
+     * Валюты снимка: неизменяемый список, который не поменяется, даже если
+     * фоновая загрузка опубликует новый снимок во время конвертации
+     *
+     * @return {@code null}, если курсы ещё не загружены
+     */
+    @Nullable
+    private static List<Currency> getCurrencies(@Nullable RatesSnapshot snapshot) {
+        return snapshot == null ? null : snapshot.getCurrencies();
+    }
+
+    /**
+     * Индекс валюты в снимке по id. Фоновый поток публикует снимок раньше, чем postValue
+     * доходит до спиннеров, поэтому позиция в спиннере может относиться к предыдущему снимку
+     *
+     * @return {@code -1}, если валюта не выбрана, курсы не загружены или валюты нет в снимке
+     */
+    private static int indexOf(@Nullable RatesSnapshot snapshot, @Nullable Currency currency) {
+        if (snapshot == null || currency == null) {
+            return -1;
         }
+        return snapshot.getTable().indexOfId(currency.getId());
     }
-}
\ No newline at end of file
+}
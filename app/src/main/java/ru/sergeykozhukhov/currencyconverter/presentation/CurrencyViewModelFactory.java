@@ -6,14 +6,19 @@ import androidx.annotation.NonNull;
 import androidx.lifecycle.ViewModel;
 import androidx.lifecycle.ViewModelProvider;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 
-import ru.sergeykozhukhov.currencyconverter.data.CurrenciesRepository;
 import ru.sergeykozhukhov.currencyconverter.data.CurrencyConverter;
+import ru.sergeykozhukhov.currencyconverter.data.SeedRatesRepository;
 import ru.sergeykozhukhov.currencyconverter.domain.ConversionInteractor;
 import ru.sergeykozhukhov.currencyconverter.domain.CurrenciesInteractor;
-import ru.sergeykozhukhov.currencyconverter.domain.ICurrenciesRepository;
+import ru.sergeykozhukhov.currencyconverter.domain.amount.AmountParser;
+import ru.sergeykozhukhov.currencyconverter.domain.schedule.TaskLane;
+import ru.sergeykozhukhov.currencyconverter.domain.trace.Tracer;
+import ru.sergeykozhukhov.currencyconverter.presentation.utils.ResourceConversionFormatter;
 import ru.sergeykozhukhov.currencyconverter.presentation.utils.ResourceWrapper;
 
 /**
@@ -23,6 +28,11 @@ import ru.sergeykozhukhov.currencyconverter.presentation.utils.ResourceWrapper;
  **/
 public class CurrencyViewModelFactory extends ViewModelProvider.NewInstanceFactory {
 
+    /**
+     * Встроенный снимок курсов в assets (собирается задачей generateSeedSnapshot, см. app/build.gradle)
+     */
+    private static final String SEED_RATES_ASSET = "seed_rates.bin";
+
     private final Context mApplicationContext;
 
     CurrencyViewModelFactory(@NonNull Context context) {
@@ -32,11 +42,25 @@ public class CurrencyViewModelFactory extends ViewModelProvider.NewInstanceFacto
     @NonNull
     @Override
     public <T extends ViewModel> T create(@NonNull Class<T> modelClass) {
+        long span = Tracer.begin();
+        try {
+            return createViewModel(modelClass);
+        } finally {
+            Tracer.end("CurrencyViewModelFactory.create", span);
+        }
+    }
+
+    @NonNull
+    private <T extends ViewModel> T createViewModel(@NonNull Class<T> modelClass) {
         if (CurrencyConverterViewModel.class.equals(modelClass)) {
             // создание объектов для конструктора CurrencyConverterViewModel
-            ICurrenciesRepository currenciesRepository = new CurrenciesRepository(new CurrencyConverter());
-            CurrenciesInteractor interactor = new CurrenciesInteractor(currenciesRepository);
-            Executor executor = Executors.newSingleThreadExecutor();
+            CurrencyConverterApplication application = (CurrencyConverterApplication) mApplicationContext;
+            // справочник валют кэшируется приложением (в памяти и в файле), ежедневно загружаются только курсы;
+            // запросы идут через общий клиент приложения (пул соединений, gzip, кэш ответов)
+            CurrenciesInteractor interactor = new CurrenciesInteractor(application.getCurrenciesRepository());
+            // загрузка по запросу пользователя: обгоняет фоновые задачи общего планировщика,
+            // но выполняется последовательно, как на отдельном потоке
+            Executor executor = application.getTaskScheduler().newSerialExecutor(TaskLane.INTERACTIVE);
             ResourceWrapper resourceWrapper = new ResourceWrapper(mApplicationContext.getResources());
             // возвращение CurrencyConverterViewModel(...)
             // noinspection unchecked
@@ -44,7 +68,19 @@ public class CurrencyViewModelFactory extends ViewModelProvider.NewInstanceFacto
                     interactor,
                     executor,
                     resourceWrapper,
-                    new ConversionInteractor(resourceWrapper));
+                    new ConversionInteractor(
+                            new ResourceConversionFormatter(resourceWrapper),
+                            AmountParser.forLocale(Locale.getDefault()),
+                            application.getConversionJournal()),
+                    application.getRatesSnapshotHolder(),
+                    application.getRatesPublisher(),
+                    new SeedRatesRepository(new SeedRatesRepository.Source() {
+                        @NonNull
+                        @Override
+                        public InputStream open() throws IOException {
+                            return mApplicationContext.getAssets().open(SEED_RATES_ASSET);
+                        }
+                    }, new CurrencyConverter()));
         } else {
             // простая "фабрика", которая вызывает пустой конструктор переданного класса
             return super.create(modelClass);
@@ -1,10 +1,13 @@
 package ru.sergeykozhukhov.currencyconverter.presentation;
 
+import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.lifecycle.Observer;
 import androidx.lifecycle.ViewModelProviders;
 
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.View;
 import android.widget.AdapterView;
 import android.widget.EditText;
@@ -15,7 +18,10 @@ import android.widget.Toast;
 import java.util.List;
 
 import ru.sergeykozhukhov.currencyconverter.R;
+import ru.sergeykozhukhov.currencyconverter.domain.model.CurrenciesDiff;
 import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
+import ru.sergeykozhukhov.currencyconverter.domain.search.CurrencySearchIndex;
+import ru.sergeykozhukhov.currencyconverter.domain.trace.Tracer;
 
 public class MainActivity extends AppCompatActivity {
 
@@ -39,6 +45,26 @@ public class MainActivity extends AppCompatActivity {
      */
     private Spinner mSpinnerTo;
 
+    /**
+     * Поиск исходной валюты
+     */
+    private EditText mSearchFrom;
+
+    /**
+     * Поиск итоговой валюты
+     */
+    private EditText mSearchTo;
+
+    /**
+     * Адаптер спиннера исходной валюты
+     */
+    private CurrencyAdapter mAdapterFrom;
+
+    /**
+     * Адаптер спиннера итоговой валюты
+     */
+    private CurrencyAdapter mAdapterTo;
+
     /**
      * Количество исходной валюты, подвергающееся конвертации
      */
@@ -73,24 +99,42 @@ public class MainActivity extends AppCompatActivity {
     private void initViews() {
         mSpinnerFrom = findViewById(R.id.spinnerFrom);
         mSpinnerTo = findViewById(R.id.spinnerTo);
+        mSearchFrom = findViewById(R.id.searchFrom);
+        mSearchTo = findViewById(R.id.searchTo);
         // обработка нажатия на кнопку конвертации
         findViewById(R.id.convert).setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
                 // конвертация валют
                 mViewModel.convert(
-                        mSpinnerFrom.getSelectedItemPosition(), // индекс исходной валюты
-                        mSpinnerTo.getSelectedItemPosition(), // индекс итоговой валюты
+                        getSelectedCurrency(mSpinnerFrom), // исходная валюта
+                        getSelectedCurrency(mSpinnerTo), // итоговая валюта
                         mFromAmount.getText().toString() // колличество исходной валюты
                 );
             }
         });
+        // поиск валюты по мере ввода
+        mSearchFrom.addTextChangedListener(new SearchWatcher(true));
+        mSearchTo.addTextChangedListener(new SearchWatcher(false));
         mFromAmount = findViewById(R.id.fromAmount);
         mConvertedText = findViewById(R.id.convertedText);
         mLoadingView = findViewById(R.id.loading_view);
         mConversionRate = findViewById(R.id.conversionRate);
         mSpinnerFrom.setOnItemSelectedListener(new OnCurrencySelectedListener()); // установка listener для обновления информации о курсе валют
         mSpinnerTo.setOnItemSelectedListener(new OnCurrencySelectedListener()); // установка listener для обновления информации о курсе валют
+        // скрытое переключение трассировки для диагностики медленных запусков
+        mConversionRate.setOnLongClickListener(new View.OnLongClickListener() {
+            @Override
+            public boolean onLongClick(View v) {
+                CurrencyConverterApplication application = (CurrencyConverterApplication) getApplication();
+                boolean enabled = !application.isTracingEnabled();
+                application.setTracingEnabled(enabled);
+                Toast.makeText(MainActivity.this,
+                        enabled ? R.string.tracing_enabled : R.string.tracing_disabled,
+                        Toast.LENGTH_SHORT).show();
+                return true;
+            }
+        });
     }
 
     /**
@@ -121,10 +165,34 @@ public class MainActivity extends AppCompatActivity {
             //onChanged - метод, вызываемый при изменении данных
             @Override
             public void onChanged(List<Currency> currencies) {
-                // обновление списков валют
-                mSpinnerFrom.setAdapter(new CurrencyAdapter(currencies));
-                mSpinnerTo.setAdapter(new CurrencyAdapter(currencies));
-                mSpinnerTo.setSelection(SECOND_ITEM); // выставление в спиннере для итоговой валюты валюты, следующей за rub
+                long span = Tracer.begin();
+                try {
+                    showCurrencies(currencies);
+                } finally {
+                    Tracer.end("MainActivity.onCurrencies", span);
+                }
+            }
+        });
+        mViewModel.getSearchIndex().observe(this, new Observer<CurrencySearchIndex>() {
+            @Override
+            public void onChanged(CurrencySearchIndex searchIndex) {
+                // индекс приходит после списка валют, введённый запрос применяется заново
+                if (mAdapterFrom != null) {
+                    mAdapterFrom.setSearchIndex(searchIndex);
+                    mAdapterTo.setSearchIndex(searchIndex);
+                    applySearch(true);
+                    applySearch(false);
+                }
+            }
+        });
+        mViewModel.getChanges().observe(this, new Observer<CurrenciesDiff>() {
+            @Override
+            public void onChanged(CurrenciesDiff diff) {
+                // отображение индикаторов изменения курса
+                if (mAdapterFrom != null && diff.isValuesOnly()) {
+                    mAdapterFrom.setChanges(diff);
+                    mAdapterTo.setChanges(diff);
+                }
             }
         });
         mViewModel.getConvertedText().observe(this, new Observer<String>() {
@@ -158,6 +226,120 @@ public class MainActivity extends AppCompatActivity {
         mViewModel.loadCurrencies(); // загрузка списка валют
     }
 
+    /**
+     * Отображение загруженного списка валют в спиннерах
+     */
+    private void showCurrencies(List<Currency> currencies) {
+        if (mAdapterFrom != null && mAdapterFrom.hasSameCurrencies(currencies)) {
+            // изменились только курсы (те же валюты в том же порядке): адаптеры и выбранные позиции сохраняются
+            mAdapterFrom.setCurrencies(currencies);
+            mAdapterTo.setCurrencies(currencies);
+            return;
+        }
+        // другой состав валют: выбранные валюты ищутся в новом списке по id
+        int from = indexOfId(currencies, (Currency) mSpinnerFrom.getSelectedItem());
+        int to = indexOfId(currencies, (Currency) mSpinnerTo.getSelectedItem());
+        // обновление списков валют
+        mAdapterFrom = new CurrencyAdapter(currencies);
+        mAdapterTo = new CurrencyAdapter(currencies);
+        mSpinnerFrom.setAdapter(mAdapterFrom);
+        mSpinnerTo.setAdapter(mAdapterTo);
+        mSpinnerFrom.setSelection(Math.max(from, 0));
+        // по умолчанию в спиннере итоговой валюты выставляется валюта, следующая за rub
+        mSpinnerTo.setSelection(to >= 0 ? to : SECOND_ITEM);
+    }
+
+    /**
+     * Позиция валюты с тем же id в списке
+     *
+     * @return -1, если валюты нет в списке или она не задана
+     */
+    private static int indexOfId(List<Currency> currencies, Currency currency) {
+        if (currency == null) {
+            return -1;
+        }
+        for (int i = 0; i < currencies.size(); i++) {
+            if (currencies.get(i).getId().equals(currency.getId())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Оставляет в спиннере валюты, найденные по введённому тексту. Выбранная валюта
+     * сохраняется, если она среди найденных, иначе выбирается лучший результат
+     *
+     * @param from {@code true} - спиннер исходной валюты, {@code false} - итоговой
+     */
+    private void applySearch(boolean from) {
+        CurrencyAdapter adapter = from ? mAdapterFrom : mAdapterTo;
+        if (adapter == null) {
+            return;
+        }
+        Spinner spinner = from ? mSpinnerFrom : mSpinnerTo;
+        EditText search = from ? mSearchFrom : mSearchTo;
+        int selected = getSelectedCurrencyIndex(spinner, adapter);
+        adapter.filter(search.getText().toString(), mViewModel.getRecentCurrencies());
+        int position = selected < 0 ? -1 : adapter.getPosition(selected);
+        if (position >= 0) {
+            spinner.setSelection(position);
+        } else if (adapter.getCount() > 0) {
+            spinner.setSelection(0);
+        }
+    }
+
+    /**
+     * Позиция выбранной валюты в списке валют ViewModel (в спиннере могут быть только найденные валюты)
+     *
+     * @return {@link AdapterView#INVALID_POSITION}, если ничего не выбрано
+     */
+    private static int getSelectedCurrencyIndex(Spinner spinner, CurrencyAdapter adapter) {
+        int position = spinner.getSelectedItemPosition();
+        if (adapter == null || position == AdapterView.INVALID_POSITION) {
+            return position;
+        }
+        return position < adapter.getCount() ? adapter.getCurrencyIndex(position) : AdapterView.INVALID_POSITION;
+    }
+
+    /**
+     * Валюта, выбранная в спиннере. Передаётся во ViewModel вместо позиции: позиция относится
+     * к списку, который показывает спиннер, а не к последнему опубликованному снимку курсов
+     *
+     * @return {@code null}, если ничего не выбрано
+     */
+    @Nullable
+    private static Currency getSelectedCurrency(Spinner spinner) {
+        return (Currency) spinner.getSelectedItem();
+    }
+
+    /**
+     * Обработчик ввода в поле поиска валюты
+     */
+    private class SearchWatcher implements TextWatcher {
+
+        private final boolean mFrom;
+
+        SearchWatcher(boolean from) {
+            mFrom = from;
+        }
+
+        @Override
+        public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+
+        }
+
+        @Override
+        public void onTextChanged(CharSequence s, int start, int before, int count) {
+
+        }
+
+        @Override
+        public void afterTextChanged(Editable s) {
+            applySearch(mFrom);
+        }
+    }
+
     /**
      * Реализация обработчика выбора элемента спиннера
      */
@@ -168,8 +350,8 @@ public class MainActivity extends AppCompatActivity {
         @Override
         public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
             mViewModel.updateConversionRate(
-                    mSpinnerFrom.getSelectedItemPosition(), // индекс исходной валюты
-                    mSpinnerTo.getSelectedItemPosition()); // индекс итоговой валюты
+                    getSelectedCurrency(mSpinnerFrom), // исходная валюта
+                    getSelectedCurrency(mSpinnerTo)); // итоговая валюта
         }
 
         @Override
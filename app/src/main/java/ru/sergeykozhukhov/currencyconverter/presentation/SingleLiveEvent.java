@@ -1,4 +1,4 @@
-package ru.sergeykozhukhov.currencyconverter.domain;
+package ru.sergeykozhukhov.currencyconverter.presentation;
 
 /*
  *  Copyright 2017 Google Inc.
@@ -0,0 +1,33 @@
+package ru.sergeykozhukhov.currencyconverter.presentation.utils;
+
+import androidx.annotation.NonNull;
+
+import ru.sergeykozhukhov.currencyconverter.R;
+import ru.sergeykozhukhov.currencyconverter.domain.IConversionFormatter;
+
+/**
+ * Форматирование результатов конвертации через строковые ресурсы приложения
+ **/
+public class ResourceConversionFormatter implements IConversionFormatter {
+
+    /**
+     * Обёртка над ресурсами приложения
+     */
+    private final IResourceWrapper mResourceWrapper;
+
+    public ResourceConversionFormatter(@NonNull IResourceWrapper resourceWrapper) {
+        mResourceWrapper = resourceWrapper;
+    }
+
+    @NonNull
+    @Override
+    public String formatConversionRate(@NonNull String rate, @NonNull String baseCharCode, @NonNull String quotedCharCode) {
+        return mResourceWrapper.getString(R.string.conversion_rate, rate, baseCharCode, quotedCharCode);
+    }
+
+    @NonNull
+    @Override
+    public String formatConversionResult(@NonNull String amount, @NonNull String charCode) {
+        return mResourceWrapper.getString(R.string.you_will_get, amount, charCode);
+    }
+}
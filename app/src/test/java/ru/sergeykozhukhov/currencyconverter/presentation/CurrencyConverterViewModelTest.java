@@ -1,7 +1,7 @@
 package ru.sergeykozhukhov.currencyconverter.presentation;
 
+import androidx.annotation.NonNull;
 import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
-import androidx.lifecycle.MutableLiveData;
 
 import org.junit.Before;
 import org.junit.Rule;
@@ -15,8 +15,15 @@ import java.util.List;
 import ru.sergeykozhukhov.currencyconverter.R;
 import ru.sergeykozhukhov.currencyconverter.domain.ConversionInteractor;
 import ru.sergeykozhukhov.currencyconverter.domain.CurrenciesInteractor;
+import ru.sergeykozhukhov.currencyconverter.domain.ISeedRatesRepository;
 import ru.sergeykozhukhov.currencyconverter.domain.LoadCurrenciesException;
+import ru.sergeykozhukhov.currencyconverter.domain.RatesSnapshotHolder;
+import ru.sergeykozhukhov.currencyconverter.domain.history.EpochDays;
 import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
+import ru.sergeykozhukhov.currencyconverter.domain.model.RatesSnapshot;
+import ru.sergeykozhukhov.currencyconverter.domain.model.SeedRates;
+import ru.sergeykozhukhov.currencyconverter.domain.publish.RatesPublisher;
+import ru.sergeykozhukhov.currencyconverter.domain.search.CurrencySearchIndex;
 import ru.sergeykozhukhov.currencyconverter.presentation.utils.IResourceWrapper;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -72,7 +79,10 @@ public class CurrencyConverterViewModelTest {
 
     @Before
     public void setUp() {
-        mCurrencies = new ArrayList<>(Arrays.asList(mock(Currency.class), mock(Currency.class)));
+        // ViewModel строит по валютам поисковый индекс, поэтому нужны валюты с кодами и названиями
+        mCurrencies = new ArrayList<>(Arrays.asList(
+                new Currency("R01235", "USD", 1, "Доллар США", new BigDecimal("61.9057")),
+                new Currency("R01239", "EUR", 1, "Евро", new BigDecimal("69.3524"))));
         mCurrenciesInteractor = mock(CurrenciesInteractor.class);
         mResourceWrapper = mock(IResourceWrapper.class);
         mConversionInteractor = mock(ConversionInteractor.class);
@@ -85,13 +95,13 @@ public class CurrencyConverterViewModelTest {
                 mResourceWrapper,
                 mConversionInteractor
         );
-        // инициализация валюты (рубли)
+        // инициализация валюты (рубли); таблица курсов хранит курсы с общей точностью загруженных (4 знака)
         mRub = new Currency(
                 "rub_id",
                 "RUB",
                 1,
                 mResourceWrapper.getString(R.string.russian_ruble),
-                BigDecimal.ONE
+                new BigDecimal("1.0000")
         );
     }
 
@@ -107,9 +117,51 @@ public class CurrencyConverterViewModelTest {
 
         // assert
         assertThat(mViewModel.getCurrencies().getValue(), is(expectedCurrencies)); // проверка, что данные совпадают
+        // при первой загрузке все валюты (кроме добавленного рубля) новые
+        assertThat(mViewModel.getChanges().getValue().getAdded(), is(expectedCurrencies.subList(1, expectedCurrencies.size())));
         assertThat(mViewModel.isLoading().getValue(), is(false)); // проверка, что загрузка данных прекращена
     }
 
+    @Test
+    public void testLoadCurrencies_publishesSnapshot() throws LoadCurrenciesException {
+        // arrange
+        RatesPublisher ratesPublisher = new RatesPublisher();
+        final List<RatesSnapshot> received = new ArrayList<>();
+        ratesPublisher.subscribe(new SynchronousExecutor(), new RatesPublisher.Subscriber() {
+            @Override
+            public void onRates(@NonNull RatesSnapshot snapshot) {
+                received.add(snapshot);
+            }
+        });
+        mViewModel = new CurrencyConverterViewModel(
+                mCurrenciesInteractor,
+                new SynchronousExecutor(),
+                mResourceWrapper,
+                mConversionInteractor,
+                new RatesSnapshotHolder(),
+                ratesPublisher
+        );
+
+        // act
+        List<Currency> expectedCurrencies = loadCurrencies();
+
+        // assert
+        assertThat(received.size(), is(1)); // подписчик получил загруженный снимок
+        assertThat(received.get(0).getCurrencies(), is(expectedCurrencies));
+        assertThat(received.get(0).getVersion(), is(1L));
+    }
+
+    @Test
+    public void testLoadCurrencies_postsSearchIndex() throws LoadCurrenciesException {
+        // act
+        List<Currency> expectedCurrencies = loadCurrencies();
+
+        // assert
+        CurrencySearchIndex searchIndex = mViewModel.getSearchIndex().getValue();
+        assertThat(searchIndex.getCurrencies(), is(expectedCurrencies));
+        assertThat(searchIndex.search("usd", mViewModel.getRecentCurrencies(), 10), is(new int[]{1}));
+    }
+
     @Test
     public void testLoadCurrencies_interactorThrowsException() throws LoadCurrenciesException {
         // arrange
@@ -126,29 +178,135 @@ public class CurrencyConverterViewModelTest {
     }
 
     @Test
-    public void testUpdateConversionRate_happyCase() {
+    public void testLoadCurrencies_seedRatesBeforeNetwork() throws LoadCurrenciesException {
+        // arrange
+        final List<Currency> seed = Arrays.asList(
+                new Currency("R01235", "USD", 1, "Доллар США", new BigDecimal("60.0000")),
+                new Currency("R01239", "EUR", 1, "Евро", new BigDecimal("70.0000")));
+        final List<RatesSnapshot> published = new ArrayList<>();
+        RatesPublisher ratesPublisher = new RatesPublisher();
+        ratesPublisher.subscribe(new SynchronousExecutor(), new RatesPublisher.Subscriber() {
+            @Override
+            public void onRates(@NonNull RatesSnapshot snapshot) {
+                published.add(snapshot);
+            }
+        });
+        DeferredExecutor executor = new DeferredExecutor();
+        mViewModel = new CurrencyConverterViewModel(
+                mCurrenciesInteractor,
+                executor,
+                mResourceWrapper,
+                mConversionInteractor,
+                new RatesSnapshotHolder(),
+                ratesPublisher,
+                seedRatesRepository(new SeedRates(EpochDays.of(2019, 12, 28), seed)));
+        when(mCurrenciesInteractor.loadCurrencies()).thenReturn(mCurrencies);
+        List<Currency> expectedSeed = new ArrayList<>(seed);
+        expectedSeed.add(0, mRub);
+        List<Currency> expectedLoaded = new ArrayList<>(mCurrencies);
+        expectedLoaded.add(0, mRub);
+
+        // act
+        mViewModel.loadCurrencies();
+        List<Currency> beforeNetwork = mViewModel.getCurrencies().getValue();
+        executor.runAll();
+
+        // assert
+        // встроенные курсы показываются сразу, до загрузки из сети
+        assertThat(beforeNetwork, is(expectedSeed));
+        assertThat(mViewModel.getCurrencies().getValue(), is(expectedLoaded));
+        // подписчики получают только загруженные курсы
+        assertThat(published.size(), is(1));
+        assertThat(published.get(0).getCurrencies(), is(expectedLoaded));
+    }
+
+    @Test
+    public void testLoadCurrencies_seedRatesWithoutNetwork() throws LoadCurrenciesException {
+        // arrange
+        List<Currency> seed = new ArrayList<>(mCurrencies);
+        mViewModel = new CurrencyConverterViewModel(
+                mCurrenciesInteractor,
+                new SynchronousExecutor(),
+                mResourceWrapper,
+                mConversionInteractor,
+                new RatesSnapshotHolder(),
+                new RatesPublisher(),
+                seedRatesRepository(new SeedRates(EpochDays.of(2019, 12, 28), seed)));
+        when(mCurrenciesInteractor.loadCurrencies()).thenThrow(new LoadCurrenciesException("message", new Throwable()));
+        String seedShown = "seedShown";
+        when(mResourceWrapper.getString(R.string.seed_rates_shown, "2019-12-28")).thenReturn(seedShown);
+        List<Currency> expectedCurrencies = new ArrayList<>(seed);
+        expectedCurrencies.add(0, mRub);
+
+        // act
+        mViewModel.loadCurrencies();
+
+        // assert
+        assertThat(mViewModel.getCurrencies().getValue(), is(expectedCurrencies));
+        assertThat(mViewModel.getErrors().getValue(), is(seedShown)); // пользователь видит дату встроенных курсов
+        assertThat(mViewModel.isLoading().getValue(), is(false));
+    }
+
+    @Test
+    public void testLoadCurrencies_processSnapshotWithoutNetwork() throws LoadCurrenciesException {
+        // arrange
+        List<Currency> seed = new ArrayList<>(mCurrencies);
+        RatesSnapshotHolder ratesSnapshotHolder = new RatesSnapshotHolder();
+        when(mCurrenciesInteractor.loadCurrencies()).thenThrow(new LoadCurrenciesException("message", new Throwable()));
+        new CurrencyConverterViewModel(
+                mCurrenciesInteractor,
+                new SynchronousExecutor(),
+                mResourceWrapper,
+                mConversionInteractor,
+                ratesSnapshotHolder,
+                new RatesPublisher(),
+                seedRatesRepository(new SeedRates(EpochDays.of(2019, 12, 28), seed))).loadCurrencies();
+        // ViewModel пересоздана в том же процессе (снимок курсов уже есть)
+        mViewModel = new CurrencyConverterViewModel(
+                mCurrenciesInteractor,
+                new SynchronousExecutor(),
+                mResourceWrapper,
+                mConversionInteractor,
+                ratesSnapshotHolder,
+                new RatesPublisher(),
+                seedRatesRepository(new SeedRates(EpochDays.of(2019, 12, 28), seed)));
+        List<Currency> expectedCurrencies = new ArrayList<>(seed);
+        expectedCurrencies.add(0, mRub);
+
+        // act
+        mViewModel.loadCurrencies();
+
+        // assert
+        // показывается снимок процесса, а не пустой список
+        assertThat(mViewModel.getCurrencies().getValue(), is(expectedCurrencies));
+        assertThat(mViewModel.getSearchIndex().getValue() != null, is(true));
+        assertThat(mViewModel.isLoading().getValue(), is(false));
+    }
+
+    @Test
+    public void testUpdateConversionRate_happyCase() throws LoadCurrenciesException {
         // arrange
-        ((MutableLiveData<List<Currency>>) mViewModel.getCurrencies()).setValue(mCurrencies); // установка списка валют в LiveData
+        List<Currency> currencies = loadCurrencies(); // публикация снимка курсов
         String formattedString = "formattedString";
-        when(mConversionInteractor.formatConversionRate(mCurrencies, 0, 1))
+        when(mConversionInteractor.formatConversionRate(currencies, 0, 1))
                 .thenReturn(formattedString); // формирование строки с курсом валют
 
         // act
-        mViewModel.updateConversionRate(0, 1);
+        mViewModel.updateConversionRate(currencies.get(0), currencies.get(1));
 
         // assert
         assertThat(mViewModel.getConversionRate().getValue(), is(formattedString)); // проверка на значение курса валют
     }
 
     @Test
-    public void testUpdateConversionRate_errorCase() {
+    public void testUpdateConversionRate_errorCase() throws LoadCurrenciesException {
         // arrange
-        when(mConversionInteractor.formatConversionRate(mCurrencies, 0, 1))
+        List<Currency> currencies = loadCurrencies();
+        when(mConversionInteractor.formatConversionRate(currencies, 0, 1))
                 .thenReturn(null);
-        ((MutableLiveData<List<Currency>>) mViewModel.getCurrencies()).setValue(mCurrencies);
 
         // act
-        mViewModel.updateConversionRate(0, 1);
+        mViewModel.updateConversionRate(currencies.get(0), currencies.get(1));
 
         // assert
         // nullValue - создание матчера для обработки ситуации, когда значение равно null
@@ -156,35 +314,112 @@ public class CurrencyConverterViewModelTest {
     }
 
     @Test
-    public void testConvert_happyCase() {
+    public void testConvert_happyCase() throws LoadCurrenciesException {
         // arrange
-        ((MutableLiveData<List<Currency>>) mViewModel.getCurrencies()).setValue(mCurrencies);
+        List<Currency> currencies = loadCurrencies();
         String amount = "10";
         String formattedString = "formattedString";
-        when(mConversionInteractor.convert(mCurrencies, 0, 1, amount))
+        when(mConversionInteractor.convert(currencies, 0, 1, amount))
                 .thenReturn(formattedString);
 
         // act
-        mViewModel.convert(0, 1, amount);
+        mViewModel.convert(currencies.get(0), currencies.get(1), amount);
 
         // assert
         assertThat(mViewModel.getConvertedText().getValue(), is(formattedString));
+        // валюты конвертации поднимаются в результатах поиска
+        assertThat(mViewModel.getRecentCurrencies().getRank("USD"), is(0));
+        assertThat(mViewModel.getRecentCurrencies().getRank("RUB"), is(1));
     }
 
     @Test
-    public void testConvert_errorCase() {
+    public void testConvert_errorCase() throws LoadCurrenciesException {
         // arrange
-        ((MutableLiveData<List<Currency>>) mViewModel.getCurrencies()).setValue(mCurrencies);
+        List<Currency> currencies = loadCurrencies();
         String error = "error";
         when(mResourceWrapper.getString(R.string.conversion_error)).thenReturn(error);
         String amount = "10";
-        when(mConversionInteractor.convert(mCurrencies, 0, 1, amount))
+        when(mConversionInteractor.convert(currencies, 0, 1, amount))
                 .thenReturn(null);
 
         // act
-        mViewModel.convert(0, 1, amount);
+        mViewModel.convert(currencies.get(0), currencies.get(1), amount);
 
         // assert
         assertThat(mViewModel.getErrors().getValue(), is(error));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testConvert_notLoaded() {
+        // arrange
+        String error = "error";
+        when(mResourceWrapper.getString(R.string.conversion_error)).thenReturn(error);
+        String amount = "10";
+        when(mConversionInteractor.convert(null, -1, -1, amount))
+                .thenReturn(null);
+
+        // act
+        mViewModel.convert(mRub, mCurrencies.get(0), amount);
+
+        // assert
+        assertThat(mViewModel.getErrors().getValue(), is(error)); // до загрузки курсов конвертация невозможна
+    }
+
+    @Test
+    public void testConvert_resolvedAgainstSnapshot() throws LoadCurrenciesException {
+        // arrange
+        List<Currency> currencies = loadCurrencies();
+        // спиннер ещё показывает предыдущий список: EUR в нём на другой позиции
+        Currency eur = mCurrencies.get(1);
+        String amount = "10";
+        String formattedString = "formattedString";
+        when(mConversionInteractor.convert(currencies, 2, 0, amount))
+                .thenReturn(formattedString);
+
+        // act
+        mViewModel.convert(eur, mRub, amount);
+
+        // assert
+        assertThat(mViewModel.getConvertedText().getValue(), is(formattedString)); // индексы взяты из снимка по id
+    }
+
+    @Test
+    public void testConvert_currencyMissingFromSnapshot() throws LoadCurrenciesException {
+        // arrange
+        List<Currency> currencies = loadCurrencies();
+        Currency removed = new Currency("R01035", "GBP", 1, "Фунт стерлингов", new BigDecimal("80.1"));
+        String error = "error";
+        when(mResourceWrapper.getString(R.string.conversion_error)).thenReturn(error);
+        String amount = "10";
+        when(mConversionInteractor.convert(currencies, -1, 0, amount))
+                .thenReturn(null);
+
+        // act
+        mViewModel.convert(removed, mRub, amount);
+
+        // assert
+        assertThat(mViewModel.getErrors().getValue(), is(error)); // валюты нет в новом снимке
+    }
+
+    private static ISeedRatesRepository seedRatesRepository(final SeedRates seedRates) {
+        return new ISeedRatesRepository() {
+            @Override
+            public SeedRates loadSeedRates() {
+                return seedRates;
+            }
+        };
+    }
+
+    /**
+     * Загружает и публикует список валют через ViewModel
+     *
+     * @return ожидаемый список валют снимка (рубль и загруженные валюты)
+     */
+    private List<Currency> loadCurrencies() throws LoadCurrenciesException {
+        when(mCurrenciesInteractor.loadCurrencies()).thenReturn(mCurrencies);
+        mViewModel.loadCurrencies();
+        List<Currency> expectedCurrencies = new ArrayList<>(mCurrencies);
+        expectedCurrencies.add(0, mRub);
+        return expectedCurrencies;
+    }
+}
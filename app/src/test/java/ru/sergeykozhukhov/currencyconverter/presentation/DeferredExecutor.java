@@ -0,0 +1,32 @@
+package ru.sergeykozhukhov.currencyconverter.presentation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+
+/**
+ * Используется для того чтобы в юнит тесте проверить состояние до выполнения фоновых операций:
+ * операции копятся и выполняются только по {@link #runAll()}
+ **/
+class DeferredExecutor implements Executor {
+
+    private final List<Runnable> mCommands = new ArrayList<>();
+
+    @Override
+    public void execute(Runnable command) {
+        mCommands.add(command);
+    }
+
+    /**
+     * Выполняет накопленные операции в порядке добавления
+     */
+    void runAll() {
+        List<Runnable> commands = new ArrayList<>(mCommands);
+        mCommands.clear();
+        for (Runnable command : commands) {
+            command.run();
+        }
+    }
+
+}
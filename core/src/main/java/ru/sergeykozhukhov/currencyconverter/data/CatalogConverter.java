@@ -0,0 +1,42 @@
+package ru.sergeykozhukhov.currencyconverter.data;
+
+import androidx.annotation.NonNull;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ru.sergeykozhukhov.currencyconverter.data.model.CatalogItemData;
+import ru.sergeykozhukhov.currencyconverter.domain.IConverter;
+
+/**
+ * Конвертирует записи справочника валют ЦБ в {@link CurrencyCatalog}
+ **/
+public class CatalogConverter implements IConverter<List<CatalogItemData>, CurrencyCatalog> {
+
+    /**
+     * Конвертация справочника. Записи без буквенного кода (выведенные из обращения валюты) пропускаются
+     * @param items - записи справочника data представления
+     * @return справочник
+     */
+    @NonNull
+    @Override
+    public CurrencyCatalog convert(@NonNull List<CatalogItemData> items) {
+        Map<String, CurrencyCatalog.Entry> entries = new HashMap<>(items.size() * 2);
+        for (CatalogItemData item : items) {
+            String id = trim(item.getId());
+            String charCode = trim(item.getCharCode());
+            String name = trim(item.getName());
+            if (id.isEmpty() || charCode.isEmpty()) {
+                continue;
+            }
+            entries.put(id, new CurrencyCatalog.Entry(id, charCode, name));
+        }
+        return new CurrencyCatalog(entries, System.currentTimeMillis());
+    }
+
+    @NonNull
+    private static String trim(String value) {
+        return value == null ? "" : value.trim();
+    }
+}
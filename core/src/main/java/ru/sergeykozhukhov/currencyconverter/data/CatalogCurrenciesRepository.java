@@ -0,0 +1,201 @@
+package ru.sergeykozhukhov.currencyconverter.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+import okhttp3.ResponseBody;
+import retrofit2.Response;
+import ru.sergeykozhukhov.currencyconverter.data.model.CatalogData;
+import ru.sergeykozhukhov.currencyconverter.domain.ICurrenciesRepository;
+import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
+import ru.sergeykozhukhov.currencyconverter.domain.model.RatesTable;
+import ru.sergeykozhukhov.currencyconverter.domain.pipeline.Channel;
+import ru.sergeykozhukhov.currencyconverter.domain.pipeline.ChunkInputStream;
+import ru.sergeykozhukhov.currencyconverter.domain.pipeline.StageScope;
+import ru.sergeykozhukhov.currencyconverter.domain.trace.Tracer;
+
+/**
+ * Репозиторий списка валют, разделяющий справочные данные и ежедневные курсы.
+ * Справочник (id, коды, названия) загружается из XML_valFull.asp и кэшируется надолго,
+ * а из ежедневного XML_daily.asp читаются только номиналы и курсы, которые соединяются
+ * со справочником по id. Если в курсах есть валюта, которой нет в справочнике, справочник
+ * перезагружается, а при неудаче курсы загружаются полностью через {@link CurrenciesRepository}
+ **/
+public class CatalogCurrenciesRepository implements ICurrenciesRepository {
+
+    /**
+     * Не перезагружать справочник из-за неизвестной валюты чаще этого интервала
+     */
+    private static final long MIN_CATALOG_RELOAD_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    /**
+     * Web-api для списка курсов валют
+     */
+    private final IRatesService mRatesApi;
+
+    /**
+     * Кэш справочника валют
+     */
+    private final CurrencyCatalogCache mCatalogCache;
+
+    /**
+     * Разбор ежедневных курсов
+     */
+    private final DailyValuesParser mDailyValuesParser = new DailyValuesParser();
+
+    /**
+     * Полная загрузка, если справочник не покрывает ежедневные курсы
+     */
+    private final ICurrenciesRepository mFallbackRepository;
+
+    /**
+     * Constructor
+     * @param currencyConverter используется полной загрузкой для конвертации валют в domain entity
+     * @param baseUrl базовый адрес сервера с курсами
+     */
+    public CatalogCurrenciesRepository(@NonNull CurrencyConverter currencyConverter, @NonNull String baseUrl) {
+        this(currencyConverter, baseUrl, HttpClients.getDefault());
+    }
+
+    /**
+     * Constructor
+     * @param currencyConverter используется полной загрузкой для конвертации валют в domain entity
+     * @param baseUrl базовый адрес сервера с курсами
+     * @param httpClient общий http клиент процесса ({@link HttpClients#create})
+     */
+    public CatalogCurrenciesRepository(@NonNull CurrencyConverter currencyConverter, @NonNull String baseUrl,
+                                       @NonNull OkHttpClient httpClient) {
+        this(currencyConverter, baseUrl, httpClient, null);
+    }
+
+    /**
+     * Constructor
+     * @param currencyConverter используется полной загрузкой для конвертации валют в domain entity
+     * @param baseUrl базовый адрес сервера с курсами
+     * @param httpClient общий http клиент процесса ({@link HttpClients#create})
+     * @param catalogFile файл справочника валют (справочник переживает перезапуск процесса),
+     *                    {@code null} - справочник хранится только в памяти
+     */
+    public CatalogCurrenciesRepository(@NonNull CurrencyConverter currencyConverter, @NonNull String baseUrl,
+                                       @NonNull OkHttpClient httpClient, @Nullable File catalogFile) {
+        this(CurrenciesRepository.createRatesService(httpClient, baseUrl), currencyConverter, catalogFile);
+    }
+
+    private CatalogCurrenciesRepository(@NonNull IRatesService ratesApi, @NonNull CurrencyConverter currencyConverter,
+                                        @Nullable File catalogFile) {
+        this(ratesApi,
+                new CurrencyCatalogCache(new ServiceCatalogSource(ratesApi, new CatalogConverter()),
+                        CurrencyCatalogCache.DEFAULT_TTL_MILLIS, catalogFile),
+                new CurrenciesRepository(currencyConverter, ratesApi));
+    }
+
+    @VisibleForTesting
+    CatalogCurrenciesRepository(@NonNull IRatesService ratesApi,
+                                @NonNull CurrencyCatalogCache catalogCache,
+                                @NonNull ICurrenciesRepository fallbackRepository) {
+        mRatesApi = ratesApi;
+        mCatalogCache = catalogCache;
+        mFallbackRepository = fallbackRepository;
+    }
+
+    /**
+     * Загрузка списка валют
+     * @return неизменяемый список валют в domain представлении
+     */
+    @NonNull
+    @Override
+    public List<Currency> loadCurrencies() throws IOException {
+        DailyValues values = loadDailyValues();
+        RatesTable table = mCatalogCache.get().join(values);
+        if (table == null) {
+            // в курсах появилась валюта, которой нет в справочнике
+            table = mCatalogCache.reloadIfOlderThan(MIN_CATALOG_RELOAD_MILLIS).join(values);
+        }
+        if (table == null) {
+            return mFallbackRepository.loadCurrencies();
+        }
+        return table.asList();
+    }
+
+    @NonNull
+    private DailyValues loadDailyValues() throws IOException {
+        Response<ResponseBody> response;
+        long span = Tracer.begin();
+        try {
+            response = mRatesApi.loadDailyValues().execute();
+        } finally {
+            Tracer.end("http XML_daily", span);
+        }
+        ResponseBody body = response.body();
+        if (body == null || response.errorBody() != null) {
+            throw new IOException("Не удалось загрузить курсы валют");
+        }
+        // разбор идёт в стадии конвейера, пока стадия загрузки получает следующие блоки из сети
+        final Channel<byte[]> chunks = CurrenciesRepository.newChunkChannel();
+        StageScope scope = CurrenciesRepository.newStageScope();
+        try {
+            scope.onCancel(body);
+            scope.fork("download", CurrenciesRepository.downloadStage(body, chunks));
+            StageScope.Stage<DailyValues> parse = scope.fork("parse", new Callable<DailyValues>() {
+                @Override
+                public DailyValues call() throws IOException {
+                    long span = Tracer.begin();
+                    try {
+                        return mDailyValuesParser.parse(new ChunkInputStream(chunks));
+                    } finally {
+                        Tracer.end("xml DailyValuesParser.parse", span);
+                    }
+                }
+            });
+            scope.join();
+            return parse.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Загрузка курсов прервана");
+        } finally {
+            scope.close();
+            body.close();
+        }
+    }
+
+    /**
+     * Загрузка справочника через web-api
+     */
+    private static class ServiceCatalogSource implements CurrencyCatalogCache.Source {
+
+        private final IRatesService mRatesApi;
+
+        private final CatalogConverter mCatalogConverter;
+
+        ServiceCatalogSource(@NonNull IRatesService ratesApi, @NonNull CatalogConverter catalogConverter) {
+            mRatesApi = ratesApi;
+            mCatalogConverter = catalogConverter;
+        }
+
+        @NonNull
+        @Override
+        public CurrencyCatalog load() throws IOException {
+            Response<CatalogData> response;
+            long span = Tracer.begin();
+            try {
+                // справочник привязывается к модели simplexml внутри execute
+                response = mRatesApi.loadCatalog().execute();
+            } finally {
+                Tracer.end("http+xml XML_valFull", span);
+            }
+            if (response.body() == null || response.errorBody() != null) {
+                throw new IOException("Не удалось загрузить справочник валют");
+            }
+            return mCatalogConverter.convert(response.body().getItems());
+        }
+    }
+}
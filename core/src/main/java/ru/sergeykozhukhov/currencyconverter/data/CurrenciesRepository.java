@@ -0,0 +1,304 @@
+package ru.sergeykozhukhov.currencyconverter.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.simpleframework.xml.Serializer;
+import org.simpleframework.xml.convert.AnnotationStrategy;
+import org.simpleframework.xml.core.Persister;
+import org.simpleframework.xml.strategy.Strategy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.OkHttpClient;
+import okhttp3.ResponseBody;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.converter.simplexml.SimpleXmlConverterFactory;
+import ru.sergeykozhukhov.currencyconverter.data.model.CurrencyData;
+import ru.sergeykozhukhov.currencyconverter.domain.ICurrenciesRepository;
+import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
+import ru.sergeykozhukhov.currencyconverter.domain.model.RatesTable;
+import ru.sergeykozhukhov.currencyconverter.domain.pipeline.Channel;
+import ru.sergeykozhukhov.currencyconverter.domain.pipeline.ChunkInputStream;
+import ru.sergeykozhukhov.currencyconverter.domain.pipeline.StageScope;
+import ru.sergeykozhukhov.currencyconverter.domain.pipeline.StageTiming;
+import ru.sergeykozhukhov.currencyconverter.domain.trace.Tracer;
+
+/**
+ * Реализация репозитория для загрузки списка валют
+ **/
+public class CurrenciesRepository implements ICurrenciesRepository {
+
+    /**
+     * Базовый адрес
+     */
+    public static final String BASE_URL = "http://www.cbr.ru";
+
+    /**
+     * Размер блока, которым стадия загрузки передаёт тело ответа на разбор
+     */
+    private static final int CHUNK_SIZE = 8 * 1024;
+
+    /**
+     * Сколько блоков загрузка может опередить разбор
+     */
+    private static final int CHUNK_CAPACITY = 16;
+
+    /**
+     * Сколько валют разбор может опередить добавление в таблицу
+     */
+    private static final int CURRENCY_CAPACITY = 64;
+
+    /**
+     * Ожидаемое количество валют в ответе
+     */
+    private static final int EXPECTED_CURRENCIES = 40;
+
+    /**
+     * Потоки стадий загрузки, общие для всех репозиториев
+     */
+    private static final ExecutorService PIPELINE_EXECUTOR = createPipelineExecutor();
+
+    /**
+     * Web-api для списка курсов валют
+     */
+    private final IRatesService mRatesApi;
+
+    /**
+     * Конвертер списка валют из data сущностей в domain
+     */
+    private final CurrencyConverter mCurrencyConverter;
+
+    /**
+     * Потоковый разбор ответа
+     */
+    private final CurrencyStreamParser mCurrencyStreamParser = new CurrencyStreamParser();
+
+    /**
+     * Время стадий последней успешной загрузки
+     */
+    private volatile List<StageTiming> mLastLoadTimings;
+
+    /**
+     * Constructor
+     * @param currencyConverter используется для конвертации загруженных валют в domain entity
+     */
+    public CurrenciesRepository(@NonNull CurrencyConverter currencyConverter) {
+        this(currencyConverter, BASE_URL);
+    }
+
+    /**
+     * Constructor
+     * @param currencyConverter используется для конвертации загруженных валют в domain entity
+     * @param baseUrl базовый адрес сервера с курсами (e.g. локальный стенд вместо cbr.ru)
+     */
+    public CurrenciesRepository(@NonNull CurrencyConverter currencyConverter, @NonNull String baseUrl) {
+        this(currencyConverter, baseUrl, HttpClients.getDefault());
+    }
+
+    /**
+     * Constructor
+     * @param currencyConverter используется для конвертации загруженных валют в domain entity
+     * @param baseUrl базовый адрес сервера с курсами
+     * @param httpClient общий http клиент процесса ({@link HttpClients#create})
+     */
+    public CurrenciesRepository(@NonNull CurrencyConverter currencyConverter, @NonNull String baseUrl,
+                                @NonNull OkHttpClient httpClient) {
+        this(currencyConverter, createRatesService(httpClient, baseUrl));
+    }
+
+    CurrenciesRepository(@NonNull CurrencyConverter currencyConverter, @NonNull IRatesService ratesApi) {
+        mCurrencyConverter = currencyConverter;
+        mRatesApi = ratesApi;
+    }
+
+    /**
+     * Создаёт web-api для указанного адреса
+     * @param httpClient http клиент, соединения которого использует web-api
+     * @param baseUrl базовый адрес сервера с курсами
+     */
+    @NonNull
+    static IRatesService createRatesService(@NonNull OkHttpClient httpClient, @NonNull String baseUrl) {
+        long span = Tracer.begin();
+        try {
+            return buildRatesService(httpClient, baseUrl);
+        } finally {
+            Tracer.end("CurrenciesRepository.createRatesService", span);
+        }
+    }
+
+    @NonNull
+    private static IRatesService buildRatesService(@NonNull OkHttpClient httpClient, @NonNull String baseUrl) {
+        // Strategy - интерфейс, представляющий способы для загрузки объектов, подвергающихся сериализации.
+        // Непосредственно в самой реализации данного интерейса используется предоставленный перечень атрибутов,
+        // для получения тех данный, которые требуются в каждом конкретном случае.
+        // AnnotationStrategy используется для того, чтобы в процессе сериализации/десериализации
+        // преобразовать данные с помощью пользовательних настроек.
+        // Данные способ (AnnotationStrategy) использует аннотацию convert, которая относится к полю mValue,
+        // для того, чтобы в процессе десериализации изменять строку числа с "," на строку с ".", и на ее основе получать BigDecimal.
+        Strategy strategy = new AnnotationStrategy();
+        // Serializer - интерфейс, используемый для определения методов, которые позволяют производить процесс сериализации xml.
+        // Он предоставляет некоторые методы для чтения и записи.
+        // В реализации интерфейса может свободно использоваться любой предпочитаемый способ синтаксического анализа xml.
+        // Persister реализует интерфейс Serializer и использует Filter объекты для для замены исходных переменных в предоставленном xml.
+        Serializer serializer = new Persister(strategy);
+        // Создание нового объектра Retrofit.
+        // noinspection deprecation
+        Retrofit retrofit = new Retrofit.Builder()
+                .baseUrl(baseUrl) // определение основного адреса
+                .client(httpClient) // общий клиент вместо нового клиента со своим пулом соединений
+                // добавление "фабрики" с serializer для сериализации/десериализации xml
+                // на данный момент стоит отдавать предпочтение JAXB converter
+                .addConverterFactory(SimpleXmlConverterFactory.create(serializer))
+                .build(); // создание нового экземпляра на основе обозначенных параметров
+        // реализация интерфейса с возможными http операциями
+        // относительные пути для итоговых ссылок получаются из аннотаций
+        // по умолчанию методы возвращают Call, которыке по сути, являются http запросами.
+        // тип Call обрабатывается для итогового результата с помощью экземпляра "фабрики"
+        return retrofit.create(IRatesService.class);
+    }
+
+    /**
+     * Загрузка списка валют конвейером из трёх стадий в общей области отмены:
+     * загрузка блоков тела ответа, потоковый разбор валют и их добавление в таблицу курсов.
+     * Разбор идёт, пока байты ещё приходят из сети, поэтому общее время близко ко времени загрузки
+     * @return список валют в domain представлении
+     */
+    @NonNull
+    @Override
+    public List<Currency> loadCurrencies() throws IOException {
+        // http ответ; execute - синхронный запрос, возвращается после получения заголовков
+        Response<ResponseBody> response;
+        long span = Tracer.begin();
+        try {
+            response = mRatesApi.loadDailyValues().execute();
+        } finally {
+            Tracer.end("http XML_daily", span);
+        }
+        final ResponseBody body = response.body();
+        if (body == null || response.errorBody() != null) {
+            throw new IOException("Не удалось загрузить список валют");
+        }
+        final Channel<byte[]> chunks = newChunkChannel();
+        final Channel<CurrencyData> currencies = new Channel<>(CURRENCY_CAPACITY);
+        StageScope scope = newStageScope();
+        try {
+            // отмена закрывает ответ, чтобы освободить стадию, ожидающую данных из сети
+            scope.onCancel(body);
+            scope.fork("download", downloadStage(body, chunks));
+            scope.fork("parse", new Callable<Void>() {
+                @Override
+                public Void call() throws IOException, InterruptedException {
+                    long span = Tracer.begin();
+                    try {
+                        mCurrencyStreamParser.parse(new ChunkInputStream(chunks), currencies);
+                    } finally {
+                        Tracer.end("xml CurrencyStreamParser.parse", span);
+                    }
+                    currencies.close();
+                    return null;
+                }
+            });
+            StageScope.Stage<RatesTable> map = scope.fork("map", new Callable<RatesTable>() {
+                @Override
+                public RatesTable call() throws InterruptedException {
+                    long span = Tracer.begin();
+                    try {
+                        RatesTable.Builder builder = new RatesTable.Builder(EXPECTED_CURRENCIES);
+                        CurrencyData currency;
+                        while ((currency = currencies.receive()) != null) {
+                            // конвертация в domain представление сразу по мере разбора
+                            mCurrencyConverter.appendTo(builder, currency);
+                        }
+                        return builder.build();
+                    } finally {
+                        Tracer.end("CurrencyConverter.appendTo", span);
+                    }
+                }
+            });
+            scope.join();
+            mLastLoadTimings = scope.getTimings();
+            return map.get().asList();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Загрузка списка валют прервана");
+        } finally {
+            scope.close();
+            body.close();
+        }
+    }
+
+    /**
+     * Область стадий загрузки на общих потоках конвейера
+     */
+    @NonNull
+    static StageScope newStageScope() {
+        return new StageScope(PIPELINE_EXECUTOR);
+    }
+
+    /**
+     * Канал блоков тела ответа между стадией загрузки и стадией разбора
+     */
+    @NonNull
+    static Channel<byte[]> newChunkChannel() {
+        return new Channel<>(CHUNK_CAPACITY);
+    }
+
+    /**
+     * Стадия загрузки: передаёт тело ответа в канал блоками по мере получения из сети и закрывает канал.
+     * Стадия разбора читает блоки через {@link ChunkInputStream}
+     */
+    @NonNull
+    static Callable<Void> downloadStage(@NonNull final ResponseBody body, @NonNull final Channel<byte[]> chunks) {
+        return new Callable<Void>() {
+            @Override
+            public Void call() throws IOException, InterruptedException {
+                InputStream input = body.byteStream();
+                byte[] buffer = new byte[CHUNK_SIZE];
+                int read;
+                while ((read = input.read(buffer)) != -1) {
+                    chunks.send(Arrays.copyOf(buffer, read));
+                }
+                chunks.close();
+                return null;
+            }
+        };
+    }
+
+    /**
+     * Время стадий последней успешной загрузки
+     * @return {@code null}, если загрузок ещё не было
+     */
+    @Nullable
+    public List<StageTiming> getLastLoadTimings() {
+        return mLastLoadTimings;
+    }
+
+    /**
+     * Потоки стадий загрузки (фоновые, чтобы не мешать завершению процесса)
+     */
+    @NonNull
+    private static ExecutorService createPipelineExecutor() {
+        return Executors.newCachedThreadPool(new ThreadFactory() {
+
+            private final AtomicInteger mCount = new AtomicInteger();
+
+            @Override
+            public Thread newThread(@NonNull Runnable runnable) {
+                Thread thread = new Thread(runnable, "currencies-pipeline-" + mCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+}
@@ -0,0 +1,112 @@
+package ru.sergeykozhukhov.currencyconverter.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import ru.sergeykozhukhov.currencyconverter.domain.model.RatesTable;
+
+/**
+ * Неизменяемый справочник валют: редко меняющиеся id, коды и названия.
+ * Строки интернированы, поэтому все таблицы курсов, собранные по справочнику, ссылаются на одни и те же объекты
+ **/
+public final class CurrencyCatalog {
+
+    /**
+     * Записи справочника по id
+     */
+    private final Map<String, Entry> mEntries;
+
+    /**
+     * Время загрузки (мс)
+     */
+    private final long mLoadedAt;
+
+    CurrencyCatalog(@NonNull Map<String, Entry> entries, long loadedAt) {
+        mEntries = Collections.unmodifiableMap(new HashMap<>(entries));
+        mLoadedAt = loadedAt;
+    }
+
+    public int size() {
+        return mEntries.size();
+    }
+
+    public long getLoadedAt() {
+        return mLoadedAt;
+    }
+
+    /**
+     * Все записи справочника (для записи в файл)
+     */
+    @NonNull
+    Collection<Entry> entries() {
+        return mEntries.values();
+    }
+
+    /**
+     * Запись справочника по id
+     *
+     * @return {@code null}, если валюты нет в справочнике
+     */
+    @Nullable
+    public Entry find(@NonNull String id) {
+        return mEntries.get(id);
+    }
+
+    /**
+     * Собирает таблицу курсов из ежедневных значений и справочника
+     *
+     * @return {@code null}, если какой-то валюты из значений нет в справочнике (справочник устарел)
+     */
+    @Nullable
+    public RatesTable join(@NonNull DailyValues values) {
+        RatesTable.Builder builder = new RatesTable.Builder(values.size());
+        for (int i = 0; i < values.size(); i++) {
+            Entry entry = mEntries.get(values.getId(i));
+            if (entry == null) {
+                return null;
+            }
+            builder.add(entry.getId(), entry.getCharCode(), values.getNominal(i), entry.getName(),
+                    BigDecimal.valueOf(values.getUnscaledValue(i), values.getScale(i)));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Запись справочника
+     */
+    public static final class Entry {
+
+        private final String mId;
+
+        private final String mCharCode;
+
+        private final String mName;
+
+        Entry(@NonNull String id, @NonNull String charCode, @NonNull String name) {
+            mId = id.intern();
+            mCharCode = charCode.intern();
+            mName = name.intern();
+        }
+
+        @NonNull
+        public String getId() {
+            return mId;
+        }
+
+        @NonNull
+        public String getCharCode() {
+            return mCharCode;
+        }
+
+        @NonNull
+        public String getName() {
+            return mName;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package ru.sergeykozhukhov.currencyconverter.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Кэш справочника валют с временем жизни. Справочник меняется редко (новые валюты появляются
+ * раз в годы), поэтому загружается заново только по истечении срока или когда в ежедневных
+ * курсах встретилась неизвестная валюта.
+ * С файлом справочник переживает перезапуск процесса: время жизни отсчитывается от загрузки с сервера,
+ * а не от чтения файла
+ **/
+public class CurrencyCatalogCache {
+
+    /**
+     * Источник справочника
+     */
+    public interface Source {
+
+        @NonNull
+        CurrencyCatalog load() throws IOException;
+    }
+
+    /**
+     * Время жизни справочника по умолчанию
+     */
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.DAYS.toMillis(7);
+
+    private final Source mSource;
+
+    private final long mTtlMillis;
+
+    /**
+     * Файл справочника ({@code null} - справочник хранится только в памяти)
+     */
+    @Nullable
+    private final CurrencyCatalogFile mFile;
+
+    private volatile CurrencyCatalog mCatalog;
+
+    /**
+     * Файл уже прочитан (читается один раз, при первом обращении, а не в конструкторе)
+     */
+    private boolean mRestored;
+
+    public CurrencyCatalogCache(@NonNull Source source, long ttlMillis) {
+        this(source, ttlMillis, null);
+    }
+
+    /**
+     * @param file файл справочника, {@code null} - справочник хранится только в памяти
+     */
+    public CurrencyCatalogCache(@NonNull Source source, long ttlMillis, @Nullable File file) {
+        mSource = source;
+        mTtlMillis = ttlMillis;
+        mFile = file != null ? new CurrencyCatalogFile(file) : null;
+    }
+
+    /**
+     * Справочник из кэша, при истечении срока - загруженный заново.
+     * Если загрузить не удалось, возвращается устаревший справочник (если он есть)
+     *
+     * @throws IOException если справочник не загружался ни разу и загрузить его не удалось
+     */
+    @NonNull
+    public CurrencyCatalog get() throws IOException {
+        CurrencyCatalog catalog = mCatalog;
+        if (catalog != null && !isOlderThan(catalog, mTtlMillis)) {
+            return catalog;
+        }
+        synchronized (this) {
+            catalog = restore();
+            if (catalog != null && !isOlderThan(catalog, mTtlMillis)) {
+                return catalog;
+            }
+            try {
+                return load();
+            } catch (IOException e) {
+                if (catalog != null) {
+                    return catalog;
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Загружает справочник заново, если текущий старше указанного возраста.
+     * Ограничение возраста не даёт перезагружать справочник при каждом обновлении курсов,
+     * пока ЦБ не добавил новую валюту в справочник
+     */
+    @NonNull
+    public synchronized CurrencyCatalog reloadIfOlderThan(long minAgeMillis) throws IOException {
+        CurrencyCatalog catalog = restore();
+        if (catalog != null && !isOlderThan(catalog, minAgeMillis)) {
+            return catalog;
+        }
+        return load();
+    }
+
+    @NonNull
+    private CurrencyCatalog load() throws IOException {
+        CurrencyCatalog catalog = mSource.load();
+        mCatalog = catalog;
+        if (mFile != null) {
+            try {
+                mFile.write(catalog);
+            } catch (IOException e) {
+                // справочник в памяти актуален, файл обновится при следующей загрузке
+            }
+        }
+        return catalog;
+    }
+
+    /**
+     * Справочник из памяти, а при первом обращении - из файла
+     */
+    @Nullable
+    private CurrencyCatalog restore() {
+        if (mCatalog == null && !mRestored && mFile != null) {
+            mCatalog = mFile.read();
+        }
+        mRestored = true;
+        return mCatalog;
+    }
+
+    private static boolean isOlderThan(@NonNull CurrencyCatalog catalog, long ageMillis) {
+        return System.currentTimeMillis() - catalog.getLoadedAt() >= ageMillis;
+    }
+}
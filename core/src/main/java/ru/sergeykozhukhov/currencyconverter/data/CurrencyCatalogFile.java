@@ -0,0 +1,155 @@
+package ru.sergeykozhukhov.currencyconverter.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Файл справочника валют: справочник переживает перезапуск процесса, и холодный старт
+ * загружает только ежедневные курсы, пока справочник не устарел.
+ * <p>
+ * Формат: magic (4 байта), версия (int), время загрузки справочника (long), количество записей (int),
+ * записи (id, код, название в modified UTF-8) и CRC32 всего, что до неё.
+ * Файл записывается во временный и переименовывается, поэтому при обрыве записи остаётся прежний
+ **/
+class CurrencyCatalogFile {
+
+    /**
+     * "CCAT"
+     */
+    private static final int MAGIC = 0x43434154;
+
+    private static final int VERSION = 1;
+
+    /**
+     * Записей в справочнике ЦБ не бывает больше (большое количество - признак испорченного файла)
+     */
+    private static final int MAX_ENTRIES = 4096;
+
+    private final File mFile;
+
+    CurrencyCatalogFile(@NonNull File file) {
+        mFile = file;
+    }
+
+    /**
+     * Читает справочник
+     *
+     * @return {@code null}, если файла нет или он испорчен
+     */
+    @Nullable
+    CurrencyCatalog read() {
+        if (!mFile.isFile()) {
+            return null;
+        }
+        try {
+            return decode(readFully(mFile));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Записывает справочник
+     *
+     * @throws IOException если записать не удалось (прежний файл при этом не портится)
+     */
+    void write(@NonNull CurrencyCatalog catalog) throws IOException {
+        byte[] bytes = encode(catalog);
+        File temp = new File(mFile.getPath() + ".tmp");
+        FileOutputStream output = new FileOutputStream(temp);
+        try {
+            output.write(bytes);
+            output.getFD().sync();
+        } finally {
+            output.close();
+        }
+        if (!temp.renameTo(mFile)) {
+            temp.delete();
+            throw new IOException("Не удалось заменить файл справочника " + mFile);
+        }
+    }
+
+    @NonNull
+    static byte[] encode(@NonNull CurrencyCatalog catalog) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 * 1024);
+        DataOutputStream output = new DataOutputStream(bytes);
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        output.writeLong(catalog.getLoadedAt());
+        output.writeInt(catalog.size());
+        for (CurrencyCatalog.Entry entry : catalog.entries()) {
+            output.writeUTF(entry.getId());
+            output.writeUTF(entry.getCharCode());
+            output.writeUTF(entry.getName());
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        output.writeInt((int) crc.getValue());
+        output.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @throws IOException если данные испорчены или другой версии
+     */
+    @NonNull
+    static CurrencyCatalog decode(@NonNull byte[] bytes) throws IOException {
+        if (bytes.length < 24) {
+            throw new IOException("Файл справочника обрезан");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 4);
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes));
+        input.skipBytes(bytes.length - 4);
+        if (input.readInt() != (int) crc.getValue()) {
+            throw new IOException("Неверная контрольная сумма файла справочника");
+        }
+        input = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 4));
+        if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+            throw new IOException("Не файл справочника или другая версия");
+        }
+        long loadedAt = input.readLong();
+        int count = input.readInt();
+        if (count < 0 || count > MAX_ENTRIES) {
+            throw new IOException("Некорректное количество записей справочника: " + count);
+        }
+        Map<String, CurrencyCatalog.Entry> entries = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            CurrencyCatalog.Entry entry = new CurrencyCatalog.Entry(input.readUTF(), input.readUTF(), input.readUTF());
+            entries.put(entry.getId(), entry);
+        }
+        if (input.available() != 0) {
+            throw new IOException("Лишние байты в файле справочника");
+        }
+        return new CurrencyCatalog(entries, loadedAt);
+    }
+
+    @NonNull
+    private static byte[] readFully(@NonNull File file) throws IOException {
+        InputStream input = new FileInputStream(file);
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream((int) file.length());
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+            return output.toByteArray();
+        } finally {
+            input.close();
+        }
+    }
+}
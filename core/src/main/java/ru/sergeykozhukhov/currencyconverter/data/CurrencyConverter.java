@@ -0,0 +1,63 @@
+package ru.sergeykozhukhov.currencyconverter.data;
+
+import androidx.annotation.NonNull;
+
+import java.util.List;
+
+import ru.sergeykozhukhov.currencyconverter.data.model.CurrencyData;
+import ru.sergeykozhukhov.currencyconverter.domain.IConverter;
+import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
+import ru.sergeykozhukhov.currencyconverter.domain.model.RatesTable;
+import ru.sergeykozhukhov.currencyconverter.domain.trace.Tracer;
+
+/**
+ * Конвертирует список валют из data сущностей в domain
+ **/
+public class CurrencyConverter
+        implements IConverter<List<CurrencyData>, List<Currency>> {
+
+    /**
+     * Конвертация списка валют между обозначенными представлениями
+     * @param currencies - список валют data представления
+     * @return неизменяемый список валют domain представления поверх {@link RatesTable}
+     */
+    @NonNull
+    @Override
+    public List<Currency> convert(@NonNull List<CurrencyData> currencies) {
+        long span = Tracer.begin();
+        try {
+            return convertToTable(currencies).asList();
+        } finally {
+            Tracer.end("CurrencyConverter.convert", span);
+        }
+    }
+
+    /**
+     * Конвертация списка валют в колоночную таблицу курсов без создания промежуточных domain объектов
+     * @param currencies - список валют data представления
+     * @return таблица курсов
+     */
+    @NonNull
+    public RatesTable convertToTable(@NonNull List<CurrencyData> currencies) {
+        RatesTable.Builder builder = new RatesTable.Builder(currencies.size());
+        for (CurrencyData currency : currencies) {
+            appendTo(builder, currency);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Добавляет валюту в конец строящейся таблицы (для потоковой загрузки, где валюты приходят по одной)
+     * @param builder - построитель таблицы курсов
+     * @param currency - валюта data представления
+     */
+    public void appendTo(@NonNull RatesTable.Builder builder, @NonNull CurrencyData currency) {
+        builder.add(
+                currency.getId(),
+                currency.getCharCode(),
+                currency.getNominal(),
+                currency.getName(),
+                currency.getValue()
+        );
+    }
+}
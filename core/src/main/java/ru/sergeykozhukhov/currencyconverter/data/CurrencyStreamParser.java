@@ -0,0 +1,88 @@
+package ru.sergeykozhukhov.currencyconverter.data;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+
+import ru.sergeykozhukhov.currencyconverter.data.model.CurrencyData;
+import ru.sergeykozhukhov.currencyconverter.domain.pipeline.Channel;
+
+/**
+ * Потоковый разбор полного ответа ЦБ (XML_daily.asp): каждая валюта отправляется дальше,
+ * как только из потока прочитан её закрывающий тег, не дожидаясь конца документа.
+ * Элементы находит {@link ValCursScanner}
+ **/
+public class CurrencyStreamParser {
+
+    private final ValCursScanner mScanner = new ValCursScanner();
+
+    /**
+     * Получатель разобранных валют
+     */
+    public interface Callback {
+
+        void onCurrency(@NonNull CurrencyData currency) throws IOException, InterruptedException;
+    }
+
+    /**
+     * Разбирает документ и отправляет валюты в канал по мере чтения
+     *
+     * @param input      поток с документом (читается до конца, но не закрывается)
+     * @param currencies канал для разобранных валют (не закрывается)
+     * @return количество валют
+     * @throws IOException если документ некорректен (например, обрезан) или не содержит валют
+     */
+    public int parse(@NonNull InputStream input, @NonNull final Channel<CurrencyData> currencies)
+            throws IOException, InterruptedException {
+        return parse(input, new Callback() {
+            @Override
+            public void onCurrency(@NonNull CurrencyData currency) throws InterruptedException {
+                currencies.send(currency);
+            }
+        });
+    }
+
+    /**
+     * Разбирает документ и передаёт валюты получателю в том же потоке по мере чтения
+     *
+     * @param input    поток с документом (читается до конца, но не закрывается)
+     * @param callback получатель разобранных валют
+     * @return количество валют
+     * @throws IOException если документ некорректен (например, обрезан) или не содержит валют
+     */
+    public int parse(@NonNull InputStream input, @NonNull final Callback callback)
+            throws IOException, InterruptedException {
+        return mScanner.scan(input, new ValCursScanner.Handler() {
+            @Override
+            public void onValute(@NonNull ValCursScanner.Valute valute) throws IOException, InterruptedException {
+                callback.onCurrency(parseCurrency(valute));
+            }
+        });
+    }
+
+    @NonNull
+    private static CurrencyData parseCurrency(@NonNull ValCursScanner.Valute valute) throws IOException {
+        String id = valute.getAttribute("ID");
+        String numCode = valute.getText("NumCode");
+        String charCode = valute.getText("CharCode");
+        String nominal = valute.getText("Nominal");
+        String name = valute.getText("Name");
+        String value = valute.getText("Value");
+        if (id == null || charCode == null || nominal == null || name == null || value == null) {
+            throw new IOException("У валюты нет обязательного поля");
+        }
+        try {
+            return new CurrencyData(
+                    id,
+                    numCode == null || numCode.isEmpty() ? 0 : Integer.parseInt(numCode),
+                    charCode,
+                    Long.parseLong(nominal),
+                    name,
+                    new BigDecimal(value.replace(',', '.')));
+        } catch (NumberFormatException e) {
+            throw new IOException("Некорректный номинал или курс валюты " + charCode, e);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package ru.sergeykozhukhov.currencyconverter.data;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Ежедневные значения курсов без справочных данных: только id, номинал и курс.
+ * Хранятся в параллельных примитивных массивах
+ **/
+public final class DailyValues {
+
+    private String[] mIds;
+
+    private long[] mNominals;
+
+    private long[] mUnscaledValues;
+
+    private int[] mScales;
+
+    private int mSize;
+
+    DailyValues(int expectedSize) {
+        mIds = new String[expectedSize];
+        mNominals = new long[expectedSize];
+        mUnscaledValues = new long[expectedSize];
+        mScales = new int[expectedSize];
+    }
+
+    void add(@NonNull String id, long nominal, long unscaledValue, int scale) {
+        if (mSize == mIds.length) {
+            int capacity = Math.max(8, mSize * 2);
+            mIds = Arrays.copyOf(mIds, capacity);
+            mNominals = Arrays.copyOf(mNominals, capacity);
+            mUnscaledValues = Arrays.copyOf(mUnscaledValues, capacity);
+            mScales = Arrays.copyOf(mScales, capacity);
+        }
+        mIds[mSize] = id;
+        mNominals[mSize] = nominal;
+        mUnscaledValues[mSize] = unscaledValue;
+        mScales[mSize] = scale;
+        mSize++;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    @NonNull
+    public String getId(int index) {
+        return mIds[index];
+    }
+
+    public long getNominal(int index) {
+        return mNominals[index];
+    }
+
+    /**
+     * Курс без десятичной точки: курс = getUnscaledValue(i) * 10^-getScale(i)
+     */
+    public long getUnscaledValue(int index) {
+        return mUnscaledValues[index];
+    }
+
+    public int getScale(int index) {
+        return mScales[index];
+    }
+}
@@ -0,0 +1,67 @@
+package ru.sergeykozhukhov.currencyconverter.data;
+
+import androidx.annotation.NonNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+
+/**
+ * Разбор ежедневных курсов ЦБ (XML_daily.asp): из каждого элемента Valute читаются только ID, Nominal и Value,
+ * номинал и курс - прямо из буфера без создания строк, названия и коды пропускаются.
+ * Документ читается потоком через {@link ValCursScanner}, поэтому разбор идёт, пока ответ ещё загружается
+ **/
+public class DailyValuesParser {
+
+    /**
+     * Ожидаемое количество валют в ответе
+     */
+    private static final int EXPECTED_SIZE = 40;
+
+    private final ValCursScanner mScanner = new ValCursScanner();
+
+    /**
+     * Разбирает ответ ЦБ по мере чтения потока
+     *
+     * @param input поток с документом (читается до конца, но не закрывается)
+     * @throws IOException если поток не читается или документ некорректен (например, обрезан)
+     */
+    @NonNull
+    public DailyValues parse(@NonNull InputStream input) throws IOException {
+        final DailyValues values = new DailyValues(EXPECTED_SIZE);
+        final int[] scale = new int[1];
+        try {
+            mScanner.scan(input, new ValCursScanner.Handler() {
+                @Override
+                public void onValute(@NonNull ValCursScanner.Valute valute) throws IOException {
+                    String id = valute.getAttribute("ID");
+                    if (id == null || id.isEmpty()) {
+                        throw new IOException("У валюты нет ID");
+                    }
+                    long nominal = valute.getNumber("Nominal", null);
+                    long value = valute.getNumber("Value", scale);
+                    if (nominal <= 0 || value < 0) {
+                        throw new IOException("Некорректный номинал или курс валюты");
+                    }
+                    values.add(id, nominal, value, scale[0]);
+                }
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Разбор курсов прерван");
+        }
+        return values;
+    }
+
+    /**
+     * Разбирает ответ ЦБ
+     *
+     * @param document байты документа
+     * @throws IOException если документ некорректен
+     */
+    @NonNull
+    public DailyValues parse(@NonNull byte[] document) throws IOException {
+        return parse(new ByteArrayInputStream(document));
+    }
+}
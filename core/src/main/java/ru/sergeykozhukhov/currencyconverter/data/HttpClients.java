@@ -0,0 +1,96 @@
+package ru.sergeykozhukhov.currencyconverter.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Cache;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+
+/**
+ * Http клиент, общий для всех web-api процесса.
+ * <p>
+ * Один клиент - один пул соединений: загрузка курсов, справочника и истории по нескольким
+ * провайдерам переиспользует уже открытые соединения вместо нового TCP (и TLS) рукопожатия
+ * на каждый Retrofit. Ответы сжимаются gzip: OkHttp сам добавляет Accept-Encoding и распаковывает
+ * тело, пока заголовок не задан вручную (иначе распаковка ложится на вызывающий код)
+ **/
+public final class HttpClients {
+
+    /**
+     * Размер дискового кэша ответов по умолчанию
+     */
+    public static final long DEFAULT_CACHE_SIZE = 5L * 1024 * 1024;
+
+    /**
+     * Сколько простаивающих соединений держит пул
+     */
+    private static final int MAX_IDLE_CONNECTIONS = 4;
+
+    private static final long KEEP_ALIVE_MINUTES = 5;
+
+    /**
+     * Ограничения асинхронных запросов: всего и к одному серверу (cbr.ru не любит много параллельных запросов)
+     */
+    private static final int MAX_REQUESTS = 16;
+
+    private static final int MAX_REQUESTS_PER_HOST = 4;
+
+    private HttpClients() {
+    }
+
+    /**
+     * Создаёт настроенный клиент. Вызывается один раз на процесс: каждый клиент держит свой пул соединений
+     *
+     * @param cacheDirectory каталог дискового кэша ответов, {@code null} - без кэша
+     * @param stats          счётчики трафика клиента
+     */
+    @NonNull
+    public static OkHttpClient create(@Nullable File cacheDirectory, @NonNull HttpTrafficStats stats) {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(MAX_REQUESTS);
+        dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                .dispatcher(dispatcher)
+                // распакованные байты и попадания в кэш - над кэшем и распаковкой gzip
+                .addInterceptor(TrafficInterceptor.decoded(stats))
+                // байты по сети и время до первого байта - под ними
+                .addNetworkInterceptor(TrafficInterceptor.wire(stats));
+        if (cacheDirectory != null) {
+            // кэш открывается при первом запросе, а не здесь
+            builder.cache(new Cache(cacheDirectory, DEFAULT_CACHE_SIZE));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Общий клиент без дискового кэша для репозиториев, которым клиент не передали явно
+     */
+    @NonNull
+    public static OkHttpClient getDefault() {
+        return DefaultHolder.CLIENT;
+    }
+
+    /**
+     * Счётчики трафика клиента {@link #getDefault()}
+     */
+    @NonNull
+    public static HttpTrafficStats getDefaultStats() {
+        return DefaultHolder.STATS;
+    }
+
+    /**
+     * Ленивое создание общего клиента (при загрузке класса-держателя)
+     */
+    private static final class DefaultHolder {
+
+        static final HttpTrafficStats STATS = new HttpTrafficStats();
+
+        static final OkHttpClient CLIENT = create(null, STATS);
+    }
+}
@@ -0,0 +1,128 @@
+package ru.sergeykozhukhov.currencyconverter.data;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Счётчики трафика http клиента: сколько байт тела пришло по сети (сжатыми),
+ * сколько получилось после распаковки, сколько ответов отдано из кэша
+ * и за сколько сервер начинал отвечать.
+ * <p>
+ * Заполняется перехватчиками {@link TrafficInterceptor}, читается из любого потока
+ **/
+public final class HttpTrafficStats {
+
+    /**
+     * Все ответы, полученные вызывающим кодом (из сети и из кэша)
+     */
+    private final AtomicLong mResponses = new AtomicLong();
+
+    /**
+     * Ответы, за которыми клиент ходил в сеть (включая 304 при проверке кэша)
+     */
+    private final AtomicLong mNetworkResponses = new AtomicLong();
+
+    /**
+     * Ответы из кэша без обращения к сети
+     */
+    private final AtomicLong mCacheHits = new AtomicLong();
+
+    /**
+     * Ответы из кэша, подтверждённые сервером ответом 304
+     */
+    private final AtomicLong mConditionalHits = new AtomicLong();
+
+    /**
+     * Байты тел ответов в том виде, в котором они пришли по сети
+     */
+    private final AtomicLong mWireBytes = new AtomicLong();
+
+    /**
+     * Байты тел ответов после распаковки, прочитанные вызывающим кодом
+     */
+    private final AtomicLong mDecodedBytes = new AtomicLong();
+
+    /**
+     * Суммарное время от отправки запроса до получения заголовков ответа
+     */
+    private final AtomicLong mTimeToFirstByteNanos = new AtomicLong();
+
+    private final AtomicLong mMaxTimeToFirstByteNanos = new AtomicLong();
+
+    void recordResponse(boolean fromCache, boolean revalidated) {
+        mResponses.incrementAndGet();
+        if (revalidated) {
+            mConditionalHits.incrementAndGet();
+        } else if (fromCache) {
+            mCacheHits.incrementAndGet();
+        }
+    }
+
+    void recordNetworkResponse(long timeToFirstByteNanos) {
+        mNetworkResponses.incrementAndGet();
+        mTimeToFirstByteNanos.addAndGet(timeToFirstByteNanos);
+        long max;
+        do {
+            max = mMaxTimeToFirstByteNanos.get();
+        } while (timeToFirstByteNanos > max && !mMaxTimeToFirstByteNanos.compareAndSet(max, timeToFirstByteNanos));
+    }
+
+    void addWireBytes(long bytes) {
+        mWireBytes.addAndGet(bytes);
+    }
+
+    void addDecodedBytes(long bytes) {
+        mDecodedBytes.addAndGet(bytes);
+    }
+
+    public long getResponseCount() {
+        return mResponses.get();
+    }
+
+    public long getNetworkResponseCount() {
+        return mNetworkResponses.get();
+    }
+
+    public long getCacheHitCount() {
+        return mCacheHits.get();
+    }
+
+    public long getConditionalHitCount() {
+        return mConditionalHits.get();
+    }
+
+    public long getWireBytes() {
+        return mWireBytes.get();
+    }
+
+    public long getDecodedBytes() {
+        return mDecodedBytes.get();
+    }
+
+    /**
+     * Среднее время до первого байта ответа по запросам, ушедшим в сеть
+     *
+     * @return 0, если в сеть ещё не ходили
+     */
+    public long getAverageTimeToFirstByteMillis() {
+        long responses = mNetworkResponses.get();
+        return responses == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(mTimeToFirstByteNanos.get() / responses);
+    }
+
+    public long getMaxTimeToFirstByteMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(mMaxTimeToFirstByteNanos.get());
+    }
+
+    @Override
+    public String toString() {
+        return "HttpTrafficStats{" +
+                "responses=" + getResponseCount() +
+                ", network=" + getNetworkResponseCount() +
+                ", cacheHits=" + getCacheHitCount() +
+                ", conditionalHits=" + getConditionalHitCount() +
+                ", wireBytes=" + getWireBytes() +
+                ", decodedBytes=" + getDecodedBytes() +
+                ", avgTtfbMs=" + getAverageTimeToFirstByteMillis() +
+                '}';
+    }
+}
@@ -1,7 +1,10 @@
 package ru.sergeykozhukhov.currencyconverter.data;
 
+import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.http.GET;
+import retrofit2.http.Streaming;
+import ru.sergeykozhukhov.currencyconverter.data.model.CatalogData;
 import ru.sergeykozhukhov.currencyconverter.data.model.CurrenciesData;
 
 /**
@@ -22,4 +25,18 @@ public interface IRatesService {
     // CurrenciesData - тип ответа/результата в случае успешного выполнения запроса.
     // Возвращаемое значение завершает ответ в Call-объекте с типом ожидаемого результата.
     Call<CurrenciesData> loadCurrencies();
+
+    /**
+     * Загружает ежедневные курсы без разбора (для {@link DailyValuesParser} и {@link CurrencyStreamParser}).
+     * Тело ответа не буферизуется целиком и читается по мере поступления из сети
+     */
+    @Streaming
+    @GET("scripts/XML_daily.asp")
+    Call<ResponseBody> loadDailyValues();
+
+    /**
+     * Загружает справочник валют
+     */
+    @GET("scripts/XML_valFull.asp")
+    Call<CatalogData> loadCatalog();
 }
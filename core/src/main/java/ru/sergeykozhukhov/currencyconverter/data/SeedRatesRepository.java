@@ -0,0 +1,68 @@
+package ru.sergeykozhukhov.currencyconverter.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import ru.sergeykozhukhov.currencyconverter.domain.ISeedRatesRepository;
+import ru.sergeykozhukhov.currencyconverter.domain.model.SeedRates;
+import ru.sergeykozhukhov.currencyconverter.domain.trace.Tracer;
+
+/**
+ * Репозиторий встроенного снимка курсов ({@link SeedSnapshotFormat}, собирается задачей
+ * generateSeedSnapshot в assets приложения). Снимок занимает пару килобайт и читается
+ * без разбора XML, поэтому его можно загрузить в главном потоке до первого кадра
+ **/
+public class SeedRatesRepository implements ISeedRatesRepository {
+
+    /**
+     * Источник байтов снимка (например, файл в assets)
+     */
+    public interface Source {
+
+        @NonNull
+        InputStream open() throws IOException;
+    }
+
+    private final Source mSource;
+
+    private final CurrencyConverter mCurrencyConverter;
+
+    public SeedRatesRepository(@NonNull Source source, @NonNull CurrencyConverter currencyConverter) {
+        mSource = source;
+        mCurrencyConverter = currencyConverter;
+    }
+
+    @Nullable
+    @Override
+    public SeedRates loadSeedRates() {
+        long span = Tracer.begin();
+        try {
+            SeedSnapshot snapshot = SeedSnapshotFormat.read(readAll(mSource.open()));
+            return new SeedRates(snapshot.getEpochDay(), mCurrencyConverter.convert(snapshot.getCurrencies()));
+        } catch (IOException e) {
+            // нет снимка или он собран под другую схему: курсы придут из сети
+            return null;
+        } finally {
+            Tracer.end("SeedRatesRepository.loadSeedRates", span);
+        }
+    }
+
+    @NonNull
+    private static byte[] readAll(@NonNull InputStream input) throws IOException {
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream(4 * 1024);
+            byte[] buffer = new byte[4 * 1024];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+            return output.toByteArray();
+        } finally {
+            input.close();
+        }
+    }
+}
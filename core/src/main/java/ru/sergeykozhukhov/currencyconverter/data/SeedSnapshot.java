@@ -0,0 +1,42 @@
+package ru.sergeykozhukhov.currencyconverter.data;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import ru.sergeykozhukhov.currencyconverter.data.model.CurrencyData;
+
+/**
+ * Встроенный в приложение снимок курсов: курсы ЦБ на дату сборки,
+ * которые показываются при первом запуске, пока не загрузились текущие
+ **/
+public final class SeedSnapshot {
+
+    /**
+     * Дата курсов (см. {@link ru.sergeykozhukhov.currencyconverter.domain.history.EpochDays})
+     */
+    private final int mEpochDay;
+
+    private final List<CurrencyData> mCurrencies;
+
+    public SeedSnapshot(int epochDay, @NonNull List<CurrencyData> currencies) {
+        mEpochDay = epochDay;
+        mCurrencies = Collections.unmodifiableList(new ArrayList<>(currencies));
+    }
+
+    public int getEpochDay() {
+        return mEpochDay;
+    }
+
+    /**
+     * Валюты снимка
+     *
+     * @return неизменяемый список
+     */
+    @NonNull
+    public List<CurrencyData> getCurrencies() {
+        return mCurrencies;
+    }
+}
@@ -0,0 +1,150 @@
+package ru.sergeykozhukhov.currencyconverter.data;
+
+import androidx.annotation.NonNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import ru.sergeykozhukhov.currencyconverter.data.model.CurrencyData;
+
+/**
+ * Двоичный формат встроенного снимка курсов ({@link SeedSnapshot}).
+ * <p>
+ * Заголовок: magic (4 байта), версия формата (int), версия схемы {@link CurrencyData} (int),
+ * дата курсов (int) и количество валют (int). Дальше валюты подряд: id, NumCode (int), CharCode,
+ * номинал (long), название (строки в modified UTF-8) и курс (scale и байты unscaled value).
+ * В конце CRC32 всего, что до неё. Снимок на несколько десятков валют занимает пару килобайт
+ * и читается без разбора XML.
+ * <p>
+ * Версия схемы повышается вручную при изменении полей {@link CurrencyData} (имена полей в APK
+ * переименовывает R8, поэтому по ним её не вычислить): снимок, собранный под старую схему, не читается,
+ * и приложение просто загружает курсы из сети
+ **/
+public final class SeedSnapshotFormat {
+
+    /**
+     * "CSED"
+     */
+    static final int MAGIC = 0x43534544;
+
+    static final int VERSION = 1;
+
+    /**
+     * Версия схемы {@link CurrencyData}; повышается при добавлении, удалении или смене типа полей
+     */
+    static final int SCHEMA_VERSION = 1;
+
+    /**
+     * Валют в снимке не бывает больше (большое количество - признак испорченного файла)
+     */
+    private static final int MAX_CURRENCIES = 1024;
+
+    private SeedSnapshotFormat() {
+    }
+
+    /**
+     * Кодирует снимок
+     */
+    @NonNull
+    public static byte[] write(@NonNull SeedSnapshot snapshot) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4 * 1024);
+        DataOutputStream output = new DataOutputStream(bytes);
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        output.writeInt(SCHEMA_VERSION);
+        output.writeInt(snapshot.getEpochDay());
+        output.writeInt(snapshot.getCurrencies().size());
+        for (CurrencyData currency : snapshot.getCurrencies()) {
+            output.writeUTF(currency.getId());
+            output.writeInt(currency.getNumCode());
+            output.writeUTF(currency.getCharCode());
+            output.writeLong(currency.getNominal());
+            output.writeUTF(currency.getName());
+            writeDecimal(output, currency.getValue());
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        output.writeInt((int) crc.getValue());
+        output.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Декодирует снимок
+     *
+     * @throws IOException если данные испорчены, другой версии формата или собраны под другую схему
+     */
+    @NonNull
+    public static SeedSnapshot read(@NonNull byte[] bytes) throws IOException {
+        if (bytes.length < 24) {
+            throw new IOException("Снимок курсов обрезан");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 4);
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes));
+        input.skipBytes(bytes.length - 4);
+        if (input.readInt() != (int) crc.getValue()) {
+            throw new IOException("Неверная контрольная сумма снимка курсов");
+        }
+        input = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 4));
+        if (input.readInt() != MAGIC) {
+            throw new IOException("Не снимок курсов");
+        }
+        int version = input.readInt();
+        if (version != VERSION) {
+            throw new IOException("Неподдерживаемая версия снимка курсов: " + version);
+        }
+        if (input.readInt() != SCHEMA_VERSION) {
+            throw new IOException("Снимок курсов собран под другую схему CurrencyData");
+        }
+        int epochDay = input.readInt();
+        int count = input.readInt();
+        if (count <= 0 || count > MAX_CURRENCIES) {
+            throw new IOException("Некорректное количество валют в снимке: " + count);
+        }
+        List<CurrencyData> currencies = new ArrayList<>(count);
+        try {
+            for (int i = 0; i < count; i++) {
+                currencies.add(new CurrencyData(
+                        input.readUTF(),
+                        input.readInt(),
+                        input.readUTF(),
+                        input.readLong(),
+                        input.readUTF(),
+                        readDecimal(input)));
+            }
+        } catch (NumberFormatException e) {
+            throw new IOException("Некорректный курс в снимке", e);
+        }
+        if (input.available() != 0) {
+            throw new IOException("Лишние байты в снимке курсов");
+        }
+        return new SeedSnapshot(epochDay, currencies);
+    }
+
+    private static void writeDecimal(@NonNull DataOutputStream output, @NonNull BigDecimal value) throws IOException {
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        if (value.scale() < Byte.MIN_VALUE || value.scale() > Byte.MAX_VALUE || unscaled.length > 255) {
+            throw new IOException("Курс не помещается в формат снимка: " + value);
+        }
+        output.writeByte(value.scale());
+        output.writeByte(unscaled.length);
+        output.write(unscaled);
+    }
+
+    @NonNull
+    private static BigDecimal readDecimal(@NonNull DataInputStream input) throws IOException {
+        int scale = input.readByte();
+        byte[] unscaled = new byte[input.readUnsignedByte()];
+        input.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+}
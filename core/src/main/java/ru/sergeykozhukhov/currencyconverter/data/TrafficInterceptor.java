@@ -0,0 +1,117 @@
+package ru.sergeykozhukhov.currencyconverter.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+/**
+ * Перехватчик, считающий трафик в {@link HttpTrafficStats}.
+ * <p>
+ * OkHttp сам просит gzip и распаковывает ответ между двумя уровнями перехватчиков, поэтому
+ * нужны два экземпляра: сетевой ({@link #wire}) видит тело таким, каким оно пришло по сети,
+ * и время до заголовков ответа, а прикладной ({@link #decoded}) - распакованное тело
+ * и то, был ли ответ взят из кэша
+ **/
+final class TrafficInterceptor implements Interceptor {
+
+    private final HttpTrafficStats mStats;
+
+    private final boolean mNetwork;
+
+    private TrafficInterceptor(@NonNull HttpTrafficStats stats, boolean network) {
+        mStats = stats;
+        mNetwork = network;
+    }
+
+    /**
+     * Сетевой перехватчик ({@link okhttp3.OkHttpClient.Builder#addNetworkInterceptor})
+     */
+    @NonNull
+    static TrafficInterceptor wire(@NonNull HttpTrafficStats stats) {
+        return new TrafficInterceptor(stats, true);
+    }
+
+    /**
+     * Прикладной перехватчик ({@link okhttp3.OkHttpClient.Builder#addInterceptor})
+     */
+    @NonNull
+    static TrafficInterceptor decoded(@NonNull HttpTrafficStats stats) {
+        return new TrafficInterceptor(stats, false);
+    }
+
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        long start = System.nanoTime();
+        Response response = chain.proceed(chain.request());
+        if (mNetwork) {
+            // proceed возвращается, как только прочитаны заголовки ответа
+            mStats.recordNetworkResponse(System.nanoTime() - start);
+        } else {
+            mStats.recordResponse(response.cacheResponse() != null,
+                    response.cacheResponse() != null && response.networkResponse() != null);
+        }
+        ResponseBody body = response.body();
+        if (body == null) {
+            return response;
+        }
+        return response.newBuilder()
+                .body(new CountingResponseBody(body, mStats, mNetwork))
+                .build();
+    }
+
+    /**
+     * Тело ответа, считающее прочитанные байты по мере чтения
+     */
+    private static final class CountingResponseBody extends ResponseBody {
+
+        private final ResponseBody mDelegate;
+
+        private final BufferedSource mSource;
+
+        CountingResponseBody(@NonNull ResponseBody delegate, @NonNull final HttpTrafficStats stats,
+                             final boolean wire) {
+            mDelegate = delegate;
+            mSource = Okio.buffer(new ForwardingSource(delegate.source()) {
+                @Override
+                public long read(@NonNull Buffer sink, long byteCount) throws IOException {
+                    long read = super.read(sink, byteCount);
+                    if (read > 0) {
+                        if (wire) {
+                            stats.addWireBytes(read);
+                        } else {
+                            stats.addDecodedBytes(read);
+                        }
+                    }
+                    return read;
+                }
+            });
+        }
+
+        @Nullable
+        @Override
+        public MediaType contentType() {
+            return mDelegate.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return mDelegate.contentLength();
+        }
+
+        @NonNull
+        @Override
+        public BufferedSource source() {
+            return mSource;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package ru.sergeykozhukhov.currencyconverter.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Потоковый просмотр ответа ЦБ (XML_daily.asp) без XML библиотеки: каждый элемент Valute передаётся
+ * обработчику, как только из потока прочитан его закрывающий тег, не дожидаясь конца документа.
+ * Общий для полного разбора ({@link CurrencyStreamParser}) и разбора только курсов ({@link DailyValuesParser}).
+ * Кодировка берётся из BOM или XML декларации (у ЦБ - windows-1251)
+ **/
+class ValCursScanner {
+
+    private static final String VALUTE_OPEN = "<Valute";
+
+    private static final String VALUTE_CLOSE = "</Valute>";
+
+    private static final String VAL_CURS_CLOSE = "</ValCurs>";
+
+    /**
+     * Сколько байт начала документа просматривается в поисках XML декларации
+     */
+    private static final int PROLOG_LIMIT = 256;
+
+    /**
+     * Обработанный текст удаляется из буфера, когда его становится больше этого размера
+     */
+    private static final int COMPACT_THRESHOLD = 16 * 1024;
+
+    /**
+     * Максимальное количество цифр числа (помещается в long)
+     */
+    private static final int MAX_DIGITS = 18;
+
+    /**
+     * Обработчик найденных элементов Valute
+     */
+    interface Handler {
+
+        /**
+         * @param valute элемент; действителен только до возврата из метода
+         */
+        void onValute(@NonNull Valute valute) throws IOException, InterruptedException;
+    }
+
+    /**
+     * Читает документ до конца и передаёт элементы Valute обработчику по мере чтения
+     *
+     * @param input поток с документом (читается до конца, но не закрывается)
+     * @return количество элементов
+     * @throws IOException если документ некорректен (например, обрезан, в том числе между элементами,
+     *                     и не дошёл до закрывающего {@code </ValCurs>}) или не содержит валют
+     */
+    int scan(@NonNull InputStream input, @NonNull Handler handler) throws IOException, InterruptedException {
+        BufferedInputStream buffered = new BufferedInputStream(input, PROLOG_LIMIT);
+        Reader reader = new InputStreamReader(buffered, detectCharset(buffered));
+        StringBuilder text = new StringBuilder(COMPACT_THRESHOLD * 2);
+        Valute valute = new Valute(text);
+        char[] buffer = new char[4 * 1024];
+        int position = 0;
+        int count = 0;
+        boolean closed = false;
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            text.append(buffer, 0, read);
+            while (true) {
+                int start = text.indexOf(VALUTE_OPEN, position);
+                if (start < 0) {
+                    closed = closed || text.indexOf(VAL_CURS_CLOSE, position) >= 0;
+                    // начало тега (Valute или закрывающего ValCurs) может быть ещё не дочитано
+                    position = Math.max(position, text.length() - VAL_CURS_CLOSE.length() + 1);
+                    break;
+                }
+                int end = text.indexOf(VALUTE_CLOSE, start);
+                if (end < 0) {
+                    position = start;
+                    break;
+                }
+                valute.set(start, text.indexOf(">", start), end);
+                handler.onValute(valute);
+                count++;
+                position = end + VALUTE_CLOSE.length();
+            }
+            if (position > COMPACT_THRESHOLD) {
+                text.delete(0, position);
+                position = 0;
+            }
+        }
+        if (text.indexOf(VALUTE_OPEN, position) >= 0) {
+            throw new IOException("Документ с курсами обрезан");
+        }
+        if (count == 0) {
+            throw new IOException("В документе нет курсов");
+        }
+        if (!closed) {
+            // обрыв между элементами: без этой проверки прочитанная часть валют сошла бы за весь ответ
+            throw new IOException("Документ с курсами обрезан");
+        }
+        return count;
+    }
+
+    /**
+     * Элемент Valute в буфере просмотра. Один экземпляр переиспользуется для всех элементов документа
+     */
+    static final class Valute {
+
+        private final StringBuilder mText;
+
+        private int mStart;
+
+        private int mTagEnd;
+
+        private int mEnd;
+
+        private Valute(@NonNull StringBuilder text) {
+            mText = text;
+        }
+
+        private void set(int start, int tagEnd, int end) {
+            mStart = start;
+            mTagEnd = tagEnd;
+            mEnd = end;
+        }
+
+        /**
+         * Значение атрибута открывающего тега
+         */
+        @Nullable
+        String getAttribute(@NonNull String name) {
+            int attribute = mText.indexOf(name + "=\"", mStart);
+            if (attribute < 0 || attribute > mTagEnd) {
+                return null;
+            }
+            int valueStart = attribute + name.length() + 2;
+            int valueEnd = mText.indexOf("\"", valueStart);
+            return valueEnd < 0 || valueEnd > mTagEnd ? null : mText.substring(valueStart, valueEnd);
+        }
+
+        /**
+         * Текст дочернего элемента (без пробелов по краям, с раскрытыми стандартными сущностями)
+         */
+        @Nullable
+        String getText(@NonNull String name) {
+            int valueStart = contentStart(name);
+            if (valueStart < 0) {
+                return null;
+            }
+            int valueEnd = mText.indexOf("</" + name + ">", valueStart);
+            if (valueEnd < 0 || valueEnd > mEnd) {
+                return null;
+            }
+            return unescape(mText.substring(valueStart, valueEnd).trim());
+        }
+
+        /**
+         * Читает число из содержимого дочернего элемента, например "43,3835", без создания строк
+         *
+         * @param scale если не {@code null}, допускается десятичная запятая или точка и сюда пишется точность
+         * @return немасштабированное значение или {@code -1}, если элемента нет или он не является числом
+         */
+        long getNumber(@NonNull String name, @Nullable int[] scale) {
+            int i = contentStart(name);
+            if (i < 0) {
+                return -1;
+            }
+            while (i < mEnd && isSpace(mText.charAt(i))) {
+                i++;
+            }
+            long result = 0;
+            int digits = 0;
+            int decimals = -1;
+            for (; i < mEnd && mText.charAt(i) != '<'; i++) {
+                char c = mText.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    if (++digits > MAX_DIGITS) {
+                        return -1;
+                    }
+                    result = result * 10 + (c - '0');
+                    if (decimals >= 0) {
+                        decimals++;
+                    }
+                } else if ((c == ',' || c == '.') && scale != null && decimals < 0) {
+                    decimals = 0;
+                } else if (!isSpace(c)) {
+                    return -1;
+                }
+            }
+            if (digits == 0) {
+                return -1;
+            }
+            if (scale != null) {
+                scale[0] = Math.max(decimals, 0);
+            }
+            return result;
+        }
+
+        /**
+         * Начало содержимого дочернего элемента
+         *
+         * @return {@code -1}, если элемента нет
+         */
+        private int contentStart(@NonNull String name) {
+            int open = mText.indexOf("<" + name + ">", mTagEnd);
+            return open < 0 || open > mEnd ? -1 : open + name.length() + 2;
+        }
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\n';
+    }
+
+    @NonNull
+    private static String unescape(@NonNull String value) {
+        if (value.indexOf('&') < 0) {
+            return value;
+        }
+        return value.replace("&lt;", "<")
+                .replace("&gt;", ">")
+                .replace("&quot;", "\"")
+                .replace("&apos;", "'")
+                .replace("&amp;", "&");
+    }
+
+    /**
+     * Определяет кодировку по BOM или XML декларации и пропускает BOM
+     */
+    @NonNull
+    private static Charset detectCharset(@NonNull BufferedInputStream input) throws IOException {
+        input.mark(PROLOG_LIMIT);
+        byte[] prolog = new byte[PROLOG_LIMIT];
+        int length = 0;
+        int read;
+        // читаем только до конца декларации, чтобы не ждать следующих данных из сети
+        while (length < prolog.length && !isPrologComplete(prolog, length)
+                && (read = input.read(prolog, length, prolog.length - length)) != -1) {
+            length += read;
+        }
+        input.reset();
+        if (length >= 2) {
+            int first = prolog[0] & 0xFF;
+            int second = prolog[1] & 0xFF;
+            if (first == 0xFE && second == 0xFF || first == 0 && second == '<') {
+                skipBom(input, first == 0xFE ? 2 : 0);
+                return Charset.forName("UTF-16BE");
+            }
+            if (first == 0xFF && second == 0xFE || first == '<' && second == 0) {
+                skipBom(input, first == 0xFF ? 2 : 0);
+                return Charset.forName("UTF-16LE");
+            }
+        }
+        if (length >= 3 && (prolog[0] & 0xFF) == 0xEF && (prolog[1] & 0xFF) == 0xBB && (prolog[2] & 0xFF) == 0xBF) {
+            skipBom(input, 3);
+            return StandardCharsets.UTF_8;
+        }
+        String declaration = new String(prolog, 0, length, StandardCharsets.US_ASCII);
+        int declarationEnd = declaration.indexOf("?>");
+        int encoding = declaration.indexOf("encoding=");
+        if (declaration.startsWith("<?xml") && encoding > 0 && encoding < declarationEnd) {
+            int valueStart = encoding + "encoding=".length() + 1;
+            int valueEnd = declaration.indexOf(declaration.charAt(valueStart - 1), valueStart);
+            if (valueEnd > valueStart) {
+                try {
+                    return Charset.forName(declaration.substring(valueStart, valueEnd).toLowerCase(Locale.US));
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Неподдерживаемая кодировка документа", e);
+                }
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    /**
+     * Достаточно ли прочитано для определения кодировки: есть BOM, нулевой байт UTF-16,
+     * начало не похоже на XML декларацию или декларация прочитана целиком
+     */
+    private static boolean isPrologComplete(@NonNull byte[] prolog, int length) {
+        if (length < 2) {
+            return false;
+        }
+        if (prolog[0] != '<' || prolog[1] != '?') {
+            return true;
+        }
+        for (int i = 3; i < length; i++) {
+            if (prolog[i - 1] == '?' && prolog[i] == '>') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void skipBom(@NonNull InputStream input, int length) throws IOException {
+        for (int i = 0; i < length; i++) {
+            input.read();
+        }
+    }
+}
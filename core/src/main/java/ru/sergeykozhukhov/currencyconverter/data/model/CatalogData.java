@@ -0,0 +1,27 @@
+package ru.sergeykozhukhov.currencyconverter.data.model;
+
+import androidx.annotation.NonNull;
+
+import org.simpleframework.xml.ElementList;
+import org.simpleframework.xml.Root;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Справочник валют ЦБ (XML_valFull.asp)
+ **/
+@Root(name = "Valuta", strict = false)
+public class CatalogData {
+
+    /**
+     * Записи справочника
+     */
+    @ElementList(inline = true, required = false)
+    private List<CatalogItemData> mItems;
+
+    @NonNull
+    public List<CatalogItemData> getItems() {
+        return mItems == null ? new ArrayList<CatalogItemData>() : new ArrayList<>(mItems);
+    }
+}
@@ -0,0 +1,83 @@
+package ru.sergeykozhukhov.currencyconverter.data.model;
+
+import androidx.annotation.VisibleForTesting;
+
+import org.simpleframework.xml.Attribute;
+import org.simpleframework.xml.Element;
+import org.simpleframework.xml.Root;
+
+/**
+ * Запись справочника валют ЦБ (data-представление)
+ **/
+// у выведенных из обращения валют коды ISO могут быть пустыми, поэтому поля необязательные
+@Root(name = "Item", strict = false)
+public class CatalogItemData {
+
+    /**
+     * id валюты (тот же, что в ежедневных курсах)
+     */
+    @Attribute(name = "ID")
+    private String mId;
+
+    /**
+     * Название
+     */
+    @Element(name = "Name")
+    private String mName;
+
+    /**
+     * Номинал
+     */
+    @Element(name = "Nominal", required = false)
+    private long mNominal;
+
+    /**
+     * Цифровой код ISO
+     */
+    @Element(name = "ISO_Num_Code", required = false)
+    private String mNumCode;
+
+    /**
+     * Буквенный код ISO
+     */
+    @Element(name = "ISO_Char_Code", required = false)
+    private String mCharCode;
+
+    /**
+     * Используется при парсинге через SimpleXml
+     */
+    public CatalogItemData() {
+    }
+
+    /**
+     * Используется в юнит тестах
+     */
+    @VisibleForTesting
+    public CatalogItemData(String id, String name, long nominal, String numCode, String charCode) {
+        mId = id;
+        mName = name;
+        mNominal = nominal;
+        mNumCode = numCode;
+        mCharCode = charCode;
+    }
+
+    public String getId() {
+        return mId;
+    }
+
+    public String getName() {
+        return mName;
+    }
+
+    public long getNominal() {
+        return mNominal;
+    }
+
+    public String getNumCode() {
+        return mNumCode;
+    }
+
+    public String getCharCode() {
+        return mCharCode;
+    }
+}
@@ -1,7 +1,5 @@
 package ru.sergeykozhukhov.currencyconverter.data.model;
 
-import androidx.annotation.VisibleForTesting;
-
 import org.simpleframework.xml.Attribute;
 import org.simpleframework.xml.Element;
 import org.simpleframework.xml.Root;
@@ -68,12 +66,9 @@ public class CurrencyData {
     }
 
     /**
-     * Используется в юнит тестах
+     * Используется при потоковом разборе ({@link ru.sergeykozhukhov.currencyconverter.data.CurrencyStreamParser})
+     * и в юнит тестах
      */
-    // @VisibleForTesting: предполагается, что этой аннотацией мы будем отмечать методы и поля,
-    // которые, по идее, должны были быть private,
-    // но для тестов были сделаны package-private или public
-    @VisibleForTesting
     public CurrencyData(String id, int numCode, String charCode, long nominal, String name, BigDecimal value) {
         mId = id;
         mNumCode = numCode;
@@ -8,10 +8,13 @@ import java.math.RoundingMode;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
 import java.util.List;
+import java.util.Locale;
 
-import ru.sergeykozhukhov.currencyconverter.R;
+import ru.sergeykozhukhov.currencyconverter.domain.amount.AmountParser;
+import ru.sergeykozhukhov.currencyconverter.domain.journal.ConversionJournal;
+import ru.sergeykozhukhov.currencyconverter.domain.journal.ConversionRecord;
 import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
-import ru.sergeykozhukhov.currencyconverter.presentation.utils.IResourceWrapper;
+import ru.sergeykozhukhov.currencyconverter.domain.trace.Tracer;
 
 /**
  * Интерактор, отвечающий за операции, связанные с конвертацией валют
@@ -29,9 +32,20 @@ public class ConversionInteractor {
     private static final int PUBLIC_SCALE = 2;
 
     /**
-     * Обёртка над ресурсами приложения
+     * Форматирование строк для пользователя
      */
-    private final IResourceWrapper mResourceWrapper;
+    private final IConversionFormatter mConversionFormatter;
+
+    /**
+     * Разбор введённой пользователем суммы
+     */
+    private final AmountParser mAmountParser;
+
+    /**
+     * Журнал выполненных конвертаций ({@code null} - конвертации не записываются)
+     */
+    @Nullable
+    private final ConversionJournal mConversionJournal;
 
     /**
      * Формат с двумя знаками после точки
@@ -43,8 +57,20 @@ public class ConversionInteractor {
      */
     private final NumberFormat mCurrencyFormat = new DecimalFormat("#.#####");
 
-    public ConversionInteractor(@NonNull IResourceWrapper resourceWrapper) {
-        mResourceWrapper = resourceWrapper;
+    public ConversionInteractor(@NonNull IConversionFormatter conversionFormatter) {
+        this(conversionFormatter, AmountParser.forLocale(Locale.getDefault()));
+    }
+
+    public ConversionInteractor(@NonNull IConversionFormatter conversionFormatter, @NonNull AmountParser amountParser) {
+        this(conversionFormatter, amountParser, null);
+    }
+
+    public ConversionInteractor(@NonNull IConversionFormatter conversionFormatter,
+                                @NonNull AmountParser amountParser,
+                                @Nullable ConversionJournal conversionJournal) {
+        mConversionFormatter = conversionFormatter;
+        mAmountParser = amountParser;
+        mConversionJournal = conversionJournal;
     }
 
     /**
@@ -60,19 +86,17 @@ public class ConversionInteractor {
     public String formatConversionRate(@Nullable List<Currency> currencies, int fromCurrencyWithIndex, int toCurrencyWithIndex) {
         if (currencies == null || // ссылка отсутствует
                 currencies.isEmpty() || // список валют пуст
-                currencies.size() <= Math.max(fromCurrencyWithIndex, toCurrencyWithIndex) // какой-либо из индексов выходит за пределы списка валют
+                currencies.size() <= Math.max(fromCurrencyWithIndex, toCurrencyWithIndex) || // какой-либо из индексов выходит за пределы списка валют
+                Math.min(fromCurrencyWithIndex, toCurrencyWithIndex) < 0 // валюта не выбрана (поиск ничего не нашёл)
         ) {
             return null;
         }
         Currency base = currencies.get(fromCurrencyWithIndex); // получение исходной валюты
         Currency quoted = currencies.get(toCurrencyWithIndex); // получение итоговой валюты
-        BigDecimal rate = base.getValue() // получение курса исходной валюты по отношению к RU
-                .multiply(new BigDecimal(quoted.getNominal())) // умножение на номинал итоговой валюты
-                .divide(quoted.getValue(), INTERNAL_SCALE, RoundingMode.HALF_UP) // деление на курс итоговой валюты и округление в большую сторону (>=5)
-                .divide(new BigDecimal(base.getNominal()), INTERNAL_SCALE, RoundingMode.HALF_UP); // деление на номинал исходной валюты и округление в большую сторону (>=5)
+        BigDecimal rate = calculateConversionRate(base, quoted);
         String formattedRate = mCurrencyFormat.format(rate); // преобразованию к строке определенного вида (знаков после запятой)
         // форматирование итоговой строки обозначенного вида (e.g. 64.24 USD/RUB)
-        return mResourceWrapper.getString(R.string.conversion_rate, formattedRate, base.getCharCode(), quoted.getCharCode());
+        return mConversionFormatter.formatConversionRate(formattedRate, base.getCharCode(), quoted.getCharCode());
     }
 
     /**
@@ -89,48 +113,89 @@ public class ConversionInteractor {
                           int fromCurrencyWithIndex,
                           int toCurrencyWithIndex,
                           @Nullable String amount) {
+        long span = Tracer.begin();
+        try {
+            return convertAndFormat(currencies, fromCurrencyWithIndex, toCurrencyWithIndex, amount);
+        } finally {
+            Tracer.end("ConversionInteractor.convert", span);
+        }
+    }
+
+    @Nullable
+    private String convertAndFormat(@Nullable List<Currency> currencies,
+                                    int fromCurrencyWithIndex,
+                                    int toCurrencyWithIndex,
+                                    @Nullable String amount) {
         BigDecimal parsedAmount = tryParseAmount(amount); // приведение введенной суммы к BigDecimal
         if (currencies == null ||
                 currencies.isEmpty() ||
                 currencies.size() <= Math.max(fromCurrencyWithIndex, toCurrencyWithIndex) ||
+                Math.min(fromCurrencyWithIndex, toCurrencyWithIndex) < 0 ||
                 parsedAmount == null // ошибка конвертации к BigDecimal или переданная пустая строка с amount
         ) {
             return null;
         }
         Currency base = currencies.get(fromCurrencyWithIndex);
         Currency quoted = currencies.get(toCurrencyWithIndex);
-        BigDecimal result = parsedAmount
-                .multiply(base.getValue()) // умножение на курс исходной валюты по отношению к RU
-                .multiply(new BigDecimal(quoted.getNominal())) // умножение на номинал итоговой валюты
-                .divide(quoted.getValue(), INTERNAL_SCALE, RoundingMode.HALF_UP)  // деление на курс итоговой валюты и округление в большую сторону (>=5)
-                .divide(new BigDecimal(base.getNominal()), INTERNAL_SCALE, RoundingMode.HALF_UP); // деление на номинал исходной валюты и округление в большую сторону (>=5)
+        BigDecimal result = calculateConversion(base, quoted, parsedAmount);
         try {
-            String formattedResult = mNumberFormat.format(result.setScale(PUBLIC_SCALE, RoundingMode.HALF_UP));
+            String formattedResult = mNumberFormat.format(result);
             // форматирование итоговой строки обозначенному виду (e.g. Вы получите 100 RU)
-            return mResourceWrapper.getString(R.string.you_will_get, formattedResult, quoted.getCharCode());
+            String formatted = mConversionFormatter.formatConversionResult(formattedResult, quoted.getCharCode());
+            if (mConversionJournal != null) {
+                // только постановка в очередь: запись на диск идёт в потоке журнала
+                mConversionJournal.append(new ConversionRecord(System.currentTimeMillis(),
+                        base.getCharCode(), quoted.getCharCode(), parsedAmount, result));
+            }
+            return formatted;
         } catch (IllegalArgumentException e) {
             return null;
         }
     }
 
     /**
-     * Конвертирует введённую пользователем сумму в {@link BigDecimal}
+     * Курс конверсии: сколько котируемой валюты стоит единица базовой.
+     * Не использует форматтеры, поэтому может вызываться из нескольких потоков одновременно
+     *
+     * @param base   базовая валюта
+     * @param quoted котируемая валюта
+     * @return курс с точностью {@link #INTERNAL_SCALE} знаков
+     */
+    @NonNull
+    public BigDecimal calculateConversionRate(@NonNull Currency base, @NonNull Currency quoted) {
+        return base.getValue() // получение курса исходной валюты по отношению к RU
+                .multiply(new BigDecimal(quoted.getNominal())) // умножение на номинал итоговой валюты
+                .divide(quoted.getValue(), INTERNAL_SCALE, RoundingMode.HALF_UP) // деление на курс итоговой валюты и округление в большую сторону (>=5)
+                .divide(new BigDecimal(base.getNominal()), INTERNAL_SCALE, RoundingMode.HALF_UP); // деление на номинал исходной валюты и округление в большую сторону (>=5)
+    }
+
+    /**
+     * Сумма в котируемой валюте, которую можно приобрести за заданное количество базовой.
+     * Не использует форматтеры, поэтому может вызываться из нескольких потоков одновременно
+     *
+     * @param base   базовая валюта
+     * @param quoted котируемая валюта
+     * @param amount количество базовой валюты
+     * @return сумма, округлённая до {@link #PUBLIC_SCALE} знаков
+     */
+    @NonNull
+    public BigDecimal calculateConversion(@NonNull Currency base, @NonNull Currency quoted, @NonNull BigDecimal amount) {
+        return amount
+                .multiply(base.getValue()) // умножение на курс исходной валюты по отношению к RU
+                .multiply(new BigDecimal(quoted.getNominal())) // умножение на номинал итоговой валюты
+                .divide(quoted.getValue(), INTERNAL_SCALE, RoundingMode.HALF_UP)  // деление на курс итоговой валюты и округление в большую сторону (>=5)
+                .divide(new BigDecimal(base.getNominal()), INTERNAL_SCALE, RoundingMode.HALF_UP) // деление на номинал исходной валюты и округление в большую сторону (>=5)
+                .setScale(PUBLIC_SCALE, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Конвертирует введённую пользователем сумму в {@link BigDecimal} (без исключений на каждый некорректный ввод)
      *
      * @param amount сумма, введённая пользователем
      * @return {@code null} означает некорректный ввод
      */
     @Nullable
     private BigDecimal tryParseAmount(@Nullable String amount) {
-        BigDecimal result;
-        if (amount == null) {
-            result = null;
-        } else {
-            try {
-                result = new BigDecimal(amount);
-            } catch (NumberFormatException e) {
-                result = null;
-            }
-        }
-        return result;
+        return amount == null ? null : mAmountParser.parse(amount).toBigDecimal();
     }
 }
@@ -0,0 +1,54 @@
+package ru.sergeykozhukhov.currencyconverter.domain;
+
+import androidx.annotation.NonNull;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
+
+/**
+ * Расчёт кросс-курсов в double из курсов ЦБ по отношению к рублю (для статистики, графиков и оповещений,
+ * где не нужна точность {@link java.math.BigDecimal})
+ **/
+public final class CrossRates {
+
+    /**
+     * Код рубля: курсы ЦБ заданы по отношению к нему, поэтому в списке валют его может не быть
+     */
+    public static final String RUB_CHAR_CODE = "RUB";
+
+    private CrossRates() {
+    }
+
+    /**
+     * Стоимость единицы каждой валюты в рублях по кодам валют (рубль присутствует всегда)
+     */
+    @NonNull
+    public static Map<String, Double> unitValues(@NonNull List<Currency> currencies) {
+        Map<String, Double> result = new HashMap<>(currencies.size() * 2 + 2);
+        for (Currency currency : currencies) {
+            result.put(currency.getCharCode(), unitValue(currency));
+        }
+        if (!result.containsKey(RUB_CHAR_CODE)) {
+            result.put(RUB_CHAR_CODE, 1d);
+        }
+        return result;
+    }
+
+    /**
+     * Стоимость одной единицы валюты в рублях
+     */
+    public static double unitValue(@NonNull Currency currency) {
+        return currency.getValue().doubleValue() / currency.getNominal();
+    }
+
+    /**
+     * Ключ пары вида "USD/EUR"
+     */
+    @NonNull
+    public static String pairKey(@NonNull String baseCharCode, @NonNull String quotedCharCode) {
+        return baseCharCode + '/' + quotedCharCode;
+    }
+}
@@ -0,0 +1,29 @@
+package ru.sergeykozhukhov.currencyconverter.domain;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Форматирование результатов конвертации для пользователя.
+ * Локализация (строки ресурсов и т.п.) остаётся на стороне реализации, доменный слой от неё не зависит
+ **/
+public interface IConversionFormatter {
+
+    /**
+     * Строка с курсом валютной пары (e.g. "Курс конверсии: 64.24 USD/RUB")
+     *
+     * @param rate           форматированный курс
+     * @param baseCharCode   код базовой валюты
+     * @param quotedCharCode код котируемой валюты
+     */
+    @NonNull
+    String formatConversionRate(@NonNull String rate, @NonNull String baseCharCode, @NonNull String quotedCharCode);
+
+    /**
+     * Строка с результатом конвертации (e.g. "Вы получите 100 RUB")
+     *
+     * @param amount   форматированная сумма в котируемой валюте
+     * @param charCode код котируемой валюты
+     */
+    @NonNull
+    String formatConversionResult(@NonNull String amount, @NonNull String charCode);
+}
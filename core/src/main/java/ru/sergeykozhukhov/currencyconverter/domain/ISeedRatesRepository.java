@@ -0,0 +1,19 @@
+package ru.sergeykozhukhov.currencyconverter.domain;
+
+import androidx.annotation.Nullable;
+
+import ru.sergeykozhukhov.currencyconverter.domain.model.SeedRates;
+
+/**
+ * Репозиторий встроенных в приложение курсов для первого запуска без сети
+ **/
+public interface ISeedRatesRepository {
+
+    /**
+     * Загружает встроенные курсы. Вызывается в главном потоке, поэтому должен быть быстрым
+     *
+     * @return {@code null}, если встроенных курсов нет или прочитать их не удалось
+     */
+    @Nullable
+    SeedRates loadSeedRates();
+}
@@ -0,0 +1,61 @@
+package ru.sergeykozhukhov.currencyconverter.domain;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
+import ru.sergeykozhukhov.currencyconverter.domain.model.RatesSnapshot;
+import ru.sergeykozhukhov.currencyconverter.domain.model.RatesTable;
+
+/**
+ * Хранит текущий {@link RatesSnapshot}.
+ * Читатели получают целостный снимок одним чтением {@link AtomicReference} без блокировок;
+ * писатели не меняют опубликованный снимок, а создают новый с очередным номером версии
+ * и подменяют ссылку (copy-on-write)
+ **/
+public class RatesSnapshotHolder {
+
+    private final AtomicReference<RatesSnapshot> mSnapshot = new AtomicReference<>();
+
+    /**
+     * Текущий снимок
+     *
+     * @return {@code null}, если курсы ещё не публиковались
+     */
+    @Nullable
+    public RatesSnapshot getSnapshot() {
+        return mSnapshot.get();
+    }
+
+    /**
+     * Публикует новый снимок курсов
+     *
+     * @param currencies валюты (копируются, дальнейшие изменения списка на снимок не влияют)
+     * @return опубликованный снимок
+     */
+    @NonNull
+    public RatesSnapshot publish(@NonNull List<Currency> currencies) {
+        return publish(RatesTable.fromCurrencies(currencies));
+    }
+
+    /**
+     * Публикует новый снимок курсов
+     *
+     * @param table курсы
+     * @return опубликованный снимок
+     */
+    @NonNull
+    public RatesSnapshot publish(@NonNull RatesTable table) {
+        while (true) {
+            RatesSnapshot previous = mSnapshot.get();
+            long version = previous == null ? 1 : previous.getVersion() + 1;
+            RatesSnapshot next = new RatesSnapshot(version, System.currentTimeMillis(), table);
+            if (mSnapshot.compareAndSet(previous, next)) {
+                return next;
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package ru.sergeykozhukhov.currencyconverter.domain;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ru.sergeykozhukhov.currencyconverter.domain.model.CurrenciesDiff;
+import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
+import ru.sergeykozhukhov.currencyconverter.domain.model.CurrencyChange;
+
+/**
+ * Сравнивает очередную загрузку списка валют с предыдущей по id валюты
+ **/
+public class SnapshotDiffer {
+
+    /**
+     * Вычисляет разницу между загрузками за O(n)
+     *
+     * @param previous предыдущая загрузка, {@code null} - загрузок ещё не было (все валюты считаются добавленными)
+     * @param current  текущая загрузка
+     */
+    @NonNull
+    public CurrenciesDiff diff(@Nullable List<Currency> previous, @NonNull List<Currency> current) {
+        List<Currency> added = new ArrayList<>();
+        List<CurrencyChange> changed = new ArrayList<>();
+        List<Currency> removed = new ArrayList<>();
+        if (previous == null || previous.isEmpty()) {
+            added.addAll(current);
+            return new CurrenciesDiff(added, removed, changed);
+        }
+        Map<String, Currency> previousById = new HashMap<>(previous.size() * 2);
+        for (Currency currency : previous) {
+            previousById.put(currency.getId(), currency);
+        }
+        for (Currency currency : current) {
+            Currency old = previousById.remove(currency.getId());
+            if (old == null) {
+                added.add(currency);
+            } else if (!old.equals(currency)) {
+                changed.add(new CurrencyChange(old, currency));
+            }
+        }
+        if (!previousById.isEmpty()) {
+            // сохранение порядка предыдущей загрузки
+            for (Currency currency : previous) {
+                if (previousById.containsKey(currency.getId())) {
+                    removed.add(currency);
+                }
+            }
+        }
+        return new CurrenciesDiff(added, removed, changed);
+    }
+}
@@ -0,0 +1,300 @@
+package ru.sergeykozhukhov.currencyconverter.domain.alerts;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import ru.sergeykozhukhov.currencyconverter.domain.CrossRates;
+import ru.sergeykozhukhov.currencyconverter.domain.SnapshotDiffer;
+import ru.sergeykozhukhov.currencyconverter.domain.model.CurrenciesDiff;
+import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
+import ru.sergeykozhukhov.currencyconverter.domain.model.CurrencyChange;
+import ru.sergeykozhukhov.currencyconverter.domain.model.RatesSnapshot;
+import ru.sergeykozhukhov.currencyconverter.domain.publish.RatesPublisher;
+
+/**
+ * Проверяет правила оповещения при каждом обновлении курсов.
+ * Правила хранятся по парам в массивах, упорядоченных по уровню, поэтому для пары, курс которой изменился
+ * с old на new, бинарным поиском находятся только правила с уровнем между old и new.
+ * На вход подаётся разница загрузок ({@link CurrenciesDiff}): проверяются только пары с изменившимися
+ * валютами, а стоимости остальных валют берутся из хранимых движком, поэтому обновление стоит
+ * O(изменившиеся валюты + изменившиеся пары * log(правила)) вместо перебора всех правил.
+ * Для подписки на {@link RatesPublisher} есть {@link #subscriber(Listener)}
+ **/
+public class AlertEngine {
+
+    /**
+     * Получатель сработавших правил
+     */
+    public interface Listener {
+
+        /**
+         * Вызывается на executor подписки, только если хотя бы одно правило сработало
+         */
+        void onAlerts(@NonNull List<AlertEvent> events);
+    }
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    /**
+     * Правила по парам "базовая/котируемая"
+     */
+    private final Map<String, PairRules> mRules = new HashMap<>();
+
+    /**
+     * Пары с правилами по кодам входящих в них валют
+     */
+    private final Map<String, List<PairRules>> mPairsByCurrency = new HashMap<>();
+
+    /**
+     * Стоимость единицы валюты в рублях по кодам валют, собранная из всех учтённых изменений
+     */
+    private final Map<String, Double> mUnitValues = new HashMap<>();
+
+    public AlertEngine() {
+        mUnitValues.put(CrossRates.RUB_CHAR_CODE, 1d);
+    }
+
+    /**
+     * Добавляет правило. Если курс пары уже известен, правило сработает на первом же пересечении уровня
+     */
+    public synchronized void addRule(@NonNull AlertRule rule) {
+        String key = CrossRates.pairKey(rule.getBaseCharCode(), rule.getQuotedCharCode());
+        PairRules pairRules = mRules.get(key);
+        if (pairRules == null) {
+            pairRules = new PairRules(rule.getBaseCharCode(), rule.getQuotedCharCode());
+            mRules.put(key, pairRules);
+            index(rule.getBaseCharCode()).add(pairRules);
+            index(rule.getQuotedCharCode()).add(pairRules);
+            Double base = mUnitValues.get(rule.getBaseCharCode());
+            Double quoted = mUnitValues.get(rule.getQuotedCharCode());
+            if (base != null && quoted != null) {
+                pairRules.mLastRate = base / quoted;
+            }
+        }
+        pairRules.add(rule);
+    }
+
+    /**
+     * Удаляет правило
+     *
+     * @return {@code false}, если правила с таким id для этой пары нет
+     */
+    public synchronized boolean removeRule(@NonNull AlertRule rule) {
+        String key = CrossRates.pairKey(rule.getBaseCharCode(), rule.getQuotedCharCode());
+        PairRules pairRules = mRules.get(key);
+        if (pairRules == null || !pairRules.remove(rule.getId())) {
+            return false;
+        }
+        if (pairRules.mSize == 0) {
+            mRules.remove(key);
+            index(rule.getBaseCharCode()).remove(pairRules);
+            index(rule.getQuotedCharCode()).remove(pairRules);
+        }
+        return true;
+    }
+
+    /**
+     * Учитывает разницу с предыдущей загрузкой и возвращает сработавшие правила.
+     * Разницы должны подаваться все подряд, начиная с первой загрузки (разница с {@code null}).
+     * При первом поступлении курса пары правила не срабатывают - курс только запоминается
+     *
+     * @param diff разница с предыдущей загрузкой
+     * @return сработавшие правила в порядке пересечения уровней
+     */
+    @NonNull
+    public synchronized List<AlertEvent> onChanges(@NonNull CurrenciesDiff diff) {
+        Set<PairRules> affected = new LinkedHashSet<>();
+        for (Currency currency : diff.getRemoved()) {
+            mUnitValues.remove(currency.getCharCode());
+            collect(currency.getCharCode(), affected);
+        }
+        for (CurrencyChange change : diff.getChanged()) {
+            String previousCharCode = change.getPrevious().getCharCode();
+            if (!previousCharCode.equals(change.getCurrent().getCharCode())) {
+                mUnitValues.remove(previousCharCode);
+                collect(previousCharCode, affected);
+            }
+            put(change.getCurrent(), affected);
+        }
+        for (Currency currency : diff.getAdded()) {
+            put(currency, affected);
+        }
+        List<AlertEvent> events = new ArrayList<>();
+        for (PairRules pairRules : affected) {
+            Double base = mUnitValues.get(pairRules.mBaseCharCode);
+            Double quoted = mUnitValues.get(pairRules.mQuotedCharCode);
+            if (base != null && quoted != null) {
+                pairRules.evaluate(base / quoted, events);
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Подписчик на снимки курсов: сравнивает каждый снимок с предыдущим и проверяет правила
+     * по их разнице. Сравнение снимков - O(валюты), проверка правил - только по изменившимся парам
+     *
+     * @param listener получатель сработавших правил
+     */
+    @NonNull
+    public RatesPublisher.Subscriber subscriber(@NonNull final Listener listener) {
+        return new RatesPublisher.Subscriber() {
+
+            private final SnapshotDiffer mDiffer = new SnapshotDiffer();
+
+            /**
+             * Предыдущий снимок (подписчик не вызывается одновременно, синхронизация не нужна)
+             */
+            private List<Currency> mPrevious;
+
+            @Override
+            public void onRates(@NonNull RatesSnapshot snapshot) {
+                List<Currency> currencies = snapshot.getCurrencies();
+                List<AlertEvent> events = onChanges(mDiffer.diff(mPrevious, currencies));
+                mPrevious = currencies;
+                if (!events.isEmpty()) {
+                    listener.onAlerts(events);
+                }
+            }
+        };
+    }
+
+    private void put(@NonNull Currency currency, @NonNull Set<PairRules> affected) {
+        if (!CrossRates.RUB_CHAR_CODE.equals(currency.getCharCode())) {
+            mUnitValues.put(currency.getCharCode(), CrossRates.unitValue(currency));
+        }
+        collect(currency.getCharCode(), affected);
+    }
+
+    private void collect(@NonNull String charCode, @NonNull Set<PairRules> affected) {
+        List<PairRules> pairs = mPairsByCurrency.get(charCode);
+        if (pairs != null) {
+            affected.addAll(pairs);
+        }
+    }
+
+    @NonNull
+    private List<PairRules> index(@NonNull String charCode) {
+        List<PairRules> pairs = mPairsByCurrency.get(charCode);
+        if (pairs == null) {
+            pairs = new ArrayList<>();
+            mPairsByCurrency.put(charCode, pairs);
+        }
+        return pairs;
+    }
+
+    /**
+     * Правила одной пары, упорядоченные по уровню
+     */
+    private static class PairRules {
+
+        private final String mBaseCharCode;
+
+        private final String mQuotedCharCode;
+
+        private double[] mThresholds = new double[INITIAL_CAPACITY];
+
+        private AlertRule[] mRules = new AlertRule[INITIAL_CAPACITY];
+
+        private int mSize;
+
+        /**
+         * Последний известный курс пары
+         */
+        private double mLastRate = Double.NaN;
+
+        private PairRules(@NonNull String baseCharCode, @NonNull String quotedCharCode) {
+            mBaseCharCode = baseCharCode;
+            mQuotedCharCode = quotedCharCode;
+        }
+
+        private void add(@NonNull AlertRule rule) {
+            if (mSize == mThresholds.length) {
+                mThresholds = Arrays.copyOf(mThresholds, mSize * 2);
+                mRules = Arrays.copyOf(mRules, mSize * 2);
+            }
+            // вставка после всех правил с тем же уровнем
+            int index = upperBound(rule.getThreshold());
+            System.arraycopy(mThresholds, index, mThresholds, index + 1, mSize - index);
+            System.arraycopy(mRules, index, mRules, index + 1, mSize - index);
+            mThresholds[index] = rule.getThreshold();
+            mRules[index] = rule;
+            mSize++;
+        }
+
+        private boolean remove(long id) {
+            for (int i = 0; i < mSize; i++) {
+                if (mRules[i].getId() == id) {
+                    System.arraycopy(mThresholds, i + 1, mThresholds, i, mSize - i - 1);
+                    System.arraycopy(mRules, i + 1, mRules, i, mSize - i - 1);
+                    mSize--;
+                    mRules[mSize] = null;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Рост курса old -> new срабатывает для уровней из (old, new],
+         * падение - для уровней из [new, old)
+         */
+        private void evaluate(double rate, @NonNull List<AlertEvent> events) {
+            double previous = mLastRate;
+            mLastRate = rate;
+            if (Double.isNaN(previous) || rate == previous) {
+                return;
+            }
+            if (rate > previous) {
+                for (int i = upperBound(previous), end = upperBound(rate); i < end; i++) {
+                    events.add(new AlertEvent(mRules[i], previous, rate));
+                }
+            } else {
+                for (int i = lowerBound(previous) - 1, end = lowerBound(rate); i >= end; i--) {
+                    events.add(new AlertEvent(mRules[i], previous, rate));
+                }
+            }
+        }
+
+        /**
+         * Индекс первого уровня, не меньшего value
+         */
+        private int lowerBound(double value) {
+            int low = 0;
+            int high = mSize;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (mThresholds[middle] < value) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Индекс первого уровня, большего value
+         */
+        private int upperBound(double value) {
+            int low = 0;
+            int high = mSize;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (mThresholds[middle] <= value) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package ru.sergeykozhukhov.currencyconverter.domain.alerts;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Срабатывание правила оповещения
+ **/
+public class AlertEvent {
+
+    /**
+     * Сработавшее правило
+     */
+    private final AlertRule mRule;
+
+    /**
+     * Курс пары до обновления
+     */
+    private final double mPreviousRate;
+
+    /**
+     * Курс пары после обновления
+     */
+    private final double mRate;
+
+    public AlertEvent(@NonNull AlertRule rule, double previousRate, double rate) {
+        mRule = rule;
+        mPreviousRate = previousRate;
+        mRate = rate;
+    }
+
+    @NonNull
+    public AlertRule getRule() {
+        return mRule;
+    }
+
+    public double getPreviousRate() {
+        return mPreviousRate;
+    }
+
+    public double getRate() {
+        return mRate;
+    }
+
+    /**
+     * Пересечён ли уровень снизу вверх
+     */
+    public boolean isRising() {
+        return mRate > mPreviousRate;
+    }
+}
@@ -0,0 +1,54 @@
+package ru.sergeykozhukhov.currencyconverter.domain.alerts;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Правило оповещения: курс пары пересёк заданный уровень (в любую сторону)
+ **/
+public class AlertRule {
+
+    /**
+     * id правила
+     */
+    private final long mId;
+
+    /**
+     * Код базовой валюты
+     */
+    private final String mBaseCharCode;
+
+    /**
+     * Код котируемой валюты
+     */
+    private final String mQuotedCharCode;
+
+    /**
+     * Уровень курса (сколько котируемой валюты стоит единица базовой)
+     */
+    private final double mThreshold;
+
+    public AlertRule(long id, @NonNull String baseCharCode, @NonNull String quotedCharCode, double threshold) {
+        mId = id;
+        mBaseCharCode = baseCharCode;
+        mQuotedCharCode = quotedCharCode;
+        mThreshold = threshold;
+    }
+
+    public long getId() {
+        return mId;
+    }
+
+    @NonNull
+    public String getBaseCharCode() {
+        return mBaseCharCode;
+    }
+
+    @NonNull
+    public String getQuotedCharCode() {
+        return mQuotedCharCode;
+    }
+
+    public double getThreshold() {
+        return mThreshold;
+    }
+}
@@ -0,0 +1,201 @@
+package ru.sergeykozhukhov.currencyconverter.domain.amount;
+
+import androidx.annotation.NonNull;
+
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Разбор суммы, введённой пользователем, без исключений.
+ * <p>
+ * Понимает десятичный разделитель и разделитель разрядов локали ("1 234,5" для ru, "1,234.5" для en);
+ * точка принимается как десятичный разделитель всегда, если она не является разделителем разрядов локали.
+ * Разделители разрядов допускаются только в целой части и только между группами из трёх цифр.
+ * Длина строки и количество знаков после запятой ограничены, поэтому разбор патологически длинного
+ * ввода заканчивается сразу. Парсер неизменяемый и может использоваться из нескольких потоков
+ **/
+public final class AmountParser {
+
+    /**
+     * Максимальная длина строки по умолчанию (символов)
+     */
+    public static final int DEFAULT_MAX_LENGTH = 32;
+
+    /**
+     * Максимальное количество знаков после запятой по умолчанию
+     */
+    public static final int DEFAULT_MAX_SCALE = 8;
+
+    /**
+     * Максимальное количество значащих цифр (помещается в long)
+     */
+    private static final int MAX_DIGITS = 18;
+
+    /**
+     * Нет разделителя разрядов
+     */
+    private static final char NONE = 0;
+
+    private static final char NO_BREAK_SPACE = '\u00A0';
+
+    private static final char NARROW_NO_BREAK_SPACE = '\u202F';
+
+    private final char mDecimalSeparator;
+
+    private final char mGroupingSeparator;
+
+    /**
+     * Принимать точку как десятичный разделитель, даже если в локали он другой
+     */
+    private final boolean mAcceptDot;
+
+    private final int mMaxLength;
+
+    private final int mMaxScale;
+
+    private AmountParser(char decimalSeparator, char groupingSeparator, boolean acceptDot, int maxLength, int maxScale) {
+        mDecimalSeparator = decimalSeparator;
+        mGroupingSeparator = groupingSeparator;
+        mAcceptDot = acceptDot && groupingSeparator != '.';
+        mMaxLength = maxLength;
+        mMaxScale = Math.min(maxScale, MAX_DIGITS);
+    }
+
+    /**
+     * Парсер для пользовательского ввода в указанной локали с ограничениями по умолчанию
+     */
+    @NonNull
+    public static AmountParser forLocale(@NonNull Locale locale) {
+        return forLocale(locale, DEFAULT_MAX_LENGTH, DEFAULT_MAX_SCALE);
+    }
+
+    /**
+     * Парсер для пользовательского ввода в указанной локали
+     *
+     * @param maxLength максимальная длина строки
+     * @param maxScale  максимальное количество знаков после запятой
+     */
+    @NonNull
+    public static AmountParser forLocale(@NonNull Locale locale, int maxLength, int maxScale) {
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+        char grouping = symbols.getGroupingSeparator();
+        if (isSpace(grouping)) {
+            // в ru и fr разряды разделяются неразрывным пробелом, а пользователь вводит обычный
+            grouping = ' ';
+        }
+        return new AmountParser(symbols.getDecimalSeparator(), grouping, true, maxLength, maxScale);
+    }
+
+    /**
+     * Парсер для машинного формата: только точка, без разделителей разрядов (CSV, параметры запросов)
+     */
+    @NonNull
+    public static AmountParser plain(int maxLength, int maxScale) {
+        return new AmountParser('.', NONE, false, maxLength, maxScale);
+    }
+
+    /**
+     * Разбирает сумму
+     *
+     * @param text строка
+     * @return результат, никогда не {@code null}
+     */
+    @NonNull
+    public ParsedAmount parse(@NonNull CharSequence text) {
+        return parse(text, 0, text.length());
+    }
+
+    /**
+     * Разбирает сумму из части строки
+     *
+     * @param text  строка
+     * @param start начало (включительно)
+     * @param end   конец (не включительно)
+     * @return результат, никогда не {@code null}
+     */
+    @NonNull
+    public ParsedAmount parse(@NonNull CharSequence text, int start, int end) {
+        if (end - start > mMaxLength) {
+            return ParsedAmount.error(ParsedAmount.Error.TOO_LONG);
+        }
+        // пробелы по краям (но не разделитель разрядов внутри числа)
+        while (start < end && isSpace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && isSpace(text.charAt(end - 1))) {
+            end--;
+        }
+        if (start == end) {
+            return ParsedAmount.error(ParsedAmount.Error.EMPTY);
+        }
+        boolean negative = false;
+        char first = text.charAt(start);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            start++;
+        }
+        long unscaled = 0;
+        int digits = 0; // значащие цифры (без ведущих нулей)
+        int anyDigits = 0;
+        int scale = -1; // -1 - ещё в целой части
+        int groupDigits = -1; // цифр после последнего разделителя разрядов, -1 - разделителей не было
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                anyDigits++;
+                if (digits > 0 || c != '0') {
+                    if (++digits > MAX_DIGITS) {
+                        return ParsedAmount.error(ParsedAmount.Error.TOO_LONG);
+                    }
+                }
+                unscaled = unscaled * 10 + (c - '0');
+                if (scale >= 0) {
+                    if (++scale > mMaxScale) {
+                        return ParsedAmount.error(ParsedAmount.Error.TOO_MANY_DECIMALS);
+                    }
+                } else if (groupDigits >= 0) {
+                    if (++groupDigits > 3) {
+                        return ParsedAmount.error(ParsedAmount.Error.MISPLACED_SEPARATOR);
+                    }
+                }
+            } else if (isDecimalSeparator(c)) {
+                if (scale >= 0 || (groupDigits >= 0 && groupDigits != 3)) {
+                    return ParsedAmount.error(ParsedAmount.Error.MISPLACED_SEPARATOR);
+                }
+                scale = 0;
+            } else if (isGroupingSeparator(c)) {
+                if (scale >= 0 // в дробной части
+                        || anyDigits == 0 // перед разделителем нет цифр
+                        || (groupDigits >= 0 && groupDigits != 3) // предыдущая группа не из трёх цифр
+                        || (groupDigits < 0 && anyDigits > 3) // первая группа длиннее трёх цифр
+                ) {
+                    return ParsedAmount.error(ParsedAmount.Error.MISPLACED_SEPARATOR);
+                }
+                groupDigits = 0;
+            } else if (c == '-' || c == '+') {
+                return ParsedAmount.error(ParsedAmount.Error.MISPLACED_SEPARATOR);
+            } else {
+                return ParsedAmount.error(ParsedAmount.Error.INVALID_CHARACTER);
+            }
+        }
+        if (anyDigits == 0) {
+            return ParsedAmount.error(ParsedAmount.Error.EMPTY);
+        }
+        if (scale < 0 && groupDigits >= 0 && groupDigits != 3) {
+            return ParsedAmount.error(ParsedAmount.Error.MISPLACED_SEPARATOR);
+        }
+        return ParsedAmount.of(negative ? -unscaled : unscaled, Math.max(scale, 0));
+    }
+
+    private boolean isDecimalSeparator(char c) {
+        return c == mDecimalSeparator || (mAcceptDot && c == '.');
+    }
+
+    private boolean isGroupingSeparator(char c) {
+        return mGroupingSeparator != NONE && (c == mGroupingSeparator || (mGroupingSeparator == ' ' && isSpace(c)));
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == NO_BREAK_SPACE || c == NARROW_NO_BREAK_SPACE;
+    }
+}
@@ -0,0 +1,113 @@
+package ru.sergeykozhukhov.currencyconverter.domain.amount;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.math.BigDecimal;
+
+/**
+ * Результат разбора суммы: либо значение (немасштабированное число и точность), либо причина ошибки.
+ * Результаты с ошибкой заранее созданы и переиспользуются, поэтому некорректный ввод ничего не стоит
+ **/
+public final class ParsedAmount {
+
+    /**
+     * Причина, по которой строку не удалось разобрать
+     */
+    public enum Error {
+        /**
+         * Пустая строка (или только пробелы)
+         */
+        EMPTY,
+        /**
+         * Символ, который не является цифрой, знаком или разделителем
+         */
+        INVALID_CHARACTER,
+        /**
+         * Разделитель не на своём месте: второй десятичный, разряды не по три цифры, знак не в начале
+         */
+        MISPLACED_SEPARATOR,
+        /**
+         * Строка длиннее допустимого или число не помещается в 18 значащих цифр
+         */
+        TOO_LONG,
+        /**
+         * Слишком много знаков после запятой
+         */
+        TOO_MANY_DECIMALS
+    }
+
+    private static final ParsedAmount[] ERRORS = new ParsedAmount[Error.values().length];
+
+    static {
+        for (Error error : Error.values()) {
+            ERRORS[error.ordinal()] = new ParsedAmount(0, 0, error);
+        }
+    }
+
+    private final long mUnscaledValue;
+
+    private final int mScale;
+
+    @Nullable
+    private final Error mError;
+
+    private ParsedAmount(long unscaledValue, int scale, @Nullable Error error) {
+        mUnscaledValue = unscaledValue;
+        mScale = scale;
+        mError = error;
+    }
+
+    @NonNull
+    static ParsedAmount of(long unscaledValue, int scale) {
+        return new ParsedAmount(unscaledValue, scale, null);
+    }
+
+    @NonNull
+    static ParsedAmount error(@NonNull Error error) {
+        return ERRORS[error.ordinal()];
+    }
+
+    public boolean isValid() {
+        return mError == null;
+    }
+
+    /**
+     * Причина ошибки
+     *
+     * @return {@code null}, если сумма разобрана
+     */
+    @Nullable
+    public Error getError() {
+        return mError;
+    }
+
+    /**
+     * Сумма без десятичной точки: сумма = getUnscaledValue() * 10^-getScale()
+     */
+    public long getUnscaledValue() {
+        return mUnscaledValue;
+    }
+
+    /**
+     * Количество знаков после запятой
+     */
+    public int getScale() {
+        return mScale;
+    }
+
+    /**
+     * Сумма в виде {@link BigDecimal}
+     *
+     * @return {@code null}, если строку не удалось разобрать
+     */
+    @Nullable
+    public BigDecimal toBigDecimal() {
+        return mError == null ? BigDecimal.valueOf(mUnscaledValue, mScale) : null;
+    }
+
+    @Override
+    public String toString() {
+        return mError == null ? String.valueOf(toBigDecimal()) : mError.name();
+    }
+}
@@ -0,0 +1,52 @@
+package ru.sergeykozhukhov.currencyconverter.domain.batch;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Переиспользуемое представление ASCII байтов в виде {@link CharSequence}, чтобы разбирать поля
+ * строки без создания строк. Не потокобезопасно: один экземпляр на один кусок файла
+ **/
+final class AsciiSequence implements CharSequence {
+
+    private byte[] mBytes;
+
+    private int mOffset;
+
+    private int mLength;
+
+    /**
+     * Переключает представление на другой участок буфера
+     */
+    @NonNull
+    AsciiSequence reset(@NonNull byte[] bytes, int from, int to) {
+        mBytes = bytes;
+        mOffset = from;
+        mLength = to - from;
+        return this;
+    }
+
+    @Override
+    public int length() {
+        return mLength;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (char) (mBytes[mOffset + index] & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().subSequence(start, end);
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        char[] chars = new char[mLength];
+        for (int i = 0; i < mLength; i++) {
+            chars[i] = charAt(i);
+        }
+        return new String(chars);
+    }
+}
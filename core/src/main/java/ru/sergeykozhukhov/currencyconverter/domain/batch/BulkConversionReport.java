@@ -0,0 +1,34 @@
+package ru.sergeykozhukhov.currencyconverter.domain.batch;
+
+/**
+ * Итог пакетной конвертации
+ **/
+public final class BulkConversionReport {
+
+    /**
+     * Количество строк с операциями (без заголовка и пустых строк)
+     */
+    private final long mRows;
+
+    /**
+     * Количество строк, которые не удалось сконвертировать
+     */
+    private final long mRejected;
+
+    BulkConversionReport(long rows, long rejected) {
+        mRows = rows;
+        mRejected = rejected;
+    }
+
+    public long getRows() {
+        return mRows;
+    }
+
+    public long getRejected() {
+        return mRejected;
+    }
+
+    public long getConverted() {
+        return mRows - mRejected;
+    }
+}
@@ -0,0 +1,182 @@
+package ru.sergeykozhukhov.currencyconverter.domain.batch;
+
+import androidx.annotation.NonNull;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import ru.sergeykozhukhov.currencyconverter.domain.ConversionInteractor;
+import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
+import ru.sergeykozhukhov.currencyconverter.domain.model.RatesTable;
+
+/**
+ * Пакетная конвертация больших CSV файлов операций "сумма,код валюты,дата" в целевую валюту
+ * по правилам {@link ConversionInteractor} и курсам на дату операции.
+ * <p>
+ * Файл читается через {@link FileChannel} кусками по целым строкам и не загружается в память целиком.
+ * Каналы открываются через потоки java.io: java.nio.file на Android есть только с API 26.
+ * Куски конвертируются параллельно в {@link ForkJoinPool}, а записываются строго в порядке чтения.
+ * Количество кусков в работе ограничено: пока самый старый не записан, следующий не читается,
+ * поэтому медленный диск на выходе притормаживает чтение, а не накапливает результаты в памяти
+ **/
+public class BulkConverter {
+
+    /**
+     * Размер куска чтения по умолчанию (байт)
+     */
+    private static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+
+    private final ForkJoinPool mPool;
+
+    private final ConversionInteractor mConversionInteractor;
+
+    private final int mChunkSize;
+
+    /**
+     * Максимальное количество прочитанных, но ещё не записанных кусков
+     */
+    private final int mMaxChunksInFlight;
+
+    public BulkConverter(@NonNull ForkJoinPool pool, @NonNull ConversionInteractor conversionInteractor) {
+        this(pool, conversionInteractor, DEFAULT_CHUNK_SIZE);
+    }
+
+    BulkConverter(@NonNull ForkJoinPool pool, @NonNull ConversionInteractor conversionInteractor, int chunkSize) {
+        mPool = pool;
+        mConversionInteractor = conversionInteractor;
+        mChunkSize = chunkSize;
+        mMaxChunksInFlight = pool.getParallelism() * 2;
+    }
+
+    /**
+     * Конвертирует файл операций. В выходной файл пишутся исходные строки с добавленным полем суммы
+     * в целевой валюте; для строк, которые не удалось сконвертировать, поле пустое
+     *
+     * @param input          входной CSV
+     * @param output         выходной CSV (перезаписывается)
+     * @param rates          курсы по датам
+     * @param targetCharCode код целевой валюты
+     * @param hasHeader      первая строка входного файла - заголовок
+     * @return количество обработанных и отклонённых строк
+     */
+    @NonNull
+    public BulkConversionReport convert(@NonNull File input,
+                                        @NonNull File output,
+                                        @NonNull HistoricalRates rates,
+                                        @NonNull String targetCharCode,
+                                        boolean hasHeader) throws IOException {
+        Currency[] targets = new Currency[rates.size()];
+        int packedTarget = RatesTable.packCharCode(targetCharCode);
+        for (int i = 0; i < targets.length && packedTarget >= 0; i++) {
+            targets[i] = rates.find(i, packedTarget);
+        }
+        long rows = 0;
+        long rejected = 0;
+        ArrayDeque<ConvertChunkTask> pending = new ArrayDeque<>(mMaxChunksInFlight);
+        try (FileChannel in = new FileInputStream(input).getChannel();
+             FileChannel out = new FileOutputStream(output).getChannel()) {
+            ByteBuffer buffer = ByteBuffer.allocate(mChunkSize);
+            boolean header = hasHeader;
+            boolean eof = false;
+            while (!eof) {
+                eof = fill(in, buffer);
+                byte[] array = buffer.array();
+                int limit = buffer.position();
+                int end = eof ? limit : lastIndexOf(array, (byte) '\n', limit) + 1;
+                if (end == 0 && !eof) {
+                    // строка длиннее буфера
+                    buffer = ByteBuffer.wrap(Arrays.copyOf(array, array.length * 2), limit, array.length * 2 - limit);
+                    continue;
+                }
+                int start = 0;
+                if (header) {
+                    int headerEnd = ConvertChunkTask.indexOf(array, (byte) '\n', 0, end);
+                    start = headerEnd < 0 ? end : headerEnd + 1;
+                    writeHeader(out, array, headerEnd < 0 ? end : headerEnd, targetCharCode);
+                    header = false;
+                }
+                if (end > start) {
+                    ConvertChunkTask task = new ConvertChunkTask(Arrays.copyOfRange(array, start, end), 0, end - start,
+                            rates, targets, mConversionInteractor);
+                    mPool.execute(task);
+                    pending.add(task);
+                }
+                // неполная последняя строка переносится в начало буфера
+                System.arraycopy(array, end, array, 0, limit - end);
+                buffer.clear();
+                buffer.position(limit - end);
+                while (pending.size() >= mMaxChunksInFlight) {
+                    ChunkResult result = pending.poll().join();
+                    write(out, result);
+                    rows += result.getRows();
+                    rejected += result.getRejected();
+                }
+            }
+            while (!pending.isEmpty()) {
+                ChunkResult result = pending.poll().join();
+                write(out, result);
+                rows += result.getRows();
+                rejected += result.getRejected();
+            }
+        } finally {
+            for (ConvertChunkTask task : pending) {
+                task.cancel(true);
+            }
+        }
+        return new BulkConversionReport(rows, rejected);
+    }
+
+    /**
+     * Читает из канала, пока буфер не заполнится или файл не закончится
+     *
+     * @return {@code true}, если файл закончился
+     */
+    private static boolean fill(@NonNull FileChannel channel, @NonNull ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void writeHeader(@NonNull FileChannel out,
+                                    @NonNull byte[] array,
+                                    int headerEnd,
+                                    @NonNull String targetCharCode) throws IOException {
+        if (headerEnd > 0 && array[headerEnd - 1] == '\r') {
+            headerEnd--;
+        }
+        ChunkResult header = new ChunkResult(headerEnd + 16);
+        header.write(array, 0, headerEnd);
+        header.write((byte) ',');
+        byte[] charCode = targetCharCode.getBytes(StandardCharsets.UTF_8);
+        header.write(charCode, 0, charCode.length);
+        header.write((byte) '\n');
+        write(out, header);
+    }
+
+    private static void write(@NonNull FileChannel out, @NonNull ChunkResult result) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(result.getBytes(), 0, result.getLength());
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    private static int lastIndexOf(@NonNull byte[] bytes, byte value, int to) {
+        for (int i = to - 1; i >= 0; i--) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
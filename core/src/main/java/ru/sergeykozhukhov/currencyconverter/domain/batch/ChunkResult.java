@@ -0,0 +1,84 @@
+package ru.sergeykozhukhov.currencyconverter.domain.batch;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Результат конвертации куска файла: готовые строки для записи и счётчики
+ **/
+final class ChunkResult {
+
+    private byte[] mBytes;
+
+    private int mLength;
+
+    private int mRows;
+
+    private int mRejected;
+
+    ChunkResult(int expectedLength) {
+        mBytes = new byte[Math.max(16, expectedLength)];
+    }
+
+    @NonNull
+    byte[] getBytes() {
+        return mBytes;
+    }
+
+    int getLength() {
+        return mLength;
+    }
+
+    int getRows() {
+        return mRows;
+    }
+
+    int getRejected() {
+        return mRejected;
+    }
+
+    void onRow(boolean rejected) {
+        mRows++;
+        if (rejected) {
+            mRejected++;
+        }
+    }
+
+    void write(byte b) {
+        ensureCapacity(1);
+        mBytes[mLength++] = b;
+    }
+
+    void write(@NonNull byte[] bytes, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(bytes, offset, mBytes, mLength, length);
+        mLength += length;
+    }
+
+    /**
+     * Пишет строку из ASCII символов (числа, коды валют)
+     */
+    void writeAscii(@NonNull String text) {
+        int length = text.length();
+        ensureCapacity(length);
+        for (int i = 0; i < length; i++) {
+            mBytes[mLength++] = (byte) text.charAt(i);
+        }
+    }
+
+    /**
+     * Дописывает результат следующего по порядку куска
+     */
+    void append(@NonNull ChunkResult next) {
+        write(next.mBytes, 0, next.mLength);
+        mRows += next.mRows;
+        mRejected += next.mRejected;
+    }
+
+    private void ensureCapacity(int additional) {
+        if (mLength + additional > mBytes.length) {
+            mBytes = Arrays.copyOf(mBytes, Math.max(mBytes.length * 2, mLength + additional));
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package ru.sergeykozhukhov.currencyconverter.domain.batch;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.math.BigDecimal;
+import java.util.concurrent.RecursiveTask;
+
+import ru.sergeykozhukhov.currencyconverter.domain.ConversionInteractor;
+import ru.sergeykozhukhov.currencyconverter.domain.amount.AmountParser;
+import ru.sergeykozhukhov.currencyconverter.domain.history.EpochDays;
+import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
+
+/**
+ * Конвертация куска CSV из целых строк "сумма,код валюты,дата".
+ * Большой кусок делится пополам по границе строки, половины считаются параллельно
+ * и склеиваются в исходном порядке.
+ * Каждая строка записывается в результат с добавленным полем суммы в целевой валюте
+ * (пустым, если строку не удалось сконвертировать)
+ **/
+final class ConvertChunkTask extends RecursiveTask<ChunkResult> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Размер куска (байт), который дальше не делится
+     */
+    static final int SPLIT_THRESHOLD = 64 * 1024;
+
+    /**
+     * Суммы в файле: точка как десятичный разделитель, без разделителей разрядов (запятая разделяет поля)
+     */
+    private static final AmountParser AMOUNT_PARSER = AmountParser.plain(40, 18);
+
+    private final byte[] mData;
+
+    private final int mFrom;
+
+    private final int mTo;
+
+    private final HistoricalRates mRates;
+
+    /**
+     * Целевая валюта для каждой таблицы {@link #mRates} ({@code null}, если в таблице её нет)
+     */
+    private final Currency[] mTargets;
+
+    private final ConversionInteractor mConversionInteractor;
+
+    ConvertChunkTask(@NonNull byte[] data,
+                     int from,
+                     int to,
+                     @NonNull HistoricalRates rates,
+                     @NonNull Currency[] targets,
+                     @NonNull ConversionInteractor conversionInteractor) {
+        mData = data;
+        mFrom = from;
+        mTo = to;
+        mRates = rates;
+        mTargets = targets;
+        mConversionInteractor = conversionInteractor;
+    }
+
+    @Override
+    protected ChunkResult compute() {
+        if (mTo - mFrom > SPLIT_THRESHOLD) {
+            int middle = indexOf(mData, (byte) '\n', mFrom + (mTo - mFrom) / 2, mTo);
+            if (middle >= 0 && middle + 1 < mTo) {
+                ConvertChunkTask left = new ConvertChunkTask(mData, mFrom, middle + 1, mRates, mTargets, mConversionInteractor);
+                ConvertChunkTask right = new ConvertChunkTask(mData, middle + 1, mTo, mRates, mTargets, mConversionInteractor);
+                left.fork();
+                ChunkResult rightResult = right.compute();
+                ChunkResult result = left.join();
+                result.append(rightResult);
+                return result;
+            }
+        }
+        return convertLines();
+    }
+
+    @NonNull
+    private ChunkResult convertLines() {
+        // результат немного длиннее входа: к каждой строке дописывается сумма
+        ChunkResult result = new ChunkResult((mTo - mFrom) + (mTo - mFrom) / 3);
+        AsciiSequence field = new AsciiSequence();
+        int lineStart = mFrom;
+        while (lineStart < mTo) {
+            int newLine = indexOf(mData, (byte) '\n', lineStart, mTo);
+            int next = newLine < 0 ? mTo : newLine + 1;
+            int lineEnd = newLine < 0 ? mTo : newLine;
+            if (lineEnd > lineStart && mData[lineEnd - 1] == '\r') {
+                lineEnd--;
+            }
+            if (lineEnd > lineStart) {
+                BigDecimal converted = convertLine(field, lineStart, lineEnd);
+                result.write(mData, lineStart, lineEnd - lineStart);
+                result.write((byte) ',');
+                if (converted != null) {
+                    result.writeAscii(converted.toPlainString());
+                }
+                result.write((byte) '\n');
+                result.onRow(converted == null);
+            }
+            lineStart = next;
+        }
+        return result;
+    }
+
+    /**
+     * Разбирает и конвертирует строку
+     *
+     * @return {@code null}, если строка некорректна или для её даты/валюты нет курса
+     */
+    @Nullable
+    private BigDecimal convertLine(@NonNull AsciiSequence field, int lineStart, int lineEnd) {
+        int firstComma = indexOf(mData, (byte) ',', lineStart, lineEnd);
+        if (firstComma < 0) {
+            return null;
+        }
+        int secondComma = indexOf(mData, (byte) ',', firstComma + 1, lineEnd);
+        if (secondComma < 0) {
+            return null;
+        }
+        BigDecimal amount = AMOUNT_PARSER.parse(field.reset(mData, lineStart, firstComma)).toBigDecimal();
+        int charCode = packCharCode(mData, firstComma + 1, secondComma);
+        int epochDay = EpochDays.parseAscii(mData, secondComma + 1, lineEnd - secondComma - 1);
+        if (amount == null || charCode < 0 || epochDay < 0) {
+            return null;
+        }
+        int tableIndex = mRates.indexOfDay(epochDay);
+        if (tableIndex < 0) {
+            return null;
+        }
+        Currency base = mRates.find(tableIndex, charCode);
+        Currency target = mTargets[tableIndex];
+        if (base == null || target == null) {
+            return null;
+        }
+        return mConversionInteractor.calculateConversion(base, target, amount);
+    }
+
+    /**
+     * Упаковывает код валюты так же, как {@link ru.sergeykozhukhov.currencyconverter.domain.model.RatesTable#packCharCode(String)}
+     *
+     * @return {@code -1}, если байты не являются кодом из трёх ASCII символов
+     */
+    private static int packCharCode(@NonNull byte[] bytes, int from, int to) {
+        if (to - from != 3) {
+            return -1;
+        }
+        int result = 0;
+        for (int i = from; i < to; i++) {
+            byte b = bytes[i];
+            if (b <= 0) {
+                return -1;
+            }
+            result = (result << 8) | b;
+        }
+        return result;
+    }
+
+    static int indexOf(@NonNull byte[] bytes, byte value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,127 @@
+package ru.sergeykozhukhov.currencyconverter.domain.batch;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+import ru.sergeykozhukhov.currencyconverter.domain.CrossRates;
+import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
+import ru.sergeykozhukhov.currencyconverter.domain.model.RatesTable;
+
+/**
+ * Неизменяемый набор таблиц курсов по датам для пакетной конвертации.
+ * Для даты операции берётся последняя таблица, опубликованная не позже этой даты.
+ * Поиск таблицы и валюты в ней - двоичный поиск по примитивным массивам, без создания объектов
+ **/
+public final class HistoricalRates {
+
+    /**
+     * Рубль: в таблицах ЦБ его нет, курсы заданы по отношению к нему
+     */
+    private static final Currency RUB = new Currency("rub_id", CrossRates.RUB_CHAR_CODE, 1, "Российский рубль", BigDecimal.ONE);
+
+    private static final int RUB_PACKED = RatesTable.packCharCode(CrossRates.RUB_CHAR_CODE);
+
+    /**
+     * Дни публикации таблиц (по возрастанию)
+     */
+    private final int[] mDays;
+
+    /**
+     * Упакованные коды валют каждой таблицы (по возрастанию, включая рубль)
+     */
+    private final int[][] mCharCodes;
+
+    /**
+     * Валюты каждой таблицы в порядке {@link #mCharCodes}
+     */
+    private final Currency[][] mCurrencies;
+
+    private HistoricalRates(@NonNull int[] days, @NonNull int[][] charCodes, @NonNull Currency[][] currencies) {
+        mDays = days;
+        mCharCodes = charCodes;
+        mCurrencies = currencies;
+    }
+
+    /**
+     * Количество таблиц
+     */
+    public int size() {
+        return mDays.length;
+    }
+
+    /**
+     * Индекс таблицы, действующей в указанный день
+     *
+     * @return {@code -1}, если день раньше первой таблицы
+     */
+    public int indexOfDay(int epochDay) {
+        int index = Arrays.binarySearch(mDays, epochDay);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    /**
+     * Валюта таблицы по упакованному коду ({@link RatesTable#packCharCode(String)})
+     *
+     * @return {@code null}, если валюты нет в таблице
+     */
+    @Nullable
+    public Currency find(int tableIndex, int packedCharCode) {
+        int index = Arrays.binarySearch(mCharCodes[tableIndex], packedCharCode);
+        return index >= 0 ? mCurrencies[tableIndex][index] : null;
+    }
+
+    /**
+     * Построитель набора таблиц
+     */
+    public static class Builder {
+
+        private final Map<Integer, RatesTable> mTables = new TreeMap<>();
+
+        /**
+         * Добавляет таблицу, опубликованную в указанный день (повторная таблица за день заменяет прежнюю)
+         */
+        @NonNull
+        public Builder add(int epochDay, @NonNull RatesTable table) {
+            mTables.put(epochDay, table);
+            return this;
+        }
+
+        @NonNull
+        public HistoricalRates build() {
+            int size = mTables.size();
+            int[] days = new int[size];
+            int[][] charCodes = new int[size][];
+            Currency[][] currencies = new Currency[size][];
+            int tableIndex = 0;
+            for (Map.Entry<Integer, RatesTable> entry : mTables.entrySet()) {
+                days[tableIndex] = entry.getKey();
+                TreeMap<Integer, Currency> sorted = new TreeMap<>();
+                sorted.put(RUB_PACKED, RUB);
+                RatesTable table = entry.getValue();
+                for (int i = 0; i < table.size(); i++) {
+                    int packed = table.getPackedCharCode(i);
+                    if (packed >= 0) {
+                        sorted.put(packed, table.get(i));
+                    }
+                }
+                int[] tableCharCodes = new int[sorted.size()];
+                Currency[] tableCurrencies = new Currency[sorted.size()];
+                int i = 0;
+                for (Map.Entry<Integer, Currency> currency : sorted.entrySet()) {
+                    tableCharCodes[i] = currency.getKey();
+                    tableCurrencies[i] = currency.getValue();
+                    i++;
+                }
+                charCodes[tableIndex] = tableCharCodes;
+                currencies[tableIndex] = tableCurrencies;
+                tableIndex++;
+            }
+            return new HistoricalRates(days, charCodes, currencies);
+        }
+    }
+}
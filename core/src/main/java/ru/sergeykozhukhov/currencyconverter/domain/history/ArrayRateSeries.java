@@ -0,0 +1,76 @@
+package ru.sergeykozhukhov.currencyconverter.domain.history;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Временной ряд на примитивных массивах
+ **/
+public class ArrayRateSeries implements RateSeries {
+
+    private final int[] mDays;
+
+    private final double[] mValues;
+
+    /**
+     * Индекс первой точки ряда в массивах
+     */
+    private final int mOffset;
+
+    private final int mSize;
+
+    /**
+     * Массивы не копируются, вызывающий не должен их изменять
+     */
+    public ArrayRateSeries(@NonNull int[] days, @NonNull double[] values, int size) {
+        this(days, values, 0, size);
+        if (size > days.length || size > values.length) {
+            throw new IllegalArgumentException("Размер ряда больше размера массивов: " + size);
+        }
+    }
+
+    private ArrayRateSeries(@NonNull int[] days, @NonNull double[] values, int offset, int size) {
+        mDays = days;
+        mValues = values;
+        mOffset = offset;
+        mSize = size;
+    }
+
+    @Override
+    public int size() {
+        return mSize;
+    }
+
+    @Override
+    public int getDay(int index) {
+        return mDays[mOffset + index];
+    }
+
+    @Override
+    public double getValue(int index) {
+        return mValues[mOffset + index];
+    }
+
+    /**
+     * Часть ряда с днями из отрезка [fromDay, toDay] (без копирования)
+     */
+    @NonNull
+    public ArrayRateSeries subSeries(int fromDay, int toDay) {
+        int from = lowerBound(fromDay);
+        int to = lowerBound(toDay + 1);
+        return new ArrayRateSeries(mDays, mValues, from, Math.max(0, to - from));
+    }
+
+    /**
+     * Индекс (в массивах) первой точки с днём не раньше заданного
+     */
+    private int lowerBound(int day) {
+        int index = Arrays.binarySearch(mDays, mOffset, mOffset + mSize, day);
+        if (index < 0) {
+            return -index - 1;
+        }
+        // дни в ряду уникальны, поэтому найденный индекс и есть первый
+        return index;
+    }
+}
@@ -0,0 +1,89 @@
+package ru.sergeykozhukhov.currencyconverter.domain.history;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Прореживание рядов курсов для графиков алгоритмом Largest-Triangle-Three-Buckets:
+ * ряд делится на корзины, из каждой берётся точка, образующая наибольший треугольник
+ * с выбранной точкой предыдущей корзины и средней точкой следующей. Один проход, O(n)
+ **/
+public final class Downsampler {
+
+    private Downsampler() {
+    }
+
+    /**
+     * Прореживает ряд до заданного количества точек (например, ширины графика в пикселях)
+     *
+     * @param series    исходный ряд
+     * @param threshold требуемое количество точек, не меньше 3
+     * @return прореженный ряд; первая и последняя точки сохраняются. Если точек не больше
+     * {@code threshold}, возвращается копия исходного ряда
+     */
+    @NonNull
+    public static ArrayRateSeries lttb(@NonNull RateSeries series, int threshold) {
+        if (threshold < 3) {
+            throw new IllegalArgumentException("Требуется хотя бы 3 точки: " + threshold);
+        }
+        int size = series.size();
+        if (size <= threshold) {
+            return copy(series);
+        }
+        int[] days = new int[threshold];
+        double[] values = new double[threshold];
+        days[0] = series.getDay(0);
+        values[0] = series.getValue(0);
+
+        // первая и последняя точки фиксированы, остальные делятся на threshold - 2 корзины
+        double bucketSize = (double) (size - 2) / (threshold - 2);
+        int selected = 0;
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            // средняя точка следующей корзины (для последней корзины - последняя точка ряда)
+            int nextStart = (int) ((bucket + 1) * bucketSize) + 1;
+            int nextEnd = Math.min((int) ((bucket + 2) * bucketSize) + 1, size);
+            double averageDay = 0;
+            double averageValue = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                averageDay += series.getDay(i);
+                averageValue += series.getValue(i);
+            }
+            int nextCount = nextEnd - nextStart;
+            averageDay /= nextCount;
+            averageValue /= nextCount;
+
+            // точка текущей корзины с наибольшей площадью треугольника
+            int start = (int) (bucket * bucketSize) + 1;
+            int end = nextStart;
+            double selectedDay = series.getDay(selected);
+            double selectedValue = series.getValue(selected);
+            double maxArea = -1;
+            int maxIndex = start;
+            for (int i = start; i < end; i++) {
+                double area = Math.abs((selectedDay - averageDay) * (series.getValue(i) - selectedValue)
+                        - (selectedDay - series.getDay(i)) * (averageValue - selectedValue));
+                if (area > maxArea) {
+                    maxArea = area;
+                    maxIndex = i;
+                }
+            }
+            selected = maxIndex;
+            days[bucket + 1] = series.getDay(selected);
+            values[bucket + 1] = series.getValue(selected);
+        }
+        days[threshold - 1] = series.getDay(size - 1);
+        values[threshold - 1] = series.getValue(size - 1);
+        return new ArrayRateSeries(days, values, threshold);
+    }
+
+    @NonNull
+    private static ArrayRateSeries copy(@NonNull RateSeries series) {
+        int size = series.size();
+        int[] days = new int[size];
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            days[i] = series.getDay(i);
+            values[i] = series.getValue(i);
+        }
+        return new ArrayRateSeries(days, values, size);
+    }
+}
@@ -0,0 +1,168 @@
+package ru.sergeykozhukhov.currencyconverter.domain.history;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Даты в виде номера дня от 1970-01-01 (без java.time, который недоступен на minSdk 21)
+ **/
+public final class EpochDays {
+
+    /**
+     * Смещение московского времени от UTC (постоянное с 2014 года)
+     */
+    private static final long MOSCOW_OFFSET_MILLIS = 3 * 60 * 60 * 1000L;
+
+    private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000L;
+
+    private EpochDays() {
+    }
+
+    /**
+     * Номер дня по московскому времени (ЦБ устанавливает курсы на московскую дату)
+     *
+     * @param millis время в мс от 1970-01-01T00:00Z
+     */
+    public static int ofMoscowMillis(long millis) {
+        long local = millis + MOSCOW_OFFSET_MILLIS;
+        long day = local / MILLIS_PER_DAY;
+        return (int) (local % MILLIS_PER_DAY < 0 ? day - 1 : day);
+    }
+
+    /**
+     * Номер дня по дате григорианского календаря
+     *
+     * @param year  год
+     * @param month месяц (1-12)
+     * @param day   день месяца (1-31)
+     */
+    public static int of(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /**
+     * Разбирает дату вида "2020-01-04"
+     *
+     * @return номер дня или {@code -1}, если строка не является датой в этом формате
+     */
+    public static int parseIsoDate(@NonNull CharSequence text) {
+        if (text.length() != 10 || text.charAt(4) != '-' || text.charAt(7) != '-') {
+            return -1;
+        }
+        return parse(text, 0, 5, 8);
+    }
+
+    /**
+     * Разбирает дату в формате ЦБ вида "04.01.2020"
+     *
+     * @return номер дня или {@code -1}, если строка не является датой в этом формате
+     */
+    public static int parseCbrDate(@NonNull CharSequence text) {
+        if (text.length() != 10 || text.charAt(2) != '.' || text.charAt(5) != '.') {
+            return -1;
+        }
+        return parse(text, 6, 3, 0);
+    }
+
+    /**
+     * Разбирает дату вида "2020-01-04" или "04.01.2020" прямо из ASCII байтов, без создания строки
+     *
+     * @param bytes  буфер
+     * @param offset начало даты
+     * @param length длина даты
+     * @return номер дня или {@code -1}, если байты не являются датой ни в одном из форматов
+     */
+    public static int parseAscii(@NonNull byte[] bytes, int offset, int length) {
+        if (length != 10) {
+            return -1;
+        }
+        int year;
+        int month;
+        int day;
+        if (bytes[offset + 4] == '-' && bytes[offset + 7] == '-') {
+            year = digits(bytes, offset, 4);
+            month = digits(bytes, offset + 5, 2);
+            day = digits(bytes, offset + 8, 2);
+        } else if (bytes[offset + 2] == '.' && bytes[offset + 5] == '.') {
+            year = digits(bytes, offset + 6, 4);
+            month = digits(bytes, offset + 3, 2);
+            day = digits(bytes, offset, 2);
+        } else {
+            return -1;
+        }
+        return ofChecked(year, month, day);
+    }
+
+    /**
+     * Форматирует номер дня в строку вида "2020-01-04"
+     */
+    @NonNull
+    public static String toIsoDate(int epochDay) {
+        int z = epochDay + 719468;
+        int era = (z >= 0 ? z : z - 146096) / 146097;
+        int dayOfEra = z - era * 146097;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int mp = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        StringBuilder builder = new StringBuilder(10);
+        builder.append(year).append('-');
+        if (month < 10) {
+            builder.append('0');
+        }
+        builder.append(month).append('-');
+        if (day < 10) {
+            builder.append('0');
+        }
+        return builder.append(day).toString();
+    }
+
+    private static int parse(@NonNull CharSequence text, int yearStart, int monthStart, int dayStart) {
+        int year = digits(text, yearStart, 4);
+        int month = digits(text, monthStart, 2);
+        int day = digits(text, dayStart, 2);
+        return ofChecked(year, month, day);
+    }
+
+    /**
+     * Номер дня с проверкой диапазонов полей
+     *
+     * @return номер дня или {@code -1}, если поля вне допустимых значений
+     */
+    private static int ofChecked(int year, int month, int day) {
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31) {
+            return -1;
+        }
+        return of(year, month, day);
+    }
+
+    private static int digits(@NonNull CharSequence text, int start, int count) {
+        int result = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    private static int digits(@NonNull byte[] bytes, int start, int count) {
+        int result = 0;
+        for (int i = start; i < start + count; i++) {
+            byte b = bytes[i];
+            if (b < '0' || b > '9') {
+                return -1;
+            }
+            result = result * 10 + (b - '0');
+        }
+        return result;
+    }
+}
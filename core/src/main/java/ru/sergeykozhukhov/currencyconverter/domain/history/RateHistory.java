@@ -0,0 +1,238 @@
+package ru.sergeykozhukhov.currencyconverter.domain.history;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ru.sergeykozhukhov.currencyconverter.domain.CrossRates;
+import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
+import ru.sergeykozhukhov.currencyconverter.domain.model.RatesSnapshot;
+import ru.sergeykozhukhov.currencyconverter.domain.publish.RatesPublisher;
+
+/**
+ * Колоночное хранилище истории курсов: общий столбец дней и по столбцу стоимостей единицы валюты
+ * в рублях для каждого кода валюты (рубль не хранится, его стоимость всегда 1).
+ * Дни только добавляются в конец, уже записанные значения не меняются,
+ * поэтому выданные ряды остаются согласованными при дальнейших добавлениях.
+ * Для подписки на {@link RatesPublisher} есть {@link #subscriber()}
+ **/
+public class RateHistory {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Дни по возрастанию
+     */
+    private int[] mDays = new int[INITIAL_CAPACITY];
+
+    /**
+     * Столбцы стоимостей единицы валюты в рублях по кодам валют.
+     * Если валюты не было в очередном списке, повторяется её предыдущее значение,
+     * до первого появления - {@link Double#NaN}
+     */
+    private final Map<String, double[]> mColumns = new HashMap<>();
+
+    /**
+     * Количество дней
+     */
+    private int mSize;
+
+    /**
+     * Версия данных, увеличивается при каждом добавлении дня
+     */
+    private long mVersion;
+
+    /**
+     * Добавляет курсы за день
+     *
+     * @param epochDay   день (см. {@link EpochDays})
+     * @param currencies курсы валют по отношению к рублю на этот день
+     * @return {@code false}, если день не позже последнего сохранённого (курсы ЦБ на дату не меняются)
+     */
+    public synchronized boolean append(int epochDay, @NonNull List<Currency> currencies) {
+        if (mSize > 0 && epochDay <= mDays[mSize - 1]) {
+            return false;
+        }
+        if (mSize == mDays.length) {
+            int capacity = mDays.length * 2;
+            mDays = Arrays.copyOf(mDays, capacity);
+            for (Map.Entry<String, double[]> entry : mColumns.entrySet()) {
+                entry.setValue(Arrays.copyOf(entry.getValue(), capacity));
+            }
+        }
+        mDays[mSize] = epochDay;
+        for (double[] column : mColumns.values()) {
+            column[mSize] = mSize == 0 ? Double.NaN : column[mSize - 1];
+        }
+        for (Currency currency : currencies) {
+            if (CrossRates.RUB_CHAR_CODE.equals(currency.getCharCode())) {
+                continue;
+            }
+            double[] column = mColumns.get(currency.getCharCode());
+            if (column == null) {
+                column = new double[mDays.length];
+                Arrays.fill(column, 0, mSize, Double.NaN);
+                mColumns.put(currency.getCharCode(), column);
+            }
+            column[mSize] = CrossRates.unitValue(currency);
+        }
+        mSize++;
+        mVersion++;
+        return true;
+    }
+
+    /**
+     * Подписчик для {@link RatesPublisher}: день снимка - московская дата его загрузки,
+     * повторные загрузки того же дня пропускаются
+     */
+    @NonNull
+    public RatesPublisher.Subscriber subscriber() {
+        return new RatesPublisher.Subscriber() {
+            @Override
+            public void onRates(@NonNull RatesSnapshot snapshot) {
+                append(EpochDays.ofMoscowMillis(snapshot.getTimestamp()), snapshot.getCurrencies());
+            }
+        };
+    }
+
+    /**
+     * Количество дней
+     */
+    public synchronized int size() {
+        return mSize;
+    }
+
+    /**
+     * Версия данных, меняется при каждом добавлении дня
+     */
+    public synchronized long getVersion() {
+        return mVersion;
+    }
+
+    /**
+     * Ряд кросс-курса пары (сколько котируемой валюты стоит единица базовой). Значения вычисляются
+     * при обращении из двух столбцов, ряд начинается с первого дня, когда известны обе валюты
+     *
+     * @return {@code null}, если одна из валют не встречалась в истории
+     */
+    @Nullable
+    public synchronized RateSeries pair(@NonNull String baseCharCode, @NonNull String quotedCharCode) {
+        boolean baseRub = CrossRates.RUB_CHAR_CODE.equals(baseCharCode);
+        boolean quotedRub = CrossRates.RUB_CHAR_CODE.equals(quotedCharCode);
+        // у рубля нет столбца: его стоимость всегда 1
+        double[] base = baseRub ? null : mColumns.get(baseCharCode);
+        double[] quoted = quotedRub ? null : mColumns.get(quotedCharCode);
+        if ((!baseRub && base == null) || (!quotedRub && quoted == null)) {
+            return null;
+        }
+        int start = 0;
+        while (start < mSize && ((base != null && Double.isNaN(base[start]))
+                || (quoted != null && Double.isNaN(quoted[start])))) {
+            start++;
+        }
+        return new PairSeries(mDays, base, quoted, start, mSize);
+    }
+
+    /**
+     * Стоимость суммы базовой валюты в котируемой на каждый день отрезка [fromDay, toDay]
+     * (e.g. 1000 USD в EUR за 2015-2024). Считается одним проходом по двум столбцам хранилища
+     * в примитивные массивы результата, без промежуточных списков валют и BigDecimal,
+     * поэтому значения - double (для аналитики, а не для расчётов с пользователем)
+     *
+     * @param amount         сумма в базовой валюте
+     * @param baseCharCode   код базовой валюты
+     * @param quotedCharCode код котируемой валюты
+     * @param fromDay        первый день отрезка (см. {@link EpochDays})
+     * @param toDay          последний день отрезка включительно ({@link Integer#MAX_VALUE} - до последнего дня истории)
+     * @return ряд с днями отрезка, когда известны обе валюты (возможно пустой),
+     * или {@code null}, если одна из валют не встречалась в истории
+     */
+    @Nullable
+    public synchronized ArrayRateSeries convertRange(double amount, @NonNull String baseCharCode,
+                                                     @NonNull String quotedCharCode, int fromDay, int toDay) {
+        boolean baseRub = CrossRates.RUB_CHAR_CODE.equals(baseCharCode);
+        boolean quotedRub = CrossRates.RUB_CHAR_CODE.equals(quotedCharCode);
+        double[] base = baseRub ? null : mColumns.get(baseCharCode);
+        double[] quoted = quotedRub ? null : mColumns.get(quotedCharCode);
+        if ((!baseRub && base == null) || (!quotedRub && quoted == null)) {
+            return null;
+        }
+        int start = lowerBound(fromDay);
+        // toDay + 1 переполняется для открытого справа отрезка
+        int end = toDay < fromDay ? start : toDay == Integer.MAX_VALUE ? mSize : lowerBound(toDay + 1);
+        // до первого появления валюты в столбце NaN, после - только значения
+        while (start < end && ((base != null && Double.isNaN(base[start]))
+                || (quoted != null && Double.isNaN(quoted[start])))) {
+            start++;
+        }
+        int size = end - start;
+        int[] days = Arrays.copyOfRange(mDays, start, end);
+        double[] values = new double[size];
+        // отдельный цикл на каждый случай: в теле цикла нет ветвлений и лишних обращений к памяти
+        if (base != null && quoted != null) {
+            for (int i = 0; i < size; i++) {
+                values[i] = amount * base[start + i] / quoted[start + i];
+            }
+        } else if (base != null) {
+            for (int i = 0; i < size; i++) {
+                values[i] = amount * base[start + i];
+            }
+        } else if (quoted != null) {
+            for (int i = 0; i < size; i++) {
+                values[i] = amount / quoted[start + i];
+            }
+        } else {
+            Arrays.fill(values, amount);
+        }
+        return new ArrayRateSeries(days, values, size);
+    }
+
+    /**
+     * Индекс первого дня не раньше заданного
+     */
+    private int lowerBound(int day) {
+        int index = Arrays.binarySearch(mDays, 0, mSize, day);
+        return index < 0 ? -index - 1 : index;
+    }
+
+    /**
+     * Представление пары поверх столбцов хранилища (без копирования).
+     * Столбец {@code null} - рубль
+     */
+    private static class PairSeries implements RateSeries {
+
+        private final int[] mDays;
+        private final double[] mBase;
+        private final double[] mQuoted;
+        private final int mStart;
+        private final int mEnd;
+
+        private PairSeries(int[] days, @Nullable double[] base, @Nullable double[] quoted, int start, int end) {
+            mDays = days;
+            mBase = base;
+            mQuoted = quoted;
+            mStart = start;
+            mEnd = end;
+        }
+
+        @Override
+        public int size() {
+            return mEnd - mStart;
+        }
+
+        @Override
+        public int getDay(int index) {
+            return mDays[mStart + index];
+        }
+
+        @Override
+        public double getValue(int index) {
+            double base = mBase == null ? 1d : mBase[mStart + index];
+            return mQuoted == null ? base : base / mQuoted[mStart + index];
+        }
+    }
+}
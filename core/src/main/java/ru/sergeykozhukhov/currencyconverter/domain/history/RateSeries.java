@@ -0,0 +1,22 @@
+package ru.sergeykozhukhov.currencyconverter.domain.history;
+
+/**
+ * Временной ряд курса: значения, упорядоченные по возрастанию дней
+ **/
+public interface RateSeries {
+
+    /**
+     * Количество точек
+     */
+    int size();
+
+    /**
+     * День точки (номер дня от 1970-01-01, см. {@link EpochDays})
+     */
+    int getDay(int index);
+
+    /**
+     * Значение курса в точке
+     */
+    double getValue(int index);
+}
@@ -0,0 +1,130 @@
+package ru.sergeykozhukhov.currencyconverter.domain.history;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Кэш прореженных рядов для графика истории курсов. Для пары заранее считаются все уровни масштаба:
+ * уровень 0 - весь ряд в ширину графика, каждый следующий - вдвое подробнее, последний - исходный ряд.
+ * Прокрутка графика на любом уровне - только выборка отрезка бинарным поиском, без пересчёта
+ **/
+public class ZoomLevelCache {
+
+    /**
+     * История курсов
+     */
+    private final RateHistory mHistory;
+
+    /**
+     * Ширина графика в точках (пикселях)
+     */
+    private final int mWidth;
+
+    /**
+     * Уровни масштаба по парам "базовая/котируемая", в порядке последнего обращения
+     */
+    private final LinkedHashMap<String, Levels> mLevels;
+
+    /**
+     * @param history    история курсов
+     * @param width      ширина графика в точках
+     * @param maxEntries сколько пар держать в кэше
+     */
+    public ZoomLevelCache(@NonNull RateHistory history, int width, final int maxEntries) {
+        if (width < 3) {
+            throw new IllegalArgumentException("Ширина графика должна быть не меньше 3: " + width);
+        }
+        mHistory = history;
+        mWidth = width;
+        mLevels = new LinkedHashMap<String, Levels>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Levels> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Количество уровней масштаба для пары
+     *
+     * @return {@code 0}, если пары нет в истории
+     */
+    public synchronized int getLevelCount(@NonNull String baseCharCode, @NonNull String quotedCharCode) {
+        Levels levels = levels(baseCharCode, quotedCharCode);
+        return levels == null ? 0 : levels.mSeries.length;
+    }
+
+    /**
+     * Видимая часть ряда пары на заданном уровне масштаба
+     *
+     * @param zoom    уровень масштаба; значения больше последнего приводятся к последнему
+     * @param fromDay первый видимый день
+     * @param toDay   последний видимый день
+     * @return {@code null}, если пары нет в истории
+     */
+    @Nullable
+    public synchronized RateSeries getVisible(@NonNull String baseCharCode,
+                                              @NonNull String quotedCharCode,
+                                              int zoom,
+                                              int fromDay,
+                                              int toDay) {
+        Levels levels = levels(baseCharCode, quotedCharCode);
+        if (levels == null) {
+            return null;
+        }
+        int level = Math.max(0, Math.min(zoom, levels.mSeries.length - 1));
+        return levels.mSeries[level].subSeries(fromDay, toDay);
+    }
+
+    /**
+     * Уровни пары из кэша; пересчитываются, если история изменилась
+     */
+    @Nullable
+    private Levels levels(@NonNull String baseCharCode, @NonNull String quotedCharCode) {
+        String key = baseCharCode + '/' + quotedCharCode;
+        long version = mHistory.getVersion();
+        Levels levels = mLevels.get(key);
+        if (levels == null || levels.mVersion != version) {
+            RateSeries series = mHistory.pair(baseCharCode, quotedCharCode);
+            if (series == null) {
+                mLevels.remove(key);
+                return null;
+            }
+            levels = new Levels(version, build(series));
+            mLevels.put(key, levels);
+        }
+        return levels;
+    }
+
+    @NonNull
+    private ArrayRateSeries[] build(@NonNull RateSeries series) {
+        int count = 1;
+        while (((long) mWidth << (count - 1)) < series.size()) {
+            count++;
+        }
+        ArrayRateSeries[] result = new ArrayRateSeries[count];
+        for (int level = 0; level < count; level++) {
+            long threshold = (long) mWidth << level;
+            result[level] = Downsampler.lttb(series, (int) Math.min(threshold, series.size() + 3L));
+        }
+        return result;
+    }
+
+    /**
+     * Уровни масштаба пары для определённой версии истории
+     */
+    private static class Levels {
+
+        private final long mVersion;
+
+        private final ArrayRateSeries[] mSeries;
+
+        private Levels(long version, @NonNull ArrayRateSeries[] series) {
+            mVersion = version;
+            mSeries = series;
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package ru.sergeykozhukhov.currencyconverter.domain.journal;
+
+import androidx.annotation.NonNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Журнал конвертаций: файл только для дозаписи (формат {@link JournalFormat}).
+ * <p>
+ * {@link #append(ConversionRecord)} только ставит запись в очередь и не трогает диск, поэтому
+ * его можно вызывать из главного потока. Единственный поток записи забирает всё, что накопилось
+ * в очереди, пишет одной пачкой и делает один fsync на пачку (group commit): пока идёт fsync,
+ * следующие записи копятся для следующей пачки.
+ * <p>
+ * При открытии поток записи восстанавливает журнал: обрезает файл по последней целой записи,
+ * отбрасывая запись, оборванную сбоем. Записи, поставленные в очередь до сбоя, но не попавшие
+ * в завершённую пачку, теряются
+ **/
+public class ConversionJournal implements Closeable {
+
+    private final File mFile;
+
+    private final Object mLock = new Object();
+
+    private final Thread mWriter;
+
+    /**
+     * Записи, ждущие следующей пачки (под mLock)
+     */
+    private List<ConversionRecord> mPending = new ArrayList<>();
+
+    /**
+     * Сколько записей поставлено в очередь (под mLock)
+     */
+    private long mAppended;
+
+    /**
+     * Сколько записей обработал поток записи: записаны на диск или отброшены из-за ошибки (под mLock)
+     */
+    private long mProcessed;
+
+    /**
+     * Количество пачек (и fsync) (под mLock)
+     */
+    private long mCommits;
+
+    /**
+     * Сколько байт оборванного хвоста отброшено при восстановлении (под mLock)
+     */
+    private long mTruncatedBytes;
+
+    /**
+     * Сколько записей было в журнале при открытии (под mLock)
+     */
+    private long mRecoveredRecords;
+
+    /**
+     * Ошибка восстановления или записи: после неё записи не пишутся (под mLock)
+     */
+    private IOException mError;
+
+    /**
+     * Восстановление завершено (успешно или с ошибкой) (под mLock)
+     */
+    private boolean mRecovered;
+
+    private boolean mClosed;
+
+    /**
+     * Открывает журнал (создаёт файл, если его нет). Восстановление выполняется в потоке записи
+     */
+    public ConversionJournal(@NonNull File file) {
+        mFile = file;
+        mWriter = new Thread(new Writer(), "conversion-journal");
+        mWriter.setDaemon(true);
+        mWriter.start();
+    }
+
+    /**
+     * Ставит запись в очередь на запись
+     *
+     * @throws IllegalStateException если журнал закрыт
+     */
+    public void append(@NonNull ConversionRecord record) {
+        synchronized (mLock) {
+            if (mClosed) {
+                throw new IllegalStateException("Журнал конвертаций закрыт");
+            }
+            mPending.add(record);
+            mAppended++;
+            if (mPending.size() == 1) {
+                mLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Ожидает восстановления журнала и записи на диск всех записей, поставленных в очередь до вызова
+     *
+     * @throws IOException если восстановить или записать журнал не удалось
+     */
+    public void flush() throws IOException, InterruptedException {
+        synchronized (mLock) {
+            long target = mAppended;
+            while ((!mRecovered || mProcessed < target) && mWriter.isAlive()) {
+                mLock.wait();
+            }
+            if (mError != null) {
+                throw mError;
+            }
+        }
+    }
+
+    /**
+     * Открывает журнал для чтения. Читаются записи, уже дошедшие до файла
+     * (перед чтением можно вызвать {@link #flush()})
+     */
+    @NonNull
+    public JournalReader openReader() throws IOException {
+        return JournalReader.open(mFile);
+    }
+
+    /**
+     * Количество пачек, записанных с fsync
+     */
+    public long getCommitCount() {
+        synchronized (mLock) {
+            return mCommits;
+        }
+    }
+
+    /**
+     * Сколько записей было в журнале при открытии (известно после восстановления, например после {@link #flush()})
+     */
+    public long getRecoveredRecordCount() {
+        synchronized (mLock) {
+            return mRecoveredRecords;
+        }
+    }
+
+    /**
+     * Сколько байт испорченного хвоста отброшено при восстановлении
+     */
+    public long getTruncatedBytes() {
+        synchronized (mLock) {
+            return mTruncatedBytes;
+        }
+    }
+
+    /**
+     * Записывает очередь и закрывает файл. Новые записи после этого не принимаются
+     *
+     * @throws IOException если восстановить или записать журнал не удалось
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (mLock) {
+            mClosed = true;
+            mLock.notifyAll();
+        }
+        try {
+            mWriter.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Прервано ожидание записи журнала", e);
+        }
+        synchronized (mLock) {
+            if (mError != null) {
+                throw mError;
+            }
+        }
+    }
+
+    /**
+     * Поток записи
+     */
+    private class Writer implements Runnable {
+
+        private final ByteArrayOutputStream mBatch = new ByteArrayOutputStream();
+
+        private final DataOutputStream mBatchOutput = new DataOutputStream(mBatch);
+
+        private final ByteArrayOutputStream mPayload = new ByteArrayOutputStream();
+
+        private final CRC32 mCrc = new CRC32();
+
+        /**
+         * Список, который станет следующей очередью (списки меняются местами, чтобы не создавать новые)
+         */
+        private List<ConversionRecord> mSpare = new ArrayList<>();
+
+        private FileChannel mChannel;
+
+        @Override
+        public void run() {
+            try {
+                RandomAccessFile file = new RandomAccessFile(mFile, "rw");
+                mChannel = file.getChannel();
+                recover();
+            } catch (IOException e) {
+                setError(e);
+            }
+            synchronized (mLock) {
+                mRecovered = true;
+                mLock.notifyAll();
+            }
+            try {
+                List<ConversionRecord> batch;
+                while ((batch = takeBatch()) != null) {
+                    if (mChannel != null && !hasError()) {
+                        try {
+                            commit(batch);
+                        } catch (IOException e) {
+                            setError(e);
+                        }
+                    }
+                    synchronized (mLock) {
+                        mProcessed += batch.size();
+                        mLock.notifyAll();
+                    }
+                    batch.clear();
+                    mSpare = batch;
+                }
+            } finally {
+                closeChannel();
+                synchronized (mLock) {
+                    mLock.notifyAll();
+                }
+            }
+        }
+
+        /**
+         * Обрезает журнал по последней целой записи и встаёт в конец файла
+         */
+        private void recover() throws IOException {
+            long records = 0;
+            long validLength = 0;
+            if (mChannel.size() > 0) {
+                JournalReader reader = JournalReader.open(mFile);
+                try {
+                    while (reader.next() != null) {
+                        records++;
+                    }
+                    validLength = reader.getValidLength();
+                } finally {
+                    reader.close();
+                }
+            }
+            long size = mChannel.size();
+            if (validLength == 0) {
+                // новый файл или файл без целого заголовка
+                mChannel.truncate(0);
+                mBatch.reset();
+                JournalFormat.writeFileHeader(mBatchOutput);
+                writeBatch();
+                mChannel.force(true);
+            } else if (size > validLength) {
+                mChannel.truncate(validLength);
+                mChannel.force(true);
+            }
+            mChannel.position(mChannel.size());
+            synchronized (mLock) {
+                mRecoveredRecords = records;
+                mTruncatedBytes = Math.max(0, size - validLength);
+            }
+        }
+
+        /**
+         * Ожидает записей в очереди и забирает их все
+         *
+         * @return {@code null}, если журнал закрыт и очередь пуста
+         */
+        private List<ConversionRecord> takeBatch() {
+            synchronized (mLock) {
+                while (mPending.isEmpty() && !mClosed) {
+                    try {
+                        mLock.wait();
+                    } catch (InterruptedException e) {
+                        // поток записи не прерывается: очередь должна дойти до диска
+                    }
+                }
+                if (mPending.isEmpty()) {
+                    return null;
+                }
+                List<ConversionRecord> batch = mPending;
+                mPending = mSpare;
+                return batch;
+            }
+        }
+
+        /**
+         * Пишет пачку записей одним вызовом и делает один fsync
+         */
+        private void commit(@NonNull List<ConversionRecord> batch) throws IOException {
+            mBatch.reset();
+            for (ConversionRecord record : batch) {
+                JournalFormat.writeRecord(record, mPayload, mCrc, mBatchOutput);
+            }
+            writeBatch();
+            // fdatasync: сбрасываются данные и длина файла, но не время изменения
+            mChannel.force(false);
+            synchronized (mLock) {
+                mCommits++;
+            }
+        }
+
+        private void writeBatch() throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(mBatch.toByteArray());
+            while (buffer.hasRemaining()) {
+                mChannel.write(buffer);
+            }
+        }
+
+        private void closeChannel() {
+            if (mChannel == null) {
+                return;
+            }
+            try {
+                mChannel.close();
+            } catch (IOException e) {
+                setError(e);
+            }
+        }
+
+        private boolean hasError() {
+            synchronized (mLock) {
+                return mError != null;
+            }
+        }
+
+        private void setError(@NonNull IOException error) {
+            synchronized (mLock) {
+                if (mError == null) {
+                    mError = error;
+                }
+            }
+        }
+    }
+}
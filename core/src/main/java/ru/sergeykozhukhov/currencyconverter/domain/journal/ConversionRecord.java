@@ -0,0 +1,105 @@
+package ru.sergeykozhukhov.currencyconverter.domain.journal;
+
+import androidx.annotation.NonNull;
+
+import java.math.BigDecimal;
+
+/**
+ * Запись журнала конвертаций: одна выполненная пользователем конвертация
+ **/
+public class ConversionRecord {
+
+    /**
+     * Время конвертации (мс с начала эпохи)
+     */
+    private final long mTimestampMillis;
+
+    /**
+     * Буквенный код базовой валюты
+     */
+    private final String mBaseCharCode;
+
+    /**
+     * Буквенный код котируемой валюты
+     */
+    private final String mQuotedCharCode;
+
+    /**
+     * Сумма в базовой валюте
+     */
+    private final BigDecimal mAmount;
+
+    /**
+     * Полученная сумма в котируемой валюте
+     */
+    private final BigDecimal mResult;
+
+    public ConversionRecord(long timestampMillis,
+                            @NonNull String baseCharCode,
+                            @NonNull String quotedCharCode,
+                            @NonNull BigDecimal amount,
+                            @NonNull BigDecimal result) {
+        mTimestampMillis = timestampMillis;
+        mBaseCharCode = baseCharCode;
+        mQuotedCharCode = quotedCharCode;
+        mAmount = amount;
+        mResult = result;
+    }
+
+    public long getTimestampMillis() {
+        return mTimestampMillis;
+    }
+
+    @NonNull
+    public String getBaseCharCode() {
+        return mBaseCharCode;
+    }
+
+    @NonNull
+    public String getQuotedCharCode() {
+        return mQuotedCharCode;
+    }
+
+    @NonNull
+    public BigDecimal getAmount() {
+        return mAmount;
+    }
+
+    @NonNull
+    public BigDecimal getResult() {
+        return mResult;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ConversionRecord that = (ConversionRecord) o;
+        return mTimestampMillis == that.mTimestampMillis
+                && mBaseCharCode.equals(that.mBaseCharCode)
+                && mQuotedCharCode.equals(that.mQuotedCharCode)
+                && mAmount.equals(that.mAmount)
+                && mResult.equals(that.mResult);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = (int) (mTimestampMillis ^ (mTimestampMillis >>> 32));
+        result = 31 * result + mBaseCharCode.hashCode();
+        result = 31 * result + mQuotedCharCode.hashCode();
+        result = 31 * result + mAmount.hashCode();
+        result = 31 * result + mResult.hashCode();
+        return result;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "ConversionRecord{" + mTimestampMillis + ", " + mAmount + " " + mBaseCharCode
+                + " -> " + mResult + " " + mQuotedCharCode + '}';
+    }
+}
@@ -0,0 +1,113 @@
+package ru.sergeykozhukhov.currencyconverter.domain.journal;
+
+import androidx.annotation.NonNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.zip.CRC32;
+
+/**
+ * Двоичный формат журнала конвертаций.
+ * <p>
+ * Заголовок файла: magic (4 байта) и версия (4 байта). Дальше записи подряд:
+ * длина данных (int), CRC32 данных (int) и сами данные. Данные записи: время (long), коды валют
+ * (modified UTF-8) и две суммы (scale и байты unscaled value).
+ * Запись, оборванная сбоем посреди записи на диск, опознаётся по длине или контрольной сумме
+ **/
+final class JournalFormat {
+
+    /**
+     * "CJNL"
+     */
+    static final int MAGIC = 0x434A4E4C;
+
+    static final int VERSION = 1;
+
+    static final int FILE_HEADER_SIZE = 8;
+
+    static final int RECORD_HEADER_SIZE = 8;
+
+    /**
+     * Данные записи не бывают больше (большая длина - признак испорченного заголовка записи)
+     */
+    static final int MAX_PAYLOAD_SIZE = 4096;
+
+    private JournalFormat() {
+    }
+
+    static void writeFileHeader(@NonNull DataOutputStream output) throws IOException {
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+    }
+
+    /**
+     * Дописывает запись с заголовком в output
+     *
+     * @param payload буфер для данных записи (переиспользуется между записями)
+     */
+    static void writeRecord(@NonNull ConversionRecord record,
+                            @NonNull ByteArrayOutputStream payload,
+                            @NonNull CRC32 crc,
+                            @NonNull DataOutputStream output) throws IOException {
+        payload.reset();
+        DataOutputStream data = new DataOutputStream(payload);
+        data.writeLong(record.getTimestampMillis());
+        data.writeUTF(record.getBaseCharCode());
+        data.writeUTF(record.getQuotedCharCode());
+        writeDecimal(data, record.getAmount());
+        writeDecimal(data, record.getResult());
+        byte[] bytes = payload.toByteArray();
+        if (bytes.length > MAX_PAYLOAD_SIZE) {
+            throw new IOException("Запись журнала слишком большая: " + bytes.length);
+        }
+        crc.reset();
+        crc.update(bytes, 0, bytes.length);
+        output.writeInt(bytes.length);
+        output.writeInt((int) crc.getValue());
+        output.write(bytes);
+    }
+
+    /**
+     * Разбирает данные записи с уже проверенной контрольной суммой
+     *
+     * @throws IOException если данные не разбираются
+     */
+    @NonNull
+    static ConversionRecord readPayload(@NonNull byte[] payload) throws IOException {
+        DataInputStream data = new DataInputStream(new ByteArrayInputStream(payload));
+        try {
+            ConversionRecord record = new ConversionRecord(
+                    data.readLong(),
+                    data.readUTF(),
+                    data.readUTF(),
+                    readDecimal(data),
+                    readDecimal(data));
+            if (data.available() != 0) {
+                throw new IOException("Лишние байты в записи журнала");
+            }
+            return record;
+        } catch (NumberFormatException e) {
+            throw new IOException("Некорректная сумма в записи журнала", e);
+        }
+    }
+
+    private static void writeDecimal(@NonNull DataOutputStream data, @NonNull BigDecimal value) throws IOException {
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        data.writeInt(value.scale());
+        data.writeShort(unscaled.length);
+        data.write(unscaled);
+    }
+
+    @NonNull
+    private static BigDecimal readDecimal(@NonNull DataInputStream data) throws IOException {
+        int scale = data.readInt();
+        byte[] unscaled = new byte[data.readUnsignedShort()];
+        data.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+}
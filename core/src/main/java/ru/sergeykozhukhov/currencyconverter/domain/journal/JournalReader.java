@@ -0,0 +1,125 @@
+package ru.sergeykozhukhov.currencyconverter.domain.journal;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+
+/**
+ * Последовательное чтение журнала конвертаций без загрузки файла в память.
+ * Чтение останавливается на первой неполной или испорченной записи: всё, что после неё,
+ * не считается записанным (так журнал читается и во время дозаписи, и после сбоя)
+ **/
+public class JournalReader implements Closeable {
+
+    private final DataInputStream mInput;
+
+    private final CRC32 mCrc = new CRC32();
+
+    /**
+     * Длина начала файла, состоящего из заголовка и целых записей
+     */
+    private long mValidLength;
+
+    private boolean mEnd;
+
+    JournalReader(@NonNull InputStream input) throws IOException {
+        mInput = new DataInputStream(input);
+        int magic;
+        int version;
+        try {
+            magic = mInput.readInt();
+            version = mInput.readInt();
+        } catch (EOFException e) {
+            // файл создан, но заголовок не успел записаться
+            mEnd = true;
+            return;
+        }
+        if (magic != JournalFormat.MAGIC) {
+            throw new IOException("Файл не является журналом конвертаций");
+        }
+        if (version != JournalFormat.VERSION) {
+            throw new IOException("Неподдерживаемая версия журнала: " + version);
+        }
+        mValidLength = JournalFormat.FILE_HEADER_SIZE;
+    }
+
+    /**
+     * Открывает журнал для чтения
+     */
+    @NonNull
+    public static JournalReader open(@NonNull File file) throws IOException {
+        InputStream input = new BufferedInputStream(new FileInputStream(file));
+        try {
+            return new JournalReader(input);
+        } catch (IOException e) {
+            input.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Следующая запись
+     *
+     * @return {@code null} в конце журнала или на первой неполной либо испорченной записи
+     */
+    @Nullable
+    public ConversionRecord next() throws IOException {
+        if (mEnd) {
+            return null;
+        }
+        try {
+            int length = mInput.readInt();
+            int crc = mInput.readInt();
+            if (length <= 0 || length > JournalFormat.MAX_PAYLOAD_SIZE) {
+                return end();
+            }
+            byte[] payload = new byte[length];
+            mInput.readFully(payload);
+            mCrc.reset();
+            mCrc.update(payload, 0, length);
+            if ((int) mCrc.getValue() != crc) {
+                return end();
+            }
+            ConversionRecord record;
+            try {
+                record = JournalFormat.readPayload(payload);
+            } catch (IOException e) {
+                // контрольная сумма сошлась, но данные не разбираются: дальше журналу доверять нельзя
+                return end();
+            }
+            mValidLength += JournalFormat.RECORD_HEADER_SIZE + length;
+            return record;
+        } catch (EOFException e) {
+            return end();
+        }
+    }
+
+    /**
+     * Длина начала файла из заголовка и прочитанных целых записей.
+     * После того как {@link #next()} вернул {@code null} - длина неповреждённой части журнала
+     * (0, если нет даже заголовка)
+     */
+    public long getValidLength() {
+        return mValidLength;
+    }
+
+    @Override
+    public void close() throws IOException {
+        mInput.close();
+    }
+
+    @Nullable
+    private ConversionRecord end() {
+        mEnd = true;
+        return null;
+    }
+}
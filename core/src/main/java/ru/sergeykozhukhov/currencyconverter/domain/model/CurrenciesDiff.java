@@ -0,0 +1,64 @@
+package ru.sergeykozhukhov.currencyconverter.domain.model;
+
+import androidx.annotation.NonNull;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Разница между двумя загрузками списка валют (сопоставление по id валюты)
+ **/
+public class CurrenciesDiff {
+
+    /**
+     * Валюты, которых не было в предыдущей загрузке
+     */
+    private final List<Currency> mAdded;
+
+    /**
+     * Валюты, пропавшие из текущей загрузки
+     */
+    private final List<Currency> mRemoved;
+
+    /**
+     * Валюты, у которых изменился курс, номинал, код или название
+     */
+    private final List<CurrencyChange> mChanged;
+
+    public CurrenciesDiff(@NonNull List<Currency> added,
+                          @NonNull List<Currency> removed,
+                          @NonNull List<CurrencyChange> changed) {
+        mAdded = Collections.unmodifiableList(added);
+        mRemoved = Collections.unmodifiableList(removed);
+        mChanged = Collections.unmodifiableList(changed);
+    }
+
+    @NonNull
+    public List<Currency> getAdded() {
+        return mAdded;
+    }
+
+    @NonNull
+    public List<Currency> getRemoved() {
+        return mRemoved;
+    }
+
+    @NonNull
+    public List<CurrencyChange> getChanged() {
+        return mChanged;
+    }
+
+    /**
+     * Нет ли изменений
+     */
+    public boolean isEmpty() {
+        return mAdded.isEmpty() && mRemoved.isEmpty() && mChanged.isEmpty();
+    }
+
+    /**
+     * Изменился ли только курс (состав валют прежний)
+     */
+    public boolean isValuesOnly() {
+        return mAdded.isEmpty() && mRemoved.isEmpty();
+    }
+}
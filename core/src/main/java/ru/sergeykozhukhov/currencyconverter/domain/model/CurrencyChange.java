@@ -0,0 +1,79 @@
+package ru.sergeykozhukhov.currencyconverter.domain.model;
+
+import androidx.annotation.NonNull;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Изменение курса валюты между двумя загрузками
+ **/
+public class CurrencyChange {
+
+    /**
+     * Точность стоимости единицы валюты (знаков после запятой)
+     */
+    private static final int UNIT_SCALE = 6;
+
+    /**
+     * Точность изменения в процентах (знаков после запятой)
+     */
+    private static final int PERCENT_SCALE = 4;
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    /**
+     * Валюта в предыдущей загрузке
+     */
+    private final Currency mPrevious;
+
+    /**
+     * Валюта в текущей загрузке
+     */
+    private final Currency mCurrent;
+
+    /**
+     * Изменение стоимости единицы валюты в рублях
+     */
+    private final BigDecimal mAbsoluteDelta;
+
+    /**
+     * Изменение стоимости единицы валюты в процентах
+     */
+    private final BigDecimal mPercentDelta;
+
+    public CurrencyChange(@NonNull Currency previous, @NonNull Currency current) {
+        mPrevious = previous;
+        mCurrent = current;
+        BigDecimal previousUnit = unitValue(previous);
+        mAbsoluteDelta = unitValue(current).subtract(previousUnit);
+        mPercentDelta = previousUnit.signum() == 0
+                ? BigDecimal.ZERO
+                : mAbsoluteDelta.multiply(HUNDRED).divide(previousUnit, PERCENT_SCALE, RoundingMode.HALF_UP);
+    }
+
+    @NonNull
+    public Currency getPrevious() {
+        return mPrevious;
+    }
+
+    @NonNull
+    public Currency getCurrent() {
+        return mCurrent;
+    }
+
+    @NonNull
+    public BigDecimal getAbsoluteDelta() {
+        return mAbsoluteDelta;
+    }
+
+    @NonNull
+    public BigDecimal getPercentDelta() {
+        return mPercentDelta;
+    }
+
+    @NonNull
+    private static BigDecimal unitValue(@NonNull Currency currency) {
+        return currency.getValue().divide(BigDecimal.valueOf(currency.getNominal()), UNIT_SCALE, RoundingMode.HALF_UP);
+    }
+}
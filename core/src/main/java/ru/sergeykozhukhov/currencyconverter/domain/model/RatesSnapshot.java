@@ -0,0 +1,63 @@
+package ru.sergeykozhukhov.currencyconverter.domain.model;
+
+import androidx.annotation.NonNull;
+
+import java.util.List;
+
+/**
+ * Неизменяемый снимок курсов: таблица курсов, номер версии и время публикации.
+ * После создания не меняется, поэтому может читаться из любого количества потоков без синхронизации
+ **/
+public final class RatesSnapshot {
+
+    /**
+     * Номер версии (у каждого следующего снимка больше)
+     */
+    private final long mVersion;
+
+    /**
+     * Время публикации (мс)
+     */
+    private final long mTimestamp;
+
+    /**
+     * Курсы
+     */
+    private final RatesTable mTable;
+
+    public RatesSnapshot(long version, long timestamp, @NonNull RatesTable table) {
+        mVersion = version;
+        mTimestamp = timestamp;
+        mTable = table;
+    }
+
+    /**
+     * @param currencies валюты (копируются в таблицу, дальнейшие изменения списка на снимок не влияют)
+     */
+    public RatesSnapshot(long version, long timestamp, @NonNull List<Currency> currencies) {
+        this(version, timestamp, RatesTable.fromCurrencies(currencies));
+    }
+
+    public long getVersion() {
+        return mVersion;
+    }
+
+    public long getTimestamp() {
+        return mTimestamp;
+    }
+
+    @NonNull
+    public RatesTable getTable() {
+        return mTable;
+    }
+
+    /**
+     * Валюты снимка
+     *
+     * @return неизменяемое представление таблицы (одно и то же при каждом вызове)
+     */
+    @NonNull
+    public List<Currency> getCurrencies() {
+        return mTable.asList();
+    }
+}
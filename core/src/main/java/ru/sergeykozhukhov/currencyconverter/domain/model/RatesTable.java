@@ -0,0 +1,415 @@
+package ru.sergeykozhukhov.currencyconverter.domain.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Неизменяемая таблица курсов валют на параллельных примитивных массивах.
+ * Вместо объекта {@link Currency} с четырьмя ссылками на строку и {@link BigDecimal} на каждую валюту
+ * хранятся упакованные в int коды, номиналы, немасштабированные значения курсов с общей точностью
+ * и индексы названий в пуле без повторов. Строки id и названий интернированы,
+ * поэтому таблицы разных загрузок делят одни и те же строки
+ **/
+public final class RatesTable {
+
+    /**
+     * id валют (строки интернированы, поэтому не дублируются между загрузками)
+     */
+    private final String[] mIds;
+
+    /**
+     * Коды валют: три ASCII символа, упакованные в int ({@link #packCharCode(String)}),
+     * либо отрицательное значение ~i - индекс кода в {@link #mExtraCharCodes}
+     */
+    private final int[] mCharCodes;
+
+    /**
+     * Коды валют, которые не удалось упаковать (у валют ЦБ таких нет)
+     */
+    private final String[] mExtraCharCodes;
+
+    /**
+     * Номиналы
+     */
+    private final long[] mNominals;
+
+    /**
+     * Курсы по отношению к рублю без десятичной точки: курс = mUnscaledValues[i] * 10^-mScale
+     */
+    private final long[] mUnscaledValues;
+
+    /**
+     * Общая для всех курсов точность (знаков после запятой): наибольшая из точностей исходных курсов
+     */
+    private final int mScale;
+
+    /**
+     * Индексы названий валют в {@link #mNamePool}
+     */
+    private final int[] mNameIndices;
+
+    /**
+     * Названия валют без повторов (строки интернированы)
+     */
+    private final String[] mNamePool;
+
+    /**
+     * Представление в виде списка (одно на таблицу, объекты валют не хранит)
+     */
+    private final CurrencyListView mList;
+
+    /**
+     * Индексы валют по id, строятся при первом поиске
+     */
+    @Nullable
+    private volatile Map<String, Integer> mIndexById;
+
+    private RatesTable(@NonNull String[] ids,
+                       @NonNull int[] charCodes,
+                       @NonNull String[] extraCharCodes,
+                       @NonNull long[] nominals,
+                       @NonNull long[] unscaledValues,
+                       int scale,
+                       @NonNull int[] nameIndices,
+                       @NonNull String[] namePool) {
+        mIds = ids;
+        mCharCodes = charCodes;
+        mExtraCharCodes = extraCharCodes;
+        mNominals = nominals;
+        mUnscaledValues = unscaledValues;
+        mScale = scale;
+        mNameIndices = nameIndices;
+        mNamePool = namePool;
+        mList = new CurrencyListView(this);
+    }
+
+    /**
+     * Строит таблицу из списка валют
+     */
+    @NonNull
+    public static RatesTable fromCurrencies(@NonNull List<Currency> currencies) {
+        if (currencies instanceof CurrencyListView) {
+            return ((CurrencyListView) currencies).mTable;
+        }
+        Builder builder = new Builder(currencies.size());
+        for (Currency currency : currencies) {
+            builder.add(currency.getId(), currency.getCharCode(), currency.getNominal(), currency.getName(), currency.getValue());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Количество валют
+     */
+    public int size() {
+        return mIds.length;
+    }
+
+    @NonNull
+    public String getId(int index) {
+        return mIds[index];
+    }
+
+    /**
+     * Код валюты. Строка собирается из упакованного кода при каждом вызове;
+     * для поиска и сравнения без создания строк есть {@link #getPackedCharCode(int)}
+     */
+    @NonNull
+    public String getCharCode(int index) {
+        int packed = mCharCodes[index];
+        return packed >= 0 ? unpackCharCode(packed) : mExtraCharCodes[~packed];
+    }
+
+    /**
+     * Код валюты, упакованный в int ({@link #packCharCode(String)})
+     *
+     * @return {@code -1}, если код не упаковывается
+     */
+    public int getPackedCharCode(int index) {
+        return Math.max(mCharCodes[index], -1);
+    }
+
+    public long getNominal(int index) {
+        return mNominals[index];
+    }
+
+    @NonNull
+    public String getName(int index) {
+        return mNamePool[mNameIndices[index]];
+    }
+
+    /**
+     * Курс по отношению к рублю без десятичной точки (см. {@link #getScale()})
+     */
+    public long getUnscaledValue(int index) {
+        return mUnscaledValues[index];
+    }
+
+    /**
+     * Общая для всех курсов точность (знаков после запятой)
+     */
+    public int getScale() {
+        return mScale;
+    }
+
+    /**
+     * Курс по отношению к рублю (с общей точностью таблицы)
+     */
+    @NonNull
+    public BigDecimal getValue(int index) {
+        return BigDecimal.valueOf(mUnscaledValues[index], mScale);
+    }
+
+    /**
+     * Валюта в виде domain объекта (создаётся при каждом вызове и таблицей не хранится)
+     */
+    @NonNull
+    public Currency get(int index) {
+        return new Currency(getId(index), getCharCode(index), mNominals[index], getName(index), getValue(index));
+    }
+
+    /**
+     * Индекс валюты по id
+     *
+     * @return {@code -1}, если валюты нет
+     */
+    public int indexOfId(@NonNull String id) {
+        Map<String, Integer> indexById = mIndexById;
+        if (indexById == null) {
+            // гонка при первом поиске безопасна: таблица неизменяема, карты получаются одинаковые
+            indexById = new HashMap<>(mIds.length * 2);
+            for (int i = mIds.length - 1; i >= 0; i--) {
+                indexById.put(mIds[i], i);
+            }
+            mIndexById = indexById;
+        }
+        Integer index = indexById.get(id);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Индекс валюты по коду (например, "USD"). Поиск идёт по упакованным кодам без создания строк
+     *
+     * @return {@code -1}, если валюты нет; при повторе кода - первая валюта с ним
+     */
+    public int indexOfCharCode(@NonNull String charCode) {
+        int packed = packCharCode(charCode);
+        for (int i = 0; i < mCharCodes.length; i++) {
+            int code = mCharCodes[i];
+            if (packed >= 0 ? code == packed : code < 0 && mExtraCharCodes[~code].equals(charCode)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Таблица с валютой на первой позиции (если валюты с таким id в таблице нет).
+     * Столбцы копируются, объекты {@link Currency} не создаются
+     *
+     * @throws ArithmeticException если курс не помещается в long при общей точности
+     */
+    @NonNull
+    public RatesTable withFirst(@NonNull Currency currency) {
+        if (indexOfId(currency.getId()) >= 0) {
+            return this;
+        }
+        int size = mIds.length + 1;
+        int scale = Math.max(mScale, currency.getValue().scale());
+        String[] ids = new String[size];
+        int[] charCodes = new int[size];
+        String[] extraCharCodes = mExtraCharCodes;
+        long[] nominals = new long[size];
+        long[] unscaledValues = new long[size];
+        int[] nameIndices = new int[size];
+        ids[0] = currency.getId().intern();
+        charCodes[0] = packCharCode(currency.getCharCode());
+        if (charCodes[0] < 0) {
+            extraCharCodes = Arrays.copyOf(mExtraCharCodes, mExtraCharCodes.length + 1);
+            extraCharCodes[mExtraCharCodes.length] = currency.getCharCode();
+            charCodes[0] = ~mExtraCharCodes.length;
+        }
+        nominals[0] = currency.getNominal();
+        unscaledValues[0] = toUnscaled(currency.getValue(), scale);
+        nameIndices[0] = mNamePool.length;
+        System.arraycopy(mIds, 0, ids, 1, mIds.length);
+        System.arraycopy(mCharCodes, 0, charCodes, 1, mIds.length);
+        System.arraycopy(mNominals, 0, nominals, 1, mIds.length);
+        for (int i = 0; i < mIds.length; i++) {
+            unscaledValues[i + 1] = scale == mScale ? mUnscaledValues[i] : toUnscaled(getValue(i), scale);
+        }
+        System.arraycopy(mNameIndices, 0, nameIndices, 1, mIds.length);
+        String[] namePool = Arrays.copyOf(mNamePool, mNamePool.length + 1);
+        namePool[mNamePool.length] = currency.getName().intern();
+        return new RatesTable(ids, charCodes, extraCharCodes, nominals, unscaledValues, scale, nameIndices, namePool);
+    }
+
+    /**
+     * Неизменяемое представление таблицы в виде списка для существующего кода (одно и то же при каждом вызове).
+     * Объекты {@link Currency} создаются при обращении к элементам и не хранятся
+     */
+    @NonNull
+    public List<Currency> asList() {
+        return mList;
+    }
+
+    /**
+     * Упаковывает код из трёх ASCII символов в int
+     *
+     * @return {@code -1}, если код не упаковывается
+     */
+    public static int packCharCode(@NonNull String charCode) {
+        if (charCode.length() != 3) {
+            return -1;
+        }
+        int result = 0;
+        for (int i = 0; i < 3; i++) {
+            char c = charCode.charAt(i);
+            if (c == 0 || c > 0x7F) {
+                return -1;
+            }
+            result = (result << 8) | c;
+        }
+        return result;
+    }
+
+    @NonNull
+    private static String unpackCharCode(int packed) {
+        return new String(new char[]{(char) (packed >>> 16), (char) ((packed >>> 8) & 0xFF), (char) (packed & 0xFF)});
+    }
+
+    /**
+     * Курс без десятичной точки при заданной точности (не меньше точности курса, поэтому без округления).
+     * {@code BigInteger.longValueExact()} нет до Java 8 и Android API 31, поэтому диапазон проверяется по bitLength
+     *
+     * @throws ArithmeticException если курс не помещается в long
+     */
+    private static long toUnscaled(@NonNull BigDecimal value, int scale) {
+        BigInteger unscaled = value.setScale(scale).unscaledValue();
+        if (unscaled.bitLength() >= Long.SIZE) {
+            throw new ArithmeticException("Курс не помещается в long: " + value);
+        }
+        return unscaled.longValue();
+    }
+
+    /**
+     * Построитель таблицы
+     */
+    public static class Builder {
+
+        private final List<String> mIds;
+        private final List<String> mCharCodes;
+        private final List<Long> mNominals;
+        private final List<String> mNames;
+        private final List<BigDecimal> mValues;
+
+        public Builder(int expectedSize) {
+            mIds = new ArrayList<>(expectedSize);
+            mCharCodes = new ArrayList<>(expectedSize);
+            mNominals = new ArrayList<>(expectedSize);
+            mNames = new ArrayList<>(expectedSize);
+            mValues = new ArrayList<>(expectedSize);
+        }
+
+        /**
+         * Добавляет валюту в конец таблицы
+         */
+        @NonNull
+        public Builder add(@NonNull String id,
+                           @NonNull String charCode,
+                           long nominal,
+                           @NonNull String name,
+                           @NonNull BigDecimal value) {
+            mIds.add(id);
+            mCharCodes.add(charCode);
+            mNominals.add(nominal);
+            mNames.add(name);
+            mValues.add(value);
+            return this;
+        }
+
+        /**
+         * Строит таблицу
+         *
+         * @throws ArithmeticException если курс не помещается в long при общей точности
+         */
+        @NonNull
+        public RatesTable build() {
+            int size = mIds.size();
+            int scale = 0;
+            for (int i = 0; i < size; i++) {
+                scale = Math.max(scale, mValues.get(i).scale());
+            }
+            String[] ids = new String[size];
+            int[] charCodes = new int[size];
+            List<String> extraCharCodes = new ArrayList<>();
+            long[] nominals = new long[size];
+            long[] unscaledValues = new long[size];
+            int[] nameIndices = new int[size];
+            Map<String, Integer> nameIndexByName = new HashMap<>();
+            List<String> namePool = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                ids[i] = mIds.get(i).intern();
+                String charCode = mCharCodes.get(i);
+                int packed = packCharCode(charCode);
+                if (packed < 0) {
+                    packed = ~extraCharCodes.size();
+                    extraCharCodes.add(charCode);
+                }
+                charCodes[i] = packed;
+                nominals[i] = mNominals.get(i);
+                unscaledValues[i] = toUnscaled(mValues.get(i), scale);
+                String name = mNames.get(i);
+                Integer nameIndex = nameIndexByName.get(name);
+                if (nameIndex == null) {
+                    nameIndex = namePool.size();
+                    nameIndexByName.put(name, nameIndex);
+                    namePool.add(name.intern());
+                }
+                nameIndices[i] = nameIndex;
+            }
+            return new RatesTable(
+                    ids,
+                    charCodes,
+                    extraCharCodes.toArray(new String[0]),
+                    nominals,
+                    unscaledValues,
+                    scale,
+                    nameIndices,
+                    namePool.toArray(new String[0]));
+        }
+    }
+
+    /**
+     * Представление таблицы в виде неизменяемого списка. Валюты создаются при каждом обращении
+     * и не запоминаются, поэтому список не удерживает объектов сверх таблицы
+     */
+    private static class CurrencyListView extends AbstractList<Currency> implements RandomAccess {
+
+        private final RatesTable mTable;
+
+        private CurrencyListView(@NonNull RatesTable table) {
+            mTable = table;
+        }
+
+        @Override
+        public Currency get(int index) {
+            return mTable.get(index);
+        }
+
+        @Override
+        public int size() {
+            return mTable.size();
+        }
+    }
+}
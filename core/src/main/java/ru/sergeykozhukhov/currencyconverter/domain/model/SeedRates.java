@@ -0,0 +1,32 @@
+package ru.sergeykozhukhov.currencyconverter.domain.model;
+
+import androidx.annotation.NonNull;
+
+import java.util.List;
+
+/**
+ * Встроенные курсы: валюты и дата, на которую они установлены
+ **/
+public final class SeedRates {
+
+    /**
+     * Дата курсов (см. {@link ru.sergeykozhukhov.currencyconverter.domain.history.EpochDays})
+     */
+    private final int mEpochDay;
+
+    private final List<Currency> mCurrencies;
+
+    public SeedRates(int epochDay, @NonNull List<Currency> currencies) {
+        mEpochDay = epochDay;
+        mCurrencies = currencies;
+    }
+
+    public int getEpochDay() {
+        return mEpochDay;
+    }
+
+    @NonNull
+    public List<Currency> getCurrencies() {
+        return mCurrencies;
+    }
+}
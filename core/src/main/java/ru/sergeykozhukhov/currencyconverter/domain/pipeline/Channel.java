@@ -0,0 +1,60 @@
+package ru.sergeykozhukhov.currencyconverter.domain.pipeline;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Ограниченная очередь между стадиями конвейера: производитель отправляет элементы и закрывает канал,
+ * потребитель получает их по мере появления. Ожидание прерываемо, поэтому отмена {@link StageScope}
+ * освобождает обе стороны
+ **/
+public class Channel<T> {
+
+    /**
+     * Признак закрытия канала в очереди
+     */
+    private static final Object CLOSED = new Object();
+
+    private final BlockingQueue<Object> mQueue;
+
+    /**
+     * @param capacity сколько элементов производитель может опередить потребителя
+     */
+    public Channel(int capacity) {
+        mQueue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Отправляет элемент, ожидая места в очереди
+     */
+    public void send(@NonNull T item) throws InterruptedException {
+        mQueue.put(item);
+    }
+
+    /**
+     * Закрывает канал: после полученных элементов потребитель получит {@code null}
+     */
+    public void close() throws InterruptedException {
+        mQueue.put(CLOSED);
+    }
+
+    /**
+     * Следующий элемент, ожидая его появления
+     *
+     * @return {@code null}, если канал закрыт и все элементы получены
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public T receive() throws InterruptedException {
+        Object item = mQueue.take();
+        if (item == CLOSED) {
+            // оставляем признак для следующих вызовов
+            mQueue.put(CLOSED);
+            return null;
+        }
+        return (T) item;
+    }
+}
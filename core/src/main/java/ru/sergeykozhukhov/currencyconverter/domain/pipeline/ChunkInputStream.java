@@ -0,0 +1,72 @@
+package ru.sergeykozhukhov.currencyconverter.domain.pipeline;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+
+/**
+ * Поток байтов, читающий блоки из {@link Channel}: стадия разбора читает данные,
+ * пока стадия загрузки ещё получает следующие блоки из сети
+ **/
+public class ChunkInputStream extends InputStream {
+
+    private final Channel<byte[]> mChunks;
+
+    private byte[] mChunk;
+
+    private int mPosition;
+
+    private boolean mFinished;
+
+    public ChunkInputStream(@NonNull Channel<byte[]> chunks) {
+        mChunks = chunks;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureChunk()) {
+            return -1;
+        }
+        return mChunk[mPosition++] & 0xFF;
+    }
+
+    @Override
+    public int read(@NonNull byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!ensureChunk()) {
+            return -1;
+        }
+        int count = Math.min(length, mChunk.length - mPosition);
+        System.arraycopy(mChunk, mPosition, buffer, offset, count);
+        mPosition += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return mChunk == null ? 0 : mChunk.length - mPosition;
+    }
+
+    /**
+     * Получает следующий непустой блок, если текущий прочитан
+     *
+     * @return {@code false}, если канал закрыт
+     */
+    private boolean ensureChunk() throws IOException {
+        while (!mFinished && (mChunk == null || mPosition == mChunk.length)) {
+            try {
+                mChunk = mChunks.receive();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Чтение прервано");
+            }
+            mPosition = 0;
+            mFinished = mChunk == null;
+        }
+        return !mFinished;
+    }
+}
@@ -0,0 +1,251 @@
+package ru.sergeykozhukhov.currencyconverter.domain.pipeline;
+
+import androidx.annotation.NonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Область выполнения стадий конвейера (structured concurrency): стадии запускаются параллельно,
+ * ошибка любой из них отменяет остальные, а {@link #join()} возвращается только после завершения всех.
+ * Для каждой стадии замеряется время начала и длительность.
+ * <p>
+ * Стадии создаёт и ожидает один поток-владелец; отменить область можно из любого потока
+ **/
+public class StageScope implements Closeable {
+
+    private final ExecutorService mExecutor;
+
+    /**
+     * Время создания области (нс), от него отсчитываются начала стадий
+     */
+    private final long mStartNanos = System.nanoTime();
+
+    private final List<Stage<?>> mStages = new ArrayList<>();
+
+    /**
+     * Ресурсы, закрываемые при отмене (например, ответ сервера, на чтении которого блокирована стадия)
+     */
+    private final List<Closeable> mCancelHooks = new ArrayList<>();
+
+    /**
+     * Первая ошибка стадии
+     */
+    private final AtomicReference<Throwable> mFailure = new AtomicReference<>();
+
+    private final AtomicBoolean mCancelled = new AtomicBoolean();
+
+    public StageScope(@NonNull ExecutorService executor) {
+        mExecutor = executor;
+    }
+
+    /**
+     * Запускает стадию
+     *
+     * @param name название стадии для замеров
+     * @param task работа стадии
+     */
+    @NonNull
+    public <T> Stage<T> fork(@NonNull String name, @NonNull final Callable<T> task) {
+        final Stage<T> stage = new Stage<>(name);
+        mStages.add(stage);
+        stage.mFuture = mExecutor.submit(new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                stage.mStartNanos = System.nanoTime();
+                try {
+                    return task.call();
+                } catch (Exception | Error e) {
+                    fail(e);
+                    throw e;
+                } finally {
+                    stage.mEndNanos = System.nanoTime();
+                }
+            }
+        });
+        if (mCancelled.get()) {
+            stage.mFuture.cancel(true);
+        }
+        return stage;
+    }
+
+    /**
+     * Регистрирует ресурс, который нужно закрыть при отмене
+     */
+    public void onCancel(@NonNull Closeable resource) {
+        synchronized (mCancelHooks) {
+            mCancelHooks.add(resource);
+        }
+        if (mCancelled.get()) {
+            closeQuietly(resource);
+        }
+    }
+
+    /**
+     * Отменяет все стадии: прерывает их потоки и закрывает зарегистрированные ресурсы
+     */
+    public void cancel() {
+        if (!mCancelled.compareAndSet(false, true)) {
+            return;
+        }
+        for (Stage<?> stage : mStages) {
+            if (stage.mFuture != null) {
+                stage.mFuture.cancel(true);
+            }
+        }
+        List<Closeable> hooks;
+        synchronized (mCancelHooks) {
+            hooks = new ArrayList<>(mCancelHooks);
+        }
+        for (Closeable hook : hooks) {
+            closeQuietly(hook);
+        }
+    }
+
+    public boolean isCancelled() {
+        return mCancelled.get();
+    }
+
+    /**
+     * Ожидает завершения всех стадий
+     *
+     * @throws IOException          первая ошибка стадии (другие ошибки оборачиваются),
+     *                              {@link InterruptedIOException}, если область отменена без ошибки
+     * @throws InterruptedException если прерван поток-владелец (стадии при этом отменяются)
+     */
+    public void join() throws IOException, InterruptedException {
+        for (Stage<?> stage : mStages) {
+            try {
+                stage.mFuture.get();
+            } catch (ExecutionException | CancellationException e) {
+                // ошибка уже записана в mFailure
+            } catch (InterruptedException e) {
+                cancel();
+                throw e;
+            }
+        }
+        Throwable failure = mFailure.get();
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        }
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        if (failure != null) {
+            throw new IOException(failure);
+        }
+        if (mCancelled.get()) {
+            throw new InterruptedIOException("Стадии отменены");
+        }
+    }
+
+    /**
+     * Время стадий в порядке запуска (стадии, которые не начинались, пропускаются)
+     */
+    @NonNull
+    public List<StageTiming> getTimings() {
+        List<StageTiming> timings = new ArrayList<>(mStages.size());
+        for (Stage<?> stage : mStages) {
+            long start = stage.mStartNanos;
+            if (start != 0) {
+                long end = stage.mEndNanos != 0 ? stage.mEndNanos : System.nanoTime();
+                timings.add(new StageTiming(stage.mName, start - mStartNanos, end - start));
+            }
+        }
+        return timings;
+    }
+
+    /**
+     * Отменяет незавершённые стадии и дожидается их окончания, чтобы ни одна стадия не пережила область
+     */
+    @Override
+    public void close() {
+        boolean unfinished = false;
+        for (Stage<?> stage : mStages) {
+            unfinished |= !stage.mFuture.isDone();
+        }
+        if (unfinished) {
+            cancel();
+        }
+        boolean interrupted = false;
+        for (Stage<?> stage : mStages) {
+            while (stage.mStartNanos != 0 && stage.mEndNanos == 0) {
+                // отменённая Future завершена сразу, но поток стадии может ещё выходить из работы
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void fail(@NonNull Throwable failure) {
+        if (!mCancelled.get() && mFailure.compareAndSet(null, failure)) {
+            cancel();
+        }
+    }
+
+    private static void closeQuietly(@NonNull Closeable resource) {
+        try {
+            resource.close();
+        } catch (IOException e) {
+            // при отмене ошибки закрытия не важны
+        }
+    }
+
+    /**
+     * Стадия области
+     */
+    public static final class Stage<T> {
+
+        private final String mName;
+
+        private Future<T> mFuture;
+
+        private volatile long mStartNanos;
+
+        private volatile long mEndNanos;
+
+        private Stage(@NonNull String name) {
+            mName = name;
+        }
+
+        @NonNull
+        public String getName() {
+            return mName;
+        }
+
+        /**
+         * Результат стадии, вызывается после успешного {@link StageScope#join()}
+         *
+         * @throws IllegalStateException если стадия не завершилась успешно
+         */
+        public T get() {
+            if (!mFuture.isDone() || mFuture.isCancelled()) {
+                throw new IllegalStateException("Стадия " + mName + " не завершена");
+            }
+            try {
+                return mFuture.get();
+            } catch (InterruptedException | ExecutionException e) {
+                throw new IllegalStateException("Стадия " + mName + " завершилась с ошибкой", e);
+            }
+        }
+    }
+}
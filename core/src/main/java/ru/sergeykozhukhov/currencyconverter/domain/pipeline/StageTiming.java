@@ -0,0 +1,48 @@
+package ru.sergeykozhukhov.currencyconverter.domain.pipeline;
+
+import androidx.annotation.NonNull;
+
+import java.util.Locale;
+
+/**
+ * Время выполнения стадии конвейера
+ **/
+public class StageTiming {
+
+    private final String mName;
+
+    /**
+     * Начало стадии от создания {@link StageScope} (нс)
+     */
+    private final long mStartNanos;
+
+    /**
+     * Длительность стадии (нс)
+     */
+    private final long mDurationNanos;
+
+    public StageTiming(@NonNull String name, long startNanos, long durationNanos) {
+        mName = name;
+        mStartNanos = startNanos;
+        mDurationNanos = durationNanos;
+    }
+
+    @NonNull
+    public String getName() {
+        return mName;
+    }
+
+    public long getStartNanos() {
+        return mStartNanos;
+    }
+
+    public long getDurationNanos() {
+        return mDurationNanos;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "%s: +%.1f ms, %.1f ms", mName, mStartNanos / 1e6, mDurationNanos / 1e6);
+    }
+}
@@ -0,0 +1,193 @@
+package ru.sergeykozhukhov.currencyconverter.domain.publish;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import ru.sergeykozhukhov.currencyconverter.domain.model.RatesSnapshot;
+
+/**
+ * Рассылка снимков курсов нескольким подписчикам (ViewModel, виджеты, уведомления, история).
+ * <p>
+ * Каждый подписчик получает снимки на своём {@link Executor}, поэтому {@link #publish(RatesSnapshot)}
+ * никогда не ждёт подписчиков, а медленный подписчик не задерживает остальных.
+ * Пока подписчик обрабатывает снимок, новые снимки для него не копятся в очереди:
+ * хранится только последний, и подписчик получает его следующим (промежуточные пропускаются).
+ * Снимки доставляются в порядке версий: устаревший снимок после более нового не доставляется
+ **/
+public class RatesPublisher {
+
+    /**
+     * Получатель снимков курсов
+     */
+    public interface Subscriber {
+
+        /**
+         * Вызывается на executor подписчика, никогда одновременно для одного подписчика
+         */
+        void onRates(@NonNull RatesSnapshot snapshot);
+    }
+
+    /**
+     * Подписка, которую можно отменить
+     */
+    public interface Subscription {
+
+        /**
+         * Прекращает доставку снимков (снимок, который уже обрабатывается, дорабатывается)
+         */
+        void cancel();
+    }
+
+    /**
+     * Последний опубликованный снимок
+     */
+    private final AtomicReference<RatesSnapshot> mLatest = new AtomicReference<>();
+
+    /**
+     * Подписчики (копия при изменении: подписки редки, рассылки часты)
+     */
+    private final CopyOnWriteArrayList<Slot> mSlots = new CopyOnWriteArrayList<>();
+
+    /**
+     * Подписывает на снимки. Если снимок уже публиковался, подписчик сразу получит последний
+     *
+     * @param executor   на чём вызывать подписчика (например, главный поток или фоновый пул)
+     * @param subscriber подписчик
+     * @return подписка для отмены
+     */
+    @NonNull
+    public Subscription subscribe(@NonNull Executor executor, @NonNull Subscriber subscriber) {
+        Slot slot = new Slot(executor, subscriber);
+        mSlots.add(slot);
+        RatesSnapshot latest = mLatest.get();
+        if (latest != null) {
+            slot.offer(latest);
+        }
+        return slot;
+    }
+
+    /**
+     * Публикует снимок всем подписчикам. Не блокируется и может вызываться из любого потока
+     */
+    public void publish(@NonNull RatesSnapshot snapshot) {
+        while (true) {
+            RatesSnapshot latest = mLatest.get();
+            if (latest != null && latest.getVersion() >= snapshot.getVersion()) {
+                return; // опоздавший снимок: уже опубликован более новый
+            }
+            if (mLatest.compareAndSet(latest, snapshot)) {
+                break;
+            }
+        }
+        for (Slot slot : mSlots) {
+            slot.offer(snapshot);
+        }
+    }
+
+    /**
+     * Последний опубликованный снимок
+     *
+     * @return {@code null}, если ещё ничего не публиковалось
+     */
+    @Nullable
+    public RatesSnapshot getLatest() {
+        return mLatest.get();
+    }
+
+    /**
+     * Количество активных подписчиков
+     */
+    public int getSubscriberCount() {
+        return mSlots.size();
+    }
+
+    /**
+     * Подписчик со своим executor и ячейкой для последнего недоставленного снимка
+     */
+    private class Slot implements Subscription, Runnable {
+
+        private final Executor mExecutor;
+
+        private final Subscriber mSubscriber;
+
+        /**
+         * Последний недоставленный снимок
+         */
+        private final AtomicReference<RatesSnapshot> mPending = new AtomicReference<>();
+
+        /**
+         * Задача доставки поставлена в executor или выполняется
+         */
+        private final AtomicBoolean mScheduled = new AtomicBoolean();
+
+        private volatile boolean mCancelled;
+
+        /**
+         * Версия последнего доставленного снимка (используется только внутри доставки)
+         */
+        private long mDeliveredVersion = Long.MIN_VALUE;
+
+        Slot(@NonNull Executor executor, @NonNull Subscriber subscriber) {
+            mExecutor = executor;
+            mSubscriber = subscriber;
+        }
+
+        /**
+         * Кладёт снимок в ячейку, если в ней нет более нового: публикации из разных потоков
+         * доходят до ячейки в любом порядке
+         */
+        void offer(@NonNull RatesSnapshot snapshot) {
+            while (true) {
+                RatesSnapshot pending = mPending.get();
+                if (pending != null && pending.getVersion() >= snapshot.getVersion()) {
+                    break; // в ячейке уже более новый снимок
+                }
+                if (mPending.compareAndSet(pending, snapshot)) {
+                    break;
+                }
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (!mCancelled && mScheduled.compareAndSet(false, true)) {
+                try {
+                    mExecutor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    // executor подписчика остановлен - подписчик больше ничего не получит
+                    cancel();
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                RatesSnapshot snapshot = mPending.getAndSet(null);
+                if (snapshot != null && !mCancelled && snapshot.getVersion() > mDeliveredVersion) {
+                    mDeliveredVersion = snapshot.getVersion();
+                    mSubscriber.onRates(snapshot);
+                }
+            } finally {
+                mScheduled.set(false);
+                // снимок мог прийти, пока шла доставка
+                if (mPending.get() != null) {
+                    schedule();
+                }
+            }
+        }
+
+        @Override
+        public void cancel() {
+            mCancelled = true;
+            mPending.set(null);
+            mSlots.remove(this);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package ru.sergeykozhukhov.currencyconverter.domain.routing;
+
+import androidx.annotation.NonNull;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Маршрут конвертации: последовательность обменов и итоговый курс.
+ * Для цикла арбитража первая и последняя валюты совпадают, а курс больше единицы
+ **/
+public class Route {
+
+    private final List<RouteHop> mHops;
+
+    /**
+     * Произведение курсов всех шагов
+     */
+    private final double mRate;
+
+    public Route(@NonNull List<RouteHop> hops) {
+        mHops = Collections.unmodifiableList(hops);
+        double rate = 1;
+        for (RouteHop hop : hops) {
+            rate *= hop.getRate();
+        }
+        mRate = rate;
+    }
+
+    /**
+     * Шаги маршрута (пустой список, если исходная и итоговая валюты совпадают)
+     */
+    @NonNull
+    public List<RouteHop> getHops() {
+        return mHops;
+    }
+
+    /**
+     * Сколько итоговой валюты даёт единица исходной при обмене по маршруту
+     */
+    public double getRate() {
+        return mRate;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return mHops + " = " + mRate;
+    }
+}
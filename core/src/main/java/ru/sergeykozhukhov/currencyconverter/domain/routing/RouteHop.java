@@ -0,0 +1,55 @@
+package ru.sergeykozhukhov.currencyconverter.domain.routing;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Шаг маршрута конвертации: обмен одной валюты на другую у одного поставщика курсов
+ **/
+public class RouteHop {
+
+    /**
+     * Поставщик курса
+     */
+    private final String mProviderId;
+
+    private final String mFromCharCode;
+
+    private final String mToCharCode;
+
+    /**
+     * Сколько валюты mToCharCode даёт единица mFromCharCode
+     */
+    private final double mRate;
+
+    public RouteHop(@NonNull String providerId, @NonNull String fromCharCode, @NonNull String toCharCode, double rate) {
+        mProviderId = providerId;
+        mFromCharCode = fromCharCode;
+        mToCharCode = toCharCode;
+        mRate = rate;
+    }
+
+    @NonNull
+    public String getProviderId() {
+        return mProviderId;
+    }
+
+    @NonNull
+    public String getFromCharCode() {
+        return mFromCharCode;
+    }
+
+    @NonNull
+    public String getToCharCode() {
+        return mToCharCode;
+    }
+
+    public double getRate() {
+        return mRate;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return mFromCharCode + "->" + mToCharCode + "@" + mProviderId;
+    }
+}
@@ -0,0 +1,397 @@
+package ru.sergeykozhukhov.currencyconverter.domain.routing;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import ru.sergeykozhukhov.currencyconverter.domain.CrossRates;
+import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
+import ru.sergeykozhukhov.currencyconverter.domain.model.RatesSnapshot;
+
+/**
+ * Поиск самого выгодного маршрута конвертации по курсам нескольких поставщиков.
+ * <p>
+ * Курсы всех поставщиков - рёбра одного графа валют с весом -log(курс): произведение курсов по маршруту
+ * максимально, когда сумма весов минимальна. Каждый поставщик задаёт курсы к рублю, поэтому у каждой
+ * пары рёбер один вес положительный, другой отрицательный, и Дейкстра неприменим; деревья кратчайших
+ * путей строятся SPFA (Bellman-Ford с очередью). Цикл отрицательного веса - арбитраж: обмен по кругу
+ * даёт больше исходной суммы.
+ * <p>
+ * Деревья кэшируются по исходной валюте. При обновлении снимка поставщика сбрасываются только деревья,
+ * которые используют его рёбра или которые нарушает хотя бы одно из его новых рёбер
+ **/
+public class RoutingEngine {
+
+    /**
+     * Допуск при сравнении сумм логарифмов, чтобы ошибки округления не давали ложных улучшений и циклов
+     */
+    private static final double EPSILON = 1e-12;
+
+    /**
+     * Индексы валют по кодам
+     */
+    private final Map<String, Integer> mNodeIndices = new HashMap<>();
+
+    /**
+     * Коды валют по индексам
+     */
+    private final List<String> mNodes = new ArrayList<>();
+
+    /**
+     * Рёбра поставщиков по id поставщика
+     */
+    private final Map<String, ProviderEdges> mProviders = new HashMap<>();
+
+    /**
+     * Деревья кратчайших путей по индексу исходной валюты
+     */
+    private final Map<Integer, ShortestPathTree> mTrees = new HashMap<>();
+
+    /**
+     * Списки смежности всех поставщиков, {@code null} после изменения рёбер
+     */
+    private Edge[][] mAdjacency;
+
+    /**
+     * Количество построенных деревьев
+     */
+    private int mTreeBuilds;
+
+    /**
+     * Обновляет курсы поставщика. Снимок с версией не новее уже загруженной игнорируется
+     *
+     * @param providerId id поставщика
+     * @param snapshot   курсы к рублю
+     * @param commission комиссия поставщика за обмен (доля, например 0.01), уменьшает курс каждого обмена
+     */
+    public synchronized void update(@NonNull String providerId, @NonNull RatesSnapshot snapshot, double commission) {
+        ProviderEdges previous = mProviders.get(providerId);
+        if (previous != null && previous.mVersion >= snapshot.getVersion()) {
+            return;
+        }
+        double factor = 1 - commission;
+        int rub = nodeIndex(CrossRates.RUB_CHAR_CODE);
+        List<Edge> edges = new ArrayList<>(snapshot.getCurrencies().size() * 2);
+        for (Currency currency : snapshot.getCurrencies()) {
+            double unitValue = CrossRates.unitValue(currency);
+            if (CrossRates.RUB_CHAR_CODE.equals(currency.getCharCode()) || !(unitValue > 0)) {
+                continue;
+            }
+            int node = nodeIndex(currency.getCharCode());
+            edges.add(new Edge(providerId, node, rub, unitValue * factor));
+            edges.add(new Edge(providerId, rub, node, factor / unitValue));
+        }
+        mProviders.put(providerId, new ProviderEdges(snapshot.getVersion(), edges));
+        mAdjacency = null;
+        invalidate(providerId, edges);
+    }
+
+    /**
+     * Убирает курсы поставщика
+     */
+    public synchronized void remove(@NonNull String providerId) {
+        if (mProviders.remove(providerId) != null) {
+            mAdjacency = null;
+            invalidate(providerId, Collections.<Edge>emptyList());
+        }
+    }
+
+    /**
+     * Самый выгодный маршрут между валютами
+     *
+     * @return {@code null}, если валюты неизвестны, маршрута нет или из исходной валюты достижим
+     * арбитраж (тогда маршрут не ограничен, см. {@link #findArbitrage(String)})
+     */
+    @Nullable
+    public synchronized Route findBestRoute(@NonNull String fromCharCode, @NonNull String toCharCode) {
+        Integer from = mNodeIndices.get(fromCharCode);
+        Integer to = mNodeIndices.get(toCharCode);
+        if (from == null || to == null) {
+            return null;
+        }
+        ShortestPathTree tree = getTree(from);
+        if (tree.mCycle != null || Double.isInfinite(tree.mDistances[to])) {
+            return null;
+        }
+        List<RouteHop> hops = new ArrayList<>();
+        for (Edge edge = tree.mPredecessors[to]; edge != null; edge = tree.mPredecessors[edge.mFrom]) {
+            hops.add(hop(edge));
+        }
+        Collections.reverse(hops);
+        return new Route(hops);
+    }
+
+    /**
+     * Цикл арбитража, достижимый из валюты
+     *
+     * @return {@code null}, если арбитража нет или валюта неизвестна
+     */
+    @Nullable
+    public synchronized Route findArbitrage(@NonNull String fromCharCode) {
+        Integer from = mNodeIndices.get(fromCharCode);
+        if (from == null) {
+            return null;
+        }
+        List<Edge> cycle = getTree(from).mCycle;
+        if (cycle == null) {
+            return null;
+        }
+        List<RouteHop> hops = new ArrayList<>(cycle.size());
+        for (Edge edge : cycle) {
+            hops.add(hop(edge));
+        }
+        return new Route(hops);
+    }
+
+    /**
+     * Количество построенных деревьев (для проверки кэширования)
+     */
+    @VisibleForTesting
+    synchronized int getTreeBuilds() {
+        return mTreeBuilds;
+    }
+
+    @NonNull
+    private RouteHop hop(@NonNull Edge edge) {
+        return new RouteHop(edge.mProviderId, mNodes.get(edge.mFrom), mNodes.get(edge.mTo), edge.mRate);
+    }
+
+    private int nodeIndex(@NonNull String charCode) {
+        Integer index = mNodeIndices.get(charCode);
+        if (index == null) {
+            index = mNodes.size();
+            mNodes.add(charCode);
+            mNodeIndices.put(charCode, index);
+        }
+        return index;
+    }
+
+    /**
+     * Сбрасывает деревья, которые могли измениться после замены рёбер поставщика.
+     * Дерево остаётся верным, если оно не использует рёбра поставщика (удаление ребра вне дерева
+     * ничего не меняет) и ни одно новое ребро не улучшает расстояние до своей вершины
+     */
+    private void invalidate(@NonNull String providerId, @NonNull List<Edge> newEdges) {
+        Iterator<ShortestPathTree> iterator = mTrees.values().iterator();
+        while (iterator.hasNext()) {
+            ShortestPathTree tree = iterator.next();
+            if (tree.mCycle != null || tree.usesProvider(providerId) || tree.isImprovedBy(newEdges)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    @NonNull
+    private ShortestPathTree getTree(int source) {
+        ShortestPathTree tree = mTrees.get(source);
+        if (tree == null) {
+            tree = buildTree(source);
+            mTrees.put(source, tree);
+            mTreeBuilds++;
+        }
+        return tree;
+    }
+
+    /**
+     * SPFA: расслабляются только рёбра из вершин, расстояние до которых изменилось.
+     * Если путь до вершины стал длиннее количества вершин, в графе есть отрицательный цикл
+     */
+    @NonNull
+    private ShortestPathTree buildTree(int source) {
+        Edge[][] adjacency = getAdjacency();
+        int size = adjacency.length;
+        double[] distances = new double[size];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        distances[source] = 0;
+        Edge[] predecessors = new Edge[size];
+        int[] lengths = new int[size];
+        boolean[] queued = new boolean[size];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(source);
+        queued[source] = true;
+        while (!queue.isEmpty()) {
+            int from = queue.poll();
+            queued[from] = false;
+            for (Edge edge : adjacency[from]) {
+                double distance = distances[from] + edge.mWeight;
+                if (distance < distances[edge.mTo] - EPSILON) {
+                    distances[edge.mTo] = distance;
+                    predecessors[edge.mTo] = edge;
+                    lengths[edge.mTo] = lengths[from] + 1;
+                    if (lengths[edge.mTo] >= size) {
+                        return new ShortestPathTree(distances, predecessors, findCycle(adjacency, source));
+                    }
+                    if (!queued[edge.mTo]) {
+                        queue.add(edge.mTo);
+                        queued[edge.mTo] = true;
+                    }
+                }
+            }
+        }
+        return new ShortestPathTree(distances, predecessors, null);
+    }
+
+    /**
+     * Классический Bellman-Ford для выделения отрицательного цикла, найденного SPFA:
+     * вершина, улучшенная на последнем проходе, после size шагов по предшественникам лежит на цикле
+     */
+    @NonNull
+    private static List<Edge> findCycle(@NonNull Edge[][] adjacency, int source) {
+        int size = adjacency.length;
+        double[] distances = new double[size];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        distances[source] = 0;
+        Edge[] predecessors = new Edge[size];
+        int last = -1;
+        for (int pass = 0; pass < size; pass++) {
+            last = -1;
+            for (Edge[] edges : adjacency) {
+                for (Edge edge : edges) {
+                    double distance = distances[edge.mFrom] + edge.mWeight;
+                    if (distance < distances[edge.mTo] - EPSILON) {
+                        distances[edge.mTo] = distance;
+                        predecessors[edge.mTo] = edge;
+                        last = edge.mTo;
+                    }
+                }
+            }
+        }
+        int node = last;
+        for (int i = 0; i < size; i++) {
+            node = predecessors[node].mFrom;
+        }
+        List<Edge> cycle = new ArrayList<>();
+        int current = node;
+        do {
+            Edge edge = predecessors[current];
+            cycle.add(edge);
+            current = edge.mFrom;
+        } while (current != node);
+        Collections.reverse(cycle);
+        return cycle;
+    }
+
+    @NonNull
+    private Edge[][] getAdjacency() {
+        if (mAdjacency == null) {
+            int size = mNodes.size();
+            List<List<Edge>> lists = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                lists.add(new ArrayList<Edge>());
+            }
+            for (ProviderEdges provider : mProviders.values()) {
+                for (Edge edge : provider.mEdges) {
+                    lists.get(edge.mFrom).add(edge);
+                }
+            }
+            Edge[][] adjacency = new Edge[size][];
+            for (int i = 0; i < size; i++) {
+                adjacency[i] = lists.get(i).toArray(new Edge[0]);
+            }
+            mAdjacency = adjacency;
+        }
+        return mAdjacency;
+    }
+
+    /**
+     * Обмен у поставщика
+     */
+    private static class Edge {
+
+        private final String mProviderId;
+
+        private final int mFrom;
+
+        private final int mTo;
+
+        private final double mRate;
+
+        /**
+         * -log(курс)
+         */
+        private final double mWeight;
+
+        private Edge(@NonNull String providerId, int from, int to, double rate) {
+            mProviderId = providerId;
+            mFrom = from;
+            mTo = to;
+            mRate = rate;
+            mWeight = -Math.log(rate);
+        }
+    }
+
+    /**
+     * Рёбра одного снимка поставщика
+     */
+    private static class ProviderEdges {
+
+        private final long mVersion;
+
+        private final List<Edge> mEdges;
+
+        private ProviderEdges(long version, @NonNull List<Edge> edges) {
+            mVersion = version;
+            mEdges = edges;
+        }
+    }
+
+    /**
+     * Дерево кратчайших путей из одной валюты
+     */
+    private static class ShortestPathTree {
+
+        private final double[] mDistances;
+
+        /**
+         * Последнее ребро кратчайшего пути до вершины
+         */
+        private final Edge[] mPredecessors;
+
+        /**
+         * Цикл арбитража, достижимый из исходной валюты, или {@code null}
+         */
+        private final List<Edge> mCycle;
+
+        private ShortestPathTree(@NonNull double[] distances, @NonNull Edge[] predecessors, @Nullable List<Edge> cycle) {
+            mDistances = distances;
+            mPredecessors = predecessors;
+            mCycle = cycle;
+        }
+
+        private boolean usesProvider(@NonNull String providerId) {
+            for (Edge edge : mPredecessors) {
+                if (edge != null && edge.mProviderId.equals(providerId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Улучшает ли какое-то из рёбер расстояние до своей вершины (вершины, появившиеся после
+         * построения дерева, считаются недостижимыми)
+         */
+        private boolean isImprovedBy(@NonNull List<Edge> edges) {
+            for (Edge edge : edges) {
+                double from = distance(edge.mFrom);
+                if (!Double.isInfinite(from) && from + edge.mWeight < distance(edge.mTo) - EPSILON) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private double distance(int node) {
+            return node < mDistances.length ? mDistances[node] : Double.POSITIVE_INFINITY;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package ru.sergeykozhukhov.currencyconverter.domain.schedule;
+
+import androidx.annotation.NonNull;
+
+import java.util.Locale;
+
+/**
+ * Метрики полосы {@link PriorityTaskScheduler} на момент запроса
+ **/
+public class LaneStats {
+
+    private final TaskLane mLane;
+
+    private final long mSubmitted;
+
+    private final long mCompleted;
+
+    private final int mQueueDepth;
+
+    private final int mMaxQueueDepth;
+
+    private final int mRunning;
+
+    /**
+     * Суммарное время ожидания начатых задач в очереди (нс)
+     */
+    private final long mTotalWaitNanos;
+
+    private final long mMaxWaitNanos;
+
+    LaneStats(@NonNull TaskLane lane, long submitted, long completed, int queueDepth, int maxQueueDepth,
+              int running, long totalWaitNanos, long maxWaitNanos) {
+        mLane = lane;
+        mSubmitted = submitted;
+        mCompleted = completed;
+        mQueueDepth = queueDepth;
+        mMaxQueueDepth = maxQueueDepth;
+        mRunning = running;
+        mTotalWaitNanos = totalWaitNanos;
+        mMaxWaitNanos = maxWaitNanos;
+    }
+
+    @NonNull
+    public TaskLane getLane() {
+        return mLane;
+    }
+
+    public long getSubmitted() {
+        return mSubmitted;
+    }
+
+    public long getCompleted() {
+        return mCompleted;
+    }
+
+    /**
+     * Задач в очереди сейчас
+     */
+    public int getQueueDepth() {
+        return mQueueDepth;
+    }
+
+    /**
+     * Наибольшая длина очереди за всё время
+     */
+    public int getMaxQueueDepth() {
+        return mMaxQueueDepth;
+    }
+
+    /**
+     * Задач выполняется сейчас
+     */
+    public int getRunning() {
+        return mRunning;
+    }
+
+    /**
+     * Среднее время от постановки в очередь до начала выполнения (нс)
+     */
+    public long getAverageWaitNanos() {
+        long started = mSubmitted - mQueueDepth;
+        return started == 0 ? 0 : mTotalWaitNanos / started;
+    }
+
+    public long getMaxWaitNanos() {
+        return mMaxWaitNanos;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "%s: submitted %d, completed %d, queued %d (max %d), running %d, "
+                        + "wait avg %.1f ms (max %.1f ms)", mLane, mSubmitted, mCompleted, mQueueDepth, mMaxQueueDepth,
+                mRunning, getAverageWaitNanos() / 1e6, mMaxWaitNanos / 1e6);
+    }
+}
@@ -0,0 +1,338 @@
+package ru.sergeykozhukhov.currencyconverter.domain.schedule;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Общий пул потоков с полосами приоритета {@link TaskLane}. Освободившийся поток берёт задачу
+ * из самой приоритетной непустой полосы, поэтому задача пользователя обгоняет все ожидающие
+ * фоновые задачи (уже начатые задачи не прерываются).
+ * <p>
+ * Фоновые полосы ограничены по количеству одновременно выполняемых задач: {@link TaskLane#REFRESH}
+ * занимает не больше threads - 1 потоков, {@link TaskLane#BULK} - не больше bulkConcurrency (меньше threads),
+ * так что хотя бы один поток всегда остаётся для {@link TaskLane#INTERACTIVE}.
+ * Потоки создаются по мере необходимости. Для каждой полосы считаются длина очереди и время ожидания
+ **/
+public class PriorityTaskScheduler {
+
+    private static final TaskLane[] LANES = TaskLane.values();
+
+    private final int mThreads;
+
+    /**
+     * Предел одновременно выполняемых задач по полосам
+     */
+    private final int[] mConcurrencyLimits = new int[LANES.length];
+
+    private final ReentrantLock mLock = new ReentrantLock();
+
+    private final Condition mWorkAvailable = mLock.newCondition();
+
+    private final Condition mTerminated = mLock.newCondition();
+
+    private final Lane[] mLanes = new Lane[LANES.length];
+
+    private final String mThreadNamePrefix;
+
+    private int mWorkers;
+
+    private int mIdleWorkers;
+
+    private boolean mShutdown;
+
+    /**
+     * @param threads         количество потоков (не меньше 2)
+     * @param bulkConcurrency сколько задач {@link TaskLane#BULK} выполняются одновременно (от 1 до threads - 1)
+     * @param threadNamePrefix префикс имён потоков
+     */
+    public PriorityTaskScheduler(int threads, int bulkConcurrency, @NonNull String threadNamePrefix) {
+        if (threads < 2 || bulkConcurrency < 1 || bulkConcurrency >= threads) {
+            throw new IllegalArgumentException("Некорректное количество потоков: " + threads + ", " + bulkConcurrency);
+        }
+        mThreads = threads;
+        mThreadNamePrefix = threadNamePrefix;
+        mConcurrencyLimits[TaskLane.INTERACTIVE.ordinal()] = threads;
+        mConcurrencyLimits[TaskLane.REFRESH.ordinal()] = threads - 1;
+        mConcurrencyLimits[TaskLane.BULK.ordinal()] = bulkConcurrency;
+        for (TaskLane lane : LANES) {
+            mLanes[lane.ordinal()] = new Lane();
+        }
+    }
+
+    /**
+     * Планировщик по количеству процессоров: не меньше 2 потоков, половина (но не меньше 1) - для BULK
+     */
+    @NonNull
+    public static PriorityTaskScheduler createDefault(@NonNull String threadNamePrefix) {
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        return new PriorityTaskScheduler(threads, Math.max(1, threads / 2), threadNamePrefix);
+    }
+
+    /**
+     * Ставит задачу в очередь полосы
+     *
+     * @throws RejectedExecutionException если планировщик остановлен
+     */
+    public void execute(@NonNull TaskLane lane, @NonNull Runnable task) {
+        mLock.lock();
+        try {
+            if (mShutdown) {
+                throw new RejectedExecutionException("Планировщик остановлен");
+            }
+            Lane queue = mLanes[lane.ordinal()];
+            queue.mQueue.add(new QueuedTask(task, System.nanoTime()));
+            queue.mSubmitted++;
+            queue.mMaxQueueDepth = Math.max(queue.mMaxQueueDepth, queue.mQueue.size());
+            if (mIdleWorkers == 0 && mWorkers < mThreads) {
+                startWorker();
+            } else {
+                mWorkAvailable.signal();
+            }
+        } finally {
+            mLock.unlock();
+        }
+    }
+
+    /**
+     * {@link Executor}, отправляющий задачи в полосу (задачи могут выполняться параллельно)
+     */
+    @NonNull
+    public Executor executor(@NonNull final TaskLane lane) {
+        return new Executor() {
+            @Override
+            public void execute(@NonNull Runnable task) {
+                PriorityTaskScheduler.this.execute(lane, task);
+            }
+        };
+    }
+
+    /**
+     * {@link Executor}, выполняющий свои задачи по одной в порядке отправки через полосу
+     * (замена однопоточного исполнителя: свой поток не нужен)
+     */
+    @NonNull
+    public Executor newSerialExecutor(@NonNull TaskLane lane) {
+        return new SerialExecutor(lane);
+    }
+
+    /**
+     * Метрики полосы
+     */
+    @NonNull
+    public LaneStats getStats(@NonNull TaskLane lane) {
+        mLock.lock();
+        try {
+            Lane queue = mLanes[lane.ordinal()];
+            return new LaneStats(lane, queue.mSubmitted, queue.mCompleted, queue.mQueue.size(), queue.mMaxQueueDepth,
+                    queue.mRunning, queue.mTotalWaitNanos, queue.mMaxWaitNanos);
+        } finally {
+            mLock.unlock();
+        }
+    }
+
+    /**
+     * Запрещает новые задачи; уже поставленные в очередь выполняются
+     */
+    public void shutdown() {
+        mLock.lock();
+        try {
+            mShutdown = true;
+            mWorkAvailable.signalAll();
+            if (mWorkers == 0) {
+                mTerminated.signalAll();
+            }
+        } finally {
+            mLock.unlock();
+        }
+    }
+
+    /**
+     * Ожидает завершения всех потоков после {@link #shutdown()}
+     *
+     * @return {@code false}, если время вышло
+     */
+    public boolean awaitTermination(long timeout, @NonNull TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        mLock.lock();
+        try {
+            while (!mShutdown || mWorkers > 0) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = mTerminated.awaitNanos(nanos);
+            }
+            return true;
+        } finally {
+            mLock.unlock();
+        }
+    }
+
+    /**
+     * Вызывается под mLock
+     */
+    private void startWorker() {
+        mWorkers++;
+        Thread thread = new Thread(new Worker(), mThreadNamePrefix + "-" + mWorkers);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Задача самой приоритетной полосы, у которой не исчерпан предел параллельности (вызывается под mLock)
+     *
+     * @return {@code null}, если выполнять нечего
+     */
+    private QueuedTask poll() {
+        for (TaskLane lane : LANES) {
+            Lane queue = mLanes[lane.ordinal()];
+            if (!queue.mQueue.isEmpty() && queue.mRunning < mConcurrencyLimits[lane.ordinal()]) {
+                QueuedTask task = queue.mQueue.poll();
+                long wait = System.nanoTime() - task.mEnqueuedNanos;
+                queue.mRunning++;
+                queue.mTotalWaitNanos += wait;
+                queue.mMaxWaitNanos = Math.max(queue.mMaxWaitNanos, wait);
+                task.mLane = queue;
+                return task;
+            }
+        }
+        return null;
+    }
+
+    private boolean hasQueuedTasks() {
+        for (Lane queue : mLanes) {
+            if (!queue.mQueue.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Поток пула
+     */
+    private class Worker implements Runnable {
+
+        @Override
+        public void run() {
+            QueuedTask task = null;
+            while (true) {
+                mLock.lock();
+                try {
+                    if (task != null) {
+                        task.mLane.mRunning--;
+                        task.mLane.mCompleted++;
+                        // освободилось место в полосе с пределом: задача из неё могла ждать только этого
+                        mWorkAvailable.signal();
+                    }
+                    while ((task = poll()) == null) {
+                        if (mShutdown && !hasQueuedTasks()) {
+                            mWorkers--;
+                            if (mWorkers == 0) {
+                                mTerminated.signalAll();
+                            }
+                            return;
+                        }
+                        mIdleWorkers++;
+                        try {
+                            mWorkAvailable.awaitUninterruptibly();
+                        } finally {
+                            mIdleWorkers--;
+                        }
+                    }
+                } finally {
+                    mLock.unlock();
+                }
+                try {
+                    task.mTask.run();
+                } catch (RuntimeException | Error e) {
+                    // как у пула потоков: ошибка задачи уходит в обработчик потока, но поток продолжает работу
+                    Thread thread = Thread.currentThread();
+                    thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Очередь и метрики полосы (изменяются под mLock)
+     */
+    private static class Lane {
+
+        private final ArrayDeque<QueuedTask> mQueue = new ArrayDeque<>();
+
+        private int mRunning;
+
+        private long mSubmitted;
+
+        private long mCompleted;
+
+        private int mMaxQueueDepth;
+
+        private long mTotalWaitNanos;
+
+        private long mMaxWaitNanos;
+    }
+
+    private static class QueuedTask {
+
+        private final Runnable mTask;
+
+        private final long mEnqueuedNanos;
+
+        /**
+         * Полоса, в которой задача выполняется
+         */
+        private Lane mLane;
+
+        QueuedTask(@NonNull Runnable task, long enqueuedNanos) {
+            mTask = task;
+            mEnqueuedNanos = enqueuedNanos;
+        }
+    }
+
+    /**
+     * Последовательный исполнитель поверх полосы: следующая задача отправляется, когда закончилась предыдущая
+     */
+    private class SerialExecutor implements Executor {
+
+        private final TaskLane mLane;
+
+        private final ArrayDeque<Runnable> mTasks = new ArrayDeque<>();
+
+        private Runnable mActive;
+
+        SerialExecutor(@NonNull TaskLane lane) {
+            mLane = lane;
+        }
+
+        @Override
+        public synchronized void execute(@NonNull final Runnable task) {
+            mTasks.add(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        task.run();
+                    } finally {
+                        scheduleNext();
+                    }
+                }
+            });
+            if (mActive == null) {
+                scheduleNext();
+            }
+        }
+
+        private synchronized void scheduleNext() {
+            mActive = mTasks.poll();
+            if (mActive != null) {
+                PriorityTaskScheduler.this.execute(mLane, mActive);
+            }
+        }
+    }
+}
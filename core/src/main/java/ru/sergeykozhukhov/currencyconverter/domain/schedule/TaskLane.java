@@ -0,0 +1,22 @@
+package ru.sergeykozhukhov.currencyconverter.domain.schedule;
+
+/**
+ * Полосы приоритета {@link PriorityTaskScheduler} в порядке убывания приоритета
+ **/
+public enum TaskLane {
+
+    /**
+     * Работа, которую ждёт пользователь (загрузка при открытии экрана, конвертация)
+     */
+    INTERACTIVE,
+
+    /**
+     * Фоновое обновление курсов и проверка оповещений
+     */
+    REFRESH,
+
+    /**
+     * Тяжёлая фоновая работа (загрузка истории за годы, пакетная конвертация)
+     */
+    BULK
+}
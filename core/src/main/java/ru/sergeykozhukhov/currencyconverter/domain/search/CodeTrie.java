@@ -0,0 +1,89 @@
+package ru.sergeykozhukhov.currencyconverter.domain.search;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Префиксное дерево по буквенным кодам валют. В каждом узле хранятся номера всех валют
+ * с этим префиксом кода, поэтому поиск по префиксу - это спуск на длину запроса без обхода поддерева
+ **/
+final class CodeTrie {
+
+    private static final int[] EMPTY = new int[0];
+
+    private final Node mRoot = new Node();
+
+    /**
+     * Добавляет код валюты (номера нужно добавлять по возрастанию)
+     */
+    void add(@NonNull String code, int id) {
+        Node node = mRoot;
+        for (int i = 0; i < code.length(); i++) {
+            node = node.child(Character.toUpperCase(code.charAt(i)), true);
+            if (node.mBuilder.last() != id) {
+                node.mBuilder.add(id);
+            }
+        }
+    }
+
+    /**
+     * Завершает построение: списки номеров переводятся в массивы
+     */
+    void freeze() {
+        mRoot.freeze();
+    }
+
+    /**
+     * Номера валют с кодом, начинающимся с {@code prefix}, по возрастанию
+     */
+    @NonNull
+    int[] findPrefix(@NonNull String prefix) {
+        Node node = mRoot;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(Character.toUpperCase(prefix.charAt(i)), false);
+        }
+        return node == null || node == mRoot ? EMPTY : node.mIds;
+    }
+
+    /**
+     * Узел дерева. Потомков немного (буквы и цифры), поэтому они хранятся в массивах с линейным поиском
+     */
+    private static final class Node {
+
+        private char[] mKeys = new char[0];
+
+        private Node[] mChildren = new Node[0];
+
+        private IntList mBuilder = new IntList();
+
+        private int[] mIds = EMPTY;
+
+        @Nullable
+        Node child(char key, boolean create) {
+            for (int i = 0; i < mKeys.length; i++) {
+                if (mKeys[i] == key) {
+                    return mChildren[i];
+                }
+            }
+            if (!create) {
+                return null;
+            }
+            Node child = new Node();
+            mKeys = Arrays.copyOf(mKeys, mKeys.length + 1);
+            mChildren = Arrays.copyOf(mChildren, mChildren.length + 1);
+            mKeys[mKeys.length - 1] = key;
+            mChildren[mChildren.length - 1] = child;
+            return child;
+        }
+
+        void freeze() {
+            mIds = mBuilder.toArray();
+            mBuilder = null;
+            for (Node child : mChildren) {
+                child.freeze();
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package ru.sergeykozhukhov.currencyconverter.domain.search;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
+
+/**
+ * Поисковый индекс валют снимка для выбора валюты по мере ввода.
+ * <p>
+ * Строится один раз на снимок (в фоновом потоке) и дальше только читается, поэтому поиск
+ * можно вызывать из любого потока. Буквенные коды ищутся по префиксу в {@link CodeTrie},
+ * названия - по триграммам ({@link TrigramIndex}) как в кириллице, так и в латинской транслитерации.
+ * <p>
+ * Порядок результатов: точное совпадение кода, совпадение начала кода, совпадение начал слов названия,
+ * совпадение части слова названия; внутри группы - недавно использованные валюты, затем порядок снимка
+ **/
+public final class CurrencySearchIndex {
+
+    private static final int EXACT_CODE = 0;
+
+    private static final int CODE_PREFIX = 1;
+
+    private static final int NAME_WORD_PREFIX = 2;
+
+    private static final int NAME_SUBSTRING = 3;
+
+    private final List<Currency> mCurrencies;
+
+    /**
+     * Коды валют в верхнем регистре по номерам
+     */
+    private final String[] mCharCodes;
+
+    /**
+     * Номер валюты по коду (для ранжирования недавних)
+     */
+    private final Map<String, Integer> mIdsByCharCode;
+
+    private final CodeTrie mCodeTrie = new CodeTrie();
+
+    private final TrigramIndex mNames;
+
+    /**
+     * @param currencies валюты снимка; номера в результатах поиска - позиции в этом списке
+     */
+    public CurrencySearchIndex(@NonNull List<Currency> currencies) {
+        mCurrencies = currencies;
+        int size = currencies.size();
+        mCharCodes = new String[size];
+        mIdsByCharCode = new HashMap<>(size * 4 / 3 + 1);
+        List<String> names = new ArrayList<>(size);
+        for (int id = 0; id < size; id++) {
+            Currency currency = currencies.get(id);
+            String charCode = currency.getCharCode().toUpperCase(Locale.ROOT);
+            mCharCodes[id] = charCode;
+            if (!mIdsByCharCode.containsKey(charCode)) {
+                mIdsByCharCode.put(charCode, id);
+            }
+            mCodeTrie.add(charCode, id);
+            String name = SearchText.normalize(currency.getName());
+            String latin = SearchText.transliterate(name);
+            names.add(latin.equals(name) ? name : name + " " + latin);
+        }
+        mCodeTrie.freeze();
+        mNames = new TrigramIndex(names);
+    }
+
+    /**
+     * Валюты, по которым построен индекс
+     */
+    @NonNull
+    public List<Currency> getCurrencies() {
+        return mCurrencies;
+    }
+
+    /**
+     * Ищет валюты по коду или названию
+     *
+     * @param query  введённый текст; пустой запрос - все валюты в порядке снимка (без ограничения количества)
+     * @param recent недавно использованные валюты (поднимаются выше внутри своей группы)
+     * @param limit  наибольшее количество результатов
+     * @return номера валют в {@link #getCurrencies()} в порядке ранжирования
+     */
+    @NonNull
+    public int[] search(@Nullable String query, @NonNull RecentCurrencies recent, int limit) {
+        String normalized = query == null ? "" : SearchText.normalize(query);
+        if (normalized.isEmpty()) {
+            int[] all = new int[mCharCodes.length];
+            for (int id = 0; id < all.length; id++) {
+                all[id] = id;
+            }
+            return all;
+        }
+        String[] words = normalized.split(" ");
+        int[] codeIds = new int[0];
+        String code = null;
+        if (words.length == 1 && isCharCode(words[0])) {
+            code = words[0].toUpperCase(Locale.ROOT);
+            codeIds = mCodeTrie.findPrefix(code);
+        }
+        int[] nameIds = mNames.search(words);
+        int[] recentIds = recentIds(recent);
+        long[] keys = new long[codeIds.length + nameIds.length];
+        int count = 0;
+        for (int id : codeIds) {
+            int group = mCharCodes[id].equals(code) ? EXACT_CODE : CODE_PREFIX;
+            keys[count++] = key(group, recentIds, id);
+        }
+        for (int id : nameIds) {
+            if (Arrays.binarySearch(codeIds, id) >= 0) {
+                // уже найдена по коду
+                continue;
+            }
+            int group = mNames.isWordPrefixMatch(id, words) ? NAME_WORD_PREFIX : NAME_SUBSTRING;
+            keys[count++] = key(group, recentIds, id);
+        }
+        Arrays.sort(keys, 0, count);
+        int[] result = new int[Math.min(limit, count)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = (int) keys[i];
+        }
+        return result;
+    }
+
+    /**
+     * Номера недавних валют, начиная с последней использованной
+     */
+    @NonNull
+    private int[] recentIds(@NonNull RecentCurrencies recent) {
+        List<String> charCodes = recent.getCharCodes();
+        int[] ids = new int[charCodes.size()];
+        int count = 0;
+        for (String charCode : charCodes) {
+            Integer id = mIdsByCharCode.get(charCode.toUpperCase(Locale.ROOT));
+            if (id != null) {
+                ids[count++] = id;
+            }
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    /**
+     * Ключ сортировки: группа, место среди недавних, номер в снимке
+     */
+    private static long key(int group, @NonNull int[] recentIds, int id) {
+        int recency = recentIds.length;
+        for (int i = 0; i < recentIds.length; i++) {
+            if (recentIds[i] == id) {
+                recency = i;
+                break;
+            }
+        }
+        return ((long) group << 56) | ((long) recency << 32) | id;
+    }
+
+    private static boolean isCharCode(@NonNull String word) {
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (!(c >= 'a' && c <= 'z') && !(c >= '0' && c <= '9')) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,34 @@
+package ru.sergeykozhukhov.currencyconverter.domain.search;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Растущий массив int для построения индексов (без упаковки в Integer)
+ **/
+final class IntList {
+
+    private int[] mValues = new int[4];
+
+    private int mSize;
+
+    void add(int value) {
+        if (mSize == mValues.length) {
+            mValues = Arrays.copyOf(mValues, mSize * 2);
+        }
+        mValues[mSize++] = value;
+    }
+
+    /**
+     * Последнее добавленное значение или -1
+     */
+    int last() {
+        return mSize == 0 ? -1 : mValues[mSize - 1];
+    }
+
+    @NonNull
+    int[] toArray() {
+        return Arrays.copyOf(mValues, mSize);
+    }
+}
@@ -0,0 +1,64 @@
+package ru.sergeykozhukhov.currencyconverter.domain.search;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Недавно использованные валюты (по буквенному коду) для ранжирования результатов поиска.
+ * Не потокобезопасен: используется в главном потоке
+ **/
+public class RecentCurrencies {
+
+    public static final int DEFAULT_CAPACITY = 16;
+
+    private final int mCapacity;
+
+    /**
+     * Коды, начиная с последнего использованного
+     */
+    private final List<String> mCharCodes;
+
+    public RecentCurrencies() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public RecentCurrencies(int capacity) {
+        mCapacity = capacity;
+        mCharCodes = new ArrayList<>(capacity);
+    }
+
+    /**
+     * Отмечает использование валюты: она становится первой, самая давняя вытесняется
+     */
+    public void markUsed(@NonNull String charCode) {
+        mCharCodes.remove(charCode);
+        if (mCharCodes.size() == mCapacity) {
+            mCharCodes.remove(mCapacity - 1);
+        }
+        mCharCodes.add(0, charCode);
+    }
+
+    /**
+     * Место валюты среди недавних
+     *
+     * @return 0 для последней использованной, -1 если валюта не использовалась недавно
+     */
+    public int getRank(@NonNull String charCode) {
+        return mCharCodes.indexOf(charCode);
+    }
+
+    /**
+     * Коды, начиная с последнего использованного
+     */
+    @NonNull
+    public List<String> getCharCodes() {
+        return Collections.unmodifiableList(mCharCodes);
+    }
+
+    public int getCapacity() {
+        return mCapacity;
+    }
+}
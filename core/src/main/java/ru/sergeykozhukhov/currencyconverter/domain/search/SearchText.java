@@ -0,0 +1,68 @@
+package ru.sergeykozhukhov.currencyconverter.domain.search;
+
+import androidx.annotation.NonNull;
+
+import java.util.Locale;
+
+/**
+ * Приведение названий и запросов к единому виду для поиска
+ **/
+final class SearchText {
+
+    /**
+     * Латиница для букв а..я (по порядку кодов), упрощённая транслитерация без диакритики
+     */
+    private static final String[] LATIN = {
+            "a", "b", "v", "g", "d", "e", "zh", "z", "i", "y", "k", "l", "m", "n", "o", "p",
+            "r", "s", "t", "u", "f", "kh", "ts", "ch", "sh", "shch", "", "y", "", "e", "yu", "ya"
+    };
+
+    private SearchText() {
+    }
+
+    /**
+     * Нижний регистр, ё как е, слова разделены одним пробелом (знаки препинания - тоже разделители)
+     */
+    @NonNull
+    static String normalize(@NonNull String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        StringBuilder builder = new StringBuilder(lower.length());
+        boolean space = true;
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (c == 'ё') {
+                c = 'е';
+            }
+            if (Character.isLetterOrDigit(c)) {
+                builder.append(c);
+                space = false;
+            } else if (!space) {
+                builder.append(' ');
+                space = true;
+            }
+        }
+        int length = builder.length();
+        if (length > 0 && builder.charAt(length - 1) == ' ') {
+            builder.setLength(length - 1);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Латинская запись нормализованного текста (остальные символы не меняются),
+     * чтобы валюту можно было найти без переключения раскладки: "dollar" находит "Доллар США"
+     */
+    @NonNull
+    static String transliterate(@NonNull String normalized) {
+        StringBuilder builder = new StringBuilder(normalized.length() + 8);
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (c >= 'а' && c <= 'я') {
+                builder.append(LATIN[c - 'а']);
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+}
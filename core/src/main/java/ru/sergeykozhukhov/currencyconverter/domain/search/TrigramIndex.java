@@ -0,0 +1,141 @@
+package ru.sergeykozhukhov.currencyconverter.domain.search;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Индекс триграмм по нормализованным текстам ({@link SearchText}).
+ * <p>
+ * Каждое слово индексируется с отступами "  слово ", поэтому кроме триграмм внутри слов есть
+ * триграммы начала слова: запрос из одной-двух букв ищется как начало слова, более длинный -
+ * как подстрока слова. Кандидаты - пересечение списков номеров по всем триграммам запроса,
+ * затем проверка по тексту (пересечение триграмм не гарантирует совпадения)
+ **/
+final class TrigramIndex {
+
+    private static final int[] EMPTY = new int[0];
+
+    /**
+     * Тексты с пробелом в начале, чтобы начало слова искалось как " слово"
+     */
+    private final String[] mTexts;
+
+    /**
+     * Номера текстов по возрастанию для каждой триграммы
+     */
+    private final Map<Long, int[]> mPostings;
+
+    TrigramIndex(@NonNull List<String> texts) {
+        mTexts = new String[texts.size()];
+        Map<Long, IntList> builders = new HashMap<>();
+        for (int id = 0; id < mTexts.length; id++) {
+            String text = texts.get(id);
+            mTexts[id] = " " + text;
+            for (String word : text.split(" ")) {
+                if (word.isEmpty()) {
+                    continue;
+                }
+                String padded = "  " + word + " ";
+                for (int i = 0; i + 3 <= padded.length(); i++) {
+                    Long trigram = trigram(padded, i);
+                    IntList ids = builders.get(trigram);
+                    if (ids == null) {
+                        ids = new IntList();
+                        builders.put(trigram, ids);
+                    }
+                    if (ids.last() != id) {
+                        ids.add(id);
+                    }
+                }
+            }
+        }
+        mPostings = new HashMap<>(builders.size() * 4 / 3 + 1);
+        for (Map.Entry<Long, IntList> entry : builders.entrySet()) {
+            mPostings.put(entry.getKey(), entry.getValue().toArray());
+        }
+    }
+
+    /**
+     * Номера текстов, в которых каждое слово запроса - начало слова (1-2 символа) или часть слова
+     *
+     * @param words нормализованные слова запроса
+     * @return номера по возрастанию
+     */
+    @NonNull
+    int[] search(@NonNull String[] words) {
+        List<int[]> postings = new ArrayList<>();
+        for (String word : words) {
+            String padded = word.length() < 3 ? "  " + word : word;
+            int from = word.length() < 3 ? padded.length() - 3 : 0;
+            for (int i = from; i + 3 <= padded.length(); i++) {
+                int[] ids = mPostings.get(trigram(padded, i));
+                if (ids == null) {
+                    return EMPTY;
+                }
+                postings.add(ids);
+            }
+        }
+        if (postings.isEmpty()) {
+            return EMPTY;
+        }
+        // пересечение начинается с самого короткого списка
+        Collections.sort(postings, new Comparator<int[]>() {
+            @Override
+            public int compare(int[] first, int[] second) {
+                return first.length - second.length;
+            }
+        });
+        int[] shortest = postings.get(0);
+        int[] result = new int[shortest.length];
+        int count = 0;
+        for (int id : shortest) {
+            if (containsInAll(postings, id) && matches(id, words)) {
+                result[count++] = id;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Все слова запроса - начала слов текста
+     */
+    boolean isWordPrefixMatch(int id, @NonNull String[] words) {
+        for (String word : words) {
+            if (!mTexts[id].contains(" " + word)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean matches(int id, @NonNull String[] words) {
+        String text = mTexts[id];
+        for (String word : words) {
+            if (!text.contains(word.length() < 3 ? " " + word : word)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean containsInAll(@NonNull List<int[]> postings, int id) {
+        for (int i = 1; i < postings.size(); i++) {
+            if (Arrays.binarySearch(postings.get(i), id) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @NonNull
+    private static Long trigram(@NonNull String text, int offset) {
+        return ((long) text.charAt(offset) << 32) | ((long) text.charAt(offset + 1) << 16) | text.charAt(offset + 2);
+    }
+}
@@ -0,0 +1,111 @@
+package ru.sergeykozhukhov.currencyconverter.domain.stats;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Инкрементальная статистика курса валютной пары: скользящее среднее, минимум/максимум,
+ * изменение за день и волатильность (стандартное отклонение дневных логарифмических доходностей)
+ **/
+public class PairStatistics {
+
+    /**
+     * Окно значений курса
+     */
+    private final RollingWindow mRates;
+
+    /**
+     * Окно дневных логарифмических доходностей
+     */
+    private final RollingWindow mReturns;
+
+    /**
+     * Последний курс
+     */
+    private double mLastRate = Double.NaN;
+
+    /**
+     * Предыдущий курс
+     */
+    private double mPreviousRate = Double.NaN;
+
+    public PairStatistics(int windowSize) {
+        mRates = new RollingWindow(windowSize);
+        mReturns = new RollingWindow(windowSize);
+    }
+
+    /**
+     * Учитывает очередное (дневное) значение курса
+     *
+     * @param rate курс пары, должен быть положительным
+     */
+    public void add(double rate) {
+        if (!(rate > 0) || Double.isInfinite(rate)) {
+            throw new IllegalArgumentException("Некорректный курс: " + rate);
+        }
+        if (!Double.isNaN(mLastRate)) {
+            mReturns.add(Math.log(rate / mLastRate));
+        }
+        mPreviousRate = mLastRate;
+        mLastRate = rate;
+        mRates.add(rate);
+    }
+
+    /**
+     * Количество значений курса в окне
+     */
+    public int getCount() {
+        return mRates.getCount();
+    }
+
+    /**
+     * Последний курс ({@link Double#NaN}, если значений не было)
+     */
+    public double getRate() {
+        return mLastRate;
+    }
+
+    /**
+     * Скользящее среднее курса
+     */
+    public double getMovingAverage() {
+        return mRates.getMean();
+    }
+
+    /**
+     * Минимальный курс в окне
+     */
+    public double getMin() {
+        return mRates.getMin();
+    }
+
+    /**
+     * Максимальный курс в окне
+     */
+    public double getMax() {
+        return mRates.getMax();
+    }
+
+    /**
+     * Изменение курса относительно предыдущего значения в процентах
+     * ({@link Double#NaN}, если предыдущего значения нет)
+     */
+    public double getDailyChangePercent() {
+        return (mLastRate - mPreviousRate) / mPreviousRate * 100;
+    }
+
+    /**
+     * Волатильность: выборочное стандартное отклонение дневных логарифмических доходностей в окне
+     */
+    public double getVolatility() {
+        return mReturns.getStandardDeviation();
+    }
+
+    /**
+     * Неизменяемая копия текущих значений статистики
+     */
+    @NonNull
+    public PairStatisticsSnapshot snapshot() {
+        return new PairStatisticsSnapshot(getCount(), getRate(), getMovingAverage(), getMin(), getMax(),
+                getDailyChangePercent(), getVolatility());
+    }
+}
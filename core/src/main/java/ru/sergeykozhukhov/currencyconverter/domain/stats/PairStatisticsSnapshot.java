@@ -0,0 +1,83 @@
+package ru.sergeykozhukhov.currencyconverter.domain.stats;
+
+/**
+ * Неизменяемый снимок статистики валютной пары ({@link PairStatistics}) на момент запроса.
+ * Читается без блокировок: следующие курсы его не меняют
+ **/
+public final class PairStatisticsSnapshot {
+
+    private final int mCount;
+
+    private final double mRate;
+
+    private final double mMovingAverage;
+
+    private final double mMin;
+
+    private final double mMax;
+
+    private final double mDailyChangePercent;
+
+    private final double mVolatility;
+
+    PairStatisticsSnapshot(int count, double rate, double movingAverage, double min, double max,
+                           double dailyChangePercent, double volatility) {
+        mCount = count;
+        mRate = rate;
+        mMovingAverage = movingAverage;
+        mMin = min;
+        mMax = max;
+        mDailyChangePercent = dailyChangePercent;
+        mVolatility = volatility;
+    }
+
+    /**
+     * Количество значений курса в окне
+     */
+    public int getCount() {
+        return mCount;
+    }
+
+    /**
+     * Последний курс ({@link Double#NaN}, если значений не было)
+     */
+    public double getRate() {
+        return mRate;
+    }
+
+    /**
+     * Скользящее среднее курса
+     */
+    public double getMovingAverage() {
+        return mMovingAverage;
+    }
+
+    /**
+     * Минимальный курс в окне
+     */
+    public double getMin() {
+        return mMin;
+    }
+
+    /**
+     * Максимальный курс в окне
+     */
+    public double getMax() {
+        return mMax;
+    }
+
+    /**
+     * Изменение курса относительно предыдущего значения в процентах
+     * ({@link Double#NaN}, если предыдущего значения нет)
+     */
+    public double getDailyChangePercent() {
+        return mDailyChangePercent;
+    }
+
+    /**
+     * Волатильность: выборочное стандартное отклонение дневных логарифмических доходностей в окне
+     */
+    public double getVolatility() {
+        return mVolatility;
+    }
+}
@@ -0,0 +1,111 @@
+package ru.sergeykozhukhov.currencyconverter.domain.stats;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ru.sergeykozhukhov.currencyconverter.domain.CrossRates;
+import ru.sergeykozhukhov.currencyconverter.domain.history.EpochDays;
+import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
+import ru.sergeykozhukhov.currencyconverter.domain.model.RatesSnapshot;
+import ru.sergeykozhukhov.currencyconverter.domain.publish.RatesPublisher;
+
+/**
+ * Инкрементально обновляемая статистика по отслеживаемым валютным парам.
+ * При поступлении очередного (дневного) списка валют каждая пара получает одно новое значение
+ * кросс-курса, полная история при этом не пересчитывается.
+ * Учитывается один список за день: повторные загрузки того же дня статистику не искажают.
+ * Для подписки на {@link RatesPublisher} есть {@link #subscriber()}
+ **/
+public class RatesStatisticsEngine {
+
+    /**
+     * Размер окна статистики (в значениях)
+     */
+    private final int mWindowSize;
+
+    /**
+     * Статистика по парам, ключ - "базовая/котируемая"
+     */
+    private final Map<String, PairStatistics> mStatistics = new HashMap<>();
+
+    /**
+     * День последнего учтённого списка
+     */
+    private int mLastEpochDay = Integer.MIN_VALUE;
+
+    public RatesStatisticsEngine(int windowSize) {
+        mWindowSize = windowSize;
+    }
+
+    /**
+     * Начинает отслеживать пару (повторный вызов для той же пары ничего не меняет)
+     *
+     * @param baseCharCode   код базовой валюты
+     * @param quotedCharCode код котируемой валюты
+     */
+    public synchronized void track(@NonNull String baseCharCode, @NonNull String quotedCharCode) {
+        String key = key(baseCharCode, quotedCharCode);
+        if (!mStatistics.containsKey(key)) {
+            mStatistics.put(key, new PairStatistics(mWindowSize));
+        }
+    }
+
+    /**
+     * Учитывает очередной список валют. Пары, для которых в списке нет одной из валют, пропускаются
+     *
+     * @param epochDay   день курсов ({@link EpochDays}); список за уже учтённый или более ранний день пропускается
+     * @param currencies курсы валют по отношению к рублю
+     * @return {@code true}, если список учтён
+     */
+    public synchronized boolean onSnapshot(int epochDay, @NonNull List<Currency> currencies) {
+        if (epochDay <= mLastEpochDay) {
+            return false;
+        }
+        mLastEpochDay = epochDay;
+        Map<String, Double> unitValues = CrossRates.unitValues(currencies);
+        for (Map.Entry<String, PairStatistics> entry : mStatistics.entrySet()) {
+            String key = entry.getKey();
+            int separator = key.indexOf('/');
+            Double base = unitValues.get(key.substring(0, separator));
+            Double quoted = unitValues.get(key.substring(separator + 1));
+            if (base != null && quoted != null) {
+                entry.getValue().add(base / quoted);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Подписчик для {@link RatesPublisher}: день снимка - московская дата его загрузки
+     */
+    @NonNull
+    public RatesPublisher.Subscriber subscriber() {
+        return new RatesPublisher.Subscriber() {
+            @Override
+            public void onRates(@NonNull RatesSnapshot snapshot) {
+                onSnapshot(EpochDays.ofMoscowMillis(snapshot.getTimestamp()), snapshot.getCurrencies());
+            }
+        };
+    }
+
+    /**
+     * Статистика пары. Возвращается копия: накопитель пары меняется в {@link #onSnapshot(int, List)}
+     * под блокировкой движка, а читают статистику вне её
+     *
+     * @return {@code null}, если пара не отслеживается
+     */
+    @Nullable
+    public synchronized PairStatisticsSnapshot getStatistics(@NonNull String baseCharCode, @NonNull String quotedCharCode) {
+        PairStatistics statistics = mStatistics.get(key(baseCharCode, quotedCharCode));
+        return statistics == null ? null : statistics.snapshot();
+    }
+
+    @NonNull
+    private static String key(@NonNull String baseCharCode, @NonNull String quotedCharCode) {
+        return CrossRates.pairKey(baseCharCode, quotedCharCode);
+    }
+}
@@ -0,0 +1,163 @@
+package ru.sergeykozhukhov.currencyconverter.domain.stats;
+
+/**
+ * Скользящее окно фиксированного размера над последовательностью значений.
+ * Среднее и дисперсия считаются по Уэлфорду (с удалением вышедшего из окна значения),
+ * минимум и максимум - через монотонные очереди. Все операции - амортизированно O(1)
+ **/
+public class RollingWindow {
+
+    /**
+     * Размер окна
+     */
+    private final int mCapacity;
+
+    /**
+     * Кольцевой буфер значений окна (индекс - порядковый номер значения по модулю размера окна)
+     */
+    private final double[] mValues;
+
+    /**
+     * Монотонная (невозрастающая) очередь порядковых номеров значений для поиска максимума
+     */
+    private final long[] mMaxQueue;
+
+    /**
+     * Монотонная (неубывающая) очередь порядковых номеров значений для поиска минимума
+     */
+    private final long[] mMinQueue;
+
+    private int mMaxHead;
+    private int mMaxSize;
+    private int mMinHead;
+    private int mMinSize;
+
+    /**
+     * Порядковый номер следующего добавляемого значения
+     */
+    private long mNextSequence;
+
+    /**
+     * Количество значений в окне
+     */
+    private int mCount;
+
+    /**
+     * Текущее среднее
+     */
+    private double mMean;
+
+    /**
+     * Сумма квадратов отклонений от среднего (M2 по Уэлфорду)
+     */
+    private double mSquaredDeviations;
+
+    public RollingWindow(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Размер окна должен быть положительным: " + capacity);
+        }
+        mCapacity = capacity;
+        mValues = new double[capacity];
+        mMaxQueue = new long[capacity];
+        mMinQueue = new long[capacity];
+    }
+
+    /**
+     * Добавляет значение в окно, вытесняя самое старое, если окно заполнено
+     */
+    public void add(double value) {
+        long sequence = mNextSequence++;
+        if (mCount == mCapacity) {
+            remove(mValues[(int) (sequence % mCapacity)]);
+        }
+        mValues[(int) (sequence % mCapacity)] = value;
+        // добавление по Уэлфорду
+        mCount++;
+        double delta = value - mMean;
+        mMean += delta / mCount;
+        mSquaredDeviations += delta * (value - mMean);
+
+        long oldest = sequence - mCapacity;
+        // максимум: из хвоста уходят все значения не больше нового, из головы - вышедшие из окна
+        while (mMaxSize > 0 && valueAt(mMaxQueue[(mMaxHead + mMaxSize - 1) % mCapacity]) <= value) {
+            mMaxSize--;
+        }
+        if (mMaxSize > 0 && mMaxQueue[mMaxHead] <= oldest) {
+            mMaxHead = (mMaxHead + 1) % mCapacity;
+            mMaxSize--;
+        }
+        mMaxQueue[(mMaxHead + mMaxSize) % mCapacity] = sequence;
+        mMaxSize++;
+        // минимум: симметрично
+        while (mMinSize > 0 && valueAt(mMinQueue[(mMinHead + mMinSize - 1) % mCapacity]) >= value) {
+            mMinSize--;
+        }
+        if (mMinSize > 0 && mMinQueue[mMinHead] <= oldest) {
+            mMinHead = (mMinHead + 1) % mCapacity;
+            mMinSize--;
+        }
+        mMinQueue[(mMinHead + mMinSize) % mCapacity] = sequence;
+        mMinSize++;
+    }
+
+    /**
+     * Количество значений в окне
+     */
+    public int getCount() {
+        return mCount;
+    }
+
+    /**
+     * Среднее значений окна ({@link Double#NaN}, если окно пусто)
+     */
+    public double getMean() {
+        return mCount == 0 ? Double.NaN : mMean;
+    }
+
+    /**
+     * Выборочная дисперсия значений окна ({@link Double#NaN}, если значений меньше двух)
+     */
+    public double getVariance() {
+        return mCount < 2 ? Double.NaN : Math.max(mSquaredDeviations, 0) / (mCount - 1);
+    }
+
+    /**
+     * Выборочное стандартное отклонение значений окна
+     */
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * Минимальное значение окна ({@link Double#NaN}, если окно пусто)
+     */
+    public double getMin() {
+        return mMinSize == 0 ? Double.NaN : valueAt(mMinQueue[mMinHead]);
+    }
+
+    /**
+     * Максимальное значение окна ({@link Double#NaN}, если окно пусто)
+     */
+    public double getMax() {
+        return mMaxSize == 0 ? Double.NaN : valueAt(mMaxQueue[mMaxHead]);
+    }
+
+    /**
+     * Удаление значения по Уэлфорду
+     */
+    private void remove(double value) {
+        mCount--;
+        if (mCount == 0) {
+            mMean = 0;
+            mSquaredDeviations = 0;
+            return;
+        }
+        double delta = value - mMean;
+        mMean -= delta / mCount;
+        mSquaredDeviations -= delta * (value - mMean);
+    }
+
+    private double valueAt(long sequence) {
+        return mValues[(int) (sequence % mCapacity)];
+    }
+}
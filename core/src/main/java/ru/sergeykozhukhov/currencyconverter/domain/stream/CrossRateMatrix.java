@@ -0,0 +1,189 @@
+package ru.sergeykozhukhov.currencyconverter.domain.stream;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import ru.sergeykozhukhov.currencyconverter.domain.CrossRates;
+import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
+import ru.sergeykozhukhov.currencyconverter.domain.model.RatesTable;
+
+/**
+ * Матрица кросс-курсов всех пар валют в double, обновляемая по одной валюте.
+ * Тик валюты k пересчитывает только строку k и столбец k (O(N)), остальные ячейки не меняются.
+ * <p>
+ * Ячейки хранятся в {@link AtomicLongArray} в виде битов double, поэтому чтение курса пары -
+ * одно volatile чтение без блокировок и повторов (wait-free). Читатель всегда видит курс,
+ * посчитанный по значениям одного из тиков, но разные пары могут относиться к разным тикам.
+ * Тики применяет один поток (поток ленты), читать можно из любого
+ **/
+public final class CrossRateMatrix {
+
+    /**
+     * Коды валют по индексам
+     */
+    private final String[] mCharCodes;
+
+    /**
+     * Коды валют, упакованные в int ({@link RatesTable#packCharCode(String)}), для поиска без создания строк
+     */
+    private final int[] mPackedCharCodes;
+
+    private final int mSize;
+
+    /**
+     * Индекс рубля: курсы заданы в рублях, стоимость его единицы всегда 1
+     */
+    private final int mRubIndex;
+
+    /**
+     * Стоимость единицы валюты в рублях
+     */
+    private final AtomicLongArray mUnitValues;
+
+    /**
+     * Курсы пар: ячейка base * size + quoted - сколько котируемой валюты стоит единица базовой
+     */
+    private final AtomicLongArray mRates;
+
+    /**
+     * Количество применённых тиков (пишет только поток ленты)
+     */
+    private volatile long mTicks;
+
+    /**
+     * @param currencies начальные курсы; рубль добавляется, если его нет в списке
+     */
+    public CrossRateMatrix(@NonNull List<Currency> currencies) {
+        List<String> charCodes = new ArrayList<>(currencies.size() + 1);
+        List<Double> unitValues = new ArrayList<>(currencies.size() + 1);
+        for (Currency currency : currencies) {
+            charCodes.add(currency.getCharCode());
+            unitValues.add(CrossRates.unitValue(currency));
+        }
+        if (!charCodes.contains(CrossRates.RUB_CHAR_CODE)) {
+            charCodes.add(CrossRates.RUB_CHAR_CODE);
+            unitValues.add(1d);
+        }
+        mSize = charCodes.size();
+        mRubIndex = charCodes.indexOf(CrossRates.RUB_CHAR_CODE);
+        mCharCodes = charCodes.toArray(new String[0]);
+        mPackedCharCodes = new int[mSize];
+        mUnitValues = new AtomicLongArray(mSize);
+        mRates = new AtomicLongArray(mSize * mSize);
+        for (int i = 0; i < mSize; i++) {
+            mPackedCharCodes[i] = RatesTable.packCharCode(mCharCodes[i]);
+            mUnitValues.set(i, Double.doubleToRawLongBits(unitValues.get(i)));
+        }
+        for (int base = 0; base < mSize; base++) {
+            for (int quoted = 0; quoted < mSize; quoted++) {
+                mRates.set(base * mSize + quoted, Double.doubleToRawLongBits(unitValues.get(base) / unitValues.get(quoted)));
+            }
+        }
+    }
+
+    /**
+     * Количество валют (с рублём)
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Индекс рубля (тики для него не применяются)
+     */
+    public int getRubIndex() {
+        return mRubIndex;
+    }
+
+    @NonNull
+    public String getCharCode(int index) {
+        return mCharCodes[index];
+    }
+
+    /**
+     * Индекс валюты по коду
+     *
+     * @return {@code -1}, если валюты нет
+     */
+    public int indexOf(@NonNull String charCode) {
+        for (int i = 0; i < mSize; i++) {
+            if (mCharCodes[i].equals(charCode)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Индекс валюты по упакованному коду ({@link RatesTable#packCharCode(String)})
+     *
+     * @return {@code -1}, если валюты нет
+     */
+    public int indexOfPacked(int packedCharCode) {
+        for (int i = 0; i < mSize; i++) {
+            if (mPackedCharCodes[i] == packedCharCode) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Курс пары: сколько котируемой валюты стоит единица базовой
+     */
+    public double getRate(int base, int quoted) {
+        return Double.longBitsToDouble(mRates.get(base * mSize + quoted));
+    }
+
+    /**
+     * Курс пары по кодам валют
+     *
+     * @return {@link Double#NaN}, если какой-то из валют нет
+     */
+    public double getRate(@NonNull String baseCharCode, @NonNull String quotedCharCode) {
+        int base = indexOf(baseCharCode);
+        int quoted = indexOf(quotedCharCode);
+        return base < 0 || quoted < 0 ? Double.NaN : getRate(base, quoted);
+    }
+
+    /**
+     * Стоимость единицы валюты в рублях
+     */
+    public double getUnitValue(int index) {
+        return Double.longBitsToDouble(mUnitValues.get(index));
+    }
+
+    /**
+     * Количество применённых тиков
+     */
+    public long getTicks() {
+        return mTicks;
+    }
+
+    /**
+     * Применяет тик: новую стоимость единицы валюты в рублях.
+     * Вызывается только из одного потока
+     *
+     * @return {@code false}, если тик для рубля или значение не положительное или не конечное (тик отброшен)
+     */
+    public boolean apply(int index, double unitValue) {
+        if (index == mRubIndex || !(unitValue > 0) || Double.isInfinite(unitValue)) {
+            return false;
+        }
+        mUnitValues.lazySet(index, Double.doubleToRawLongBits(unitValue));
+        int row = index * mSize;
+        for (int other = 0; other < mSize; other++) {
+            if (other == index) {
+                continue;
+            }
+            double otherValue = Double.longBitsToDouble(mUnitValues.get(other));
+            mRates.lazySet(row + other, Double.doubleToRawLongBits(unitValue / otherValue));
+            mRates.lazySet(other * mSize + index, Double.doubleToRawLongBits(otherValue / unitValue));
+        }
+        mTicks = mTicks + 1;
+        return true;
+    }
+}
@@ -0,0 +1,187 @@
+package ru.sergeykozhukhov.currencyconverter.domain.stream;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Чтение ленты тиков курсов и их применение к {@link CrossRateMatrix} по мере поступления.
+ * <p>
+ * Лента - ASCII строки вида "USD,61.9057" или "AMD,12.9624,100": код валюты, курс ЦБ в рублях
+ * и необязательный номинал (по умолчанию 1). Строки разбираются прямо из буфера чтения
+ * без создания строк и других объектов на тик; некорректные строки пропускаются и считаются
+ **/
+public class TickStream {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Максимальное количество цифр курса (значение точно представимо в double)
+     */
+    private static final int MAX_DIGITS = 15;
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+
+    private final CrossRateMatrix mMatrix;
+
+    /**
+     * Количество применённых тиков (обновляется после каждого прочитанного блока)
+     */
+    private volatile long mApplied;
+
+    /**
+     * Количество отброшенных строк (обновляется после каждого прочитанного блока)
+     */
+    private volatile long mRejected;
+
+    public TickStream(@NonNull CrossRateMatrix matrix) {
+        mMatrix = matrix;
+    }
+
+    @NonNull
+    public CrossRateMatrix getMatrix() {
+        return mMatrix;
+    }
+
+    public long getApplied() {
+        return mApplied;
+    }
+
+    public long getRejected() {
+        return mRejected;
+    }
+
+    /**
+     * Читает ленту до конца потока, применяя каждый тик сразу после получения.
+     * Блокирует вызывающий поток; чтобы остановить чтение, закройте поток (или сокет)
+     *
+     * @param input лента (не закрывается)
+     * @throws IOException если поток не читается
+     */
+    public void consume(@NonNull InputStream input) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int length = 0;
+        boolean skipping = false; // строка длиннее буфера: пропускаем до конца строки
+        int read;
+        while ((read = input.read(buffer, length, buffer.length - length)) != -1) {
+            length += read;
+            long applied = 0;
+            long rejected = 0;
+            int lineStart = 0;
+            for (int i = length - read; i < length; i++) {
+                if (buffer[i] != '\n') {
+                    continue;
+                }
+                if (skipping) {
+                    skipping = false;
+                } else if (applyLine(buffer, lineStart, i)) {
+                    applied++;
+                } else if (i > lineStart) {
+                    rejected++;
+                }
+                lineStart = i + 1;
+            }
+            if (lineStart == 0 && length == buffer.length) {
+                if (!skipping) {
+                    rejected++;
+                }
+                skipping = true;
+                length = 0;
+            } else {
+                length -= lineStart;
+                System.arraycopy(buffer, lineStart, buffer, 0, length);
+            }
+            publishCounters(applied, rejected);
+        }
+        if (length > 0 && !skipping) {
+            // последняя строка без перевода строки
+            if (applyLine(buffer, 0, length)) {
+                publishCounters(1, 0);
+            } else {
+                publishCounters(0, 1);
+            }
+        }
+    }
+
+    /**
+     * Разбирает и применяет одну строку
+     *
+     * @param end конец строки (позиция '\n' или конец данных)
+     * @return {@code true}, если тик применён
+     */
+    private boolean applyLine(@NonNull byte[] bytes, int start, int end) {
+        if (end > start && bytes[end - 1] == '\r') {
+            end--;
+        }
+        int comma = start;
+        int packed = 0;
+        while (comma < end && bytes[comma] != ',') {
+            int b = bytes[comma] & 0xFF;
+            if (b > 0x7F || comma - start >= 3) {
+                return false;
+            }
+            packed = (packed << 8) | b;
+            comma++;
+        }
+        if (comma - start != 3 || comma == end) {
+            return false;
+        }
+        int index = mMatrix.indexOfPacked(packed);
+        if (index < 0 || index == mMatrix.getRubIndex()) {
+            // курсы заданы в рублях, тик рубля изменил бы все курсы сразу
+            return false;
+        }
+        long unscaled = 0;
+        int digits = 0;
+        int scale = -1;
+        int i = comma + 1;
+        for (; i < end && bytes[i] != ','; i++) {
+            byte b = bytes[i];
+            if (b >= '0' && b <= '9') {
+                if (++digits > MAX_DIGITS) {
+                    return false;
+                }
+                unscaled = unscaled * 10 + (b - '0');
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if (b == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                return false;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        long nominal = 1;
+        if (i < end) {
+            nominal = 0;
+            int nominalDigits = 0;
+            for (i++; i < end; i++) {
+                byte b = bytes[i];
+                if (b < '0' || b > '9' || ++nominalDigits > MAX_DIGITS) {
+                    return false;
+                }
+                nominal = nominal * 10 + (b - '0');
+            }
+            if (nominal == 0) {
+                return false;
+            }
+        }
+        double value = unscaled / POWERS_OF_TEN[Math.max(scale, 0)];
+        return mMatrix.apply(index, value / nominal);
+    }
+
+    private void publishCounters(long applied, long rejected) {
+        if (applied != 0) {
+            mApplied = mApplied + applied;
+        }
+        if (rejected != 0) {
+            mRejected = mRejected + rejected;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package ru.sergeykozhukhov.currencyconverter.domain.trace;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Запись интервалов в формате Chrome Trace Event (JSON), который открывают
+ * chrome://tracing и ui.perfetto.dev: каждый интервал - полное событие ("ph":"X"),
+ * для каждого потока добавляется его имя ("thread_name")
+ **/
+public class ChromeTraceWriter {
+
+    /**
+     * Идентификатор процесса в трассе (трасса всегда из одного процесса)
+     */
+    private static final int PID = 1;
+
+    /**
+     * Записывает трассу
+     *
+     * @param events      интервалы
+     * @param originNanos момент, от которого отсчитываются метки времени ({@link System#nanoTime()})
+     * @param writer      куда писать (не закрывается)
+     */
+    public void write(@NonNull List<TraceEvent> events, long originNanos, @NonNull Writer writer) throws IOException {
+        writer.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[");
+        Map<Long, String> threads = new LinkedHashMap<>();
+        boolean first = true;
+        for (TraceEvent event : events) {
+            threads.put(event.getThreadId(), event.getThreadName());
+            if (!first) {
+                writer.write(',');
+            }
+            first = false;
+            writer.write("{\"name\":");
+            writeString(event.getName(), writer);
+            writer.write(",\"cat\":\"app\",\"ph\":\"X\",\"ts\":");
+            writeMicros(event.getStartNanos() - originNanos, writer);
+            writer.write(",\"dur\":");
+            writeMicros(event.getDurationNanos(), writer);
+            writer.write(",\"pid\":" + PID + ",\"tid\":" + event.getThreadId() + '}');
+        }
+        for (Map.Entry<Long, String> thread : threads.entrySet()) {
+            if (!first) {
+                writer.write(',');
+            }
+            first = false;
+            writer.write("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":" + PID + ",\"tid\":" + thread.getKey()
+                    + ",\"args\":{\"name\":");
+            writeString(thread.getValue(), writer);
+            writer.write("}}");
+        }
+        writer.write("]}");
+    }
+
+    /**
+     * Наносекунды как микросекунды с тремя знаками после точки
+     */
+    private static void writeMicros(long nanos, @NonNull Writer writer) throws IOException {
+        if (nanos < 0) {
+            writer.write('-');
+            nanos = -nanos;
+        }
+        long fraction = nanos % 1000;
+        writer.write(Long.toString(nanos / 1000));
+        writer.write('.');
+        if (fraction < 100) {
+            writer.write('0');
+        }
+        if (fraction < 10) {
+            writer.write('0');
+        }
+        writer.write(Long.toString(fraction));
+    }
+
+    private static void writeString(@NonNull String value, @NonNull Writer writer) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                writer.write('\\');
+                writer.write(c);
+            } else if (c < 0x20) {
+                writer.write(String.format("\\u%04x", (int) c));
+            } else {
+                writer.write(c);
+            }
+        }
+        writer.write('"');
+    }
+}
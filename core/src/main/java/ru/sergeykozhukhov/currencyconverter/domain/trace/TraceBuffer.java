@@ -0,0 +1,127 @@
+package ru.sergeykozhukhov.currencyconverter.domain.trace;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Кольцевой буфер интервалов трассировки без блокировок: писатель занимает ячейку
+ * одним getAndIncrement, при переполнении перезаписываются самые старые интервалы.
+ * <p>
+ * Ячейка публикуется номером записи в mSequences: перед записью полей номер обнуляется,
+ * после - выставляется номер записи + 1. Читатель берёт ячейку, только если номер
+ * до и после чтения полей один и тот же, поэтому запись, которую перезаписывают во время
+ * экспорта, пропускается, а не собирается из полей разных интервалов
+ **/
+public final class TraceBuffer {
+
+    private final int mMask;
+
+    /**
+     * Номер следующей записи
+     */
+    private final AtomicLong mCursor = new AtomicLong();
+
+    /**
+     * Номер записи + 1 для опубликованной ячейки, 0 - ячейка пуста или пишется
+     */
+    private final AtomicLongArray mSequences;
+
+    private final AtomicReferenceArray<String> mNames;
+
+    private final AtomicLongArray mThreadIds;
+
+    private final AtomicReferenceArray<String> mThreadNames;
+
+    private final AtomicLongArray mStarts;
+
+    private final AtomicLongArray mDurations;
+
+    /**
+     * @param capacity количество хранимых интервалов (округляется вверх до степени двойки)
+     */
+    public TraceBuffer(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Некорректный размер буфера трассировки: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        mMask = size - 1;
+        mSequences = new AtomicLongArray(size);
+        mNames = new AtomicReferenceArray<>(size);
+        mThreadIds = new AtomicLongArray(size);
+        mThreadNames = new AtomicReferenceArray<>(size);
+        mStarts = new AtomicLongArray(size);
+        mDurations = new AtomicLongArray(size);
+    }
+
+    /**
+     * Записывает интервал текущего потока (без выделения памяти)
+     *
+     * @param name       название интервала (ожидается константа)
+     * @param startNanos начало ({@link System#nanoTime()})
+     * @param endNanos   конец ({@link System#nanoTime()})
+     */
+    public void record(@NonNull String name, long startNanos, long endNanos) {
+        Thread thread = Thread.currentThread();
+        long index = mCursor.getAndIncrement();
+        int slot = (int) (index & mMask);
+        mSequences.set(slot, 0);
+        mNames.set(slot, name);
+        mThreadIds.set(slot, thread.getId());
+        mThreadNames.set(slot, thread.getName());
+        mStarts.set(slot, startNanos);
+        mDurations.set(slot, endNanos - startNanos);
+        mSequences.set(slot, index + 1);
+    }
+
+    public int getCapacity() {
+        return mMask + 1;
+    }
+
+    /**
+     * Сколько интервалов записано за всё время (включая перезаписанные)
+     */
+    public long getRecorded() {
+        return mCursor.get();
+    }
+
+    /**
+     * Сколько интервалов перезаписано более новыми
+     */
+    public long getOverwritten() {
+        return Math.max(0, mCursor.get() - getCapacity());
+    }
+
+    /**
+     * Копия хранимых интервалов в порядке записи. Ячейки, которые пишутся во время чтения, пропускаются
+     */
+    @NonNull
+    public List<TraceEvent> snapshot() {
+        long end = mCursor.get();
+        long start = Math.max(0, end - getCapacity());
+        List<TraceEvent> events = new ArrayList<>((int) (end - start));
+        for (long index = start; index < end; index++) {
+            int slot = (int) (index & mMask);
+            long sequence = mSequences.get(slot);
+            if (sequence != index + 1) {
+                continue;
+            }
+            String name = mNames.get(slot);
+            long threadId = mThreadIds.get(slot);
+            String threadName = mThreadNames.get(slot);
+            long startNanos = mStarts.get(slot);
+            long durationNanos = mDurations.get(slot);
+            if (mSequences.get(slot) == sequence) {
+                events.add(new TraceEvent(name, threadId, threadName, startNanos, durationNanos));
+            }
+        }
+        return events;
+    }
+}
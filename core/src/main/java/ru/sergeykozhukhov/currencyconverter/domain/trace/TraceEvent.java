@@ -0,0 +1,53 @@
+package ru.sergeykozhukhov.currencyconverter.domain.trace;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Завершённый интервал (span) трассировки
+ **/
+public class TraceEvent {
+
+    private final String mName;
+
+    private final long mThreadId;
+
+    private final String mThreadName;
+
+    /**
+     * Начало интервала ({@link System#nanoTime()})
+     */
+    private final long mStartNanos;
+
+    private final long mDurationNanos;
+
+    public TraceEvent(@NonNull String name, long threadId, @NonNull String threadName,
+                      long startNanos, long durationNanos) {
+        mName = name;
+        mThreadId = threadId;
+        mThreadName = threadName;
+        mStartNanos = startNanos;
+        mDurationNanos = durationNanos;
+    }
+
+    @NonNull
+    public String getName() {
+        return mName;
+    }
+
+    public long getThreadId() {
+        return mThreadId;
+    }
+
+    @NonNull
+    public String getThreadName() {
+        return mThreadName;
+    }
+
+    public long getStartNanos() {
+        return mStartNanos;
+    }
+
+    public long getDurationNanos() {
+        return mDurationNanos;
+    }
+}
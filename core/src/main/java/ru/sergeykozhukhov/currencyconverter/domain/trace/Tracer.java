@@ -0,0 +1,106 @@
+package ru.sergeykozhukhov.currencyconverter.domain.trace;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collections;
+
+/**
+ * Трассировка интервалов загрузки и конвертации для разбора отдельных медленных запусков.
+ * Интервал оборачивается так:
+ * <pre>
+ * long span = Tracer.begin();
+ * try {
+ *     ...
+ * } finally {
+ *     Tracer.end("Имя интервала", span);
+ * }
+ * </pre>
+ * Пока трассировка выключена, begin и end - одно volatile чтение без вызова часов и выделения памяти,
+ * поэтому вызовы остаются и в релизной сборке. Включённая трассировка пишет интервалы
+ * в кольцевой буфер {@link TraceBuffer}, который выгружается в формате Chrome/Perfetto
+ **/
+public final class Tracer {
+
+    /**
+     * Размер буфера по умолчанию
+     */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    /**
+     * Текущий буфер, {@code null} - трассировка выключена
+     */
+    private static volatile TraceBuffer sBuffer;
+
+    /**
+     * Момент включения трассировки, от него отсчитывается время в выгрузке
+     */
+    private static volatile long sOriginNanos;
+
+    private Tracer() {
+    }
+
+    /**
+     * Включает трассировку с новым пустым буфером
+     *
+     * @param capacity количество хранимых интервалов
+     */
+    public static void start(int capacity) {
+        TraceBuffer buffer = new TraceBuffer(capacity);
+        sOriginNanos = System.nanoTime();
+        sBuffer = buffer;
+    }
+
+    /**
+     * Выключает трассировку
+     *
+     * @return буфер с записанными интервалами, {@code null}, если трассировка не была включена
+     */
+    @Nullable
+    public static TraceBuffer stop() {
+        TraceBuffer buffer = sBuffer;
+        sBuffer = null;
+        return buffer;
+    }
+
+    public static boolean isEnabled() {
+        return sBuffer != null;
+    }
+
+    /**
+     * Начало интервала
+     *
+     * @return метка начала для {@link #end(String, long)}, 0 - трассировка выключена
+     */
+    public static long begin() {
+        return sBuffer == null ? 0 : System.nanoTime();
+    }
+
+    /**
+     * Конец интервала. Интервалы, начатые до включения трассировки, не записываются
+     *
+     * @param name  название интервала (константа, чтобы не выделять память)
+     * @param begin метка из {@link #begin()}
+     */
+    public static void end(@NonNull String name, long begin) {
+        TraceBuffer buffer = sBuffer;
+        if (buffer != null && begin != 0) {
+            buffer.record(name, begin, System.nanoTime());
+        }
+    }
+
+    /**
+     * Выгружает текущий буфер в формате Chrome Trace Event (пустая трасса, если трассировка выключена)
+     *
+     * @param writer куда писать (не закрывается)
+     */
+    public static void writeChromeTrace(@NonNull Writer writer) throws IOException {
+        TraceBuffer buffer = sBuffer;
+        new ChromeTraceWriter().write(
+                buffer == null ? Collections.<TraceEvent>emptyList() : buffer.snapshot(),
+                sOriginNanos,
+                writer);
+    }
+}
@@ -0,0 +1,166 @@
+package ru.sergeykozhukhov.currencyconverter.data;
+
+import androidx.annotation.NonNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import ru.sergeykozhukhov.currencyconverter.data.model.CurrencyData;
+import ru.sergeykozhukhov.currencyconverter.domain.CrossRates;
+import ru.sergeykozhukhov.currencyconverter.domain.history.EpochDays;
+
+/**
+ * Сборка встроенного снимка курсов (задача generateSeedSnapshot модуля app).
+ * Разбирает сохранённый ответ XML_daily.asp тем же разбором, что и приложение, проверяет валюты
+ * на соответствие текущей схеме {@link CurrencyData} и записывает снимок в формате
+ * {@link SeedSnapshotFormat}. Любая ошибка завершает сборку: в APK не попадёт снимок,
+ * который приложение не сможет прочитать.
+ * <p>
+ * Запуск: SeedSnapshotTool &lt;XML_daily.xml&gt; &lt;снимок&gt;
+ **/
+public final class SeedSnapshotTool {
+
+    /**
+     * В ответе ЦБ несколько десятков валют; меньше - признак обрезанного или чужого документа
+     */
+    static final int MIN_CURRENCIES = 10;
+
+    private static final String DATE_ATTRIBUTE = "Date=\"";
+
+    private SeedSnapshotTool() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Использование: SeedSnapshotTool <XML_daily.xml> <снимок>");
+        }
+        File input = new File(args[0]);
+        File output = new File(args[1]);
+        SeedSnapshot snapshot = fromDailyXml(Files.readAllBytes(input.toPath()));
+        validate(snapshot);
+        byte[] bytes = SeedSnapshotFormat.write(snapshot);
+        // снимок читается так же, как его прочитает приложение
+        assertSame(snapshot, SeedSnapshotFormat.read(bytes));
+        File directory = output.getAbsoluteFile().getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Не удалось создать каталог " + directory);
+        }
+        Files.write(output.toPath(), bytes);
+        System.out.println("Seed snapshot " + EpochDays.toIsoDate(snapshot.getEpochDay()) + ": "
+                + snapshot.getCurrencies().size() + " currencies, " + bytes.length + " bytes -> " + output);
+    }
+
+    /**
+     * Снимок из ответа XML_daily.asp
+     *
+     * @throws IOException если документ не разбирается или в нём нет даты курсов
+     */
+    @NonNull
+    static SeedSnapshot fromDailyXml(@NonNull byte[] xml) throws IOException {
+        int epochDay = parseDate(xml);
+        if (epochDay < 0) {
+            throw new IOException("В документе нет даты курсов");
+        }
+        final List<CurrencyData> currencies = new ArrayList<>();
+        try {
+            new CurrencyStreamParser().parse(new ByteArrayInputStream(xml), new CurrencyStreamParser.Callback() {
+                @Override
+                public void onCurrency(@NonNull CurrencyData currency) {
+                    currencies.add(currency);
+                }
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Разбор прерван", e);
+        }
+        return new SeedSnapshot(epochDay, currencies);
+    }
+
+    /**
+     * Проверяет, что все поля валют заполнены допустимыми значениями
+     *
+     * @throws IOException с описанием первой найденной ошибки
+     */
+    static void validate(@NonNull SeedSnapshot snapshot) throws IOException {
+        List<CurrencyData> currencies = snapshot.getCurrencies();
+        if (currencies.size() < MIN_CURRENCIES) {
+            throw new IOException("Слишком мало валют в снимке: " + currencies.size());
+        }
+        Set<String> ids = new HashSet<>();
+        Set<String> charCodes = new HashSet<>();
+        for (CurrencyData currency : currencies) {
+            String charCode = currency.getCharCode();
+            if (charCode == null || !charCode.matches("[A-Z]{3}") || CrossRates.RUB_CHAR_CODE.equals(charCode)) {
+                throw new IOException("Некорректный код валюты: " + charCode);
+            }
+            if (currency.getId() == null || currency.getId().isEmpty() || !ids.add(currency.getId())) {
+                throw new IOException("Пустой или повторяющийся id валюты " + charCode);
+            }
+            if (!charCodes.add(charCode)) {
+                throw new IOException("Повторяющийся код валюты: " + charCode);
+            }
+            if (currency.getName() == null || currency.getName().trim().isEmpty()) {
+                throw new IOException("Нет названия валюты " + charCode);
+            }
+            if (currency.getNominal() <= 0) {
+                throw new IOException("Некорректный номинал валюты " + charCode + ": " + currency.getNominal());
+            }
+            if (currency.getValue() == null || currency.getValue().signum() <= 0) {
+                throw new IOException("Некорректный курс валюты " + charCode + ": " + currency.getValue());
+            }
+        }
+    }
+
+    /**
+     * Дата курсов из атрибута Date корневого элемента (ASCII в любой из кодировок ответа ЦБ)
+     *
+     * @return номер дня или {@code -1}
+     */
+    private static int parseDate(@NonNull byte[] xml) {
+        int limit = Math.min(xml.length, 512) - DATE_ATTRIBUTE.length() - 10;
+        for (int i = 0; i <= limit; i++) {
+            if (startsWith(xml, i, DATE_ATTRIBUTE)) {
+                return EpochDays.parseAscii(xml, i + DATE_ATTRIBUTE.length(), 10);
+            }
+        }
+        return -1;
+    }
+
+    private static boolean startsWith(@NonNull byte[] bytes, int offset, @NonNull String prefix) {
+        for (int i = 0; i < prefix.length(); i++) {
+            if (bytes[offset + i] != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void assertSame(@NonNull SeedSnapshot expected, @NonNull SeedSnapshot actual) throws IOException {
+        boolean same = expected.getEpochDay() == actual.getEpochDay()
+                && expected.getCurrencies().size() == actual.getCurrencies().size();
+        for (int i = 0; same && i < expected.getCurrencies().size(); i++) {
+            CurrencyData left = expected.getCurrencies().get(i);
+            CurrencyData right = actual.getCurrencies().get(i);
+            same = left.getId().equals(right.getId())
+                    && left.getNumCode() == right.getNumCode()
+                    && left.getCharCode().equals(right.getCharCode())
+                    && left.getNominal() == right.getNominal()
+                    && left.getName().equals(right.getName())
+                    && equalValues(left.getValue(), right.getValue());
+        }
+        if (!same) {
+            throw new IOException("Прочитанный снимок отличается от записанного");
+        }
+    }
+
+    private static boolean equalValues(@NonNull BigDecimal left, @NonNull BigDecimal right) {
+        return left.compareTo(right) == 0 && left.scale() == right.scale();
+    }
+}
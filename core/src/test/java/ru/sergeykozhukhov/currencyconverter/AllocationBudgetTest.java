@@ -0,0 +1,149 @@
+package ru.sergeykozhukhov.currencyconverter;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.simpleframework.xml.stream.InputNode;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import ru.sergeykozhukhov.currencyconverter.data.BigDecimalConverter;
+import ru.sergeykozhukhov.currencyconverter.data.CurrencyConverter;
+import ru.sergeykozhukhov.currencyconverter.data.model.CurrencyData;
+import ru.sergeykozhukhov.currencyconverter.domain.ConversionInteractor;
+import ru.sergeykozhukhov.currencyconverter.domain.IConversionFormatter;
+import ru.sergeykozhukhov.currencyconverter.domain.RatesSnapshotHolder;
+import ru.sergeykozhukhov.currencyconverter.domain.amount.AmountParser;
+import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
+import ru.sergeykozhukhov.currencyconverter.domain.model.RatesTable;
+
+/**
+ * Бюджеты выделения памяти на вызов для горячих операций конвертации и загрузки
+ * (см. {@link AllocationMeter} и allocation-budgets.properties)
+ **/
+public class AllocationBudgetTest {
+
+    /**
+     * Количество валют в ответе ЦБ
+     */
+    private static final int CURRENCIES = 34;
+
+    private ConversionInteractor mConversionInteractor;
+
+    private List<Currency> mCurrencies;
+
+    private List<CurrencyData> mCurrencyData;
+
+    private RatesTable mTable;
+
+    @Before
+    public void setUp() {
+        // форматтер без выделений, чтобы в бюджет входила только работа интерактора
+        mConversionInteractor = new ConversionInteractor(new ConstantFormatter(), AmountParser.forLocale(Locale.US));
+        mCurrencyData = new ArrayList<>(CURRENCIES);
+        for (int i = 0; i < CURRENCIES; i++) {
+            mCurrencyData.add(new CurrencyData("R0" + (1000 + i), 100 + i, "C" + (char) ('A' + i / 26) + (char) ('A' + i % 26),
+                    i % 3 == 0 ? 100 : 1, "Валюта " + i, BigDecimal.valueOf(100000 + i * 7919L, 4)));
+        }
+        mCurrencies = new ArrayList<>(new CurrencyConverter().convert(mCurrencyData));
+        mTable = new CurrencyConverter().convertToTable(mCurrencyData);
+    }
+
+    @Test
+    public void testConvert_withinBudget() throws Exception {
+        AllocationMeter.assertWithinBudget("ConversionInteractor.convert", new AllocationMeter.Operation() {
+            @Override
+            public void run() {
+                mConversionInteractor.convert(mCurrencies, 3, 7, "1234.56");
+            }
+        });
+    }
+
+    @Test
+    public void testFormatConversionRate_withinBudget() throws Exception {
+        AllocationMeter.assertWithinBudget("ConversionInteractor.formatConversionRate", new AllocationMeter.Operation() {
+            @Override
+            public void run() {
+                mConversionInteractor.formatConversionRate(mCurrencies, 3, 7);
+            }
+        });
+    }
+
+    @Test
+    public void testBigDecimalConverterRead_withinBudget() throws Exception {
+        final BigDecimalConverter converter = new BigDecimalConverter();
+        final InputNode node = valueNode("43,3835");
+        AllocationMeter.assertWithinBudget("BigDecimalConverter.read", new AllocationMeter.Operation() {
+            @Override
+            public void run() throws Exception {
+                converter.read(node);
+            }
+        });
+    }
+
+    @Test
+    public void testConvertToTable_withinBudget() throws Exception {
+        final CurrencyConverter converter = new CurrencyConverter();
+        AllocationMeter.assertWithinBudget("CurrencyConverter.convertToTable", new AllocationMeter.Operation() {
+            @Override
+            public void run() {
+                converter.convertToTable(mCurrencyData);
+            }
+        });
+    }
+
+    @Test
+    public void testPublishSnapshot_withinBudget() throws Exception {
+        final RatesSnapshotHolder holder = new RatesSnapshotHolder();
+        AllocationMeter.assertWithinBudget("RatesSnapshotHolder.publish", new AllocationMeter.Operation() {
+            @Override
+            public void run() {
+                // загруженные курсы публикуются таблицей, без копирования в список
+                holder.publish(mTable);
+            }
+        });
+    }
+
+    /**
+     * Узел xml со значением. Прокси вместо mock: вызов метода без аргументов через прокси ничего не выделяет,
+     * а Mockito записывает каждый вызов и исказил бы замер
+     */
+    @NonNull
+    private static InputNode valueNode(@NonNull final String value) {
+        return (InputNode) Proxy.newProxyInstance(InputNode.class.getClassLoader(), new Class<?>[]{InputNode.class},
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if ("getValue".equals(method.getName())) {
+                            return value;
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    /**
+     * Форматтер, возвращающий готовые строки
+     */
+    private static class ConstantFormatter implements IConversionFormatter {
+
+        @NonNull
+        @Override
+        public String formatConversionRate(@NonNull String rate, @NonNull String baseCharCode, @NonNull String quotedCharCode) {
+            return rate;
+        }
+
+        @NonNull
+        @Override
+        public String formatConversionResult(@NonNull String amount, @NonNull String charCode) {
+            return amount;
+        }
+    }
+}
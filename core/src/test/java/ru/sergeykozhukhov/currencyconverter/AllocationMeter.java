@@ -0,0 +1,147 @@
+package ru.sergeykozhukhov.currencyconverter;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.Properties;
+
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Замер памяти, выделяемой за один вызов горячих операций, и сравнение с бюджетами
+ * из allocation-budgets.properties. Считаются байты, выделенные текущим потоком
+ * ({@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}), поэтому
+ * замеряемая операция должна выполняться в потоке теста.
+ * <p>
+ * Замеры идут без escape analysis (jvmArgs в core/build.gradle)
+ **/
+public final class AllocationMeter {
+
+    private static final String BUDGETS_RESOURCE = "/allocation-budgets.properties";
+
+    /**
+     * Вызовы для прогрева JIT перед замером
+     */
+    private static final int WARMUP_CALLS = 20000;
+
+    private static final int MEASURED_CALLS = 10000;
+
+    /**
+     * Замер повторяется, берётся минимальный результат (фоновые выделения потока теста случайны)
+     */
+    private static final int ROUNDS = 3;
+
+    private static Properties sBudgets;
+
+    private AllocationMeter() {
+    }
+
+    /**
+     * Замеряемая операция
+     */
+    public interface Operation {
+
+        void run() throws Exception;
+    }
+
+    /**
+     * Проверяет, что операция выделяет не больше бюджета на вызов.
+     * Тест пропускается на JVM без подсчёта выделений по потокам
+     *
+     * @param name      ключ бюджета в allocation-budgets.properties
+     * @param operation один вызов операции
+     */
+    public static void assertWithinBudget(@NonNull String name, @NonNull Operation operation) throws Exception {
+        assertWithinBudget(name, 1, operation);
+    }
+
+    /**
+     * Проверяет, что операция над несколькими элементами (например, строками файла)
+     * выделяет не больше бюджета на элемент
+     *
+     * @param name         ключ бюджета в allocation-budgets.properties
+     * @param itemsPerCall сколько элементов обрабатывает один вызов операции
+     * @param operation    один вызов операции
+     */
+    public static void assertWithinBudget(@NonNull String name, int itemsPerCall, @NonNull Operation operation)
+            throws Exception {
+        com.sun.management.ThreadMXBean threads = threadMXBean();
+        assumeTrue(threads != null);
+        long budget = getBudget(name);
+        long measured = bytesPerCall(threads, operation) / itemsPerCall;
+        if (Boolean.getBoolean("benchmark")) {
+            // замеры для обновления комментариев в allocation-budgets.properties
+            System.out.println(String.format(Locale.US, "%s: %d bytes (budget %d)", name, measured, budget));
+        }
+        if (measured > budget) {
+            fail(String.format(Locale.US, "%s выделяет %d байт при бюджете %d. "
+                    + "Если рост оправдан, обновите allocation-budgets.properties", name, measured, budget));
+        }
+    }
+
+    /**
+     * Байт на вызов после прогрева (за вычетом расхода самого замера)
+     */
+    private static long bytesPerCall(@NonNull com.sun.management.ThreadMXBean threads,
+                                     @NonNull Operation operation) throws Exception {
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            operation.run();
+        }
+        long overhead = threads.getThreadAllocatedBytes(threadId);
+        overhead = threads.getThreadAllocatedBytes(threadId) - overhead;
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long before = threads.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < MEASURED_CALLS; i++) {
+                operation.run();
+            }
+            long allocated = threads.getThreadAllocatedBytes(threadId) - before - overhead;
+            best = Math.min(best, Math.max(0, allocated) / MEASURED_CALLS);
+        }
+        return best;
+    }
+
+    private static long getBudget(@NonNull String name) throws IOException {
+        String value = loadBudgets().getProperty(name);
+        if (value == null) {
+            fail("Нет бюджета для " + name + " в allocation-budgets.properties");
+        }
+        return Long.parseLong(value.trim());
+    }
+
+    @NonNull
+    private static synchronized Properties loadBudgets() throws IOException {
+        if (sBudgets == null) {
+            InputStream input = AllocationMeter.class.getResourceAsStream(BUDGETS_RESOURCE);
+            if (input == null) {
+                throw new IOException("Не найден ресурс " + BUDGETS_RESOURCE);
+            }
+            try {
+                Properties budgets = new Properties();
+                budgets.load(input);
+                sBudgets = budgets;
+            } finally {
+                input.close();
+            }
+        }
+        return sBudgets;
+    }
+
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean sunThreads = (com.sun.management.ThreadMXBean) threads;
+        if (!sunThreads.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        sunThreads.setThreadAllocatedMemoryEnabled(true);
+        return sunThreads;
+    }
+}
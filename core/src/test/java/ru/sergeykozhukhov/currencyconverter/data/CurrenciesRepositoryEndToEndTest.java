@@ -0,0 +1,272 @@
+package ru.sergeykozhukhov.currencyconverter.data;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
+import ru.sergeykozhukhov.currencyconverter.standin.CbrStandInServer;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * Сквозные тесты загрузки через настоящие Retrofit, OkHttp и разбор ответа
+ * на локальном стенде {@link CbrStandInServer} (без сети, воспроизводимо)
+ **/
+public class CurrenciesRepositoryEndToEndTest {
+
+    /**
+     * Количество валют в записанном ответе XML_daily
+     */
+    private static final int RECORDED_CURRENCIES = 34;
+
+    private CbrStandInServer mStandIn;
+
+    private CurrenciesRepository mCurrenciesRepository;
+
+    @Before
+    public void setUp() throws IOException {
+        mStandIn = new CbrStandInServer();
+        mCurrenciesRepository = new CurrenciesRepository(new CurrencyConverter(), mStandIn.getBaseUrl());
+    }
+
+    @After
+    public void tearDown() {
+        mStandIn.close();
+    }
+
+    /**
+     * Проверка загрузки записанного ответа
+     */
+    @Test
+    public void testLoadCurrencies_recordedResponse() throws IOException {
+        // act
+        List<Currency> currencies = mCurrenciesRepository.loadCurrencies();
+
+        // assert
+        assertThat(currencies.size(), is(RECORDED_CURRENCIES));
+        Currency usd = find(currencies, "USD");
+        assertThat(usd.getId(), is("R01235"));
+        assertThat(usd.getName(), is("Доллар США"));
+        assertThat(usd.getValue(), is(new BigDecimal("61.9057")));
+        assertThat(mStandIn.getRequestCount(CbrStandInServer.DAILY_PATH), is(1));
+    }
+
+    /**
+     * Проверка, что задержка ответа сервера входит во время загрузки, но не ломает её
+     */
+    @Test
+    public void testLoadCurrencies_latency() throws IOException {
+        // arrange
+        mStandIn.setLatencyMillis(300);
+
+        // act
+        long start = System.nanoTime();
+        List<Currency> currencies = mCurrenciesRepository.loadCurrencies();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // assert
+        assertThat(currencies.size(), is(RECORDED_CURRENCIES));
+        assertThat(elapsedMillis, greaterThanOrEqualTo(300L));
+    }
+
+    /**
+     * Проверка загрузки на медленном канале: тело приходит порциями около полсекунды
+     */
+    @Test
+    public void testLoadCurrencies_throttled() throws IOException {
+        // arrange
+        mStandIn.setBytesPerSecond(10 * 1024);
+
+        // act
+        long start = System.nanoTime();
+        List<Currency> currencies = mCurrenciesRepository.loadCurrencies();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // assert
+        assertThat(currencies.size(), is(RECORDED_CURRENCIES));
+        assertThat(elapsedMillis, greaterThanOrEqualTo(400L));
+    }
+
+    /**
+     * Проверка, что оборванное посреди тела соединение даёт ошибку, а не усечённый список
+     */
+    @Test(expected = IOException.class)
+    public void testLoadCurrencies_truncatedBody() throws IOException {
+        mStandIn.setTruncateAfter(2000);
+
+        mCurrenciesRepository.loadCurrencies();
+    }
+
+    /**
+     * Проверка серии ответов 5xx: ошибки на время серии, затем загрузка восстанавливается
+     */
+    @Test
+    public void testLoadCurrencies_serverErrorBurst() throws IOException {
+        // arrange
+        mStandIn.failNext(2, 503);
+
+        // act
+        int failures = 0;
+        for (int i = 0; i < 2; i++) {
+            try {
+                mCurrenciesRepository.loadCurrencies();
+            } catch (IOException e) {
+                failures++;
+            }
+        }
+        List<Currency> currencies = mCurrenciesRepository.loadCurrencies();
+
+        // assert
+        assertThat(failures, is(2));
+        assertThat(currencies.size(), is(RECORDED_CURRENCIES));
+        assertThat(mStandIn.getRequestCount(CbrStandInServer.DAILY_PATH), is(3));
+    }
+
+    /**
+     * Проверка загрузки со справочником: справочник запрашивается один раз, курсы - при каждой загрузке
+     */
+    @Test
+    public void testCatalogRepository_recordedResponses() throws IOException {
+        // arrange
+        CatalogCurrenciesRepository repository =
+                new CatalogCurrenciesRepository(new CurrencyConverter(), mStandIn.getBaseUrl());
+
+        // act
+        List<Currency> first = repository.loadCurrencies();
+        List<Currency> second = repository.loadCurrencies();
+
+        // assert
+        assertThat(first.size(), is(RECORDED_CURRENCIES));
+        assertThat(find(second, "USD").getValue(), is(new BigDecimal("61.9057")));
+        assertThat(mStandIn.getRequestCount(CbrStandInServer.VAL_FULL_PATH), is(1));
+        assertThat(mStandIn.getRequestCount(CbrStandInServer.DAILY_PATH), is(2));
+    }
+
+    /**
+     * Проверка условных запросов стенда: повторный запрос с ETag получает 304 без тела
+     */
+    @Test
+    public void testStandIn_notModified() throws IOException {
+        // arrange
+        mStandIn.setETagEnabled(true);
+        URL url = new URL(mStandIn.getBaseUrl() + CbrStandInServer.DYNAMIC_PATH.substring(1));
+
+        // act
+        HttpURLConnection first = (HttpURLConnection) url.openConnection();
+        int firstCode = first.getResponseCode();
+        String eTag = first.getHeaderField("ETag");
+        first.getInputStream().close();
+        HttpURLConnection second = (HttpURLConnection) url.openConnection();
+        second.setRequestProperty("If-None-Match", eTag);
+        int secondCode = second.getResponseCode();
+        second.disconnect();
+
+        // assert
+        assertThat(firstCode, is(200));
+        assertThat(eTag, is(mStandIn.getETag(CbrStandInServer.DYNAMIC_PATH)));
+        assertThat(secondCode, is(304));
+        assertThat(mStandIn.getNotModifiedCount(), is(1));
+    }
+
+    /**
+     * Проверка gzip через общий клиент: по сети приходит меньше байт, чем получает разбор
+     */
+    @Test
+    public void testSharedClient_gzip() throws IOException {
+        // arrange
+        mStandIn.setGzipEnabled(true);
+        HttpTrafficStats stats = new HttpTrafficStats();
+        CurrenciesRepository repository = new CurrenciesRepository(
+                new CurrencyConverter(), mStandIn.getBaseUrl(), HttpClients.create(null, stats));
+
+        // act
+        List<Currency> currencies = repository.loadCurrencies();
+
+        // assert
+        assertThat(currencies.size(), is(RECORDED_CURRENCIES));
+        assertThat(stats.getNetworkResponseCount(), is(1L));
+        assertThat(stats.getDecodedBytes(), is((long) mStandIn.getResponseLength(CbrStandInServer.DAILY_PATH)));
+        assertThat(stats.getWireBytes(), greaterThan(0L));
+        assertThat(stats.getWireBytes(), lessThan(stats.getDecodedBytes() / 2));
+    }
+
+    /**
+     * Проверка дискового кэша общего клиента: повторная загрузка подтверждается ответом 304,
+     * тело берётся из кэша, и по сети оно второй раз не передаётся
+     */
+    @Test
+    public void testSharedClient_cacheRevalidation() throws IOException {
+        // arrange
+        mStandIn.setETagEnabled(true);
+        File cacheDirectory = Files.createTempDirectory("http-cache").toFile();
+        HttpTrafficStats stats = new HttpTrafficStats();
+        OkHttpClient client = HttpClients.create(cacheDirectory, stats);
+        CurrenciesRepository repository =
+                new CurrenciesRepository(new CurrencyConverter(), mStandIn.getBaseUrl(), client);
+        long bodyLength = mStandIn.getResponseLength(CbrStandInServer.DAILY_PATH);
+
+        try {
+            // act
+            repository.loadCurrencies();
+            long wireBytes = stats.getWireBytes();
+            List<Currency> cached = repository.loadCurrencies();
+
+            // assert
+            assertThat(find(cached, "USD").getValue(), is(new BigDecimal("61.9057")));
+            assertThat(mStandIn.getNotModifiedCount(), is(1));
+            assertThat(stats.getConditionalHitCount(), is(1L));
+            assertThat(stats.getWireBytes(), is(wireBytes));
+            assertThat(stats.getDecodedBytes(), is(2 * bodyLength));
+        } finally {
+            client.cache().delete();
+            Files.deleteIfExists(cacheDirectory.toPath());
+        }
+    }
+
+    /**
+     * Проверка, что время до первого байта включает задержку сервера
+     */
+    @Test
+    public void testSharedClient_timeToFirstByte() throws IOException {
+        // arrange
+        mStandIn.setLatencyMillis(200);
+        HttpTrafficStats stats = new HttpTrafficStats();
+        CatalogCurrenciesRepository repository = new CatalogCurrenciesRepository(
+                new CurrencyConverter(), mStandIn.getBaseUrl(), HttpClients.create(null, stats));
+
+        // act
+        repository.loadCurrencies();
+
+        // assert
+        // справочник и курсы через один клиент
+        assertThat(stats.getNetworkResponseCount(), is(2L));
+        assertThat(stats.getAverageTimeToFirstByteMillis(), greaterThanOrEqualTo(200L));
+        assertThat(stats.getMaxTimeToFirstByteMillis(), greaterThanOrEqualTo(200L));
+    }
+
+    private static Currency find(List<Currency> currencies, String charCode) {
+        for (Currency currency : currencies) {
+            if (currency.getCharCode().equals(charCode)) {
+                return currency;
+            }
+        }
+        fail("Нет валюты " + charCode);
+        return null;
+    }
+}
@@ -5,19 +5,24 @@ import org.junit.Test;
 import org.mockito.internal.util.reflection.FieldSetter;
 
 import java.io.IOException;
-import java.util.Arrays;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
 import java.util.List;
 
+import okhttp3.MediaType;
 import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.Response;
-import ru.sergeykozhukhov.currencyconverter.data.model.CurrenciesData;
 import ru.sergeykozhukhov.currencyconverter.data.model.CurrencyData;
 import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
+import ru.sergeykozhukhov.currencyconverter.domain.model.RatesTable;
+import ru.sergeykozhukhov.currencyconverter.domain.pipeline.StageTiming;
 
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -67,22 +72,29 @@ public class CurrenciesRepositoryTest {
     public void testLoadCurrencies_happyCase() throws IOException{
 
         // arrange
-        List<CurrencyData> currencies = Arrays.asList(mock(CurrencyData.class), mock(CurrencyData.class)); // список валют data слоя
-        CurrenciesData currenciesData = mock(CurrenciesData.class); // информация о валютах и курсах конвертации
-        when(currenciesData.getCurrencies()).thenReturn(currencies); // получение mock списка валют
-        Response<CurrenciesData> response = Response.success(currenciesData); // формирование успешного ответа c десериализованной информацией о валютах
-        Call<CurrenciesData> call = mock(Call.class); // создание запроса к серверу
+        String document = "<?xml version=\"1.0\" encoding=\"windows-1251\"?><ValCurs Date=\"28.12.2019\" name=\"Foreign Currency Market\">"
+                + "<Valute ID=\"R01235\"><NumCode>840</NumCode><CharCode>USD</CharCode><Nominal>1</Nominal><Name>Доллар США</Name><Value>61,9057</Value></Valute>"
+                + "<Valute ID=\"R01239\"><NumCode>978</NumCode><CharCode>EUR</CharCode><Nominal>1</Nominal><Name>Евро</Name><Value>69,3777</Value></Valute>"
+                + "</ValCurs>"; // ответ сервера
+        ResponseBody body = ResponseBody.create(MediaType.parse("application/xml"), document.getBytes(Charset.forName("windows-1251")));
+        Response<ResponseBody> response = Response.success(body); // формирование успешного ответа c телом документа
+        Call<ResponseBody> call = mock(Call.class); // создание запроса к серверу
         when(call.execute()).thenReturn(response); // формирование ответа от сервера
-        when(mRatesApi.loadCurrencies()).thenReturn(call); // формирование загрузки валют с сервера
-        List<Currency> expectedOutput = Arrays.asList(mock(Currency.class), mock(Currency.class)); // список ожидаемых валют domain
-        when(mCurrencyConverter.convert(currencies)).thenReturn(expectedOutput); // формирование преобразования валют из data в domain
+        when(mRatesApi.loadDailyValues()).thenReturn(call); // формирование загрузки валют с сервера
+        doCallRealMethod().when(mCurrencyConverter).appendTo(any(RatesTable.Builder.class), any(CurrencyData.class)); // преобразование валют из data в domain
 
         // act
         List<Currency> output = mCurrenciesRepository.loadCurrencies(); // загрузка валют data слоя
 
         // assert
-        assertThat(output, is(expectedOutput)); // проверка на равенство
-
+        assertThat(output.size(), is(2));
+        assertThat(output.get(0).getCharCode(), is("USD"));
+        assertThat(output.get(1).getName(), is("Евро"));
+        assertThat(output.get(1).getValue(), is(new BigDecimal("69.3777")));
+        // время замерено для каждой стадии конвейера
+        List<StageTiming> timings = mCurrenciesRepository.getLastLoadTimings();
+        assertThat(timings.size(), is(3));
+        assertThat(timings.get(0).getName(), is("download"));
     }
 
     /**
@@ -94,13 +106,10 @@ public class CurrenciesRepositoryTest {
     public void testLoadCurrencies_bodyIsNull_throwException() throws IOException{
 
         // arrange
-        List<CurrencyData> currencies = Arrays.asList(mock(CurrencyData.class), mock(CurrencyData.class));
-        CurrenciesData currenciesData = mock(CurrenciesData.class);
-        when(currenciesData.getCurrencies()).thenReturn(currencies);
-        Response<CurrenciesData> response = Response.success(null);
-        Call<CurrenciesData> call = mock(Call.class);
+        Response<ResponseBody> response = Response.success(null);
+        Call<ResponseBody> call = mock(Call.class);
         when(call.execute()).thenReturn(response);
-        when(mRatesApi.loadCurrencies()).thenReturn(call);
+        when(mRatesApi.loadDailyValues()).thenReturn(call);
 
         // act
         mCurrenciesRepository.loadCurrencies();
@@ -115,21 +124,33 @@ public class CurrenciesRepositoryTest {
     public void testLoadCurrencies_errorBodyIsNotNull_throwsException() throws IOException{
 
         // arrange
-        List<CurrencyData> currencies = Arrays.asList(mock(CurrencyData.class), mock(CurrencyData.class));
-        CurrenciesData currenciesData = mock(CurrenciesData.class);
-        when(currenciesData.getCurrencies()).thenReturn(currencies);
         ResponseBody errorBody = mock(ResponseBody.class);
-        Response<CurrenciesData> response = Response.error(404, errorBody); // error - формирование ошибки в ответе от сервера
-        Call<CurrenciesData> call = mock(Call.class);
+        Response<ResponseBody> response = Response.error(404, errorBody); // error - формирование ошибки в ответе от сервера
+        Call<ResponseBody> call = mock(Call.class);
         when(call.execute()).thenReturn(response);
-        when(mRatesApi.loadCurrencies()).thenReturn(call);
+        when(mRatesApi.loadDailyValues()).thenReturn(call);
 
         // act
         mCurrenciesRepository.loadCurrencies();
 
     }
 
+    /**
+     * Проверка, что ошибка разбора (обрезанный документ) отменяет загрузку и пробрасывается как IOException
+     */
+    @Test(expected = IOException.class)
+    @SuppressWarnings("unchecked")
+    public void testLoadCurrencies_truncatedDocument_throwsException() throws IOException{
 
+        // arrange
+        String document = "<?xml version=\"1.0\" encoding=\"windows-1251\"?><ValCurs><Valute ID=\"R01235\"><CharCode>USD";
+        ResponseBody body = ResponseBody.create(MediaType.parse("application/xml"), document.getBytes(Charset.forName("windows-1251")));
+        Call<ResponseBody> call = mock(Call.class);
+        when(call.execute()).thenReturn(Response.success(body));
+        when(mRatesApi.loadDailyValues()).thenReturn(call);
 
+        // act
+        mCurrenciesRepository.loadCurrencies();
 
+    }
 }
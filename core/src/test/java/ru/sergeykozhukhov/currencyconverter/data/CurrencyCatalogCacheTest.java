@@ -0,0 +1,164 @@
+package ru.sergeykozhukhov.currencyconverter.data;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Юнит тесты на {@link CurrencyCatalogCache}
+ **/
+public class CurrencyCatalogCacheTest {
+
+    private static final long TTL = TimeUnit.DAYS.toMillis(7);
+
+    /**
+     * Источник справочника, считающий загрузки
+     */
+    private CountingSource mSource;
+
+    private CurrencyCatalogCache mCache;
+
+    @Before
+    public void setUp() {
+        mSource = new CountingSource();
+        mCache = new CurrencyCatalogCache(mSource, TTL);
+    }
+
+    /**
+     * Проверка, что свежий справочник не загружается повторно
+     */
+    @Test
+    public void testGet_cached() throws IOException {
+        // arrange
+        mSource.mLoadedAt = System.currentTimeMillis();
+
+        // act
+        CurrencyCatalog first = mCache.get();
+        CurrencyCatalog second = mCache.get();
+
+        // assert
+        assertThat(second, is(sameInstance(first)));
+        assertThat(mSource.mLoads, is(1));
+    }
+
+    /**
+     * Проверка перезагрузки по истечении срока и возврата устаревшего справочника при ошибке
+     */
+    @Test
+    public void testGet_expired() throws IOException {
+        // arrange
+        mSource.mLoadedAt = System.currentTimeMillis() - TTL;
+        CurrencyCatalog expired = mCache.get();
+        mSource.mFail = true;
+
+        // act
+        CurrencyCatalog afterFailure = mCache.get();
+
+        // assert
+        assertThat(afterFailure, is(sameInstance(expired))); // лучше устаревший справочник, чем никакого
+        assertThat(mSource.mLoads, is(2));
+    }
+
+    /**
+     * Проверка, что перезагрузка из-за неизвестной валюты ограничена возрастом справочника
+     */
+    @Test
+    public void testReloadIfOlderThan() throws IOException {
+        // arrange
+        mSource.mLoadedAt = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(5);
+        CurrencyCatalog catalog = mCache.get();
+
+        // act
+        CurrencyCatalog notReloaded = mCache.reloadIfOlderThan(TimeUnit.MINUTES.toMillis(10));
+        CurrencyCatalog reloaded = mCache.reloadIfOlderThan(TimeUnit.MINUTES.toMillis(1));
+
+        // assert
+        assertThat(notReloaded, is(sameInstance(catalog)));
+        assertThat(reloaded == catalog, is(false));
+        assertThat(mSource.mLoads, is(2));
+    }
+
+    /**
+     * Проверка, что ошибка первой загрузки пробрасывается
+     */
+    @Test(expected = IOException.class)
+    public void testGet_firstLoadFails() throws IOException {
+        mSource.mFail = true;
+        mCache.get();
+    }
+
+    /**
+     * Проверка, что справочник из файла переживает перезапуск процесса и не загружается заново, пока свежий
+     */
+    @Test
+    public void testGet_persisted() throws IOException {
+        // arrange
+        File file = Files.createTempFile("catalog", ".bin").toFile();
+        file.deleteOnExit();
+        mSource.mLoadedAt = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1);
+        new CurrencyCatalogCache(mSource, TTL, file).get();
+        mSource.mFail = true;
+
+        // act
+        CurrencyCatalog restored = new CurrencyCatalogCache(mSource, TTL, file).get();
+
+        // assert
+        assertThat(mSource.mLoads, is(1));
+        assertThat(restored.getLoadedAt(), is(mSource.mLoadedAt));
+        assertThat(restored.find("R01235").getCharCode(), is("USD"));
+        assertThat(restored.find("R01235").getName(), is("Доллар США"));
+    }
+
+    /**
+     * Проверка, что справочник из файла с истёкшим сроком загружается заново, а испорченный файл игнорируется
+     */
+    @Test
+    public void testGet_persistedExpiredOrCorrupted() throws IOException {
+        // arrange
+        File file = Files.createTempFile("catalog", ".bin").toFile();
+        file.deleteOnExit();
+        mSource.mLoadedAt = System.currentTimeMillis() - TTL;
+        new CurrencyCatalogCache(mSource, TTL, file).get();
+        File corrupted = Files.createTempFile("catalog", ".bin").toFile();
+        corrupted.deleteOnExit();
+        Files.write(corrupted.toPath(), new byte[]{1, 2, 3});
+
+        // act
+        new CurrencyCatalogCache(mSource, TTL, file).get();
+        new CurrencyCatalogCache(mSource, TTL, corrupted).get();
+
+        // assert
+        assertThat(mSource.mLoads, is(3));
+    }
+
+    private static class CountingSource implements CurrencyCatalogCache.Source {
+
+        private int mLoads;
+
+        private long mLoadedAt;
+
+        private boolean mFail;
+
+        @NonNull
+        @Override
+        public CurrencyCatalog load() throws IOException {
+            mLoads++;
+            if (mFail) {
+                throw new IOException("Справочник недоступен");
+            }
+            return new CurrencyCatalog(Collections.singletonMap("R01235",
+                    new CurrencyCatalog.Entry("R01235", "USD", "Доллар США")), mLoadedAt);
+        }
+    }
+}
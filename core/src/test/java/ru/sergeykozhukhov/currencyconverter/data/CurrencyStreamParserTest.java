@@ -0,0 +1,131 @@
+package ru.sergeykozhukhov.currencyconverter.data;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import ru.sergeykozhukhov.currencyconverter.data.model.CurrencyData;
+import ru.sergeykozhukhov.currencyconverter.domain.pipeline.Channel;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Юнит тесты на {@link CurrencyStreamParser}
+ **/
+public class CurrencyStreamParserTest {
+
+    private static final Charset WINDOWS_1251 = Charset.forName("windows-1251");
+
+    private static final String PROLOG = "<?xml version=\"1.0\" encoding=\"windows-1251\"?>"
+            + "<ValCurs Date=\"28.12.2019\" name=\"Foreign Currency Market\">";
+
+    private static final String USD = "<Valute ID=\"R01235\"><NumCode>840</NumCode><CharCode>USD</CharCode>"
+            + "<Nominal>1</Nominal><Name>Доллар США</Name><Value>61,9057</Value></Valute>";
+
+    private static final String AMD = "<Valute ID=\"R01060\"><NumCode>051</NumCode><CharCode>AMD</CharCode>"
+            + "<Nominal>100</Nominal><Name>Армянских драмов</Name><Value>12,9624</Value></Valute>";
+
+    private static final String END = "</ValCurs>";
+
+    private CurrencyStreamParser mParser;
+
+    @Before
+    public void setUp() {
+        mParser = new CurrencyStreamParser();
+    }
+
+    /**
+     * Проверка разбора документа в кодировке ЦБ
+     */
+    @Test
+    public void testParse_happyCase() throws Exception {
+        // arrange
+        byte[] document = (PROLOG + USD + AMD + END).getBytes(WINDOWS_1251);
+        Channel<CurrencyData> currencies = new Channel<>(8);
+
+        // act
+        int count = mParser.parse(new ByteArrayInputStream(document), currencies);
+        currencies.close();
+
+        // assert
+        assertThat(count, is(2));
+        CurrencyData usd = currencies.receive();
+        assertThat(usd.getId(), is("R01235"));
+        assertThat(usd.getNumCode(), is(840));
+        assertThat(usd.getName(), is("Доллар США"));
+        assertThat(usd.getValue(), is(new BigDecimal("61.9057")));
+        CurrencyData amd = currencies.receive();
+        assertThat(amd.getNominal(), is(100L));
+        assertThat(amd.getName(), is("Армянских драмов"));
+        assertThat(currencies.receive(), is(nullValue()));
+    }
+
+    /**
+     * Проверка, что валюта передаётся дальше до того, как получен конец документа
+     */
+    @Test
+    public void testParse_emitsBeforeEndOfStream() throws Exception {
+        // arrange
+        final PipedInputStream input = new PipedInputStream(64 * 1024);
+        PipedOutputStream output = new PipedOutputStream(input);
+        final Channel<CurrencyData> currencies = new Channel<>(8);
+        final AtomicReference<Exception> error = new AtomicReference<>();
+        Thread parser = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    mParser.parse(input, currencies);
+                    currencies.close();
+                } catch (Exception e) {
+                    error.set(e);
+                }
+            }
+        });
+        parser.start();
+
+        // act
+        output.write((PROLOG + USD).getBytes(WINDOWS_1251));
+        output.flush();
+        CurrencyData first = currencies.receive(); // документ ещё не закончен
+        output.write((AMD + END).getBytes(WINDOWS_1251));
+        output.close();
+        CurrencyData second = currencies.receive();
+        parser.join(TimeUnit.SECONDS.toMillis(5));
+
+        // assert
+        assertThat(first.getCharCode(), is("USD"));
+        assertThat(second.getCharCode(), is("AMD"));
+        assertThat(currencies.receive(), is(nullValue()));
+        assertThat(error.get(), is(nullValue()));
+    }
+
+    /**
+     * Проверка, что обрезанный документ не разбирается
+     */
+    @Test(expected = IOException.class)
+    public void testParse_truncated() throws Exception {
+        byte[] document = (PROLOG + USD + AMD.substring(0, 40)).getBytes(WINDOWS_1251);
+
+        mParser.parse(new ByteArrayInputStream(document), new Channel<CurrencyData>(8));
+    }
+
+    /**
+     * Проверка, что документ, обрезанный между элементами Valute, не разбирается
+     */
+    @Test(expected = IOException.class)
+    public void testParse_truncatedBetweenElements() throws Exception {
+        byte[] document = (PROLOG + USD + "<Va").getBytes(WINDOWS_1251);
+
+        mParser.parse(new ByteArrayInputStream(document), new Channel<CurrencyData>(8));
+    }
+}
@@ -0,0 +1,176 @@
+package ru.sergeykozhukhov.currencyconverter.data;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import ru.sergeykozhukhov.currencyconverter.domain.model.RatesTable;
+import ru.sergeykozhukhov.currencyconverter.domain.pipeline.Channel;
+import ru.sergeykozhukhov.currencyconverter.domain.pipeline.ChunkInputStream;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Юнит тесты на {@link DailyValuesParser} и {@link CurrencyCatalog#join(DailyValues)}
+ **/
+public class DailyValuesParserTest {
+
+    private static final String DOCUMENT = "<?xml version=\"1.0\" encoding=\"%s\"?>"
+            + "<ValCurs Date=\"28.12.2019\" name=\"Foreign Currency Market\">"
+            + "<Valute ID=\"R01235\"><NumCode>840</NumCode><CharCode>USD</CharCode>"
+            + "<Nominal>1</Nominal><Name>Доллар США</Name><Value>61,9057</Value></Valute>"
+            + "<Valute ID=\"R01060\"><NumCode>051</NumCode><CharCode>AMD</CharCode>"
+            + "<Nominal>100</Nominal><Name>Армянских драмов</Name><Value>12,9624</Value></Valute>"
+            + "</ValCurs>";
+
+    /**
+     * Разборщик ежедневных курсов
+     */
+    private DailyValuesParser mParser;
+
+    @Before
+    public void setUp() {
+        mParser = new DailyValuesParser();
+    }
+
+    /**
+     * Проверка разбора документа в кодировке ЦБ
+     */
+    @Test
+    public void testParse_windows1251() throws IOException {
+        // arrange
+        byte[] document = document("windows-1251");
+
+        // act
+        DailyValues values = mParser.parse(new ByteArrayInputStream(document));
+
+        // assert
+        assertThat(values.size(), is(2));
+        assertThat(values.getId(0), is("R01235"));
+        assertThat(values.getNominal(0), is(1L));
+        assertThat(values.getUnscaledValue(0), is(619057L));
+        assertThat(values.getScale(0), is(4));
+        assertThat(values.getId(1), is("R01060"));
+        assertThat(values.getNominal(1), is(100L));
+    }
+
+    /**
+     * Проверка, что документы в UTF-8 с BOM и UTF-16 разбираются так же
+     */
+    @Test
+    public void testParse_otherEncodings() throws IOException {
+        // arrange
+        byte[] utf8 = document("UTF-8");
+        byte[] utf8WithBom = new byte[utf8.length + 3];
+        utf8WithBom[0] = (byte) 0xEF;
+        utf8WithBom[1] = (byte) 0xBB;
+        utf8WithBom[2] = (byte) 0xBF;
+        System.arraycopy(utf8, 0, utf8WithBom, 3, utf8.length);
+
+        // act
+        DailyValues fromUtf8 = mParser.parse(utf8WithBom);
+        DailyValues fromUtf16 = mParser.parse(document("UTF-16")); // Java пишет BOM для UTF-16
+        DailyValues fromUtf16Le = mParser.parse(document("UTF-16LE")); // без BOM
+
+        // assert
+        for (DailyValues values : new DailyValues[]{fromUtf8, fromUtf16, fromUtf16Le}) {
+            assertThat(values.size(), is(2));
+            assertThat(values.getId(1), is("R01060"));
+            assertThat(values.getUnscaledValue(1), is(129624L));
+        }
+    }
+
+    /**
+     * Проверка разбора потока из блоков стадии загрузки, границы которых режут теги и числа
+     */
+    @Test
+    public void testParse_chunks() throws Exception {
+        // arrange
+        byte[] document = document("windows-1251");
+        Channel<byte[]> chunks = new Channel<>(document.length);
+        for (int i = 0; i < document.length; i += 7) {
+            chunks.send(Arrays.copyOfRange(document, i, Math.min(i + 7, document.length)));
+        }
+        chunks.close();
+
+        // act
+        DailyValues values = mParser.parse(new ChunkInputStream(chunks));
+
+        // assert
+        assertThat(values.size(), is(2));
+        assertThat(values.getId(1), is("R01060"));
+        assertThat(values.getUnscaledValue(1), is(129624L));
+        assertThat(values.getScale(1), is(4));
+    }
+
+    /**
+     * Проверка, что обрезанный документ не разбирается
+     */
+    @Test(expected = IOException.class)
+    public void testParse_truncated() throws IOException {
+        // arrange
+        byte[] document = document("windows-1251");
+        byte[] truncated = new byte[document.length - 30];
+        System.arraycopy(document, 0, truncated, 0, truncated.length);
+
+        // act
+        mParser.parse(truncated);
+    }
+
+    /**
+     * Проверка, что документ, обрезанный между элементами Valute, не разбирается
+     */
+    @Test(expected = IOException.class)
+    public void testParse_truncatedBetweenElements() throws IOException {
+        // arrange
+        String document = String.format(DOCUMENT, "windows-1251");
+        String truncated = document.substring(0, document.indexOf("</Valute>") + "</Valute>".length());
+
+        // act
+        mParser.parse(truncated.getBytes(Charset.forName("windows-1251")));
+    }
+
+    /**
+     * Проверка, что документ без курсов (например, страница ошибки) не разбирается
+     */
+    @Test(expected = IOException.class)
+    public void testParse_noCurrencies() throws IOException {
+        mParser.parse("<html><body>Service unavailable</body></html>".getBytes(Charset.forName("windows-1251")));
+    }
+
+    /**
+     * Проверка сборки таблицы курсов по справочнику
+     */
+    @Test
+    public void testJoin() throws IOException {
+        // arrange
+        DailyValues values = mParser.parse(document("windows-1251"));
+        Map<String, CurrencyCatalog.Entry> entries = new HashMap<>();
+        entries.put("R01235", new CurrencyCatalog.Entry("R01235", "USD", "Доллар США"));
+        CurrencyCatalog incomplete = new CurrencyCatalog(entries, 0);
+        entries.put("R01060", new CurrencyCatalog.Entry("R01060", "AMD", "Армянский драм"));
+        CurrencyCatalog catalog = new CurrencyCatalog(entries, 0);
+
+        // act
+        RatesTable table = catalog.join(values);
+
+        // assert
+        assertThat(table.size(), is(2));
+        assertThat(table.getCharCode(1), is("AMD"));
+        assertThat(table.getNominal(1), is(100L));
+        assertThat(table.getValue(0).toPlainString(), is("61.9057"));
+        assertThat(incomplete.join(values), is(nullValue())); // в справочнике нет новой валюты
+    }
+
+    private static byte[] document(String encoding) {
+        return String.format(DOCUMENT, encoding).getBytes(Charset.forName(encoding));
+    }
+}
@@ -0,0 +1,342 @@
+package ru.sergeykozhukhov.currencyconverter.data;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReference;
+
+import ru.sergeykozhukhov.currencyconverter.data.model.CurrencyData;
+import ru.sergeykozhukhov.currencyconverter.domain.ConversionInteractor;
+import ru.sergeykozhukhov.currencyconverter.domain.IConversionFormatter;
+import ru.sergeykozhukhov.currencyconverter.domain.RatesSnapshotHolder;
+import ru.sergeykozhukhov.currencyconverter.domain.SnapshotDiffer;
+import ru.sergeykozhukhov.currencyconverter.domain.model.CurrenciesDiff;
+import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
+import ru.sergeykozhukhov.currencyconverter.domain.model.RatesTable;
+import ru.sergeykozhukhov.currencyconverter.domain.pipeline.Channel;
+
+import static org.junit.Assert.fail;
+
+/**
+ * Проверки масштабирования загрузки на синтетических ответах {@link ValCursGenerator}:
+ * разбор, маппинг, сборка снимка и пакетная конвертация на 10^3..10^5 валютах
+ * (и 10^6 с -Pbenchmark) должны расти почти линейно по времени и памяти.
+ * В настоящем ответе ЦБ около 34 валют, поэтому квадратичный участок на нём незаметен
+ **/
+public class FeedScalingTest {
+
+    private static final int[] SIZES = {1000, 10000, 100000};
+
+    private static final int[] BENCHMARK_SIZES = {1000, 10000, 100000, 1000000};
+
+    /**
+     * Во сколько раз может вырасти время на одну валюту при росте размера в 10 раз.
+     * Линейный код укладывается с запасом на шум и кэши, квадратичный даёт около 10
+     */
+    private static final double TIME_TOLERANCE = 4;
+
+    /**
+     * Во сколько раз может вырасти память на одну валюту при росте размера в 10 раз
+     */
+    private static final double MEMORY_TOLERANCE = 2;
+
+    /**
+     * Замеры повторяются, берётся лучший (меньше влияние JIT и сборщика мусора)
+     */
+    private static final int REPEATS = 3;
+
+    private static final long SEED = 42;
+
+    /**
+     * Результат замера, чтобы JIT не выбросил вычисления
+     */
+    private static volatile Object sSink;
+
+    /**
+     * Разбор потока ответа до валют в data представлении
+     */
+    @Test
+    public void testParse_scalesLinearly() throws Exception {
+        assertLinearTime(new Workload("CurrencyStreamParser.parse") {
+
+            private ValCursGenerator mGenerator;
+
+            @Override
+            void prepare(int size) {
+                mGenerator = new ValCursGenerator(size, SEED);
+            }
+
+            @Override
+            Object run() throws Exception {
+                return parse(mGenerator);
+            }
+        });
+    }
+
+    /**
+     * Маппинг data валют в таблицу курсов
+     */
+    @Test
+    public void testMap_scalesLinearly() throws Exception {
+        assertLinearTime(new Workload("CurrencyConverter.convertToTable") {
+
+            private final CurrencyConverter mConverter = new CurrencyConverter();
+
+            private List<CurrencyData> mCurrencies;
+
+            @Override
+            void prepare(int size) {
+                mCurrencies = new ValCursGenerator(size, SEED).currencies();
+            }
+
+            @Override
+            Object run() {
+                return mConverter.convertToTable(mCurrencies);
+            }
+        });
+    }
+
+    /**
+     * Разбор ежедневных курсов и соединение со справочником
+     */
+    @Test
+    public void testJoin_scalesLinearly() throws Exception {
+        assertLinearTime(new Workload("DailyValuesParser.parse + CurrencyCatalog.join") {
+
+            private final DailyValuesParser mParser = new DailyValuesParser();
+
+            private ValCursGenerator mGenerator;
+
+            private CurrencyCatalog mCatalog;
+
+            @Override
+            void prepare(int size) {
+                mGenerator = new ValCursGenerator(size, SEED);
+                mCatalog = mGenerator.catalog();
+            }
+
+            @Override
+            Object run() throws IOException {
+                return mCatalog.join(mParser.parse(mGenerator.openDocument()));
+            }
+        });
+    }
+
+    /**
+     * Публикация снимка и сравнение с предыдущей загрузкой
+     */
+    @Test
+    public void testSnapshot_scalesLinearly() throws Exception {
+        assertLinearTime(new Workload("RatesSnapshotHolder.publish + SnapshotDiffer.diff") {
+
+            private final RatesSnapshotHolder mHolder = new RatesSnapshotHolder();
+
+            private final SnapshotDiffer mDiffer = new SnapshotDiffer();
+
+            private List<Currency> mPrevious;
+
+            private List<Currency> mCurrent;
+
+            @Override
+            void prepare(int size) {
+                CurrencyConverter converter = new CurrencyConverter();
+                mPrevious = converter.convert(new ValCursGenerator(size, SEED).currencies());
+                mCurrent = converter.convert(new ValCursGenerator(size, SEED + 1).currencies());
+            }
+
+            @Override
+            Object run() {
+                CurrenciesDiff diff = mDiffer.diff(mPrevious, mCurrent);
+                mHolder.publish(mCurrent);
+                return diff;
+            }
+        });
+    }
+
+    /**
+     * Пересчёт суммы в каждую валюту (как при пакетной конвертации)
+     */
+    @Test
+    public void testConversion_scalesLinearly() throws Exception {
+        assertLinearTime(new Workload("ConversionInteractor.calculateConversion") {
+
+            private final ConversionInteractor mInteractor = new ConversionInteractor(new PlainFormatter());
+
+            private final BigDecimal mAmount = new BigDecimal("1234.56");
+
+            private List<Currency> mCurrencies;
+
+            @Override
+            void prepare(int size) {
+                mCurrencies = new ArrayList<>(new CurrencyConverter().convert(new ValCursGenerator(size, SEED).currencies()));
+            }
+
+            @Override
+            Object run() {
+                Currency base = mCurrencies.get(0);
+                BigDecimal total = BigDecimal.ZERO;
+                for (Currency quoted : mCurrencies) {
+                    total = total.add(mInteractor.calculateConversion(base, quoted, mAmount));
+                }
+                return total;
+            }
+        });
+    }
+
+    /**
+     * Память таблицы курсов на одну валюту не должна расти с размером
+     */
+    @Test
+    public void testTable_memoryScalesLinearly() throws Exception {
+        int[] sizes = getSizes();
+        CurrencyConverter converter = new CurrencyConverter();
+        double previousPerItem = 0;
+        // на 10^3 валют замер кучи тонет в шуме, сравниваются размеры от 10^4
+        for (int i = 1; i < sizes.length; i++) {
+            List<CurrencyData> currencies = new ValCursGenerator(sizes[i], SEED).currencies();
+            long before = usedMemory();
+            RatesTable table = converter.convertToTable(currencies);
+            long after = usedMemory();
+            sSink = table;
+            double perItem = (after - before) / (double) sizes[i];
+            report(String.format(Locale.US, "RatesTable: %d currencies, %.1f bytes/currency", sizes[i], perItem));
+            if (previousPerItem > 0 && perItem > previousPerItem * MEMORY_TOLERANCE) {
+                fail(String.format(Locale.US, "Память RatesTable растёт нелинейно: %.1f -> %.1f байт на валюту при %d валютах",
+                        previousPerItem, perItem, sizes[i]));
+            }
+            previousPerItem = perItem;
+        }
+    }
+
+    /**
+     * Проверяет, что время на одну валюту при росте размера в 10 раз растёт не больше {@link #TIME_TOLERANCE}
+     */
+    private static void assertLinearTime(@NonNull Workload workload) throws Exception {
+        int[] sizes = getSizes();
+        // прогрев JIT на среднем размере
+        workload.prepare(sizes[1]);
+        for (int i = 0; i < REPEATS; i++) {
+            sSink = workload.run();
+        }
+        double previousPerItem = 0;
+        for (int size : sizes) {
+            workload.prepare(size);
+            long best = Long.MAX_VALUE;
+            for (int i = 0; i < REPEATS; i++) {
+                long start = System.nanoTime();
+                sSink = workload.run();
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            double perItem = best / (double) size;
+            report(String.format(Locale.US, "%s: %d currencies in %.2f ms, %.0f ns/currency",
+                    workload.mName, size, best / 1e6, perItem));
+            if (previousPerItem > 0 && perItem > previousPerItem * TIME_TOLERANCE) {
+                fail(String.format(Locale.US, "%s растёт нелинейно: %.0f -> %.0f нс на валюту при %d валютах",
+                        workload.mName, previousPerItem, perItem, size));
+            }
+            previousPerItem = perItem;
+        }
+    }
+
+    /**
+     * Печатает замер только с -Pbenchmark: в обычном прогоне значения попадают в сообщение о падении
+     */
+    private static void report(@NonNull String measurement) {
+        if (Boolean.getBoolean("benchmark")) {
+            System.out.println(measurement);
+        }
+    }
+
+    @NonNull
+    private static int[] getSizes() {
+        return Boolean.getBoolean("benchmark") ? BENCHMARK_SIZES : SIZES;
+    }
+
+    /**
+     * Разбирает документ так же, как загрузка: разбор и приёмник валют в разных потоках
+     */
+    @NonNull
+    private static List<CurrencyData> parse(@NonNull final ValCursGenerator generator) throws Exception {
+        final Channel<CurrencyData> currencies = new Channel<>(64);
+        final AtomicReference<Exception> error = new AtomicReference<>();
+        Thread parser = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    new CurrencyStreamParser().parse(generator.openDocument(), currencies);
+                } catch (Exception e) {
+                    error.set(e);
+                } finally {
+                    try {
+                        currencies.close();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        });
+        parser.start();
+        List<CurrencyData> result = new ArrayList<>();
+        CurrencyData currency;
+        while ((currency = currencies.receive()) != null) {
+            result.add(currency);
+        }
+        parser.join();
+        if (error.get() != null) {
+            throw error.get();
+        }
+        return result;
+    }
+
+    /**
+     * Занятая память после сборки мусора
+     */
+    private static long usedMemory() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Замеряемая работа: подготовка входа вне замера и сам замеряемый вызов
+     */
+    private abstract static class Workload {
+
+        private final String mName;
+
+        Workload(@NonNull String name) {
+            mName = name;
+        }
+
+        abstract void prepare(int size) throws Exception;
+
+        abstract Object run() throws Exception;
+    }
+
+    /**
+     * Форматтер без ресурсов (замеряется только расчёт)
+     */
+    private static class PlainFormatter implements IConversionFormatter {
+
+        @NonNull
+        @Override
+        public String formatConversionRate(@NonNull String rate, @NonNull String baseCharCode, @NonNull String quotedCharCode) {
+            return rate + " " + baseCharCode + "/" + quotedCharCode;
+        }
+
+        @NonNull
+        @Override
+        public String formatConversionResult(@NonNull String amount, @NonNull String charCode) {
+            return amount + " " + charCode;
+        }
+    }
+}
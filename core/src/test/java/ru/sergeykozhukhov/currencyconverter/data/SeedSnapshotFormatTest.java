@@ -0,0 +1,224 @@
+package ru.sergeykozhukhov.currencyconverter.data;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import ru.sergeykozhukhov.currencyconverter.data.model.CurrencyData;
+import ru.sergeykozhukhov.currencyconverter.domain.history.EpochDays;
+import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
+import ru.sergeykozhukhov.currencyconverter.domain.model.SeedRates;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * Юнит тесты на {@link SeedSnapshotFormat}, {@link SeedSnapshotTool} и {@link SeedRatesRepository}
+ **/
+public class SeedSnapshotFormatTest {
+
+    /**
+     * Количество валют в записанном ответе XML_daily
+     */
+    private static final int RECORDED_CURRENCIES = 34;
+
+    private byte[] mDailyXml;
+
+    @Before
+    public void setUp() throws IOException {
+        mDailyXml = readResource("/cbr/XML_daily.xml");
+    }
+
+    /**
+     * Проверка, что снимок из записанного ответа читается без потерь и занимает меньше XML
+     */
+    @Test
+    public void testWriteRead_recordedResponse() throws IOException {
+        // arrange
+        SeedSnapshot snapshot = SeedSnapshotTool.fromDailyXml(mDailyXml);
+        SeedSnapshotTool.validate(snapshot);
+
+        // act
+        byte[] bytes = SeedSnapshotFormat.write(snapshot);
+        SeedSnapshot read = SeedSnapshotFormat.read(bytes);
+
+        // assert
+        assertThat(read.getEpochDay(), is(EpochDays.of(2019, 12, 28)));
+        assertThat(read.getCurrencies().size(), is(RECORDED_CURRENCIES));
+        CurrencyData usd = find(read.getCurrencies(), "USD");
+        assertThat(usd.getId(), is("R01235"));
+        assertThat(usd.getNumCode(), is(840));
+        assertThat(usd.getName(), is("Доллар США"));
+        assertThat(usd.getValue(), is(new BigDecimal("61.9057")));
+        assertThat(bytes.length, lessThan(mDailyXml.length / 2));
+    }
+
+    /**
+     * Проверка, что испорченный снимок не читается
+     */
+    @Test(expected = IOException.class)
+    public void testRead_corrupted() throws IOException {
+        byte[] bytes = SeedSnapshotFormat.write(SeedSnapshotTool.fromDailyXml(mDailyXml));
+        bytes[bytes.length / 2] ^= 0x01;
+
+        SeedSnapshotFormat.read(bytes);
+    }
+
+    /**
+     * Проверка, что снимок, собранный под другую схему CurrencyData, не читается
+     */
+    @Test(expected = IOException.class)
+    public void testRead_otherSchema() throws IOException {
+        byte[] bytes = SeedSnapshotFormat.write(SeedSnapshotTool.fromDailyXml(mDailyXml));
+        // версия схемы идёт после magic и версии формата; контрольная сумма пересчитывается
+        bytes[8] ^= 0x01;
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 4);
+        int value = (int) crc.getValue();
+        for (int i = 0; i < 4; i++) {
+            bytes[bytes.length - 4 + i] = (byte) (value >>> (24 - 8 * i));
+        }
+
+        SeedSnapshotFormat.read(bytes);
+    }
+
+    /**
+     * Проверка, что поля {@link CurrencyData} не изменились без повышения {@link SeedSnapshotFormat#SCHEMA_VERSION}
+     */
+    @Test
+    public void testSchemaVersion_currencyDataFields() {
+        // arrange
+        List<String> fields = new ArrayList<>();
+        for (Field field : CurrencyData.class.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic()) {
+                fields.add(field.getName() + ":" + field.getType().getSimpleName());
+            }
+        }
+        Collections.sort(fields);
+
+        // assert
+        assertThat("Поля CurrencyData изменились: повысьте SCHEMA_VERSION и обновите список", fields, is(Arrays.asList(
+                "mCharCode:String", "mId:String", "mName:String", "mNominal:long", "mNumCode:int", "mValue:BigDecimal")));
+        assertThat(SeedSnapshotFormat.SCHEMA_VERSION, is(1));
+    }
+
+    /**
+     * Проверка проверок сборки: повторяющийся код и неположительный курс
+     */
+    @Test
+    public void testValidate_invalidCurrencies() throws IOException {
+        List<CurrencyData> currencies = new ArrayList<>(SeedSnapshotTool.fromDailyXml(mDailyXml).getCurrencies());
+        currencies.set(1, new CurrencyData("R99999", 1, currencies.get(0).getCharCode(), 1, "Дубль", BigDecimal.ONE));
+        assertInvalid(new SeedSnapshot(0, currencies));
+
+        currencies = new ArrayList<>(SeedSnapshotTool.fromDailyXml(mDailyXml).getCurrencies());
+        currencies.set(1, new CurrencyData("R99999", 1, "XXX", 1, "Ноль", BigDecimal.ZERO));
+        assertInvalid(new SeedSnapshot(0, currencies));
+
+        assertInvalid(new SeedSnapshot(0, currencies.subList(0, SeedSnapshotTool.MIN_CURRENCIES - 1)));
+    }
+
+    /**
+     * Проверка загрузки встроенных курсов в domain представление
+     */
+    @Test
+    public void testLoadSeedRates() throws IOException {
+        // arrange
+        final byte[] bytes = SeedSnapshotFormat.write(SeedSnapshotTool.fromDailyXml(mDailyXml));
+        SeedRatesRepository repository = new SeedRatesRepository(new SeedRatesRepository.Source() {
+            @NonNull
+            @Override
+            public InputStream open() {
+                return new ByteArrayInputStream(bytes);
+            }
+        }, new CurrencyConverter());
+
+        // act
+        SeedRates seedRates = repository.loadSeedRates();
+
+        // assert
+        assertThat(seedRates.getEpochDay(), is(EpochDays.of(2019, 12, 28)));
+        assertThat(seedRates.getCurrencies().size(), is(RECORDED_CURRENCIES));
+        Currency usd = seedRates.getCurrencies().get(indexOf(seedRates.getCurrencies(), "USD"));
+        assertThat(usd.getValue(), is(new BigDecimal("61.9057")));
+    }
+
+    /**
+     * Проверка, что без снимка репозиторий возвращает null, а не падает
+     */
+    @Test
+    public void testLoadSeedRates_missing() {
+        // arrange
+        SeedRatesRepository repository = new SeedRatesRepository(new SeedRatesRepository.Source() {
+            @NonNull
+            @Override
+            public InputStream open() throws IOException {
+                throw new IOException("seed_rates.bin");
+            }
+        }, new CurrencyConverter());
+
+        // act & assert
+        assertThat(repository.loadSeedRates(), is(nullValue()));
+    }
+
+    private static void assertInvalid(SeedSnapshot snapshot) {
+        try {
+            SeedSnapshotTool.validate(snapshot);
+            fail("Снимок должен быть отклонён");
+        } catch (IOException e) {
+            // ожидаемо
+        }
+    }
+
+    private static CurrencyData find(List<CurrencyData> currencies, String charCode) {
+        for (CurrencyData currency : currencies) {
+            if (currency.getCharCode().equals(charCode)) {
+                return currency;
+            }
+        }
+        fail("Нет валюты " + charCode);
+        return null;
+    }
+
+    private static int indexOf(List<Currency> currencies, String charCode) {
+        for (int i = 0; i < currencies.size(); i++) {
+            if (currencies.get(i).getCharCode().equals(charCode)) {
+                return i;
+            }
+        }
+        fail("Нет валюты " + charCode);
+        return -1;
+    }
+
+    private static byte[] readResource(String resource) throws IOException {
+        InputStream input = SeedSnapshotFormatTest.class.getResourceAsStream(resource);
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+            return output.toByteArray();
+        } finally {
+            input.close();
+        }
+    }
+}
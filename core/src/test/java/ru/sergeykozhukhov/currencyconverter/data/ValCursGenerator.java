@@ -0,0 +1,176 @@
+package ru.sergeykozhukhov.currencyconverter.data;
+
+import androidx.annotation.NonNull;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import ru.sergeykozhukhov.currencyconverter.data.model.CurrencyData;
+
+/**
+ * Генератор синтетических ответов ЦБ (ValCurs) любого размера для проверок масштабирования.
+ * Документ создаётся по мере чтения, поэтому даже миллион валют не держится в памяти целиком.
+ * Для одного и того же seed документ, список {@link CurrencyData} и справочник совпадают
+ **/
+class ValCursGenerator {
+
+    private static final Charset WINDOWS_1251 = Charset.forName("windows-1251");
+
+    private static final long[] NOMINALS = {1, 10, 100};
+
+    /**
+     * Сколько трёхбуквенных кодов можно составить; дальше коды длиннее и не упаковываются в int
+     */
+    private static final int THREE_LETTER_CODES = 26 * 26 * 26;
+
+    private final int mCount;
+
+    private final long mSeed;
+
+    /**
+     * @param count количество валют в документе
+     * @param seed  seed для курсов и номиналов
+     */
+    ValCursGenerator(int count, long seed) {
+        mCount = count;
+        mSeed = seed;
+    }
+
+    /**
+     * Документ в кодировке ЦБ (windows-1251), создаваемый по мере чтения
+     */
+    @NonNull
+    InputStream openDocument() {
+        return new DocumentStream();
+    }
+
+    /**
+     * Валюты документа в data представлении
+     */
+    @NonNull
+    List<CurrencyData> currencies() {
+        List<CurrencyData> currencies = new ArrayList<>(mCount);
+        Random random = new Random(mSeed);
+        for (int i = 0; i < mCount; i++) {
+            long nominal = NOMINALS[random.nextInt(NOMINALS.length)];
+            currencies.add(new CurrencyData(id(i), i % 1000, charCode(i), nominal, name(i), value(random)));
+        }
+        return currencies;
+    }
+
+    /**
+     * Справочник со всеми валютами документа
+     */
+    @NonNull
+    CurrencyCatalog catalog() {
+        Map<String, CurrencyCatalog.Entry> entries = new HashMap<>(mCount * 2);
+        for (int i = 0; i < mCount; i++) {
+            entries.put(id(i), new CurrencyCatalog.Entry(id(i), charCode(i), name(i)));
+        }
+        return new CurrencyCatalog(entries, System.currentTimeMillis());
+    }
+
+    @NonNull
+    private static String id(int index) {
+        return String.format(Locale.US, "R%07d", index);
+    }
+
+    @NonNull
+    private static String charCode(int index) {
+        if (index >= THREE_LETTER_CODES) {
+            return "X" + index;
+        }
+        return new String(new char[]{
+                (char) ('A' + index / (26 * 26)),
+                (char) ('A' + index / 26 % 26),
+                (char) ('A' + index % 26)});
+    }
+
+    @NonNull
+    private static String name(int index) {
+        return "Валюта №" + index;
+    }
+
+    @NonNull
+    private static BigDecimal value(@NonNull Random random) {
+        return BigDecimal.valueOf(1000 + random.nextInt(99999000), 4);
+    }
+
+    /**
+     * Поток документа: очередная валюта форматируется, когда прочитана предыдущая
+     */
+    private class DocumentStream extends InputStream {
+
+        private final Random mRandom = new Random(mSeed);
+
+        /**
+         * Следующая валюта; mCount - закрывающий тег, больше - конец документа
+         */
+        private int mNext = -1;
+
+        private byte[] mChunk = new byte[0];
+
+        private int mPosition;
+
+        @Override
+        public int read() {
+            if (!ensureChunk()) {
+                return -1;
+            }
+            return mChunk[mPosition++] & 0xFF;
+        }
+
+        @Override
+        public int read(@NonNull byte[] buffer, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!ensureChunk()) {
+                return -1;
+            }
+            int count = Math.min(length, mChunk.length - mPosition);
+            System.arraycopy(mChunk, mPosition, buffer, offset, count);
+            mPosition += count;
+            return count;
+        }
+
+        private boolean ensureChunk() {
+            while (mPosition == mChunk.length) {
+                if (mNext > mCount) {
+                    return false;
+                }
+                mChunk = nextText().getBytes(WINDOWS_1251);
+                mPosition = 0;
+                mNext++;
+            }
+            return true;
+        }
+
+        @NonNull
+        private String nextText() {
+            if (mNext < 0) {
+                return "<?xml version=\"1.0\" encoding=\"windows-1251\"?>"
+                        + "<ValCurs Date=\"28.12.2019\" name=\"Foreign Currency Market\">";
+            }
+            if (mNext == mCount) {
+                return "</ValCurs>";
+            }
+            long nominal = NOMINALS[mRandom.nextInt(NOMINALS.length)];
+            String value = value(mRandom).toPlainString().replace('.', ',');
+            return "<Valute ID=\"" + id(mNext) + "\">"
+                    + "<NumCode>" + String.format(Locale.US, "%03d", mNext % 1000) + "</NumCode>"
+                    + "<CharCode>" + charCode(mNext) + "</CharCode>"
+                    + "<Nominal>" + nominal + "</Nominal>"
+                    + "<Name>" + name(mNext) + "</Name>"
+                    + "<Value>" + value + "</Value>"
+                    + "</Valute>";
+        }
+    }
+}
@@ -4,19 +4,25 @@ import androidx.annotation.Nullable;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 
-import ru.sergeykozhukhov.currencyconverter.R;
+import ru.sergeykozhukhov.currencyconverter.domain.amount.AmountParser;
+import ru.sergeykozhukhov.currencyconverter.domain.journal.ConversionJournal;
+import ru.sergeykozhukhov.currencyconverter.domain.journal.ConversionRecord;
 import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
-import ru.sergeykozhukhov.currencyconverter.presentation.utils.IResourceWrapper;
 
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -30,9 +36,9 @@ public class ConversionInteractorTest {
     private ConversionInteractor mConversionInteractor;
 
     /**
-     * Обёртка над ресурсами приложения
+     * Форматирование строк для пользователя
      */
-    private IResourceWrapper mResourceWrapper;
+    private IConversionFormatter mConversionFormatter;
 
     private String mCharCode1 = "charCode1";
     private BigDecimal mValue1 = BigDecimal.ONE;
@@ -46,8 +52,8 @@ public class ConversionInteractorTest {
 
     @Before
     public void setUp(){
-        mResourceWrapper = mock(IResourceWrapper.class);
-        mConversionInteractor = new ConversionInteractor(mResourceWrapper);
+        mConversionFormatter = mock(IConversionFormatter.class);
+        mConversionInteractor = new ConversionInteractor(mConversionFormatter);
         String id1 = "id1";
         long nominal1 = 10L;
         String name1 = "name1";
@@ -82,9 +88,10 @@ public class ConversionInteractorTest {
         testFormatConversionRate(null, 0, 0, null); // список - null
         testFormatConversionRate(new ArrayList<Currency>(), 0, 0, null); // нет значений в списке
         testFormatConversionRate(mCurrencies, 4, 6, null); // выход за пределы размера списка
+        testFormatConversionRate(mCurrencies, -1, 1, null); // валюта не выбрана
 
         String expectedResult = "expectedResult";
-        when(mResourceWrapper.getString(R.string.conversion_rate, "0.2", mCharCode1, mCharCode2))
+        when(mConversionFormatter.formatConversionRate("0.2", mCharCode1, mCharCode2))
                 .thenReturn(expectedResult);
         testFormatConversionRate(mCurrencies, 0, 1, expectedResult);
     }
@@ -97,14 +104,41 @@ public class ConversionInteractorTest {
         testConvert(null, 0, 0, "10", null); // список - null
         testConvert(new ArrayList<Currency>(), 0, 0, "10", null); // нет значений в списке
         testConvert(mCurrencies, 4, 6, "10", null); // выход за пределы размера списка
+        testConvert(mCurrencies, 0, -1, "10", null); // валюта не выбрана
         testConvert(mCurrencies, 0, 1, "incorrect input", null); // некорректный ввод количеста валюты
 
         String expectedResult = "expectedResult";
-        when(mResourceWrapper.getString(R.string.you_will_get, "2", mCharCode2))
+        when(mConversionFormatter.formatConversionResult("2", mCharCode2))
                 .thenReturn(expectedResult); // формирование результата при конвертации
         testConvert(mCurrencies, 0, 1, "10", expectedResult);
     }
 
+    /**
+     * Проверка, что успешная конвертация ставится в журнал, а ошибочная - нет
+     */
+    @Test
+    public void testConvert_appendsToJournal() {
+        // arrange
+        ConversionJournal journal = mock(ConversionJournal.class);
+        ConversionInteractor interactor =
+                new ConversionInteractor(mConversionFormatter, AmountParser.forLocale(Locale.US), journal);
+        when(mConversionFormatter.formatConversionResult("2", mCharCode2)).thenReturn("expectedResult");
+
+        // act
+        interactor.convert(mCurrencies, 0, 1, "incorrect input");
+        verify(journal, never()).append(any(ConversionRecord.class));
+        interactor.convert(mCurrencies, 0, 1, "10");
+
+        // assert
+        ArgumentCaptor<ConversionRecord> captor = ArgumentCaptor.forClass(ConversionRecord.class);
+        verify(journal).append(captor.capture());
+        ConversionRecord record = captor.getValue();
+        assertThat(record.getBaseCharCode(), is(mCharCode1));
+        assertThat(record.getQuotedCharCode(), is(mCharCode2));
+        assertThat(record.getAmount().compareTo(BigDecimal.TEN), is(0));
+        assertThat(record.getResult(), is(new BigDecimal("2.00")));
+    }
+
     /**
      * Проврека, что результат вычисления курса конвертации равен expectedOutput
      */
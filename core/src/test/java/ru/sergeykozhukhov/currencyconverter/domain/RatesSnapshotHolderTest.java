@@ -0,0 +1,105 @@
+package ru.sergeykozhukhov.currencyconverter.domain;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
+import ru.sergeykozhukhov.currencyconverter.domain.model.RatesSnapshot;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Юнит тесты на {@link RatesSnapshotHolder}
+ **/
+public class RatesSnapshotHolderTest {
+
+    private static final Currency USD = new Currency("R01235", "USD", 1, "Доллар США", new BigDecimal("61.9057"));
+    private static final Currency EUR = new Currency("R01239", "EUR", 1, "Евро", new BigDecimal("69.3777"));
+
+    private RatesSnapshotHolder mHolder;
+
+    @Before
+    public void setUp() {
+        mHolder = new RatesSnapshotHolder();
+    }
+
+    /**
+     * Проверка версий и неизменности опубликованного снимка при изменении исходного списка
+     */
+    @Test
+    public void testPublish() {
+        // arrange
+        List<Currency> currencies = new ArrayList<>(Collections.singletonList(USD));
+        assertThat(mHolder.getSnapshot(), is(nullValue()));
+
+        // act
+        RatesSnapshot first = mHolder.publish(currencies);
+        currencies.add(EUR);
+        RatesSnapshot second = mHolder.publish(currencies);
+
+        // assert
+        assertThat(first.getVersion(), is(1L));
+        assertThat(first.getCurrencies(), is(Collections.singletonList(USD)));
+        assertThat(second.getVersion(), is(2L));
+        assertThat(second.getCurrencies(), is(Arrays.asList(USD, EUR)));
+        assertThat(second.getTimestamp() >= first.getTimestamp(), is(true));
+        assertThat(mHolder.getSnapshot(), is(second));
+    }
+
+    /**
+     * Проверка, что список снимка нельзя изменить
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSnapshotImmutable() {
+        mHolder.publish(Collections.singletonList(USD)).getCurrencies().add(EUR);
+    }
+
+    /**
+     * Проверка, что одновременные публикации получают разные версии и ни одна не теряется
+     */
+    @Test
+    public void testConcurrentPublish() throws InterruptedException {
+        // arrange
+        final int threads = 4;
+        final int perThread = 1000;
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads);
+        final Set<Long> versions = Collections.synchronizedSet(new HashSet<Long>());
+        for (int i = 0; i < threads; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int j = 0; j < perThread; j++) {
+                            versions.add(mHolder.publish(Collections.singletonList(USD)).getVersion());
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+
+        // act
+        start.countDown();
+        done.await();
+
+        // assert
+        assertThat(versions.size(), is(threads * perThread));
+        assertThat(mHolder.getSnapshot().getVersion(), is((long) threads * perThread));
+    }
+}
@@ -0,0 +1,92 @@
+package ru.sergeykozhukhov.currencyconverter.domain;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import ru.sergeykozhukhov.currencyconverter.domain.model.CurrenciesDiff;
+import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
+import ru.sergeykozhukhov.currencyconverter.domain.model.CurrencyChange;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Юнит тесты на {@link SnapshotDiffer}
+ **/
+public class SnapshotDifferTest {
+
+    private SnapshotDiffer mSnapshotDiffer;
+
+    private Currency mUsd;
+
+    private Currency mEur;
+
+    private Currency mGbp;
+
+    @Before
+    public void setUp() {
+        mSnapshotDiffer = new SnapshotDiffer();
+        mUsd = new Currency("R01235", "USD", 1, "Доллар США", new BigDecimal("60.0000"));
+        mEur = new Currency("R01239", "EUR", 10, "Евро", new BigDecimal("700.0000"));
+        mGbp = new Currency("R01035", "GBP", 1, "Фунт стерлингов", new BigDecimal("80.0000"));
+    }
+
+    /**
+     * Проверка, что при первой загрузке все валюты считаются добавленными
+     */
+    @Test
+    public void testDiff_noPrevious() {
+        // act
+        CurrenciesDiff diff = mSnapshotDiffer.diff(null, Arrays.asList(mUsd, mEur));
+
+        // assert
+        assertThat(diff.getAdded(), contains(mUsd, mEur));
+        assertThat(diff.getRemoved(), is(empty()));
+        assertThat(diff.getChanged(), is(empty()));
+    }
+
+    /**
+     * Проверка добавленных, пропавших и изменившихся валют и величины изменений
+     */
+    @Test
+    public void testDiff() {
+        // arrange
+        List<Currency> previous = Arrays.asList(mUsd, mEur);
+        Currency usd = new Currency("R01235", "USD", 1, "Доллар США", new BigDecimal("63.0000"));
+
+        // act
+        CurrenciesDiff diff = mSnapshotDiffer.diff(previous, Arrays.asList(mGbp, usd));
+
+        // assert
+        assertThat(diff.getAdded(), contains(mGbp));
+        assertThat(diff.getRemoved(), contains(mEur));
+        assertThat(diff.getChanged().size(), is(1));
+        CurrencyChange change = diff.getChanged().get(0);
+        assertThat(change.getPrevious(), is(mUsd));
+        assertThat(change.getCurrent(), is(usd));
+        assertThat(change.getAbsoluteDelta().compareTo(new BigDecimal("3")), is(0));
+        assertThat(change.getPercentDelta().compareTo(new BigDecimal("5")), is(0));
+        assertThat(diff.isValuesOnly(), is(false));
+    }
+
+    /**
+     * Проверка, что одинаковые загрузки не дают изменений
+     */
+    @Test
+    public void testDiff_unchanged() {
+        // act
+        CurrenciesDiff diff = mSnapshotDiffer.diff(Arrays.asList(mUsd, mEur), Arrays.asList(mUsd, mEur));
+
+        // assert
+        assertThat(diff.isEmpty(), is(true));
+        assertThat(mSnapshotDiffer.diff(Collections.singletonList(mUsd), Collections.singletonList(mUsd))
+                .isValuesOnly(), is(true));
+    }
+}
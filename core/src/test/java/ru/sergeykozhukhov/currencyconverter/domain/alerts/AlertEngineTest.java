@@ -0,0 +1,203 @@
+package ru.sergeykozhukhov.currencyconverter.domain.alerts;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import ru.sergeykozhukhov.currencyconverter.domain.SnapshotDiffer;
+import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
+import ru.sergeykozhukhov.currencyconverter.domain.model.RatesSnapshot;
+import ru.sergeykozhukhov.currencyconverter.domain.publish.RatesPublisher;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Юнит тесты на {@link AlertEngine}
+ **/
+public class AlertEngineTest {
+
+    private final SnapshotDiffer mDiffer = new SnapshotDiffer();
+
+    private AlertEngine mEngine;
+
+    private List<Currency> mPrevious;
+
+    @Before
+    public void setUp() {
+        mEngine = new AlertEngine();
+        mEngine.addRule(new AlertRule(1, "USD", "RUB", 60));
+        mEngine.addRule(new AlertRule(2, "USD", "RUB", 65));
+        mEngine.addRule(new AlertRule(3, "USD", "RUB", 70));
+        mEngine.addRule(new AlertRule(4, "USD", "RUB", 65));
+        mEngine.addRule(new AlertRule(5, "RUB", "USD", 0.1));
+    }
+
+    /**
+     * Проверка, что первое значение курса только запоминается
+     */
+    @Test
+    public void testFirstSnapshot() {
+        // act
+        List<AlertEvent> events = update(usd("64"));
+
+        // assert
+        assertThat(events, is(empty()));
+    }
+
+    /**
+     * Проверка срабатывания при росте: уровни из (old, new]
+     */
+    @Test
+    public void testRising() {
+        // arrange
+        update(usd("59"));
+
+        // act
+        List<AlertEvent> events = update(usd("65"));
+
+        // assert
+        assertThat(ids(events), contains(1L, 2L, 4L));
+        assertThat(events.get(0).isRising(), is(true));
+    }
+
+    /**
+     * Проверка срабатывания при падении: уровни из [new, old), в порядке пересечения
+     */
+    @Test
+    public void testFalling() {
+        // arrange
+        update(usd("65"));
+
+        // act
+        List<AlertEvent> events = update(usd("5"));
+
+        // assert
+        // USD/RUB пересёк 60 сверху вниз, RUB/USD - 0.1 снизу вверх (с 1/65 до 0.2)
+        assertThat(ids(events), containsInAnyOrder(1L, 5L));
+        for (AlertEvent event : events) {
+            assertThat(event.isRising(), is(event.getRule().getId() == 5L));
+        }
+    }
+
+    /**
+     * Проверка, что удалённое правило не срабатывает
+     */
+    @Test
+    public void testRemoveRule() {
+        // arrange
+        update(usd("64"));
+
+        // act
+        boolean removed = mEngine.removeRule(new AlertRule(2, "USD", "RUB", 65));
+        List<AlertEvent> events = update(usd("66"));
+
+        // assert
+        assertThat(removed, is(true));
+        assertThat(ids(events), contains(4L));
+    }
+
+    /**
+     * Проверка, что по разнице загрузок проверяются только пары с изменившимися валютами
+     */
+    @Test
+    public void testOnChanges() {
+        // arrange
+        List<Currency> first = usd("64");
+        update(first);
+        List<Currency> second = Arrays.asList(
+                first.get(0),
+                new Currency("R01239", "EUR", 1, "Евро", new BigDecimal("70")));
+
+        // act
+        List<AlertEvent> unchanged = update(second);
+        List<AlertEvent> changed = update(usd("66"));
+
+        // assert
+        assertThat(unchanged, is(empty()));
+        assertThat(ids(changed), contains(2L, 4L));
+    }
+
+    /**
+     * Проверка, что правило, добавленное после загрузки курсов, срабатывает на первом пересечении
+     */
+    @Test
+    public void testAddRule_afterRates() {
+        // arrange
+        update(usd("64"));
+        mEngine.addRule(new AlertRule(6, "USD", "EUR", 0.9));
+        update(Arrays.asList(
+                usd("64").get(0),
+                new Currency("R01239", "EUR", 1, "Евро", new BigDecimal("70"))));
+
+        // act
+        List<AlertEvent> events = update(Arrays.asList(
+                usd("64").get(0),
+                new Currency("R01239", "EUR", 1, "Евро", new BigDecimal("72"))));
+
+        // assert
+        // USD/EUR: 64/70 ~ 0.914 -> 64/72 ~ 0.889
+        assertThat(ids(events), contains(6L));
+    }
+
+    /**
+     * Проверка подписки на снимки курсов: сработавшие правила приходят получателю
+     */
+    @Test
+    public void testSubscriber() {
+        // arrange
+        RatesPublisher publisher = new RatesPublisher();
+        final List<AlertEvent> received = new ArrayList<>();
+        publisher.subscribe(new Executor() {
+            @Override
+            public void execute(@NonNull Runnable command) {
+                command.run();
+            }
+        }, mEngine.subscriber(new AlertEngine.Listener() {
+            @Override
+            public void onAlerts(@NonNull List<AlertEvent> events) {
+                received.addAll(events);
+            }
+        }));
+
+        // act
+        publisher.publish(new RatesSnapshot(1, 0, usd("64")));
+        publisher.publish(new RatesSnapshot(2, 0, usd("64")));
+        publisher.publish(new RatesSnapshot(3, 0, usd("71")));
+
+        // assert
+        assertThat(ids(received), contains(2L, 4L, 3L));
+    }
+
+    /**
+     * Передаёт движку разницу с предыдущим списком валют
+     */
+    private List<AlertEvent> update(List<Currency> currencies) {
+        List<AlertEvent> events = mEngine.onChanges(mDiffer.diff(mPrevious, currencies));
+        mPrevious = currencies;
+        return events;
+    }
+
+    private static List<Currency> usd(String value) {
+        return Collections.singletonList(new Currency("R01235", "USD", 1, "Доллар США", new BigDecimal(value)));
+    }
+
+    private static List<Long> ids(List<AlertEvent> events) {
+        List<Long> result = new ArrayList<>();
+        for (AlertEvent event : events) {
+            result.add(event.getRule().getId());
+        }
+        return result;
+    }
+}
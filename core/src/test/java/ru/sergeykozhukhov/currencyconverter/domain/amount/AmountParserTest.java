@@ -0,0 +1,88 @@
+package ru.sergeykozhukhov.currencyconverter.domain.amount;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Юнит тесты на {@link AmountParser}
+ **/
+public class AmountParserTest {
+
+    private final AmountParser mRuParser = AmountParser.forLocale(new Locale("ru", "RU"));
+
+    private final AmountParser mEnParser = AmountParser.forLocale(Locale.US);
+
+    private final AmountParser mDeParser = AmountParser.forLocale(Locale.GERMANY);
+
+    private final AmountParser mPlainParser = AmountParser.plain(40, 18);
+
+    /**
+     * Проверка разделителей русской локали
+     */
+    @Test
+    public void testRussianLocale() {
+        assertThat(mRuParser.parse("41,5").toBigDecimal(), is(new BigDecimal("41.5")));
+        assertThat(mRuParser.parse("41.5").toBigDecimal(), is(new BigDecimal("41.5")));
+        assertThat(mRuParser.parse("1 234,56").toBigDecimal(), is(new BigDecimal("1234.56")));
+        assertThat(mRuParser.parse("1 234 567").toBigDecimal(), is(new BigDecimal("1234567")));
+        assertThat(mRuParser.parse(" -12 ").toBigDecimal(), is(new BigDecimal("-12")));
+        assertThat(mRuParser.parse("12,").toBigDecimal(), is(new BigDecimal("12")));
+        assertThat(mRuParser.parse("1 23").getError(), is(ParsedAmount.Error.MISPLACED_SEPARATOR));
+        assertThat(mRuParser.parse("1,2,3").getError(), is(ParsedAmount.Error.MISPLACED_SEPARATOR));
+        assertThat(mRuParser.parse("5-").getError(), is(ParsedAmount.Error.MISPLACED_SEPARATOR));
+    }
+
+    /**
+     * Проверка разделителей английской и немецкой локалей
+     */
+    @Test
+    public void testOtherLocales() {
+        assertThat(mEnParser.parse("1,234.5").toBigDecimal(), is(new BigDecimal("1234.5")));
+        assertThat(mEnParser.parse("41,5").getError(), is(ParsedAmount.Error.MISPLACED_SEPARATOR));
+        assertThat(mEnParser.parse("1234,567").getError(), is(ParsedAmount.Error.MISPLACED_SEPARATOR));
+        assertThat(mEnParser.parse("1,234,5").getError(), is(ParsedAmount.Error.MISPLACED_SEPARATOR));
+        assertThat(mDeParser.parse("1.234,5").toBigDecimal(), is(new BigDecimal("1234.5")));
+        assertThat(mDeParser.parse("41.5").getError(), is(ParsedAmount.Error.MISPLACED_SEPARATOR));
+    }
+
+    /**
+     * Проверка некорректного ввода и ограничений длины и точности
+     */
+    @Test
+    public void testInvalidInput() {
+        assertThat(mRuParser.parse("").getError(), is(ParsedAmount.Error.EMPTY));
+        assertThat(mRuParser.parse("   ").getError(), is(ParsedAmount.Error.EMPTY));
+        assertThat(mRuParser.parse("-").getError(), is(ParsedAmount.Error.EMPTY));
+        assertThat(mRuParser.parse("12a").getError(), is(ParsedAmount.Error.INVALID_CHARACTER));
+        assertThat(mRuParser.parse("1e5").getError(), is(ParsedAmount.Error.INVALID_CHARACTER));
+        assertThat(mRuParser.parse("1,123456789").getError(), is(ParsedAmount.Error.TOO_MANY_DECIMALS));
+        assertThat(mRuParser.parse("1234567890123456789").getError(), is(ParsedAmount.Error.TOO_LONG));
+        assertThat(mRuParser.parse("000000000000000000001").toBigDecimal(), is(new BigDecimal("1")));
+        assertThat(mRuParser.parse("123456789012345678901234567890123").getError(), is(ParsedAmount.Error.TOO_LONG));
+        assertThat(mRuParser.parse("abc").toBigDecimal(), is(nullValue()));
+        // ошибки не создают новых объектов
+        assertThat(mRuParser.parse("abc"), is(sameInstance(mRuParser.parse("xyz"))));
+    }
+
+    /**
+     * Проверка машинного формата и получения немасштабированного значения
+     */
+    @Test
+    public void testPlain() {
+        ParsedAmount amount = mPlainParser.parse("x-12.50y", 1, 7);
+
+        assertThat(amount.isValid(), is(true));
+        assertThat(amount.getUnscaledValue(), is(-1250L));
+        assertThat(amount.getScale(), is(2));
+        assertThat(mPlainParser.parse("999999999999999999").toBigDecimal(), is(new BigDecimal("999999999999999999")));
+        assertThat(mPlainParser.parse("1,5").getError(), is(ParsedAmount.Error.INVALID_CHARACTER));
+        assertThat(mPlainParser.parse("1.2.3").getError(), is(ParsedAmount.Error.MISPLACED_SEPARATOR));
+    }
+}
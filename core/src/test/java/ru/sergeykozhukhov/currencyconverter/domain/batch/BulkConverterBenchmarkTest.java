@@ -0,0 +1,96 @@
+package ru.sergeykozhukhov.currencyconverter.domain.batch;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import ru.sergeykozhukhov.currencyconverter.domain.ConversionInteractor;
+import ru.sergeykozhukhov.currencyconverter.domain.IConversionFormatter;
+import ru.sergeykozhukhov.currencyconverter.domain.history.EpochDays;
+import ru.sergeykozhukhov.currencyconverter.domain.model.RatesTable;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Замер пакетной конвертации {@link BulkConverter} на 10 млн строк.
+ * Долгий, поэтому запускается только явно: ./gradlew :core:test -Pbenchmark
+ **/
+public class BulkConverterBenchmarkTest {
+
+    private static final int ROWS = 10000000;
+
+    private static final int DAYS = 365;
+
+    private static final String[] CHAR_CODES = {"USD", "EUR", "GBP", "CNY", "JPY", "CHF", "KZT", "BYN", "UAH", "TRY"};
+
+    private Path mInput;
+
+    private Path mOutput;
+
+    @Before
+    public void setUp() throws IOException {
+        assumeTrue(Boolean.getBoolean("benchmark"));
+        mInput = Files.createTempFile("ledger", ".csv");
+        mOutput = Files.createTempFile("ledger", ".out.csv");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (mInput != null) {
+            Files.deleteIfExists(mInput);
+            Files.deleteIfExists(mOutput);
+        }
+    }
+
+    @Test
+    public void benchmarkTenMillionRows() throws IOException {
+        // arrange
+        int firstDay = EpochDays.of(2019, 1, 1);
+        Random random = new Random(42);
+        HistoricalRates.Builder builder = new HistoricalRates.Builder();
+        for (int day = 0; day < DAYS; day++) {
+            RatesTable.Builder table = new RatesTable.Builder(CHAR_CODES.length);
+            for (int i = 0; i < CHAR_CODES.length; i++) {
+                BigDecimal value = BigDecimal.valueOf(100000 + random.nextInt(9000000), 4);
+                table.add("R" + i, CHAR_CODES[i], i == 4 ? 100 : 1, CHAR_CODES[i], value);
+            }
+            builder.add(firstDay + day, table.build());
+        }
+        HistoricalRates rates = builder.build();
+        try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(mInput), 1 << 16)) {
+            for (int row = 0; row < ROWS; row++) {
+                String line = random.nextInt(1000000) + "." + random.nextInt(10) + random.nextInt(10) + ","
+                        + CHAR_CODES[random.nextInt(CHAR_CODES.length)] + ","
+                        + EpochDays.toIsoDate(firstDay + random.nextInt(DAYS)) + "\n";
+                output.write(line.getBytes(StandardCharsets.US_ASCII));
+            }
+        }
+        BulkConverter converter = new BulkConverter(ForkJoinPool.commonPool(),
+                new ConversionInteractor(mock(IConversionFormatter.class)));
+
+        // act
+        long start = System.nanoTime();
+        BulkConversionReport report = converter.convert(mInput.toFile(), mOutput.toFile(), rates, "RUB", false);
+        long elapsed = System.nanoTime() - start;
+
+        // assert
+        assertThat(report.getRows(), is((long) ROWS));
+        assertThat(report.getRejected(), is(0L));
+        System.out.println(String.format(Locale.US, "BulkConverter: %d rows in %.2f s (%.0f rows/s, parallelism %d)",
+                ROWS, elapsed / 1e9, ROWS / (elapsed / 1e9), ForkJoinPool.commonPool().getParallelism()));
+    }
+}
@@ -0,0 +1,173 @@
+package ru.sergeykozhukhov.currencyconverter.domain.batch;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import ru.sergeykozhukhov.currencyconverter.domain.ConversionInteractor;
+import ru.sergeykozhukhov.currencyconverter.domain.IConversionFormatter;
+import ru.sergeykozhukhov.currencyconverter.domain.history.EpochDays;
+import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
+import ru.sergeykozhukhov.currencyconverter.domain.model.RatesTable;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Юнит тесты на {@link BulkConverter}
+ **/
+public class BulkConverterTest {
+
+    private static final Currency RUB = new Currency("rub_id", "RUB", 1, "Российский рубль", BigDecimal.ONE);
+
+    private static final Currency USD_10 = new Currency("R01235", "USD", 1, "Доллар США", new BigDecimal("60.5"));
+    private static final Currency EUR_10 = new Currency("R01239", "EUR", 1, "Евро", new BigDecimal("70.25"));
+    private static final Currency USD_11 = new Currency("R01235", "USD", 1, "Доллар США", new BigDecimal("61.0"));
+    private static final Currency EUR_11 = new Currency("R01239", "EUR", 1, "Евро", new BigDecimal("71.125"));
+    private static final Currency JPY_11 = new Currency("R01820", "JPY", 100, "Японских иен", new BigDecimal("55.7"));
+
+    private ConversionInteractor mConversionInteractor;
+
+    private ForkJoinPool mPool;
+
+    private HistoricalRates mRates;
+
+    private Path mDirectory;
+
+    @Before
+    public void setUp() throws IOException {
+        mConversionInteractor = new ConversionInteractor(mock(IConversionFormatter.class));
+        mPool = new ForkJoinPool(4);
+        mRates = new HistoricalRates.Builder()
+                .add(EpochDays.of(2020, 1, 11), RatesTable.fromCurrencies(Arrays.asList(USD_11, EUR_11, JPY_11)))
+                .add(EpochDays.of(2020, 1, 10), RatesTable.fromCurrencies(Arrays.asList(USD_10, EUR_10)))
+                .build();
+        mDirectory = Files.createTempDirectory("bulk");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        mPool.shutdownNow();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(mDirectory)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(mDirectory);
+    }
+
+    /**
+     * Проверка выбора курсов на дату операции, совпадения с расчётом приложения и отклонения некорректных строк
+     */
+    @Test
+    public void testConvert() throws IOException {
+        // arrange
+        Path input = write("amount,currency,date\r\n"
+                + "100,USD,2020-01-10\r\n"
+                + "100,USD,2020-01-25\n"
+                + "\n"
+                + "-10.5,EUR,10.01.2020\n"
+                + "1000,JPY,2020-01-11\n"
+                + "abc,USD,2020-01-10\n"
+                + "100,XXX,2020-01-10\n"
+                + "100,JPY,2020-01-10\n"
+                + "100,USD,2020-01-09\n"
+                + "100,USD,2020-13-01");
+        Path output = mDirectory.resolve("out.csv");
+
+        // act
+        BulkConversionReport report = new BulkConverter(mPool, mConversionInteractor)
+                .convert(input.toFile(), output.toFile(), mRates, "EUR", true);
+
+        // assert
+        assertThat(report.getRows(), is(9L));
+        assertThat(report.getRejected(), is(5L));
+        assertThat(report.getConverted(), is(4L));
+        assertThat(read(output), is(Arrays.asList(
+                "amount,currency,date,EUR",
+                "100,USD,2020-01-10," + convert("100", USD_10, EUR_10),
+                "100,USD,2020-01-25," + convert("100", USD_11, EUR_11),
+                "-10.5,EUR,10.01.2020," + convert("-10.5", EUR_10, EUR_10),
+                "1000,JPY,2020-01-11," + convert("1000", JPY_11, EUR_11),
+                "abc,USD,2020-01-10,",
+                "100,XXX,2020-01-10,",
+                "100,JPY,2020-01-10,",
+                "100,USD,2020-01-09,",
+                "100,USD,2020-13-01,")));
+    }
+
+    /**
+     * Проверка конвертации в рубли, которых нет в таблицах ЦБ
+     */
+    @Test
+    public void testConvertToRub() throws IOException {
+        // arrange
+        Path input = write("100,USD,2020-01-10\n100,RUB,2020-01-10\n");
+        Path output = mDirectory.resolve("out.csv");
+
+        // act
+        BulkConversionReport report = new BulkConverter(mPool, mConversionInteractor)
+                .convert(input.toFile(), output.toFile(), mRates, "RUB", false);
+
+        // assert
+        assertThat(report.getRejected(), is(0L));
+        assertThat(read(output), is(Arrays.asList(
+                "100,USD,2020-01-10," + convert("100", USD_10, RUB),
+                "100,RUB,2020-01-10,100.00")));
+    }
+
+    /**
+     * Проверка сохранения порядка строк при параллельной обработке множества мелких кусков
+     * и строк длиннее буфера чтения
+     */
+    @Test
+    public void testOrderPreserved() throws IOException {
+        // arrange
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            content.append(i).append(".25,USD,2020-01-1").append(i % 2).append('\n');
+        }
+        Path input = write(content.toString());
+        Path output = mDirectory.resolve("out.csv");
+
+        // act
+        BulkConversionReport report = new BulkConverter(mPool, mConversionInteractor, 8)
+                .convert(input.toFile(), output.toFile(), mRates, "RUB", false);
+
+        // assert
+        assertThat(report.getRows(), is(5000L));
+        assertThat(report.getRejected(), is(0L));
+        List<String> lines = read(output);
+        assertThat(lines.size(), is(5000));
+        for (int i = 0; i < 5000; i++) {
+            Currency usd = i % 2 == 0 ? USD_10 : USD_11;
+            assertThat(lines.get(i), is(i + ".25,USD,2020-01-1" + (i % 2) + "," + convert(i + ".25", usd, RUB)));
+        }
+    }
+
+    private String convert(String amount, Currency base, Currency quoted) {
+        return mConversionInteractor.calculateConversion(base, quoted, new BigDecimal(amount)).toPlainString();
+    }
+
+    private Path write(String content) throws IOException {
+        Path file = mDirectory.resolve("in.csv");
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private List<String> read(Path file) throws IOException {
+        return new ArrayList<>(Files.readAllLines(file, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,65 @@
+package ru.sergeykozhukhov.currencyconverter.domain.batch;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import ru.sergeykozhukhov.currencyconverter.AllocationMeter;
+import ru.sergeykozhukhov.currencyconverter.domain.ConversionInteractor;
+import ru.sergeykozhukhov.currencyconverter.domain.IConversionFormatter;
+import ru.sergeykozhukhov.currencyconverter.domain.history.EpochDays;
+import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
+import ru.sergeykozhukhov.currencyconverter.domain.model.RatesTable;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Бюджет выделения памяти на строку пакетной конвертации {@link ConvertChunkTask}
+ **/
+public class ConvertChunkTaskAllocationTest {
+
+    private static final int ROWS = 100;
+
+    private byte[] mData;
+
+    private HistoricalRates mRates;
+
+    private Currency[] mTargets;
+
+    private ConversionInteractor mConversionInteractor;
+
+    @Before
+    public void setUp() {
+        Currency usd = new Currency("R01235", "USD", 1, "Доллар США", new BigDecimal("61.0"));
+        Currency eur = new Currency("R01239", "EUR", 1, "Евро", new BigDecimal("71.125"));
+        Currency jpy = new Currency("R01820", "JPY", 100, "Японских иен", new BigDecimal("55.7"));
+        mRates = new HistoricalRates.Builder()
+                .add(EpochDays.of(2020, 1, 11), RatesTable.fromCurrencies(Arrays.asList(usd, eur, jpy)))
+                .build();
+        mTargets = new Currency[]{mRates.find(0, RatesTable.packCharCode("EUR"))};
+        StringBuilder rows = new StringBuilder();
+        for (int i = 0; i < ROWS; i++) {
+            rows.append(i * 37 % 10000).append('.').append(i % 100).append(i % 2 == 0 ? ",USD" : ",JPY")
+                    .append(",2020-01-11\n");
+        }
+        mData = rows.toString().getBytes(StandardCharsets.US_ASCII);
+        // форматтер пакетной конвертацией не используется
+        mConversionInteractor = new ConversionInteractor(mock(IConversionFormatter.class));
+    }
+
+    /**
+     * Кусок меньше порога деления считается в потоке теста, поэтому замер видит все выделения
+     */
+    @Test
+    public void testConvertLines_withinBudget() throws Exception {
+        AllocationMeter.assertWithinBudget("ConvertChunkTask.row", ROWS, new AllocationMeter.Operation() {
+            @Override
+            public void run() {
+                new ConvertChunkTask(mData, 0, mData.length, mRates, mTargets, mConversionInteractor).compute();
+            }
+        });
+    }
+}
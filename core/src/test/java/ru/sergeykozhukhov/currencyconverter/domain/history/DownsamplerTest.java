@@ -0,0 +1,60 @@
+package ru.sergeykozhukhov.currencyconverter.domain.history;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Юнит тесты на {@link Downsampler}
+ **/
+public class DownsamplerTest {
+
+    /**
+     * Проверка, что прореженный ряд имеет нужный размер, сохраняет края, порядок и экстремумы
+     */
+    @Test
+    public void testLttb() {
+        // arrange
+        int size = 7300;
+        int[] days = new int[size];
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            days[i] = i;
+            values[i] = 60 + Math.sin(i / 100.0);
+        }
+        values[3000] = 200; // выброс должен попасть в результат
+        RateSeries series = new ArrayRateSeries(days, values, size);
+
+        // act
+        RateSeries output = Downsampler.lttb(series, 360);
+
+        // assert
+        assertThat(output.size(), is(360));
+        assertThat(output.getDay(0), is(0));
+        assertThat(output.getDay(359), is(size - 1));
+        boolean hasPeak = false;
+        for (int i = 1; i < output.size(); i++) {
+            assertThat(output.getDay(i), greaterThan(output.getDay(i - 1)));
+            hasPeak |= output.getDay(i) == 3000;
+        }
+        assertThat(hasPeak, is(true));
+    }
+
+    /**
+     * Проверка, что короткий ряд возвращается без изменений
+     */
+    @Test
+    public void testShortSeries() {
+        // arrange
+        RateSeries series = new ArrayRateSeries(new int[]{1, 2, 3}, new double[]{5, 6, 7}, 3);
+
+        // act
+        RateSeries output = Downsampler.lttb(series, 10);
+
+        // assert
+        assertThat(output.size(), is(3));
+        assertThat(output.getValue(2), is(7d));
+    }
+}
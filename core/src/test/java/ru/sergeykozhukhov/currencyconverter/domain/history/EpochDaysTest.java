@@ -0,0 +1,66 @@
+package ru.sergeykozhukhov.currencyconverter.domain.history;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Юнит тесты на {@link EpochDays}
+ **/
+public class EpochDaysTest {
+
+    /**
+     * Проверка перевода дат в номера дней и обратно
+     */
+    @Test
+    public void testRoundTrip() {
+        assertThat(EpochDays.of(1970, 1, 1), is(0));
+        assertThat(EpochDays.of(2000, 3, 1), is(11017));
+        assertThat(EpochDays.parseIsoDate("2020-01-04"), is(18265));
+        assertThat(EpochDays.parseCbrDate("04.01.2020"), is(18265));
+        assertThat(EpochDays.toIsoDate(18265), is("2020-01-04"));
+        assertThat(EpochDays.toIsoDate(-1), is("1969-12-31"));
+        for (int day = EpochDays.of(1992, 7, 1); day < EpochDays.of(2030, 1, 1); day++) {
+            assertThat(EpochDays.parseIsoDate(EpochDays.toIsoDate(day)), is(day));
+        }
+    }
+
+    /**
+     * Проверка московской даты по времени в мс (UTC+3)
+     */
+    @Test
+    public void testOfMoscowMillis() {
+        long dayMillis = 24 * 60 * 60 * 1000L;
+        long hourMillis = 60 * 60 * 1000L;
+        assertThat(EpochDays.ofMoscowMillis(18265 * dayMillis), is(18265));
+        assertThat(EpochDays.ofMoscowMillis(18265 * dayMillis + 21 * hourMillis - 1), is(18265));
+        assertThat(EpochDays.ofMoscowMillis(18265 * dayMillis + 21 * hourMillis), is(18266));
+        assertThat(EpochDays.ofMoscowMillis(-4 * hourMillis), is(-1));
+    }
+
+    /**
+     * Проверка, что некорректные строки не разбираются
+     */
+    @Test
+    public void testInvalidInput() {
+        assertThat(EpochDays.parseIsoDate("2020-1-4"), is(-1));
+        assertThat(EpochDays.parseIsoDate("2020-13-01"), is(-1));
+        assertThat(EpochDays.parseCbrDate("2020-01-04"), is(-1));
+        assertThat(EpochDays.parseCbrDate("0a.01.2020"), is(-1));
+    }
+
+    /**
+     * Проверка разбора даты из байтов в обоих форматах
+     */
+    @Test
+    public void testParseAscii() {
+        byte[] bytes = "x,2020-01-04,04.01.2020,2020/01/04".getBytes(StandardCharsets.US_ASCII);
+        assertThat(EpochDays.parseAscii(bytes, 2, 10), is(18265));
+        assertThat(EpochDays.parseAscii(bytes, 13, 10), is(18265));
+        assertThat(EpochDays.parseAscii(bytes, 24, 10), is(-1));
+        assertThat(EpochDays.parseAscii(bytes, 2, 9), is(-1));
+    }
+}
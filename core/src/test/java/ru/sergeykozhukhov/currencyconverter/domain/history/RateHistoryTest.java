@@ -0,0 +1,222 @@
+package ru.sergeykozhukhov.currencyconverter.domain.history;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
+import ru.sergeykozhukhov.currencyconverter.domain.model.RatesSnapshot;
+import ru.sergeykozhukhov.currencyconverter.domain.publish.RatesPublisher;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Юнит тесты на {@link RateHistory}
+ **/
+public class RateHistoryTest {
+
+    private static final double DELTA = 1e-9;
+
+    private RateHistory mHistory;
+
+    @Before
+    public void setUp() {
+        mHistory = new RateHistory();
+    }
+
+    /**
+     * Проверка ряда кросс-курса: начало с первого общего дня и повтор значения пропавшей валюты
+     */
+    @Test
+    public void testPair() {
+        // arrange
+        mHistory.append(10, Collections.singletonList(usd("60")));
+        mHistory.append(11, Arrays.asList(usd("62"), eur("700")));
+        mHistory.append(12, Collections.singletonList(usd("63")));
+
+        // act
+        RateSeries usdEur = mHistory.pair("USD", "EUR");
+        RateSeries usdRub = mHistory.pair("USD", "RUB");
+        RateSeries rubUsd = mHistory.pair("RUB", "USD");
+
+        // assert
+        assertThat(usdEur.size(), is(2));
+        assertThat(usdEur.getDay(0), is(11));
+        assertThat(usdEur.getValue(0), closeTo(62.0 / 70, DELTA));
+        assertThat(usdEur.getDay(1), is(12));
+        assertThat(usdEur.getValue(1), closeTo(63.0 / 70, DELTA));
+        assertThat(usdRub.size(), is(3));
+        assertThat(usdRub.getValue(0), closeTo(60, DELTA));
+        assertThat(rubUsd.size(), is(3));
+        assertThat(rubUsd.getValue(2), closeTo(1.0 / 63, DELTA));
+        assertThat(mHistory.pair("RUB", "RUB").getValue(1), closeTo(1, DELTA));
+        assertThat(mHistory.pair("USD", "GBP"), is(nullValue()));
+    }
+
+    /**
+     * Проверка, что повторная загрузка того же дня игнорируется, а выданный ряд не меняется при добавлении
+     */
+    @Test
+    public void testAppend() {
+        // arrange
+        for (int day = 0; day < 100; day++) {
+            mHistory.append(day, Collections.singletonList(usd(String.valueOf(day + 1))));
+        }
+        RateSeries series = mHistory.pair("USD", "RUB");
+
+        // act
+        boolean appendedSameDay = mHistory.append(99, Collections.singletonList(usd("1000")));
+        mHistory.append(100, Collections.singletonList(usd("1000")));
+
+        // assert
+        assertThat(appendedSameDay, is(false));
+        assertThat(mHistory.size(), is(101));
+        assertThat(series.size(), is(100));
+        assertThat(series.getValue(99), closeTo(100, DELTA));
+    }
+
+    /**
+     * Проверка подписчика: один день истории на московскую дату, повторные снимки того же дня пропускаются
+     */
+    @Test
+    public void testSubscriber() {
+        // arrange
+        RatesPublisher.Subscriber subscriber = mHistory.subscriber();
+        long morning = TimeUnit.DAYS.toMillis(18265) + TimeUnit.HOURS.toMillis(6); // 09:00 по Москве
+
+        // act
+        subscriber.onRates(new RatesSnapshot(1, morning, Collections.singletonList(usd("60"))));
+        subscriber.onRates(new RatesSnapshot(2, morning + TimeUnit.HOURS.toMillis(12),
+                Collections.singletonList(usd("61"))));
+        subscriber.onRates(new RatesSnapshot(3, morning + TimeUnit.HOURS.toMillis(15),
+                Collections.singletonList(usd("62"))));
+
+        // assert
+        RateSeries usdRub = mHistory.pair("USD", "RUB");
+        assertThat(usdRub.size(), is(2));
+        assertThat(usdRub.getDay(0), is(18265));
+        assertThat(usdRub.getValue(0), closeTo(60, DELTA));
+        assertThat(usdRub.getDay(1), is(18266));
+        assertThat(usdRub.getValue(1), closeTo(62, DELTA));
+    }
+
+    /**
+     * Проверка конвертации суммы за отрезок дней: границы отрезка, первый общий день и рубль в паре
+     */
+    @Test
+    public void testConvertRange() {
+        // arrange
+        mHistory.append(10, Collections.singletonList(usd("60")));
+        mHistory.append(11, Arrays.asList(usd("62"), eur("700")));
+        mHistory.append(13, Collections.singletonList(usd("63")));
+        mHistory.append(14, Arrays.asList(usd("64"), eur("720")));
+
+        // act
+        ArrayRateSeries usdEur = mHistory.convertRange(1000, "USD", "EUR", 5, 13);
+        ArrayRateSeries usdRub = mHistory.convertRange(2, "USD", "RUB", 11, 12);
+        ArrayRateSeries rubEur = mHistory.convertRange(720, "RUB", "EUR", 14, 100);
+
+        // assert
+        assertThat(usdEur.size(), is(2));
+        assertThat(usdEur.getDay(0), is(11));
+        assertThat(usdEur.getValue(0), closeTo(1000 * 62.0 / 70, DELTA));
+        assertThat(usdEur.getDay(1), is(13));
+        assertThat(usdEur.getValue(1), closeTo(1000 * 63.0 / 70, DELTA));
+        assertThat(usdRub.size(), is(1));
+        assertThat(usdRub.getValue(0), closeTo(124, DELTA));
+        assertThat(rubEur.size(), is(1));
+        assertThat(rubEur.getValue(0), closeTo(10, DELTA));
+    }
+
+    /**
+     * Проверка отрезка, открытого справа ("по сегодняшний день")
+     */
+    @Test
+    public void testConvertRange_openEnded() {
+        // arrange
+        mHistory.append(10, Collections.singletonList(usd("60")));
+        mHistory.append(11, Arrays.asList(usd("62"), eur("700")));
+        mHistory.append(13, Arrays.asList(usd("63"), eur("710")));
+
+        // act
+        ArrayRateSeries all = mHistory.convertRange(1000, "USD", "EUR", 0, Integer.MAX_VALUE);
+        ArrayRateSeries fromInside = mHistory.convertRange(2, "USD", "RUB", 11, Integer.MAX_VALUE);
+
+        // assert
+        assertThat(all.size(), is(2));
+        assertThat(all.getDay(0), is(11));
+        assertThat(all.getDay(1), is(13));
+        assertThat(all.getValue(1), closeTo(1000 * 63.0 / 71, DELTA));
+        assertThat(fromInside.size(), is(2));
+        assertThat(fromInside.getValue(0), closeTo(124, DELTA));
+        assertThat(fromInside.getValue(1), closeTo(126, DELTA));
+    }
+
+    /**
+     * Проверка пустых отрезков и неизвестной валюты
+     */
+    @Test
+    public void testConvertRange_emptyAndMissing() {
+        // arrange
+        mHistory.append(10, Collections.singletonList(usd("60")));
+        mHistory.append(11, Arrays.asList(usd("62"), eur("700")));
+
+        // act & assert
+        assertThat(mHistory.convertRange(1, "USD", "EUR", 0, 10).size(), is(0));
+        assertThat(mHistory.convertRange(1, "USD", "EUR", 12, 20).size(), is(0));
+        assertThat(mHistory.convertRange(1, "USD", "EUR", 11, 10).size(), is(0));
+        assertThat(mHistory.convertRange(1, "RUB", "RUB", 0, 20).getValue(1), closeTo(1, DELTA));
+        assertThat(mHistory.convertRange(1, "USD", "GBP", 0, 20), is(nullValue()));
+    }
+
+    /**
+     * Проверка, что ряд за десять лет (около 3650 точек) считается быстрее миллисекунды
+     * (замер запускается только с -Pbenchmark)
+     */
+    @Test
+    public void testConvertRange_benchmark() {
+        assumeTrue(Boolean.getBoolean("benchmark"));
+        // arrange
+        int from = EpochDays.of(2015, 1, 1);
+        int to = EpochDays.of(2024, 12, 31);
+        for (int day = from; day <= to; day++) {
+            List<Currency> currencies = Arrays.asList(
+                    usd(String.valueOf(60 + day % 17)), eur(String.valueOf(700 + day % 23)));
+            mHistory.append(day, currencies);
+        }
+        int rounds = 5000;
+        for (int i = 0; i < rounds; i++) {
+            mHistory.convertRange(1000, "USD", "EUR", from, to);
+        }
+
+        // act
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            mHistory.convertRange(1000, "USD", "EUR", from, to);
+        }
+        long averageNanos = (System.nanoTime() - start) / rounds;
+
+        // assert
+        System.out.println(String.format(Locale.US, "RateHistory.convertRange 10 years: %.1f us", averageNanos / 1e3));
+        assertThat(averageNanos, lessThan(1_000_000L));
+    }
+
+    private static Currency usd(String value) {
+        return new Currency("R01235", "USD", 1, "Доллар США", new BigDecimal(value));
+    }
+
+    private static Currency eur(String value) {
+        return new Currency("R01239", "EUR", 10, "Евро", new BigDecimal(value));
+    }
+}
@@ -0,0 +1,73 @@
+package ru.sergeykozhukhov.currencyconverter.domain.history;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+
+import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Юнит тесты на {@link ZoomLevelCache}
+ **/
+public class ZoomLevelCacheTest {
+
+    private RateHistory mHistory;
+
+    private ZoomLevelCache mCache;
+
+    @Before
+    public void setUp() {
+        mHistory = new RateHistory();
+        for (int day = 0; day < 1000; day++) {
+            mHistory.append(day, Collections.singletonList(
+                    new Currency("R01235", "USD", 1, "Доллар США", BigDecimal.valueOf(60 + day % 7))));
+        }
+        mCache = new ZoomLevelCache(mHistory, 100, 4);
+    }
+
+    /**
+     * Проверка уровней масштаба: от ширины графика до исходного ряда
+     */
+    @Test
+    public void testLevels() {
+        // act
+        int levelCount = mCache.getLevelCount("USD", "RUB");
+        RateSeries whole = mCache.getVisible("USD", "RUB", 0, 0, 999);
+        RateSeries raw = mCache.getVisible("USD", "RUB", levelCount - 1, 0, 999);
+        RateSeries window = mCache.getVisible("USD", "RUB", Integer.MAX_VALUE, 200, 299);
+
+        // assert
+        assertThat(levelCount, is(5)); // 100, 200, 400, 800, 1000 точек
+        assertThat(whole.size(), is(100));
+        assertThat(raw.size(), is(1000));
+        assertThat(window.size(), is(100));
+        assertThat(window.getDay(0), is(200));
+        assertThat(mCache.getVisible("EUR", "RUB", 0, 0, 999), is(nullValue()));
+    }
+
+    /**
+     * Проверка, что после добавления дня уровни пересчитываются
+     */
+    @Test
+    public void testInvalidation() {
+        // arrange
+        RateSeries before = mCache.getVisible("USD", "RUB", 0, 0, 2000);
+
+        // act
+        mHistory.append(1000, Collections.singletonList(
+                new Currency("R01235", "USD", 1, "Доллар США", BigDecimal.TEN)));
+        RateSeries after = mCache.getVisible("USD", "RUB", 0, 0, 2000);
+
+        // assert
+        assertThat(before.getDay(before.size() - 1), is(999));
+        assertThat(after.getDay(after.size() - 1), is(1000));
+        assertThat(after.size(), lessThanOrEqualTo(100));
+    }
+}
@@ -0,0 +1,242 @@
+package ru.sergeykozhukhov.currencyconverter.domain.journal;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Юнит тесты на {@link ConversionJournal} и {@link JournalReader}
+ **/
+public class ConversionJournalTest {
+
+    private File mFile;
+
+    private ConversionJournal mJournal;
+
+    @Before
+    public void setUp() throws IOException {
+        mFile = Files.createTempFile("conversions", ".journal").toFile();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (mJournal != null) {
+            mJournal.close();
+        }
+        Files.deleteIfExists(mFile.toPath());
+    }
+
+    /**
+     * Проверка, что записи читаются в порядке добавления и после переоткрытия журнала
+     */
+    @Test
+    public void testAppend_readBack() throws Exception {
+        // arrange
+        mJournal = new ConversionJournal(mFile);
+        List<ConversionRecord> expected = records(0, 3);
+
+        // act
+        for (ConversionRecord record : expected) {
+            mJournal.append(record);
+        }
+        mJournal.close();
+        mJournal = new ConversionJournal(mFile);
+        mJournal.flush();
+
+        // assert
+        assertThat(readAll(), is(expected));
+        assertThat(mJournal.getRecoveredRecordCount(), is(3L));
+        assertThat(mJournal.getTruncatedBytes(), is(0L));
+    }
+
+    /**
+     * Проверка group commit: записи из нескольких потоков пишутся пачками, fsync меньше, чем записей
+     */
+    @Test
+    public void testAppend_groupCommit() throws Exception {
+        // arrange
+        mJournal = new ConversionJournal(mFile);
+        final int threads = 4;
+        final int perThread = 500;
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> appenders = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int first = t * perThread;
+            Thread appender = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (ConversionRecord record : records(first, perThread)) {
+                        mJournal.append(record);
+                    }
+                }
+            });
+            appender.start();
+            appenders.add(appender);
+        }
+
+        // act
+        start.countDown();
+        for (Thread appender : appenders) {
+            appender.join();
+        }
+        mJournal.flush();
+
+        // assert
+        assertThat(readAll().size(), is(threads * perThread));
+        assertThat(mJournal.getCommitCount(), greaterThan(0L));
+        assertThat(mJournal.getCommitCount(), lessThan((long) threads * perThread));
+    }
+
+    /**
+     * Проверка восстановления после сбоя посреди записи: оборванная запись отбрасывается,
+     * новые записи дописываются за последней целой
+     */
+    @Test
+    public void testRecovery_tornTail() throws Exception {
+        // arrange
+        mJournal = new ConversionJournal(mFile);
+        for (ConversionRecord record : records(0, 5)) {
+            mJournal.append(record);
+        }
+        mJournal.close();
+        long validLength = mFile.length();
+        RandomAccessFile file = new RandomAccessFile(mFile, "rw");
+        try {
+            // заголовок записи обещает 60 байт, но записалось только 10
+            file.seek(validLength);
+            file.writeInt(60);
+            file.writeInt(12345);
+            file.write(new byte[10]);
+        } finally {
+            file.close();
+        }
+
+        // act
+        mJournal = new ConversionJournal(mFile);
+        mJournal.append(records(5, 1).get(0));
+        mJournal.flush();
+
+        // assert
+        assertThat(mJournal.getRecoveredRecordCount(), is(5L));
+        assertThat(mJournal.getTruncatedBytes(), is(18L));
+        assertThat(readAll(), is(records(0, 6)));
+    }
+
+    /**
+     * Проверка, что запись с неверной контрольной суммой и всё после неё отбрасываются
+     */
+    @Test
+    public void testRecovery_corruptedRecord() throws Exception {
+        // arrange
+        mJournal = new ConversionJournal(mFile);
+        mJournal.append(records(0, 1).get(0));
+        mJournal.flush();
+        long firstEnd = mFile.length();
+        mJournal.append(records(1, 1).get(0));
+        mJournal.flush();
+        long secondEnd = mFile.length();
+        mJournal.append(records(2, 1).get(0));
+        mJournal.close();
+        RandomAccessFile file = new RandomAccessFile(mFile, "rw");
+        try {
+            // портится последний байт данных второй записи
+            file.seek(secondEnd - 1);
+            int last = file.read();
+            file.seek(secondEnd - 1);
+            file.write(last ^ 0xFF);
+        } finally {
+            file.close();
+        }
+
+        // act
+        mJournal = new ConversionJournal(mFile);
+        mJournal.flush();
+
+        // assert
+        assertThat(mJournal.getRecoveredRecordCount(), is(1L));
+        assertThat(mFile.length(), is(firstEnd));
+        assertThat(readAll(), is(records(0, 1)));
+    }
+
+    /**
+     * Проверка восстановления файла без заголовка (сбой сразу после создания)
+     */
+    @Test
+    public void testRecovery_emptyFile() throws Exception {
+        // act
+        mJournal = new ConversionJournal(mFile);
+        mJournal.flush();
+
+        // assert
+        assertThat(mFile.length(), is((long) JournalFormat.FILE_HEADER_SIZE));
+        assertThat(readAll().isEmpty(), is(true));
+    }
+
+    /**
+     * Проверка, что чужой файл не принимается за журнал
+     */
+    @Test(expected = IOException.class)
+    public void testRecovery_notAJournal() throws Exception {
+        Files.write(mFile.toPath(), "<ValCurs/>".getBytes("UTF-8"));
+        ConversionJournal journal = new ConversionJournal(mFile);
+
+        try {
+            journal.flush();
+        } finally {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                // та же ошибка открытия
+            }
+        }
+    }
+
+    private List<ConversionRecord> readAll() throws IOException {
+        List<ConversionRecord> records = new ArrayList<>();
+        JournalReader reader = mJournal.openReader();
+        try {
+            ConversionRecord record;
+            while ((record = reader.next()) != null) {
+                records.add(record);
+            }
+        } finally {
+            reader.close();
+        }
+        return records;
+    }
+
+    /**
+     * Записи с предсказуемым содержимым, номера с first по first + count - 1
+     */
+    private static List<ConversionRecord> records(int first, int count) {
+        List<ConversionRecord> records = new ArrayList<>(count);
+        for (int i = first; i < first + count; i++) {
+            records.add(new ConversionRecord(
+                    1_560_000_000_000L + i,
+                    "USD",
+                    i % 2 == 0 ? "EUR" : "RUB",
+                    new BigDecimal(i + ".25"),
+                    new BigDecimal("-" + i + ".125")));
+        }
+        return records;
+    }
+}
@@ -0,0 +1,289 @@
+package ru.sergeykozhukhov.currencyconverter.domain.model;
+
+import org.junit.Test;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Юнит тесты на {@link RatesTable}
+ **/
+public class RatesTableTest {
+
+    /**
+     * Количество дней истории в тесте на занимаемую память
+     */
+    private static final int DAYS = 3000;
+
+    /**
+     * Количество валют в одной загрузке (как в XML_daily)
+     */
+    private static final int CURRENCIES_PER_DAY = 34;
+
+    /**
+     * Проверка, что представление в виде списка совпадает с исходным списком
+     */
+    @Test
+    public void testAsList() {
+        // arrange
+        List<Currency> currencies = Arrays.asList(
+                new Currency("R01235", "USD", 1, "Доллар США", new BigDecimal("63.8487")),
+                new Currency("R01239", "EUR", 1, "Евро", new BigDecimal("70.7856")),
+                new Currency("R01820", "JPY", 100, "Японских иен", new BigDecimal("58.7681")),
+                new Currency("id", "charCode", 10, "Евро", new BigDecimal("0.5000"))
+        );
+
+        // act
+        RatesTable table = RatesTable.fromCurrencies(currencies);
+
+        // assert
+        assertThat(table.asList(), is(currencies));
+        assertThat(table.getScale(), is(4));
+        assertThat(table.getUnscaledValue(0), is(638487L));
+        assertThat(table.getCharCode(3), is("charCode"));
+        assertThat(table.getPackedCharCode(3), is(-1));
+        assertThat(table.getPackedCharCode(0), is(RatesTable.packCharCode("USD")));
+        assertThat(table.getName(1) == table.getName(3), is(true)); // одно название хранится один раз
+        assertThat(table.indexOfId("R01820"), is(2));
+        assertThat(table.indexOfId("R00000"), is(-1));
+        assertThat(RatesTable.fromCurrencies(table.asList()), is(table));
+    }
+
+    /**
+     * Проверка приведения курсов к общей точности
+     */
+    @Test
+    public void testSharedScale() {
+        // act
+        RatesTable table = new RatesTable.Builder(2)
+                .add("R01235", "USD", 1, "Доллар США", new BigDecimal("63.8"))
+                .add("R01239", "EUR", 1, "Евро", new BigDecimal("70.78561"))
+                .build();
+
+        // assert
+        assertThat(table.getScale(), is(5));
+        assertThat(table.getUnscaledValue(0), is(6380000L));
+        assertThat(table.getValue(0).compareTo(new BigDecimal("63.8")), is(0));
+        assertThat(table.getValue(1), is(new BigDecimal("70.78561")));
+    }
+
+    /**
+     * Проверка, что курс, не помещающийся в long при общей точности, отклоняется
+     */
+    @Test(expected = ArithmeticException.class)
+    public void testBuild_valueOverflow() {
+        new RatesTable.Builder(2)
+                .add("R01235", "USD", 1, "Доллар США", new BigDecimal("92233720368547758.07"))
+                .add("R01239", "EUR", 1, "Евро", new BigDecimal("0.001"))
+                .build();
+    }
+
+    /**
+     * Проверка, что представление в виде списка одно на таблицу и не хранит созданные валюты
+     */
+    @Test
+    public void testListView() {
+        // arrange
+        RatesTable table = new RatesTable.Builder(1)
+                .add("R01235", "USD", 1, "Доллар США", new BigDecimal("63.8487"))
+                .build();
+
+        // act & assert
+        assertThat(table.asList() == table.asList(), is(true));
+        assertThat(table.asList().get(0), is(table.get(0)));
+        assertThat(table.asList().get(0) == table.get(0), is(false));
+    }
+
+    /**
+     * Проверка добавления валюты в начало таблицы
+     */
+    @Test
+    public void testWithFirst() {
+        // arrange
+        Currency usd = new Currency("R01235", "USD", 1, "Доллар США", new BigDecimal("63.8487"));
+        Currency rub = new Currency("rub_id", "RUB", 1, "Российский рубль", BigDecimal.ONE);
+        RatesTable table = RatesTable.fromCurrencies(Arrays.asList(usd));
+
+        // act
+        RatesTable withRub = table.withFirst(rub);
+
+        // assert
+        assertThat(withRub.get(0).getCharCode(), is("RUB"));
+        assertThat(withRub.getValue(0).compareTo(BigDecimal.ONE), is(0));
+        assertThat(withRub.get(1), is(usd));
+        assertThat(withRub.indexOfId("R01235"), is(1));
+        assertThat(withRub.indexOfCharCode("RUB"), is(0));
+        assertThat(withRub.indexOfCharCode("EUR"), is(-1));
+        assertThat(withRub.withFirst(rub), is(withRub)); // валюта уже есть
+        assertThat(table.size(), is(1));
+    }
+
+    /**
+     * Проверка, что история курсов в виде таблиц занимает в несколько раз меньше памяти, чем списки валют.
+     * Строки в списках создаются заново для каждой загрузки, как при разборе xml; у таблиц перед замером
+     * перебирается представление в виде списка, чтобы проверить, что оно не удерживает созданные валюты
+     */
+    @Test
+    public void testMemoryFootprint() {
+        // arrange
+        Footprint lists = new Footprint();
+        Footprint tables = new Footprint();
+        BigDecimal total = BigDecimal.ZERO;
+
+        // act
+        for (int day = 0; day < DAYS; day++) {
+            lists.addList(load(day));
+            RatesTable table = RatesTable.fromCurrencies(load(day));
+            for (Currency currency : table.asList()) {
+                total = total.add(currency.getValue());
+            }
+            tables.add(table);
+        }
+
+        // assert
+        assertThat(total.signum(), is(1));
+        assertThat(tables.getBytes() * 4, lessThan(lists.getBytes()));
+    }
+
+    /**
+     * Список валют за день с новыми экземплярами строк
+     */
+    private static List<Currency> load(int day) {
+        List<Currency> result = new ArrayList<>(CURRENCIES_PER_DAY);
+        for (int i = 0; i < CURRENCIES_PER_DAY; i++) {
+            result.add(new Currency(
+                    new String("R0" + (1000 + i)),
+                    new String(new char[]{'A', (char) ('A' + i % 26), (char) ('A' + i / 26)}),
+                    1,
+                    new String("Валюта номер " + i),
+                    BigDecimal.valueOf(100000 + day * 10 + i, 4)));
+        }
+        return result;
+    }
+
+    /**
+     * Размер графа объектов по модели 64-битной JVM со сжатыми ссылками: заголовок объекта 12 байт,
+     * массива 16 байт, ссылка 4 байта, выравнивание 8 байт. Общие объекты (интернированные строки)
+     * считаются один раз. String, BigDecimal и BigInteger оцениваются по их полям в JDK 8 без доступа
+     * к закрытым полям JDK, поэтому результат не зависит от сборщика мусора и версии JVM
+     */
+    private static final class Footprint {
+
+        private final Set<Object> mVisited = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+
+        private long mBytes;
+
+        long getBytes() {
+            return mBytes;
+        }
+
+        /**
+         * Список валют: ArrayList с массивом по размеру и все объекты, достижимые из валют
+         */
+        void addList(List<Currency> currencies) {
+            mBytes += align(12 + 4 + 4 + 4) + align(16 + 4L * currencies.size());
+            for (Currency currency : currencies) {
+                add(currency);
+            }
+        }
+
+        void add(Object root) {
+            Deque<Object> pending = new ArrayDeque<>();
+            pending.push(root);
+            while (!pending.isEmpty()) {
+                Object object = pending.pop();
+                if (!mVisited.add(object)) {
+                    continue;
+                }
+                mBytes += shallowSize(object, pending);
+            }
+        }
+
+        private static long shallowSize(Object object, Deque<Object> pending) {
+            Class<?> type = object.getClass();
+            if (type == String.class) {
+                // hash, ссылка на char[]
+                return align(12 + 4 + 4) + align(16 + 2L * ((String) object).length());
+            }
+            if (type == BigDecimal.class) {
+                // intCompact, scale, precision, ссылки на intVal и stringCache
+                BigInteger unscaled = ((BigDecimal) object).unscaledValue();
+                return align(12 + 8 + 4 + 4 + 4 + 4) + (unscaled.bitLength() < Long.SIZE ? 0 : bigIntegerSize(unscaled));
+            }
+            if (type.isArray()) {
+                int length = Array.getLength(object);
+                Class<?> component = type.getComponentType();
+                if (!component.isPrimitive()) {
+                    for (int i = 0; i < length; i++) {
+                        push(pending, Array.get(object, i));
+                    }
+                }
+                return align(16 + (long) primitiveSize(component) * length);
+            }
+            if (!type.getName().startsWith("ru.sergeykozhukhov.")) {
+                throw new AssertionError("Нет модели размера для " + type.getName());
+            }
+            long size = 12;
+            for (Class<?> c = type; c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+                    size += primitiveSize(field.getType());
+                    if (!field.getType().isPrimitive()) {
+                        field.setAccessible(true);
+                        try {
+                            push(pending, field.get(object));
+                        } catch (IllegalAccessException e) {
+                            throw new AssertionError(e);
+                        }
+                    }
+                }
+            }
+            return align(size);
+        }
+
+        private static long bigIntegerSize(BigInteger value) {
+            // signum, bitCount, bitLength, lowestSetBit, firstNonzeroIntNum, ссылка на int[] mag
+            return align(12 + 4 * 5 + 4) + align(16 + 4L * (value.bitLength() / 32 + 1));
+        }
+
+        private static int primitiveSize(Class<?> type) {
+            if (type == long.class || type == double.class) {
+                return 8;
+            }
+            if (type == short.class || type == char.class) {
+                return 2;
+            }
+            if (type == byte.class || type == boolean.class) {
+                return 1;
+            }
+            return 4; // int, float и ссылки
+        }
+
+        private static void push(Deque<Object> pending, Object object) {
+            if (object != null) {
+                pending.push(object);
+            }
+        }
+
+        private static long align(long size) {
+            return (size + 7) / 8 * 8;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package ru.sergeykozhukhov.currencyconverter.domain.pipeline;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * Юнит тесты на {@link StageScope}, {@link Channel} и {@link ChunkInputStream}
+ **/
+public class StageScopeTest {
+
+    private ExecutorService mExecutor;
+
+    @Before
+    public void setUp() {
+        mExecutor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        mExecutor.shutdownNow();
+    }
+
+    /**
+     * Проверка передачи данных между стадиями и замера времени каждой стадии
+     */
+    @Test
+    public void testJoin_happyCase() throws Exception {
+        // arrange
+        final Channel<byte[]> chunks = new Channel<>(2);
+        StageScope scope = new StageScope(mExecutor);
+
+        // act
+        scope.fork("produce", new Callable<Void>() {
+            @Override
+            public Void call() throws InterruptedException {
+                for (int i = 0; i < 100; i++) {
+                    chunks.send(new byte[]{(byte) i, (byte) i});
+                }
+                chunks.close();
+                return null;
+            }
+        });
+        StageScope.Stage<Integer> consume = scope.fork("consume", new Callable<Integer>() {
+            @Override
+            public Integer call() throws IOException {
+                InputStream input = new ChunkInputStream(chunks);
+                ByteArrayOutputStream output = new ByteArrayOutputStream();
+                byte[] buffer = new byte[3]; // размер буфера не совпадает с размером блока
+                int read;
+                while ((read = input.read(buffer)) != -1) {
+                    output.write(buffer, 0, read);
+                }
+                return output.size();
+            }
+        });
+        scope.join();
+        scope.close();
+
+        // assert
+        assertThat(consume.get(), is(200));
+        List<StageTiming> timings = scope.getTimings();
+        assertThat(timings.size(), is(2));
+        assertThat(timings.get(0).getName(), is("produce"));
+        assertThat(timings.get(1).getName(), is("consume"));
+        assertThat(timings.get(1).getDurationNanos() >= 0, is(true));
+    }
+
+    /**
+     * Проверка, что ошибка одной стадии отменяет остальные, закрывает ресурсы и пробрасывается из join
+     */
+    @Test
+    public void testJoin_failureCancelsScope() throws Exception {
+        // arrange
+        final Channel<byte[]> chunks = new Channel<>(1);
+        final AtomicBoolean closed = new AtomicBoolean();
+        final AtomicBoolean interrupted = new AtomicBoolean();
+        final CountDownLatch started = new CountDownLatch(1);
+        StageScope scope = new StageScope(mExecutor);
+        scope.onCancel(new Closeable() {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        });
+
+        // act
+        scope.fork("blocked", new Callable<Void>() {
+            @Override
+            public Void call() throws InterruptedException {
+                started.countDown();
+                try {
+                    chunks.receive(); // никто ничего не отправит
+                } catch (InterruptedException e) {
+                    interrupted.set(true);
+                    throw e;
+                }
+                return null;
+            }
+        });
+        started.await();
+        scope.fork("failing", new Callable<Void>() {
+            @Override
+            public Void call() throws IOException {
+                throw new IOException("parse error");
+            }
+        });
+        try {
+            scope.join();
+            fail("Ошибка стадии не проброшена");
+        } catch (IOException e) {
+            // assert
+            assertThat(e.getMessage(), is("parse error"));
+        } finally {
+            scope.close();
+        }
+        assertThat(scope.isCancelled(), is(true));
+        assertThat(closed.get(), is(true));
+        assertThat(interrupted.get(), is(true));
+    }
+}
@@ -0,0 +1,181 @@
+package ru.sergeykozhukhov.currencyconverter.domain.publish;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
+import ru.sergeykozhukhov.currencyconverter.domain.model.RatesSnapshot;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Юнит тесты на {@link RatesPublisher}
+ **/
+public class RatesPublisherTest {
+
+    private RatesPublisher mPublisher;
+
+    @Before
+    public void setUp() {
+        mPublisher = new RatesPublisher();
+    }
+
+    /**
+     * Проверка, что быстрый подписчик получает все снимки, а медленный - только последний
+     */
+    @Test
+    public void testSlowSubscriberConflated() {
+        // arrange
+        Executor direct = new Executor() {
+            @Override
+            public void execute(@NonNull Runnable command) {
+                command.run();
+            }
+        };
+        QueueExecutor slow = new QueueExecutor();
+        RecordingSubscriber fastSubscriber = new RecordingSubscriber();
+        RecordingSubscriber slowSubscriber = new RecordingSubscriber();
+        mPublisher.subscribe(direct, fastSubscriber);
+        mPublisher.subscribe(slow, slowSubscriber);
+
+        // act
+        mPublisher.publish(snapshot(1));
+        mPublisher.publish(snapshot(2));
+        mPublisher.publish(snapshot(3));
+        slow.runAll();
+
+        // assert
+        assertThat(fastSubscriber.mVersions, is(Arrays.asList(1L, 2L, 3L)));
+        assertThat(slowSubscriber.mVersions, is(Collections.singletonList(3L)));
+        assertThat(slow.mExecuted, is(1)); // одна задача доставки на три публикации
+    }
+
+    /**
+     * Проверка доставки последнего снимка новому подписчику и пропуска устаревших снимков
+     */
+    @Test
+    public void testLatestAndOrdering() {
+        // arrange
+        QueueExecutor executor = new QueueExecutor();
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        mPublisher.publish(snapshot(5));
+
+        // act
+        mPublisher.subscribe(executor, subscriber);
+        executor.runAll();
+        mPublisher.publish(snapshot(4));
+        executor.runAll();
+
+        // assert
+        assertThat(subscriber.mVersions, is(Collections.singletonList(5L)));
+        assertThat(mPublisher.getLatest().getVersion(), is(5L));
+    }
+
+    /**
+     * Проверка, что опоздавший снимок не вытесняет из ячейки подписчика более новый
+     */
+    @Test
+    public void testStaleOfferKeepsNewerPending() {
+        // arrange
+        // первый подписчик публикует v3, пока рассылка v2 ещё не дошла до второго
+        mPublisher.subscribe(new Executor() {
+            @Override
+            public void execute(@NonNull Runnable command) {
+                command.run();
+            }
+        }, new RatesPublisher.Subscriber() {
+            @Override
+            public void onRates(@NonNull RatesSnapshot snapshot) {
+                if (snapshot.getVersion() == 2) {
+                    mPublisher.publish(snapshot(3));
+                }
+            }
+        });
+        QueueExecutor executor = new QueueExecutor();
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        mPublisher.subscribe(executor, subscriber);
+
+        // act
+        mPublisher.publish(snapshot(2));
+        executor.runAll();
+
+        // assert
+        assertThat(subscriber.mVersions, is(Collections.singletonList(3L)));
+    }
+
+    /**
+     * Проверка отмены подписки и отписки при остановленном executor
+     */
+    @Test
+    public void testCancel() {
+        // arrange
+        QueueExecutor executor = new QueueExecutor();
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        RatesPublisher.Subscription subscription = mPublisher.subscribe(executor, subscriber);
+        mPublisher.subscribe(new Executor() {
+            @Override
+            public void execute(@NonNull Runnable command) {
+                throw new RejectedExecutionException();
+            }
+        }, new RecordingSubscriber());
+
+        // act
+        mPublisher.publish(snapshot(1));
+        subscription.cancel();
+        executor.runAll();
+
+        // assert
+        assertThat(subscriber.mVersions.isEmpty(), is(true));
+        assertThat(mPublisher.getSubscriberCount(), is(0));
+    }
+
+    @NonNull
+    private static RatesSnapshot snapshot(long version) {
+        return new RatesSnapshot(version, version * 1000, Collections.<Currency>emptyList());
+    }
+
+    /**
+     * Executor, выполняющий задачи только по команде теста
+     */
+    private static class QueueExecutor implements Executor {
+
+        private final Queue<Runnable> mTasks = new ArrayDeque<>();
+
+        private int mExecuted;
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            mTasks.add(command);
+        }
+
+        void runAll() {
+            Runnable task;
+            while ((task = mTasks.poll()) != null) {
+                mExecuted++;
+                task.run();
+            }
+        }
+    }
+
+    private static class RecordingSubscriber implements RatesPublisher.Subscriber {
+
+        private final List<Long> mVersions = new ArrayList<>();
+
+        @Override
+        public void onRates(@NonNull RatesSnapshot snapshot) {
+            mVersions.add(snapshot.getVersion());
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package ru.sergeykozhukhov.currencyconverter.domain.routing;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
+import ru.sergeykozhukhov.currencyconverter.domain.model.RatesSnapshot;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Юнит тесты на {@link RoutingEngine}
+ **/
+public class RoutingEngineTest {
+
+    private static final double DELTA = 1e-9;
+
+    private static final double COMMISSION = 0.01;
+
+    private RoutingEngine mEngine;
+
+    @Before
+    public void setUp() {
+        mEngine = new RoutingEngine();
+    }
+
+    /**
+     * Проверка маршрута через рубль у одного поставщика
+     */
+    @Test
+    public void testFindBestRoute_singleProvider() {
+        // arrange
+        mEngine.update("cbr", snapshot(1, "USD", "60", "EUR", "66"), 0);
+
+        // act
+        Route route = mEngine.findBestRoute("USD", "EUR");
+
+        // assert
+        assertThat(providers(route), is(Arrays.asList("cbr", "cbr")));
+        assertThat(route.getRate(), closeTo(60 / 66d, DELTA));
+        assertThat(mEngine.findBestRoute("USD", "USD").getHops().isEmpty(), is(true));
+        assertThat(mEngine.findBestRoute("USD", "XXX"), is(nullValue()));
+    }
+
+    /**
+     * Проверка, что маршрут комбинирует поставщиков: продажа там, где дороже, покупка там, где дешевле
+     */
+    @Test
+    public void testFindBestRoute_acrossProviders() {
+        // arrange
+        mEngine.update("bankA", snapshot(1, "USD", "61", "EUR", "66.5"), COMMISSION);
+        mEngine.update("bankB", snapshot(1, "USD", "60", "EUR", "66", "KZT", "0.16"), COMMISSION);
+
+        // act
+        Route usdToEur = mEngine.findBestRoute("USD", "EUR");
+        Route usdToKzt = mEngine.findBestRoute("USD", "KZT");
+
+        // assert
+        assertThat(providers(usdToEur), is(Arrays.asList("bankA", "bankB")));
+        assertThat(usdToEur.getRate(), closeTo(61 * 0.99 * 0.99 / 66, DELTA));
+        assertThat(providers(usdToKzt), is(Arrays.asList("bankA", "bankB"))); // у bankA нет тенге
+        assertThat(mEngine.findArbitrage("USD"), is(nullValue())); // комиссия съедает разницу курсов
+    }
+
+    /**
+     * Проверка обнаружения арбитража
+     */
+    @Test
+    public void testFindArbitrage() {
+        // arrange
+        mEngine.update("bankA", snapshot(1, "USD", "61", "EUR", "66"), 0.001);
+        mEngine.update("bankB", snapshot(1, "USD", "60", "EUR", "66"), 0.001);
+
+        // act
+        Route cycle = mEngine.findArbitrage("EUR");
+
+        // assert
+        assertThat(cycle.getRate(), greaterThan(1d));
+        List<RouteHop> hops = cycle.getHops();
+        assertThat(hops.get(0).getFromCharCode(), is(hops.get(hops.size() - 1).getToCharCode())); // цикл замкнут
+        assertThat(mEngine.findBestRoute("EUR", "USD"), is(nullValue())); // маршрут не ограничен
+    }
+
+    /**
+     * Проверка, что дерево сбрасывается только при изменениях, которые могут его затронуть
+     */
+    @Test
+    public void testIncrementalInvalidation() {
+        // arrange
+        mEngine.update("bankA", snapshot(1, "USD", "61", "EUR", "66"), COMMISSION);
+        mEngine.update("bankB", snapshot(1, "USD", "60", "EUR", "66.8"), COMMISSION);
+        mEngine.findBestRoute("USD", "EUR"); // USD -> RUB у bankA, RUB -> EUR у bankA
+        mEngine.findBestRoute("USD", "EUR");
+        int builds = mEngine.getTreeBuilds();
+
+        // act
+        mEngine.update("bankB", snapshot(2, "USD", "60.5", "EUR", "67"), COMMISSION); // bankB стал только хуже
+        Route afterWorse = mEngine.findBestRoute("USD", "EUR");
+        int buildsAfterWorse = mEngine.getTreeBuilds();
+        mEngine.update("bankB", snapshot(3, "USD", "62", "EUR", "67"), COMMISSION); // bankB лучше для USD -> RUB
+        Route afterBetter = mEngine.findBestRoute("USD", "EUR");
+        mEngine.update("bankB", snapshot(3, "USD", "10", "EUR", "10"), COMMISSION); // устаревшая версия
+        Route afterStale = mEngine.findBestRoute("USD", "EUR");
+
+        // assert
+        assertThat(builds, is(1));
+        assertThat(buildsAfterWorse, is(1));
+        assertThat(providers(afterWorse), is(Arrays.asList("bankA", "bankA")));
+        assertThat(mEngine.getTreeBuilds(), is(2));
+        assertThat(providers(afterBetter), is(Arrays.asList("bankB", "bankA")));
+        assertThat(afterStale.getRate(), is(afterBetter.getRate()));
+    }
+
+    /**
+     * Проверка, что после удаления поставщика маршруты через него пропадают
+     */
+    @Test
+    public void testRemove() {
+        // arrange
+        mEngine.update("bankA", snapshot(1, "USD", "61"), COMMISSION);
+        mEngine.update("bankB", snapshot(1, "KZT", "0.16"), COMMISSION);
+        assertThat(providers(mEngine.findBestRoute("USD", "KZT")), is(Arrays.asList("bankA", "bankB")));
+
+        // act
+        mEngine.remove("bankB");
+
+        // assert
+        assertThat(mEngine.findBestRoute("USD", "KZT"), is(nullValue()));
+    }
+
+    private static RatesSnapshot snapshot(long version, String... codesAndValues) {
+        List<Currency> currencies = new ArrayList<>();
+        for (int i = 0; i < codesAndValues.length; i += 2) {
+            currencies.add(new Currency("id_" + codesAndValues[i], codesAndValues[i], 1, codesAndValues[i],
+                    new BigDecimal(codesAndValues[i + 1])));
+        }
+        return new RatesSnapshot(version, version, currencies);
+    }
+
+    private static List<String> providers(Route route) {
+        List<String> result = new ArrayList<>();
+        for (RouteHop hop : route.getHops()) {
+            result.add(hop.getProviderId());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,245 @@
+package ru.sergeykozhukhov.currencyconverter.domain.schedule;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Юнит тесты на {@link PriorityTaskScheduler}
+ **/
+public class PriorityTaskSchedulerTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private PriorityTaskScheduler mScheduler;
+
+    @After
+    public void tearDown() {
+        if (mScheduler != null) {
+            mScheduler.shutdown();
+        }
+    }
+
+    /**
+     * Проверка, что задача пользователя выполняется раньше фоновых задач, поставленных в очередь до неё
+     */
+    @Test
+    public void testExecute_interactiveOvertakesQueuedBulk() throws InterruptedException {
+        // arrange
+        mScheduler = new PriorityTaskScheduler(2, 1, "test");
+        CountDownLatch firstBlocker = block(TaskLane.INTERACTIVE);
+        CountDownLatch secondBlocker = block(TaskLane.INTERACTIVE);
+        final List<String> order = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch done = new CountDownLatch(4);
+        for (int i = 0; i < 3; i++) {
+            mScheduler.execute(TaskLane.BULK, record(order, "bulk", done));
+        }
+        mScheduler.execute(TaskLane.INTERACTIVE, record(order, "interactive", done));
+
+        // act
+        firstBlocker.countDown();
+        awaitStarted(order, 1);
+        secondBlocker.countDown();
+
+        // assert
+        assertThat(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), is(true));
+        assertThat(order.get(0), is("interactive"));
+        assertThat(order.size(), is(4));
+    }
+
+    /**
+     * Проверка предела параллельности BULK: не больше заданного числа задач одновременно,
+     * а задача пользователя не ждёт очереди фоновых задач
+     */
+    @Test
+    public void testExecute_bulkConcurrencyCapped() throws InterruptedException {
+        // arrange
+        mScheduler = new PriorityTaskScheduler(4, 2, "test");
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final CountDownLatch bulkDone = new CountDownLatch(10);
+
+        // act
+        for (int i = 0; i < 10; i++) {
+            mScheduler.execute(TaskLane.BULK, new Runnable() {
+                @Override
+                public void run() {
+                    int now = running.incrementAndGet();
+                    updateMax(maxRunning, now);
+                    sleep(20);
+                    running.decrementAndGet();
+                    bulkDone.countDown();
+                }
+            });
+        }
+        final CountDownLatch interactiveDone = new CountDownLatch(1);
+        final AtomicBoolean bulkPending = new AtomicBoolean();
+        mScheduler.execute(TaskLane.INTERACTIVE, new Runnable() {
+            @Override
+            public void run() {
+                bulkPending.set(bulkDone.getCount() > 0);
+                interactiveDone.countDown();
+            }
+        });
+
+        // assert
+        assertThat(interactiveDone.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), is(true));
+        assertThat(bulkDone.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), is(true));
+        assertThat(bulkPending.get(), is(true));
+        assertThat(maxRunning.get(), is(2));
+    }
+
+    /**
+     * Проверка метрик полосы: длина очереди, время ожидания и завершённые задачи
+     */
+    @Test
+    public void testGetStats() throws InterruptedException {
+        // arrange
+        mScheduler = new PriorityTaskScheduler(2, 1, "test");
+        CountDownLatch blocker = block(TaskLane.BULK);
+        for (int i = 0; i < 5; i++) {
+            mScheduler.execute(TaskLane.BULK, new Runnable() {
+                @Override
+                public void run() {
+                }
+            });
+        }
+        sleep(20);
+
+        // act
+        LaneStats queued = mScheduler.getStats(TaskLane.BULK);
+        blocker.countDown();
+        mScheduler.shutdown();
+        assertThat(mScheduler.awaitTermination(TIMEOUT_SECONDS, TimeUnit.SECONDS), is(true));
+        LaneStats finished = mScheduler.getStats(TaskLane.BULK);
+
+        // assert
+        assertThat(queued.getQueueDepth(), is(5));
+        assertThat(queued.getRunning(), is(1));
+        assertThat(finished.getSubmitted(), is(6L));
+        assertThat(finished.getCompleted(), is(6L));
+        assertThat(finished.getQueueDepth(), is(0));
+        assertThat(finished.getMaxQueueDepth(), greaterThanOrEqualTo(5));
+        assertThat(finished.getMaxWaitNanos(), greaterThan(TimeUnit.MILLISECONDS.toNanos(10)));
+        assertThat(finished.getAverageWaitNanos(), lessThanOrEqualTo(finished.getMaxWaitNanos()));
+        assertThat(mScheduler.getStats(TaskLane.INTERACTIVE).getSubmitted(), is(0L));
+    }
+
+    /**
+     * Проверка последовательного исполнителя: задачи по одной и в порядке отправки
+     */
+    @Test
+    public void testNewSerialExecutor_runsInOrderWithoutOverlap() throws InterruptedException {
+        // arrange
+        mScheduler = new PriorityTaskScheduler(4, 2, "test");
+        Executor executor = mScheduler.newSerialExecutor(TaskLane.REFRESH);
+        final List<Integer> order = Collections.synchronizedList(new ArrayList<Integer>());
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(100);
+
+        // act
+        for (int i = 0; i < 100; i++) {
+            final int index = i;
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    updateMax(maxRunning, running.incrementAndGet());
+                    order.add(index);
+                    running.decrementAndGet();
+                    done.countDown();
+                }
+            });
+        }
+
+        // assert
+        assertThat(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), is(true));
+        assertThat(maxRunning.get(), is(1));
+        for (int i = 0; i < 100; i++) {
+            assertThat(order.get(i), is(i));
+        }
+    }
+
+    /**
+     * Проверка, что остановленный планировщик не принимает задачи
+     */
+    @Test(expected = RejectedExecutionException.class)
+    public void testExecute_afterShutdown() {
+        mScheduler = new PriorityTaskScheduler(2, 1, "test");
+        mScheduler.shutdown();
+
+        mScheduler.execute(TaskLane.INTERACTIVE, new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+    }
+
+    /**
+     * Занимает поток планировщика до срабатывания защёлки
+     */
+    private CountDownLatch block(TaskLane lane) throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        mScheduler.execute(lane, new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        assertThat(started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), is(true));
+        return release;
+    }
+
+    private static Runnable record(final List<String> order, final String name, final CountDownLatch done) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                order.add(name);
+                done.countDown();
+            }
+        };
+    }
+
+    private static void awaitStarted(List<String> order, int count) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (order.size() < count && System.nanoTime() < deadline) {
+            sleep(1);
+        }
+    }
+
+    private static void updateMax(AtomicInteger max, int value) {
+        int current;
+        while ((current = max.get()) < value && !max.compareAndSet(current, value)) {
+            // повтор
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
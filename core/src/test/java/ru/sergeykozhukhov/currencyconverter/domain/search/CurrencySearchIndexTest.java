@@ -0,0 +1,193 @@
+package ru.sergeykozhukhov.currencyconverter.domain.search;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Юнит тесты на {@link CurrencySearchIndex}
+ **/
+public class CurrencySearchIndexTest {
+
+    private static final int LIMIT = 50;
+
+    private CurrencySearchIndex mIndex;
+
+    private RecentCurrencies mRecent;
+
+    @Before
+    public void setUp() {
+        mIndex = new CurrencySearchIndex(Arrays.asList(
+                currency("RUB", "Российский рубль"),
+                currency("USD", "Доллар США"),
+                currency("EUR", "Евро"),
+                currency("AUD", "Австралийский доллар"),
+                currency("UAH", "Украинских гривен"),
+                currency("KZT", "Казахстанских тенге")));
+        mRecent = new RecentCurrencies();
+    }
+
+    /**
+     * Проверка, что точное совпадение кода выше совпадений начала кода
+     */
+    @Test
+    public void testSearch_charCode() {
+        assertThat(search("usd"), is(new int[]{1}));
+        assertThat(search("u"), is(new int[]{1, 4}));
+        assertThat(search("AU"), is(new int[]{3}));
+    }
+
+    /**
+     * Проверка поиска по началу слова и по части слова названия
+     */
+    @Test
+    public void testSearch_cyrillicName() {
+        assertThat(search("долл"), is(new int[]{1, 3}));
+        assertThat(search("ллар"), is(new int[]{1, 3}));
+        // одна-две буквы ищутся только как начало слова
+        assertThat(search("ев"), is(new int[]{2}));
+        assertThat(search("Рубль!"), is(new int[]{0}));
+    }
+
+    /**
+     * Проверка поиска по латинской записи названия
+     */
+    @Test
+    public void testSearch_latinName() {
+        assertThat(search("dollar"), is(new int[]{1, 3}));
+        assertThat(search("tenge"), is(new int[]{5}));
+    }
+
+    /**
+     * Проверка, что все слова запроса должны совпасть
+     */
+    @Test
+    public void testSearch_severalWords() {
+        assertThat(search("австр долл"), is(new int[]{3}));
+        assertThat(search("евро долл"), is(new int[0]));
+    }
+
+    /**
+     * Проверка, что совпадения начала слова выше совпадений части слова
+     */
+    @Test
+    public void testSearch_wordPrefixBeforeSubstring() {
+        // arrange
+        CurrencySearchIndex index = new CurrencySearchIndex(Arrays.asList(
+                currency("XAA", "Супертенге"),
+                currency("XAB", "Тенге")));
+
+        // act
+        int[] result = index.search("тенге", mRecent, LIMIT);
+
+        // assert
+        assertThat(result, is(new int[]{1, 0}));
+    }
+
+    /**
+     * Проверка, что недавно использованные валюты выше внутри своей группы
+     */
+    @Test
+    public void testSearch_recentFirst() {
+        // arrange
+        mRecent.markUsed("USD");
+        mRecent.markUsed("AUD");
+
+        // act
+        int[] result = search("доллар");
+
+        // assert
+        assertThat(result, is(new int[]{3, 1}));
+    }
+
+    /**
+     * Проверка пустого запроса, ограничения количества и отсутствия совпадений
+     */
+    @Test
+    public void testSearch_emptyLimitAndMissing() {
+        assertThat(search("  "), is(new int[]{0, 1, 2, 3, 4, 5}));
+        assertThat(mIndex.search("долл", mRecent, 1), is(new int[]{1}));
+        assertThat(search("фунт"), is(new int[0]));
+        assertThat(search("x"), is(new int[0]));
+    }
+
+    /**
+     * Проверка вытеснения давно использованных валют
+     */
+    @Test
+    public void testRecentCurrencies() {
+        // arrange
+        RecentCurrencies recent = new RecentCurrencies(2);
+
+        // act
+        recent.markUsed("USD");
+        recent.markUsed("EUR");
+        recent.markUsed("USD");
+        recent.markUsed("AUD");
+
+        // assert
+        assertThat(recent.getRank("AUD"), is(0));
+        assertThat(recent.getRank("USD"), is(1));
+        assertThat(recent.getRank("EUR"), is(-1));
+    }
+
+    /**
+     * Проверка, что ответ на ввод в среднем быстрее миллисекунды на нескольких тысячах инструментов
+     * (замер запускается только с -Pbenchmark)
+     */
+    @Test
+    public void testSearch_typeaheadLatency() {
+        assumeTrue(Boolean.getBoolean("benchmark"));
+        // arrange
+        String[] words = {"доллар", "фунт", "франк", "крона", "юань", "рупия", "песо", "динар", "риал", "вон",
+                "новый", "австралийский", "канадский", "шведская", "индийская", "золото", "серебро", "индекс"};
+        Random random = new Random(42);
+        List<Currency> currencies = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            String name = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)] + " " + i;
+            currencies.add(currency(String.format(Locale.US, "%c%c%c%d",
+                    'A' + random.nextInt(26), 'A' + random.nextInt(26), 'A' + random.nextInt(26), i), name));
+        }
+        CurrencySearchIndex index = new CurrencySearchIndex(currencies);
+        for (int i = 0; i < 10; i++) {
+            mRecent.markUsed(currencies.get(random.nextInt(currencies.size())).getCharCode());
+        }
+        String[] queries = {"д", "до", "дол", "долл", "доллар", "доллар к", "a", "ab", "abc", "dollar", "ранк", "49"};
+        for (int i = 0; i < 200; i++) {
+            index.search(queries[i % queries.length], mRecent, LIMIT);
+        }
+
+        // act
+        int rounds = 1000;
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            index.search(queries[i % queries.length], mRecent, LIMIT);
+        }
+        long averageNanos = (System.nanoTime() - start) / rounds;
+
+        // assert
+        System.out.println(String.format(Locale.US, "CurrencySearchIndex.search: %.1f us per query", averageNanos / 1e3));
+        assertThat(averageNanos, lessThan(1_000_000L));
+    }
+
+    private int[] search(String query) {
+        return mIndex.search(query, mRecent, LIMIT);
+    }
+
+    private static Currency currency(String charCode, String name) {
+        return new Currency("id_" + charCode, charCode, 1, name, BigDecimal.ONE);
+    }
+}
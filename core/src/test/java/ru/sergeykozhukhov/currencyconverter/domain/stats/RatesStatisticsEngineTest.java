@@ -0,0 +1,139 @@
+package ru.sergeykozhukhov.currencyconverter.domain.stats;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import ru.sergeykozhukhov.currencyconverter.domain.history.EpochDays;
+import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
+import ru.sergeykozhukhov.currencyconverter.domain.model.RatesSnapshot;
+import ru.sergeykozhukhov.currencyconverter.domain.publish.RatesPublisher;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Юнит тесты на {@link RatesStatisticsEngine}
+ **/
+public class RatesStatisticsEngineTest {
+
+    private static final double DELTA = 1e-9;
+
+    private static final int DAY = EpochDays.of(2020, 1, 4);
+
+    private RatesStatisticsEngine mEngine;
+
+    @Before
+    public void setUp() {
+        mEngine = new RatesStatisticsEngine(30);
+        mEngine.track("USD", "EUR");
+        mEngine.track("USD", "RUB");
+    }
+
+    /**
+     * Проверка расчёта кросс-курса с учётом номиналов и изменения за день
+     */
+    @Test
+    public void testOnSnapshot() {
+        // act
+        mEngine.onSnapshot(DAY, snapshot("60", "70"));
+        mEngine.onSnapshot(DAY + 1, snapshot("66", "70"));
+
+        // assert
+        PairStatisticsSnapshot usdEur = mEngine.getStatistics("USD", "EUR");
+        assertThat(usdEur.getCount(), is(2));
+        assertThat(usdEur.getRate(), closeTo(66.0 / 7, DELTA)); // номинал EUR - 10
+        assertThat(usdEur.getDailyChangePercent(), closeTo(10, DELTA));
+        assertThat(usdEur.getMovingAverage(), closeTo(63.0 / 7, DELTA));
+        assertThat(usdEur.getMin(), closeTo(60.0 / 7, DELTA));
+        assertThat(usdEur.getMax(), closeTo(66.0 / 7, DELTA));
+
+        PairStatisticsSnapshot usdRub = mEngine.getStatistics("USD", "RUB"); // рубля нет в списке
+        assertThat(usdRub.getRate(), closeTo(66, DELTA));
+    }
+
+    /**
+     * Проверка, что полученная статистика не меняется при поступлении следующих курсов
+     */
+    @Test
+    public void testGetStatistics_immutable() {
+        // arrange
+        mEngine.onSnapshot(DAY, snapshot("60", "70"));
+        PairStatisticsSnapshot usdEur = mEngine.getStatistics("USD", "EUR");
+
+        // act
+        mEngine.onSnapshot(DAY + 1, snapshot("66", "70"));
+
+        // assert
+        assertThat(usdEur.getCount(), is(1));
+        assertThat(usdEur.getRate(), closeTo(60.0 / 7, DELTA));
+        assertThat(mEngine.getStatistics("USD", "EUR").getCount(), is(2));
+    }
+
+    /**
+     * Проверка, что неотслеживаемая пара не имеет статистики
+     */
+    @Test
+    public void testUntrackedPair() {
+        // act
+        mEngine.onSnapshot(DAY, snapshot("60", "70"));
+
+        // assert
+        assertThat(mEngine.getStatistics("EUR", "USD"), is(nullValue()));
+    }
+
+    /**
+     * Проверка, что повторные и опоздавшие списки за уже учтённый день не искажают статистику
+     */
+    @Test
+    public void testOnSnapshot_repeatedDay() {
+        // arrange
+        mEngine.onSnapshot(DAY, snapshot("60", "70"));
+        mEngine.onSnapshot(DAY + 1, snapshot("66", "70"));
+
+        // act
+        boolean repeated = mEngine.onSnapshot(DAY + 1, snapshot("66", "70"));
+        boolean late = mEngine.onSnapshot(DAY, snapshot("60", "70"));
+
+        // assert
+        assertThat(repeated, is(false));
+        assertThat(late, is(false));
+        PairStatisticsSnapshot usdEur = mEngine.getStatistics("USD", "EUR");
+        assertThat(usdEur.getCount(), is(2));
+        assertThat(usdEur.getDailyChangePercent(), closeTo(10, DELTA));
+    }
+
+    /**
+     * Проверка подписчика: снимки одного московского дня учитываются один раз
+     */
+    @Test
+    public void testSubscriber() {
+        // arrange
+        RatesPublisher.Subscriber subscriber = mEngine.subscriber();
+        long morning = TimeUnit.DAYS.toMillis(DAY) + TimeUnit.HOURS.toMillis(6); // 09:00 по Москве
+        long evening = morning + TimeUnit.HOURS.toMillis(12);
+
+        // act
+        subscriber.onRates(new RatesSnapshot(1, morning, snapshot("60", "70")));
+        subscriber.onRates(new RatesSnapshot(2, evening, snapshot("66", "70"))); // 21:00 того же дня
+        subscriber.onRates(new RatesSnapshot(3, evening + TimeUnit.HOURS.toMillis(3), snapshot("66", "70")));
+
+        // assert
+        PairStatisticsSnapshot usdEur = mEngine.getStatistics("USD", "EUR");
+        assertThat(usdEur.getCount(), is(2));
+        assertThat(usdEur.getRate(), closeTo(66.0 / 7, DELTA));
+    }
+
+    private static List<Currency> snapshot(String usd, String eur) {
+        return Arrays.asList(
+                new Currency("R01235", "USD", 1, "Доллар США", new BigDecimal(usd)),
+                new Currency("R01239", "EUR", 10, "Евро", new BigDecimal(eur))
+        );
+    }
+}
@@ -0,0 +1,101 @@
+package ru.sergeykozhukhov.currencyconverter.domain.stats;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Юнит тесты на {@link RollingWindow}
+ **/
+public class RollingWindowTest {
+
+    private static final double DELTA = 1e-9;
+
+    /**
+     * Проверка статистики до заполнения окна
+     */
+    @Test
+    public void testPartialWindow() {
+        // arrange
+        RollingWindow window = new RollingWindow(5);
+
+        // act
+        window.add(2);
+        window.add(4);
+        window.add(9);
+
+        // assert
+        assertThat(window.getCount(), is(3));
+        assertThat(window.getMean(), closeTo(5, DELTA));
+        assertThat(window.getVariance(), closeTo(13, DELTA)); // ((-3)^2 + (-1)^2 + 4^2) / 2
+        assertThat(window.getMin(), closeTo(2, DELTA));
+        assertThat(window.getMax(), closeTo(9, DELTA));
+    }
+
+    /**
+     * Проверка, что вышедшие из окна значения не влияют на статистику
+     */
+    @Test
+    public void testSlidingWindow() {
+        // arrange
+        RollingWindow window = new RollingWindow(3);
+
+        // act
+        window.add(100); // вытесняется
+        window.add(1);
+        window.add(3);
+        window.add(2);
+
+        // assert
+        assertThat(window.getCount(), is(3));
+        assertThat(window.getMean(), closeTo(2, DELTA));
+        assertThat(window.getVariance(), closeTo(1, DELTA));
+        assertThat(window.getMin(), closeTo(1, DELTA));
+        assertThat(window.getMax(), closeTo(3, DELTA));
+    }
+
+    /**
+     * Сравнение с пересчётом "в лоб" на случайной последовательности
+     */
+    @Test
+    public void testMatchesNaiveComputation() {
+        // arrange
+        int capacity = 7;
+        RollingWindow window = new RollingWindow(capacity);
+        Random random = new Random(42);
+        double[] values = new double[200];
+
+        for (int i = 0; i < values.length; i++) {
+            // act
+            values[i] = 50 + random.nextGaussian() * 10;
+            window.add(values[i]);
+
+            // assert
+            int from = Math.max(0, i - capacity + 1);
+            int count = i - from + 1;
+            double sum = 0;
+            double min = Double.MAX_VALUE;
+            double max = -Double.MAX_VALUE;
+            for (int j = from; j <= i; j++) {
+                sum += values[j];
+                min = Math.min(min, values[j]);
+                max = Math.max(max, values[j]);
+            }
+            double mean = sum / count;
+            assertThat(window.getMean(), closeTo(mean, 1e-6));
+            assertThat(window.getMin(), is(min));
+            assertThat(window.getMax(), is(max));
+            if (count > 1) {
+                double squares = 0;
+                for (int j = from; j <= i; j++) {
+                    squares += (values[j] - mean) * (values[j] - mean);
+                }
+                assertThat(window.getVariance(), closeTo(squares / (count - 1), 1e-6));
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package ru.sergeykozhukhov.currencyconverter.domain.stream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Юнит тесты на {@link CrossRateMatrix}
+ **/
+public class CrossRateMatrixTest {
+
+    private static final double DELTA = 1e-12;
+
+    private CrossRateMatrix mMatrix;
+
+    @Before
+    public void setUp() {
+        mMatrix = new CrossRateMatrix(Arrays.asList(
+                new Currency("R01235", "USD", 1, "Доллар США", new BigDecimal("60")),
+                new Currency("R01239", "EUR", 1, "Евро", new BigDecimal("66")),
+                new Currency("R01060", "AMD", 100, "Армянских драмов", new BigDecimal("12"))
+        ));
+    }
+
+    /**
+     * Проверка начальных курсов и добавления рубля
+     */
+    @Test
+    public void testInitialRates() {
+        assertThat(mMatrix.size(), is(4));
+        assertThat(mMatrix.getCharCode(3), is("RUB"));
+        assertThat(mMatrix.getRate("USD", "RUB"), closeTo(60, DELTA));
+        assertThat(mMatrix.getRate("EUR", "USD"), closeTo(1.1, DELTA));
+        assertThat(mMatrix.getRate("USD", "AMD"), closeTo(500, DELTA));
+        assertThat(mMatrix.getRate("USD", "USD"), closeTo(1, DELTA));
+        assertThat(Double.isNaN(mMatrix.getRate("USD", "XXX")), is(true));
+    }
+
+    /**
+     * Проверка, что тик меняет строку и столбец валюты и не меняет остальные пары
+     */
+    @Test
+    public void testApply() {
+        // arrange
+        int usd = mMatrix.indexOf("USD");
+        double eurAmd = mMatrix.getRate("EUR", "AMD");
+
+        // act
+        boolean applied = mMatrix.apply(usd, 66);
+
+        // assert
+        assertThat(applied, is(true));
+        assertThat(mMatrix.getRate("USD", "EUR"), closeTo(1, DELTA));
+        assertThat(mMatrix.getRate("AMD", "USD"), closeTo(0.12 / 66, DELTA));
+        assertThat(mMatrix.getRate("USD", "RUB"), closeTo(66, DELTA));
+        assertThat(mMatrix.getRate("RUB", "USD"), closeTo(1 / 66d, DELTA));
+        assertThat(mMatrix.getRate("EUR", "AMD"), is(eurAmd));
+        assertThat(mMatrix.getTicks(), is(1L));
+    }
+
+    /**
+     * Проверка, что некорректные значения не применяются
+     */
+    @Test
+    public void testApply_invalidValue() {
+        int eur = mMatrix.indexOf("EUR");
+
+        assertThat(mMatrix.apply(eur, 0), is(false));
+        assertThat(mMatrix.apply(eur, Double.NaN), is(false));
+        assertThat(mMatrix.apply(eur, Double.POSITIVE_INFINITY), is(false));
+        assertThat(mMatrix.getRate("EUR", "RUB"), closeTo(66, DELTA));
+        assertThat(mMatrix.getTicks(), is(0L));
+    }
+
+    /**
+     * Проверка, что тик рубля не применяется: курсы заданы в рублях
+     */
+    @Test
+    public void testApply_rub() {
+        int rub = mMatrix.indexOf("RUB");
+
+        assertThat(mMatrix.getRubIndex(), is(rub));
+        assertThat(mMatrix.apply(rub, 2), is(false));
+        assertThat(mMatrix.getUnitValue(rub), is(1d));
+        assertThat(mMatrix.getRate("EUR", "RUB"), closeTo(66, DELTA));
+        assertThat(mMatrix.getTicks(), is(0L));
+    }
+}
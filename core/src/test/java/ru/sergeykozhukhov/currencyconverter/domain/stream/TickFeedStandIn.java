@@ -0,0 +1,67 @@
+package ru.sergeykozhukhov.currencyconverter.domain.stream;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+/**
+ * Локальная замена ленты тиков для тестов: принимает одно соединение на loopback,
+ * отдаёт заданные байты заданное количество раз и закрывает соединение
+ **/
+class TickFeedStandIn implements AutoCloseable {
+
+    private final ServerSocket mServerSocket;
+
+    private final Thread mThread;
+
+    private volatile IOException mError;
+
+    TickFeedStandIn(@NonNull final byte[] feed, final int repeat) throws IOException {
+        mServerSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        mThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try (Socket socket = mServerSocket.accept()) {
+                    OutputStream output = socket.getOutputStream();
+                    for (int i = 0; i < repeat; i++) {
+                        output.write(feed);
+                    }
+                    output.flush();
+                } catch (IOException e) {
+                    mError = e;
+                }
+            }
+        }, "tick-feed-stand-in");
+        mThread.start();
+    }
+
+    /**
+     * Подключение к ленте
+     */
+    @NonNull
+    Socket connect() throws IOException {
+        return new Socket(InetAddress.getLoopbackAddress(), mServerSocket.getLocalPort());
+    }
+
+    /**
+     * Останавливает ленту и пробрасывает её ошибку. При прерывании флаг прерывания восстанавливается,
+     * а ошибка ленты не проверяется (поток ленты мог ещё не завершиться)
+     */
+    @Override
+    public void close() throws IOException {
+        mServerSocket.close();
+        try {
+            mThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (mError != null) {
+            throw mError;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package ru.sergeykozhukhov.currencyconverter.domain.stream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Замер пропускной способности {@link TickStream}: 10 млн тиков по 35 валютам через loopback сокет,
+ * параллельно с читателями курсов. Долгий, поэтому запускается только явно: ./gradlew :core:test -Pbenchmark
+ **/
+public class TickStreamBenchmarkTest {
+
+    private static final int CURRENCIES = 35;
+
+    private static final int DISTINCT_TICKS = 100000;
+
+    private static final int REPEAT = 100;
+
+    private static final int READERS = 2;
+
+    @Before
+    public void setUp() {
+        assumeTrue(Boolean.getBoolean("benchmark"));
+    }
+
+    @Test
+    public void benchmarkTenMillionTicks() throws Exception {
+        // arrange
+        Random random = new Random(42);
+        List<Currency> currencies = new ArrayList<>(CURRENCIES);
+        for (int i = 0; i < CURRENCIES; i++) {
+            String charCode = "" + (char) ('A' + i / 26) + (char) ('A' + i % 26) + 'X';
+            currencies.add(new Currency("R" + i, charCode, 1, charCode, BigDecimal.valueOf(10 + i)));
+        }
+        ByteArrayOutputStream feed = new ByteArrayOutputStream(DISTINCT_TICKS * 16);
+        for (int i = 0; i < DISTINCT_TICKS; i++) {
+            String line = currencies.get(random.nextInt(CURRENCIES)).getCharCode() + ","
+                    + (10 + random.nextInt(90)) + "." + (1000 + random.nextInt(9000)) + "\n";
+            feed.write(line.getBytes(StandardCharsets.US_ASCII));
+        }
+        final CrossRateMatrix matrix = new CrossRateMatrix(currencies);
+        TickStream tickStream = new TickStream(matrix);
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicLong reads = new AtomicLong();
+        List<Thread> readers = new ArrayList<>(READERS);
+        for (int r = 0; r < READERS; r++) {
+            Thread reader = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    long count = 0;
+                    double sum = 0;
+                    int size = matrix.size();
+                    while (running.get()) {
+                        for (int i = 0; i < 1024; i++) {
+                            sum += matrix.getRate(i % size, (i * 7) % size);
+                        }
+                        count += 1024;
+                    }
+                    reads.addAndGet(sum > 0 ? count : 0);
+                }
+            });
+            reader.start();
+            readers.add(reader);
+        }
+
+        // act
+        long start = System.nanoTime();
+        try (TickFeedStandIn standIn = new TickFeedStandIn(feed.toByteArray(), REPEAT);
+             Socket socket = standIn.connect()) {
+            tickStream.consume(socket.getInputStream());
+        }
+        long elapsed = System.nanoTime() - start;
+        running.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        // assert
+        long ticks = (long) DISTINCT_TICKS * REPEAT;
+        assertThat(tickStream.getApplied(), is(ticks));
+        System.out.println(String.format(Locale.US,
+                "TickStream: %d ticks in %.2f s (%.0f ticks/s, %d currencies), %d concurrent reads (%.0f reads/s)",
+                ticks, elapsed / 1e9, ticks / (elapsed / 1e9), matrix.size(),
+                reads.get(), reads.get() / (elapsed / 1e9)));
+    }
+}
@@ -0,0 +1,102 @@
+package ru.sergeykozhukhov.currencyconverter.domain.stream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Юнит тесты на {@link TickStream}
+ **/
+public class TickStreamTest {
+
+    private static final double DELTA = 1e-12;
+
+    private TickStream mTickStream;
+
+    @Before
+    public void setUp() {
+        mTickStream = new TickStream(new CrossRateMatrix(Arrays.asList(
+                new Currency("R01235", "USD", 1, "Доллар США", new BigDecimal("60")),
+                new Currency("R01060", "AMD", 100, "Армянских драмов", new BigDecimal("12"))
+        )));
+    }
+
+    /**
+     * Проверка применения тиков и пропуска некорректных строк
+     */
+    @Test
+    public void testConsume() throws IOException {
+        // arrange
+        String feed = "USD,61.9057\r\n"
+                + "AMD,12.9624,100\n"
+                + "XXX,1.0\n" // неизвестная валюта
+                + "RUB,2\n" // курсы заданы в рублях, тик рубля отбрасывается
+                + "USD,61,90\n" // запятая в курсе: третье поле - номинал 90
+                + "USD,abc\n"
+                + "\n"
+                + "USD,62.5"; // последняя строка без перевода строки
+
+        // act
+        mTickStream.consume(new ByteArrayInputStream(feed.getBytes(StandardCharsets.US_ASCII)));
+
+        // assert
+        CrossRateMatrix matrix = mTickStream.getMatrix();
+        assertThat(mTickStream.getApplied(), is(4L));
+        assertThat(mTickStream.getRejected(), is(3L));
+        assertThat(matrix.getRate("USD", "RUB"), closeTo(62.5, DELTA));
+        assertThat(matrix.getRate("AMD", "RUB"), closeTo(0.129624, DELTA));
+    }
+
+    /**
+     * Проверка, что слишком длинная строка пропускается целиком, а следующие применяются
+     */
+    @Test
+    public void testConsume_longLine() throws IOException {
+        // arrange
+        byte[] garbage = new byte[200 * 1024];
+        Arrays.fill(garbage, (byte) '7');
+        byte[] tail = "\nUSD,70\n".getBytes(StandardCharsets.US_ASCII);
+        byte[] feed = Arrays.copyOf(garbage, garbage.length + tail.length);
+        System.arraycopy(tail, 0, feed, garbage.length, tail.length);
+
+        // act
+        mTickStream.consume(new ByteArrayInputStream(feed));
+
+        // assert
+        assertThat(mTickStream.getApplied(), is(1L));
+        assertThat(mTickStream.getRejected(), is(1L));
+        assertThat(mTickStream.getMatrix().getRate("USD", "RUB"), closeTo(70, DELTA));
+    }
+
+    /**
+     * Проверка чтения ленты из сокета локальной замены сервера
+     */
+    @Test
+    public void testConsume_socket() throws IOException {
+        // arrange
+        byte[] feed = "USD,61\nUSD,62\nAMD,13,100\n".getBytes(StandardCharsets.US_ASCII);
+
+        // act
+        try (TickFeedStandIn standIn = new TickFeedStandIn(feed, 1000);
+             Socket socket = standIn.connect()) {
+            mTickStream.consume(socket.getInputStream());
+        }
+
+        // assert
+        assertThat(mTickStream.getApplied(), is(3000L));
+        assertThat(mTickStream.getRejected(), is(0L));
+        assertThat(mTickStream.getMatrix().getRate("USD", "AMD"), closeTo(62 / 0.13, 1e-9));
+    }
+}
@@ -0,0 +1,143 @@
+package ru.sergeykozhukhov.currencyconverter.domain.trace;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Юнит тесты на {@link Tracer}, {@link TraceBuffer} и {@link ChromeTraceWriter}
+ **/
+public class TracerTest {
+
+    @After
+    public void tearDown() {
+        Tracer.stop();
+    }
+
+    /**
+     * Проверка, что выключенная трассировка ничего не записывает
+     */
+    @Test
+    public void testBegin_disabled() {
+        // act
+        long span = Tracer.begin();
+        Tracer.end("load", span);
+
+        // assert
+        assertThat(span, is(0L));
+        assertThat(Tracer.isEnabled(), is(false));
+        assertThat(Tracer.stop(), is(nullValue()));
+    }
+
+    /**
+     * Проверка записи интервала включённой трассировкой
+     */
+    @Test
+    public void testEnd_recordsSpan() {
+        // arrange
+        Tracer.start(16);
+
+        // act
+        long span = Tracer.begin();
+        Tracer.end("load", span);
+        long stale = 0; // интервал, начатый при выключенной трассировке
+        Tracer.end("stale", stale);
+
+        // assert
+        List<TraceEvent> events = Tracer.stop().snapshot();
+        assertThat(events.size(), is(1));
+        assertThat(events.get(0).getName(), is("load"));
+        assertThat(events.get(0).getThreadId(), is(Thread.currentThread().getId()));
+        assertThat(events.get(0).getDurationNanos() >= 0, is(true));
+    }
+
+    /**
+     * Проверка, что при переполнении остаются самые новые интервалы
+     */
+    @Test
+    public void testSnapshot_wrapAround() {
+        // arrange
+        TraceBuffer buffer = new TraceBuffer(3); // округляется до 4
+
+        // act
+        for (int i = 0; i < 10; i++) {
+            buffer.record("span" + i, i, i + 1);
+        }
+
+        // assert
+        List<TraceEvent> events = buffer.snapshot();
+        assertThat(buffer.getCapacity(), is(4));
+        assertThat(buffer.getOverwritten(), is(6L));
+        assertThat(events.size(), is(4));
+        assertThat(events.get(0).getName(), is("span6"));
+        assertThat(events.get(3).getName(), is("span9"));
+        assertThat(events.get(3).getStartNanos(), is(9L));
+    }
+
+    /**
+     * Проверка, что интервалы из нескольких потоков не теряются
+     */
+    @Test
+    public void testRecord_concurrentWriters() throws Exception {
+        // arrange
+        final TraceBuffer buffer = new TraceBuffer(4 * 1000);
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] writers = new Thread[4];
+        for (int i = 0; i < writers.length; i++) {
+            writers[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int j = 0; j < 1000; j++) {
+                        buffer.record("span", j, j + 1);
+                    }
+                }
+            });
+            writers[i].start();
+        }
+
+        // act
+        start.countDown();
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        // assert
+        assertThat(buffer.getRecorded(), is(4000L));
+        assertThat(buffer.snapshot().size(), is(4000));
+    }
+
+    /**
+     * Проверка формата Chrome Trace Event
+     */
+    @Test
+    public void testWrite_chromeTraceFormat() throws Exception {
+        // arrange
+        List<TraceEvent> events = Arrays.asList(
+                new TraceEvent("http \"daily\"", 7, "main", 1_500_000, 2_000_500),
+                new TraceEvent("parse", 9, "pipeline", 2_000_000, 999));
+        StringWriter writer = new StringWriter();
+
+        // act
+        new ChromeTraceWriter().write(events, 1_000_000, writer);
+
+        // assert
+        assertThat(writer.toString(), is("{\"displayTimeUnit\":\"ms\",\"traceEvents\":["
+                + "{\"name\":\"http \\\"daily\\\"\",\"cat\":\"app\",\"ph\":\"X\",\"ts\":500.000,\"dur\":2000.500,\"pid\":1,\"tid\":7},"
+                + "{\"name\":\"parse\",\"cat\":\"app\",\"ph\":\"X\",\"ts\":1000.000,\"dur\":0.999,\"pid\":1,\"tid\":9},"
+                + "{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":7,\"args\":{\"name\":\"main\"}},"
+                + "{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":9,\"args\":{\"name\":\"pipeline\"}}]}"));
+    }
+}
@@ -0,0 +1,324 @@
+package ru.sergeykozhukhov.currencyconverter.server;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import ru.sergeykozhukhov.currencyconverter.data.CatalogCurrenciesRepository;
+import ru.sergeykozhukhov.currencyconverter.data.CurrenciesRepository;
+import ru.sergeykozhukhov.currencyconverter.data.CurrencyConverter;
+import ru.sergeykozhukhov.currencyconverter.domain.ConversionInteractor;
+import ru.sergeykozhukhov.currencyconverter.domain.CrossRates;
+import ru.sergeykozhukhov.currencyconverter.domain.IConversionFormatter;
+import ru.sergeykozhukhov.currencyconverter.domain.ICurrenciesRepository;
+import ru.sergeykozhukhov.currencyconverter.domain.RatesSnapshotHolder;
+import ru.sergeykozhukhov.currencyconverter.domain.amount.AmountParser;
+import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
+import ru.sergeykozhukhov.currencyconverter.domain.model.RatesSnapshot;
+import ru.sergeykozhukhov.currencyconverter.domain.model.RatesTable;
+
+/**
+ * HTTP сервис конвертации валют с теми же правилами расчёта и округления, что и в приложении.
+ * Курсы загружаются через репозиторий, публикуются целиком через {@link RatesSnapshotHolder}
+ * (как и в приложении) и читаются обработчиками запросов без блокировок.
+ * <p>
+ * GET /rate?from=USD&amp;to=EUR - курс пары;
+ * GET /convert?from=USD&amp;to=EUR&amp;amount=100 - конвертация суммы
+ **/
+public class ConversionServer {
+
+    private static final Logger LOGGER = Logger.getLogger(ConversionServer.class.getName());
+
+    private static final int DEFAULT_PORT = 8080;
+
+    private static final long DEFAULT_REFRESH_MINUTES = 60;
+
+    /**
+     * Максимальное количество одновременно ожидающих соединений
+     */
+    private static final int BACKLOG = 1024;
+
+    /**
+     * Сумма в запросе: точка как десятичный разделитель, без разделителей разрядов
+     */
+    private static final AmountParser AMOUNT_PARSER =
+            AmountParser.plain(AmountParser.DEFAULT_MAX_LENGTH, AmountParser.DEFAULT_MAX_SCALE);
+
+    /**
+     * Рубль: в ответе ЦБ его нет, курсы заданы по отношению к нему
+     */
+    private static final Currency RUB = new Currency("rub_id", CrossRates.RUB_CHAR_CODE, 1, "Российский рубль", BigDecimal.ONE);
+
+    private final ICurrenciesRepository mRepository;
+
+    /**
+     * Расчёт курсов и сумм (используются только потокобезопасные методы без форматирования)
+     */
+    private final ConversionInteractor mConversionInteractor = new ConversionInteractor(new PlainConversionFormatter());
+
+    /**
+     * Опубликованные курсы, снимок {@code null} до первой загрузки
+     */
+    private final RatesSnapshotHolder mRates = new RatesSnapshotHolder();
+
+    private final HttpServer mHttpServer;
+
+    /**
+     * Потоки обработки запросов
+     */
+    private final ExecutorService mRequestExecutor;
+
+    /**
+     * Поток периодического обновления курсов
+     */
+    private final ScheduledExecutorService mRefreshExecutor = Executors.newSingleThreadScheduledExecutor();
+
+    public ConversionServer(@NonNull ICurrenciesRepository repository, @NonNull InetSocketAddress address) throws IOException {
+        mRepository = repository;
+        mRequestExecutor = newRequestExecutor();
+        mHttpServer = HttpServer.create(address, BACKLOG);
+        mHttpServer.setExecutor(mRequestExecutor);
+        mHttpServer.createContext("/rate", new RateHandler());
+        mHttpServer.createContext("/convert", new ConvertHandler());
+    }
+
+    /**
+     * Загружает курсы и запускает сервис
+     *
+     * @param refreshPeriodMinutes период обновления курсов
+     * @throws IOException если не удалось загрузить курсы при запуске
+     */
+    public void start(long refreshPeriodMinutes) throws IOException {
+        refresh();
+        mRefreshExecutor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    refresh();
+                } catch (IOException e) {
+                    // продолжаем отвечать по последним опубликованным курсам
+                    LOGGER.log(Level.WARNING, "Не удалось обновить курсы", e);
+                }
+            }
+        }, refreshPeriodMinutes, refreshPeriodMinutes, TimeUnit.MINUTES);
+        mHttpServer.start();
+    }
+
+    /**
+     * Загружает и публикует новые курсы
+     */
+    public void refresh() throws IOException {
+        mRates.publish(RatesTable.fromCurrencies(mRepository.loadCurrencies()).withFirst(RUB));
+    }
+
+    /**
+     * Останавливает сервис
+     */
+    public void stop() {
+        mHttpServer.stop(0);
+        mRefreshExecutor.shutdownNow();
+        mRequestExecutor.shutdownNow();
+    }
+
+    /**
+     * Порт, на котором принимаются запросы
+     */
+    public int getPort() {
+        return mHttpServer.getAddress().getPort();
+    }
+
+    /**
+     * Запуск: ConversionServer [порт] [базовый адрес ЦБ]
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        String baseUrl = args.length > 1 ? args[1] : CurrenciesRepository.BASE_URL;
+        ConversionServer server = new ConversionServer(
+                new CatalogCurrenciesRepository(new CurrencyConverter(), baseUrl),
+                new InetSocketAddress(port));
+        server.start(DEFAULT_REFRESH_MINUTES);
+        LOGGER.info("Сервис конвертации запущен на порту " + server.getPort());
+    }
+
+    /**
+     * Виртуальные потоки (Java 21+), если доступны, иначе пул потоков по числу ядер
+     */
+    @NonNull
+    private static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 4);
+        }
+    }
+
+    /**
+     * Базовый обработчик: разбор параметров и ответ в JSON
+     */
+    private abstract class JsonHandler implements HttpHandler {
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            try {
+                if (!"GET".equals(exchange.getRequestMethod())) {
+                    respond(exchange, 405, error("Поддерживается только GET"));
+                    return;
+                }
+                RatesSnapshot rates = mRates.getSnapshot();
+                if (rates == null) {
+                    respond(exchange, 503, error("Курсы ещё не загружены"));
+                    return;
+                }
+                Map<String, String> query;
+                try {
+                    query = parseQuery(exchange.getRequestURI().getRawQuery());
+                } catch (IllegalArgumentException e) {
+                    respond(exchange, 400, error("Некорректные параметры запроса"));
+                    return;
+                }
+                Currency base = find(rates, query.get("from"));
+                Currency quoted = find(rates, query.get("to"));
+                if (base == null || quoted == null) {
+                    respond(exchange, 404, error("Неизвестная валюта"));
+                    return;
+                }
+                handle(exchange, rates, base, quoted, query);
+            } finally {
+                exchange.close();
+            }
+        }
+
+        abstract void handle(@NonNull HttpExchange exchange,
+                             @NonNull RatesSnapshot rates,
+                             @NonNull Currency base,
+                             @NonNull Currency quoted,
+                             @NonNull Map<String, String> query) throws IOException;
+    }
+
+    private class RateHandler extends JsonHandler {
+
+        @Override
+        void handle(@NonNull HttpExchange exchange,
+                    @NonNull RatesSnapshot rates,
+                    @NonNull Currency base,
+                    @NonNull Currency quoted,
+                    @NonNull Map<String, String> query) throws IOException {
+            BigDecimal rate = mConversionInteractor.calculateConversionRate(base, quoted);
+            respond(exchange, 200, "{\"from\":\"" + base.getCharCode()
+                    + "\",\"to\":\"" + quoted.getCharCode()
+                    + "\",\"rate\":\"" + rate.toPlainString()
+                    + "\",\"version\":" + rates.getVersion()
+                    + ",\"loadedAt\":" + rates.getTimestamp() + "}");
+        }
+    }
+
+    private class ConvertHandler extends JsonHandler {
+
+        @Override
+        void handle(@NonNull HttpExchange exchange,
+                    @NonNull RatesSnapshot rates,
+                    @NonNull Currency base,
+                    @NonNull Currency quoted,
+                    @NonNull Map<String, String> query) throws IOException {
+            BigDecimal amount = AMOUNT_PARSER.parse(valueOrEmpty(query.get("amount"))).toBigDecimal();
+            if (amount == null) {
+                respond(exchange, 400, error("Некорректная сумма"));
+                return;
+            }
+            BigDecimal result = mConversionInteractor.calculateConversion(base, quoted, amount);
+            respond(exchange, 200, "{\"from\":\"" + base.getCharCode()
+                    + "\",\"to\":\"" + quoted.getCharCode()
+                    + "\",\"amount\":\"" + amount.toPlainString()
+                    + "\",\"result\":\"" + result.toPlainString()
+                    + "\",\"version\":" + rates.getVersion() + "}");
+        }
+    }
+
+    private static void respond(@NonNull HttpExchange exchange, int status, @NonNull String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        OutputStream output = exchange.getResponseBody();
+        output.write(body);
+        output.close();
+    }
+
+    @NonNull
+    private static String error(@NonNull String message) {
+        return "{\"error\":\"" + message + "\"}";
+    }
+
+    @NonNull
+    private static String valueOrEmpty(@Nullable String value) {
+        return value == null ? "" : value;
+    }
+
+    /**
+     * Валюта снимка по коду
+     *
+     * @return {@code null}, если код не передан или валюты нет
+     */
+    @Nullable
+    private static Currency find(@NonNull RatesSnapshot rates, @Nullable String charCode) {
+        int index = charCode == null ? -1 : rates.getTable().indexOfCharCode(charCode);
+        return index < 0 ? null : rates.getTable().get(index);
+    }
+
+    /**
+     * Разбирает параметры запроса
+     *
+     * @throws IllegalArgumentException если в параметре некорректная %-последовательность
+     */
+    @NonNull
+    private static Map<String, String> parseQuery(@Nullable String rawQuery) throws UnsupportedEncodingException {
+        Map<String, String> result = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return result;
+        }
+        for (String parameter : rawQuery.split("&")) {
+            int separator = parameter.indexOf('=');
+            if (separator > 0) {
+                result.put(URLDecoder.decode(parameter.substring(0, separator), "UTF-8"),
+                        URLDecoder.decode(parameter.substring(separator + 1), "UTF-8"));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Форматирование без локализации (сервис отдаёт числа, а не строки для пользователя)
+     */
+    private static class PlainConversionFormatter implements IConversionFormatter {
+
+        @NonNull
+        @Override
+        public String formatConversionRate(@NonNull String rate, @NonNull String baseCharCode, @NonNull String quotedCharCode) {
+            return rate + " " + baseCharCode + "/" + quotedCharCode;
+        }
+
+        @NonNull
+        @Override
+        public String formatConversionResult(@NonNull String amount, @NonNull String charCode) {
+            return amount + " " + charCode;
+        }
+    }
+}
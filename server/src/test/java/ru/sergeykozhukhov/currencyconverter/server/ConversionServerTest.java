@@ -0,0 +1,136 @@
+package ru.sergeykozhukhov.currencyconverter.server;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import ru.sergeykozhukhov.currencyconverter.domain.ICurrenciesRepository;
+import ru.sergeykozhukhov.currencyconverter.domain.model.Currency;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Юнит тесты на {@link ConversionServer}: ответы обработчиков по настоящему HTTP на локальном порту
+ **/
+public class ConversionServerTest {
+
+    private ConversionServer mServer;
+
+    private String mBaseUrl;
+
+    @Before
+    public void setUp() throws IOException {
+        mServer = new ConversionServer(new ICurrenciesRepository() {
+            @Override
+            public List<Currency> loadCurrencies() {
+                return Arrays.asList(
+                        new Currency("R01235", "USD", 1, "Доллар США", new BigDecimal("61.9057")),
+                        new Currency("R01239", "EUR", 1, "Евро", new BigDecimal("69.3524")));
+            }
+        }, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        mServer.start(60);
+        mBaseUrl = "http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + mServer.getPort();
+    }
+
+    @After
+    public void tearDown() {
+        mServer.stop();
+    }
+
+    @Test
+    public void testRate_happyCase() throws IOException {
+        // act
+        Response response = get("/rate?from=USD&to=RUB");
+
+        // assert
+        assertThat(response.mStatus, is(200));
+        assertThat(response.mBody, containsString("\"rate\":\"61.9057"));
+        assertThat(response.mBody, containsString("\"version\":1"));
+    }
+
+    @Test
+    public void testConvert_happyCase() throws IOException {
+        // act
+        Response response = get("/convert?from=RUB&to=USD&amount=619.057");
+
+        // assert
+        assertThat(response.mStatus, is(200));
+        assertThat(response.mBody, containsString("\"amount\":\"619.057\""));
+        assertThat(response.mBody, containsString("\"to\":\"USD\""));
+    }
+
+    @Test
+    public void testConvert_invalidAmount() throws IOException {
+        // act
+        Response response = get("/convert?from=RUB&to=USD&amount=1,5");
+
+        // assert
+        assertThat(response.mStatus, is(400));
+    }
+
+    @Test
+    public void testRate_malformedEscape() throws IOException {
+        // act
+        Response response = get("/rate?from=%E0%A4%A&to=USD"); // обрезанная %-последовательность
+
+        // assert
+        assertThat(response.mStatus, is(400));
+    }
+
+    @Test
+    public void testRate_unknownCurrency() throws IOException {
+        // act
+        Response unknown = get("/rate?from=XXX&to=USD");
+        Response missing = get("/rate?to=USD");
+
+        // assert
+        assertThat(unknown.mStatus, is(404));
+        assertThat(missing.mStatus, is(404));
+    }
+
+    private Response get(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(mBaseUrl + path).openConnection();
+        try {
+            int status = connection.getResponseCode();
+            InputStream input = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            if (input != null) {
+                byte[] buffer = new byte[1024];
+                int read;
+                while ((read = input.read(buffer)) != -1) {
+                    body.write(buffer, 0, read);
+                }
+                input.close();
+            }
+            return new Response(status, new String(body.toByteArray(), StandardCharsets.UTF_8));
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static class Response {
+
+        private final int mStatus;
+
+        private final String mBody;
+
+        Response(int status, String body) {
+            mStatus = status;
+            mBody = body;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package ru.sergeykozhukhov.currencyconverter.server.loadtest;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import ru.sergeykozhukhov.currencyconverter.data.CatalogCurrenciesRepository;
+import ru.sergeykozhukhov.currencyconverter.data.CurrencyConverter;
+import ru.sergeykozhukhov.currencyconverter.server.ConversionServer;
+import ru.sergeykozhukhov.currencyconverter.standin.CbrStandInServer;
+
+/**
+ * Нагрузочный тест сервиса конвертации: поднимает стенд ЦБ и сервис на локальных портах,
+ * затем N клиентов в течение заданного времени отправляют случайные запросы /rate и /convert.
+ * По окончании печатает пропускную способность и перцентили задержки.
+ * <p>
+ * Запуск: LoadTestHarness [клиентов] [секунд]
+ **/
+public class LoadTestHarness {
+
+    private static final String[] CHAR_CODES = {"RUB", "USD", "EUR", "GBP", "CNY", "JPY", "CHF", "KZT", "BYN", "UAH"};
+
+    /**
+     * Прогрев перед замером (мс)
+     */
+    private static final long WARM_UP_MILLIS = 2000;
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        CbrStandInServer standIn = new CbrStandInServer();
+        ConversionServer server = new ConversionServer(
+                new CatalogCurrenciesRepository(new CurrencyConverter(), standIn.getBaseUrl()),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.start(1);
+        try {
+            String baseUrl = "http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getPort();
+            run(baseUrl, clients, WARM_UP_MILLIS);
+            Result result = run(baseUrl, clients, seconds * 1000L);
+            System.out.println(result.format(clients, seconds));
+        } finally {
+            server.stop();
+            standIn.close();
+        }
+    }
+
+    /**
+     * Запускает клиентов и собирает задержки всех успешных запросов
+     */
+    @NonNull
+    private static Result run(@NonNull final String baseUrl, int clients, long durationMillis) throws InterruptedException {
+        final long deadline = System.nanoTime() + durationMillis * 1000000L;
+        final CountDownLatch done = new CountDownLatch(clients);
+        final AtomicLong errors = new AtomicLong();
+        final List<long[]> latencies = new ArrayList<>(clients);
+        final int[] counts = new int[clients];
+        for (int i = 0; i < clients; i++) {
+            latencies.add(new long[1024]);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < clients; i++) {
+            final int client = i;
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Random random = new Random(client);
+                    try {
+                        while (System.nanoTime() < deadline) {
+                            String url = randomRequest(baseUrl, random);
+                            long requestStart = System.nanoTime();
+                            if (request(url)) {
+                                long[] clientLatencies = latencies.get(client);
+                                if (counts[client] == clientLatencies.length) {
+                                    clientLatencies = Arrays.copyOf(clientLatencies, clientLatencies.length * 2);
+                                    latencies.set(client, clientLatencies);
+                                }
+                                clientLatencies[counts[client]++] = System.nanoTime() - requestStart;
+                            } else {
+                                errors.incrementAndGet();
+                            }
+                        }
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }, "load-client-" + i);
+            thread.start();
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        long[] all = new long[total];
+        int offset = 0;
+        for (int i = 0; i < clients; i++) {
+            System.arraycopy(latencies.get(i), 0, all, offset, counts[i]);
+            offset += counts[i];
+        }
+        Arrays.sort(all);
+        return new Result(all, errors.get(), elapsed);
+    }
+
+    @NonNull
+    private static String randomRequest(@NonNull String baseUrl, @NonNull Random random) {
+        String from = CHAR_CODES[random.nextInt(CHAR_CODES.length)];
+        String to = CHAR_CODES[random.nextInt(CHAR_CODES.length)];
+        if (random.nextBoolean()) {
+            return baseUrl + "/rate?from=" + from + "&to=" + to;
+        }
+        return baseUrl + "/convert?from=" + from + "&to=" + to + "&amount=" + (1 + random.nextInt(100000)) + ".50";
+    }
+
+    /**
+     * Выполняет запрос и дочитывает ответ, чтобы соединение вернулось в keep-alive пул
+     *
+     * @return {@code true}, если сервис ответил 200
+     */
+    private static boolean request(@NonNull String url) {
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) new URL(url).openConnection();
+            int status = connection.getResponseCode();
+            InputStream input = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+            if (input != null) {
+                byte[] buffer = new byte[512];
+                while (input.read(buffer) != -1) {
+                    // дочитываем ответ
+                }
+                input.close();
+            }
+            return status == 200;
+        } catch (IOException e) {
+            if (connection != null) {
+                connection.disconnect();
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Итоги замера
+     */
+    private static class Result {
+
+        /**
+         * Отсортированные задержки успешных запросов (нс)
+         */
+        private final long[] mLatencies;
+
+        private final long mErrors;
+
+        private final long mElapsedNanos;
+
+        Result(@NonNull long[] latencies, long errors, long elapsedNanos) {
+            mLatencies = latencies;
+            mErrors = errors;
+            mElapsedNanos = elapsedNanos;
+        }
+
+        private double percentileMillis(double percentile) {
+            if (mLatencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * mLatencies.length) - 1;
+            return mLatencies[Math.max(0, index)] / 1e6;
+        }
+
+        @NonNull
+        String format(int clients, int seconds) {
+            double throughput = mLatencies.length / (mElapsedNanos / 1e9);
+            return String.format(Locale.US,
+                    "clients=%d duration=%ds requests=%d errors=%d throughput=%.1f req/s p50=%.3f ms p99=%.3f ms max=%.3f ms",
+                    clients, seconds, mLatencies.length, mErrors, throughput,
+                    percentileMillis(0.50), percentileMillis(0.99), percentileMillis(1.0));
+        }
+    }
+}
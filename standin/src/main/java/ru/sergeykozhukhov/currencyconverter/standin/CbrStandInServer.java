@@ -0,0 +1,339 @@
+package ru.sergeykozhukhov.currencyconverter.standin;
+
+import androidx.annotation.NonNull;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Локальный стенд ЦБ для сквозных тестов загрузки через настоящие Retrofit и OkHttp
+ * и для нагрузочного теста сервиса конвертации.
+ * Отдаёт записанные ответы XML_daily.asp, XML_dynamic.asp и XML_valFull.asp по путям cbr.ru
+ * и умеет изображать плохую сеть: задержку ответа, ограничение скорости, обрыв тела,
+ * серию ответов 5xx и условные запросы с ETag/304, а также сжимать ответы gzip.
+ * <p>
+ * Настройки можно менять между запросами из потока теста
+ **/
+public class CbrStandInServer implements AutoCloseable {
+
+    public static final String DAILY_PATH = "/scripts/XML_daily.asp";
+
+    public static final String DYNAMIC_PATH = "/scripts/XML_dynamic.asp";
+
+    public static final String VAL_FULL_PATH = "/scripts/XML_valFull.asp";
+
+    /**
+     * Интервал, с которым отправляются порции тела при ограниченной скорости
+     */
+    private static final long THROTTLE_INTERVAL_MILLIS = 50;
+
+    private final HttpServer mHttpServer;
+
+    private final ExecutorService mExecutor;
+
+    /**
+     * Тела ответов по путям
+     */
+    private final Map<String, byte[]> mResponses = new ConcurrentHashMap<>();
+
+    /**
+     * Количество запросов по путям
+     */
+    private final Map<String, AtomicInteger> mRequestCounts = new ConcurrentHashMap<>();
+
+    private final AtomicInteger mNotModifiedCount = new AtomicInteger();
+
+    /**
+     * Сколько следующих запросов завершится ошибкой {@link #mFailureStatus}
+     */
+    private final AtomicInteger mFailuresLeft = new AtomicInteger();
+
+    private volatile int mFailureStatus;
+
+    private volatile long mLatencyMillis;
+
+    /**
+     * Скорость отдачи тела (байт/с), 0 - без ограничения
+     */
+    private volatile int mBytesPerSecond;
+
+    /**
+     * После скольких байт тела обрывается соединение, -1 - тело отдаётся полностью
+     */
+    private volatile int mTruncateAfter = -1;
+
+    private volatile boolean mETagEnabled;
+
+    private volatile boolean mGzipEnabled;
+
+    /**
+     * Создаёт и запускает стенд на свободном порту loopback
+     */
+    public CbrStandInServer() throws IOException {
+        mHttpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        // каждый запрос в своём потоке, чтобы задержка одного ответа не задерживала остальные
+        mExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+            @Override
+            public Thread newThread(@NonNull Runnable runnable) {
+                Thread thread = new Thread(runnable, "cbr-stand-in");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        mHttpServer.setExecutor(mExecutor);
+        serve(DAILY_PATH, readResource("/cbr/XML_daily.xml"));
+        serve(DYNAMIC_PATH, readResource("/cbr/XML_dynamic.xml"));
+        serve(VAL_FULL_PATH, readResource("/cbr/XML_valFull.xml"));
+        mHttpServer.start();
+    }
+
+    /**
+     * Базовый адрес для репозиториев (со слешем в конце, как требует Retrofit)
+     */
+    @NonNull
+    public String getBaseUrl() {
+        InetSocketAddress address = mHttpServer.getAddress();
+        return "http://" + address.getHostString() + ":" + address.getPort() + "/";
+    }
+
+    /**
+     * Заменяет записанный ответ (например, синтетическим документом)
+     */
+    public void setResponse(@NonNull String path, @NonNull byte[] body) {
+        mResponses.put(path, body);
+    }
+
+    /**
+     * Задержка перед отправкой заголовков ответа
+     */
+    public void setLatencyMillis(long latencyMillis) {
+        mLatencyMillis = latencyMillis;
+    }
+
+    /**
+     * Ограничение скорости отдачи тела
+     *
+     * @param bytesPerSecond байт в секунду, 0 - без ограничения
+     */
+    public void setBytesPerSecond(int bytesPerSecond) {
+        mBytesPerSecond = bytesPerSecond;
+    }
+
+    /**
+     * Обрыв соединения посреди тела: заголовки обещают полную длину, но отдаётся только начало
+     *
+     * @param bytes сколько байт тела отдать, -1 - отдавать полностью
+     */
+    public void setTruncateAfter(int bytes) {
+        mTruncateAfter = bytes;
+    }
+
+    /**
+     * Серия ошибок сервера: следующие {@code requests} запросов получат {@code status}
+     */
+    public void failNext(int requests, int status) {
+        mFailureStatus = status;
+        mFailuresLeft.set(requests);
+    }
+
+    /**
+     * Отдавать ETag и отвечать 304 на If-None-Match с тем же значением
+     */
+    public void setETagEnabled(boolean enabled) {
+        mETagEnabled = enabled;
+    }
+
+    /**
+     * Сжимать тело gzip, если клиент его принимает (Accept-Encoding)
+     */
+    public void setGzipEnabled(boolean enabled) {
+        mGzipEnabled = enabled;
+    }
+
+    /**
+     * Длина несжатого тела ответа пути
+     */
+    public int getResponseLength(@NonNull String path) {
+        return mResponses.get(path).length;
+    }
+
+    /**
+     * Количество запросов к пути (включая ошибочные и 304)
+     */
+    public int getRequestCount(@NonNull String path) {
+        AtomicInteger count = mRequestCounts.get(path);
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * Количество ответов 304
+     */
+    public int getNotModifiedCount() {
+        return mNotModifiedCount.get();
+    }
+
+    /**
+     * ETag ответа пути
+     */
+    @NonNull
+    public String getETag(@NonNull String path) {
+        return eTag(mResponses.get(path));
+    }
+
+    @Override
+    public void close() {
+        mHttpServer.stop(0);
+        mExecutor.shutdownNow();
+    }
+
+    private void serve(@NonNull final String path, @NonNull byte[] body) {
+        mResponses.put(path, body);
+        mRequestCounts.put(path, new AtomicInteger());
+        mHttpServer.createContext(path, new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                mRequestCounts.get(path).incrementAndGet();
+                boolean complete = false;
+                try {
+                    complete = respond(exchange, mResponses.get(path));
+                } catch (InterruptedException e) {
+                    // стенд останавливается
+                } catch (IOException e) {
+                    // клиент закрыл соединение
+                }
+                if (!complete) {
+                    // исключение из обработчика заставляет HttpServer закрыть соединение,
+                    // и клиент получает неожиданный конец тела
+                    throw new IOException("Соединение оборвано стендом");
+                }
+                exchange.close();
+            }
+        });
+    }
+
+    /**
+     * Отправляет ответ
+     *
+     * @return {@code false}, если тело оборвано и соединение нужно закрыть
+     */
+    private boolean respond(@NonNull HttpExchange exchange, @NonNull byte[] body)
+            throws IOException, InterruptedException {
+        long latency = mLatencyMillis;
+        if (latency > 0) {
+            Thread.sleep(latency);
+        }
+        if (takeFailure()) {
+            byte[] error = "Service Unavailable".getBytes(StandardCharsets.US_ASCII);
+            exchange.sendResponseHeaders(mFailureStatus, error.length);
+            exchange.getResponseBody().write(error);
+            return true;
+        }
+        if (mETagEnabled) {
+            String eTag = eTag(body);
+            exchange.getResponseHeaders().set("ETag", eTag);
+            if (eTag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                mNotModifiedCount.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                return true;
+            }
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/xml; charset=windows-1251");
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (mGzipEnabled && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            body = gzip(body);
+        }
+        exchange.sendResponseHeaders(200, body.length);
+        int truncateAfter = mTruncateAfter;
+        int length = truncateAfter >= 0 ? Math.min(truncateAfter, body.length) : body.length;
+        OutputStream output = exchange.getResponseBody();
+        write(output, body, length);
+        output.flush();
+        return length == body.length;
+    }
+
+    /**
+     * Пишет тело, соблюдая ограничение скорости
+     */
+    private void write(@NonNull OutputStream output, @NonNull byte[] body, int length)
+            throws IOException, InterruptedException {
+        int bytesPerSecond = mBytesPerSecond;
+        if (bytesPerSecond <= 0) {
+            output.write(body, 0, length);
+            return;
+        }
+        int portion = (int) Math.max(1, bytesPerSecond * THROTTLE_INTERVAL_MILLIS / 1000);
+        for (int offset = 0; offset < length; offset += portion) {
+            output.write(body, offset, Math.min(portion, length - offset));
+            output.flush();
+            if (offset + portion < length) {
+                Thread.sleep(THROTTLE_INTERVAL_MILLIS);
+            }
+        }
+    }
+
+    private boolean takeFailure() {
+        while (true) {
+            int left = mFailuresLeft.get();
+            if (left <= 0) {
+                return false;
+            }
+            if (mFailuresLeft.compareAndSet(left, left - 1)) {
+                return true;
+            }
+        }
+    }
+
+    @NonNull
+    private static String eTag(@NonNull byte[] body) {
+        return "\"" + Integer.toHexString(Arrays.hashCode(body)) + "-" + body.length + "\"";
+    }
+
+    @NonNull
+    private static byte[] gzip(@NonNull byte[] body) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(body.length / 4);
+        GZIPOutputStream gzip = new GZIPOutputStream(output);
+        try {
+            gzip.write(body);
+        } finally {
+            gzip.close();
+        }
+        return output.toByteArray();
+    }
+
+    @NonNull
+    private static byte[] readResource(@NonNull String resource) throws IOException {
+        InputStream input = CbrStandInServer.class.getResourceAsStream(resource);
+        if (input == null) {
+            throw new IOException("Не найден ресурс " + resource);
+        }
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+            return output.toByteArray();
+        } finally {
+            input.close();
+        }
+    }
+}